@@ -0,0 +1,105 @@
+package com.example.crud.cache;
+
+import com.example.crud.dto.ProductResponseDto;
+import com.example.crud.repository.ProductRepository;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Caffeine Product Cache
+ * {@link ProductCache} held in this process, the default (product.cache.type=caffeine)
+ *
+ * Demonstrates:
+ * - Stampede protection: concurrent misses for one id share a single load
+ * - Refresh-ahead: after refresh-after-write, the next read triggers a
+ *   background reload and is answered from the old entry meanwhile
+ * - Size-bounded eviction (W-TinyLFU), which keeps hot products
+ * - Hit ratio and load metrics through Micrometer
+ *
+ * Evictions run after commit. A load or refresh that read the old row
+ * before the commit is discarded by the eviction, so a stale product
+ * never outlives the transaction that changed it. Missing ids are not
+ * cached, so a newly created product is found on the first read.
+ */
+@Component
+@ConditionalOnProperty(name = "product.cache.type", havingValue = "caffeine", matchIfMissing = true)
+public class CaffeineProductCache implements ProductCache {
+
+    static final String CACHE_NAME = "products";
+
+    private final LoadingCache<Long, ProductResponseDto> cache;
+    private final ExecutorService refresher;
+
+    @Autowired
+    public CaffeineProductCache(ProductRepository productRepository,
+                                MeterRegistry meterRegistry,
+                                @Value("${product.cache.maximum-size:10000}") long maximumSize,
+                                @Value("${product.cache.expire-after-write:10m}") Duration expireAfterWrite,
+                                @Value("${product.cache.refresh-after-write:1m}") Duration refreshAfterWrite,
+                                @Value("${product.cache.refresh-threads:2}") int refreshThreads) {
+        if (refreshAfterWrite.compareTo(expireAfterWrite) >= 0) {
+            throw new IllegalArgumentException("product.cache.refresh-after-write must be shorter than expire-after-write");
+        }
+        AtomicInteger threadNumber = new AtomicInteger();
+        // Refreshes query the database, so they get their own threads instead of the common pool
+        this.refresher = Executors.newFixedThreadPool(refreshThreads, runnable -> {
+            Thread thread = new Thread(runnable, "product-cache-refresh-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .refreshAfterWrite(refreshAfterWrite)
+                .executor(refresher)
+                .recordStats()
+                // A null result is not cached; on refresh it removes the entry
+                .build(id -> productRepository.findDtoById(id).orElse(null));
+
+        // cache.gets{result=hit|miss}, cache.loads, cache.evictions, ... tagged cache=products
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+        Gauge.builder("product.cache.hit.ratio", cache, c -> c.stats().hitRate())
+                .description("Share of product reads answered from the cache")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Optional<ProductResponseDto> get(Long id) {
+        return Optional.ofNullable(cache.get(id));
+    }
+
+    @Override
+    public void evictAfterCommit(Long id) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            cache.invalidate(id);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                cache.invalidate(id);
+            }
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        refresher.shutdownNow();
+    }
+}
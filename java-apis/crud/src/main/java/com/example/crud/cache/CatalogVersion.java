@@ -0,0 +1,59 @@
+package com.example.crud.cache;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Catalog Version
+ * A token that changes whenever any product changes
+ *
+ * Demonstrates:
+ * - Collection ETags from a change counter instead of hashing response bodies
+ * - One increment per transaction, however many products it writes
+ *
+ * The token is the process start time plus a counter, so tokens handed out
+ * before a restart never match afterwards. The counter moves in
+ * afterCompletion, i.e. after every afterCommit callback of the transaction
+ * has updated the search index and watch lists. A response built after
+ * reading the token is therefore never older than the token.
+ */
+@Component
+public class CatalogVersion {
+
+    private final String epoch = Long.toString(System.currentTimeMillis(), Character.MAX_RADIX);
+    private final AtomicLong changes = new AtomicLong();
+
+    /**
+     * The current version; equal tokens mean no product changed in between
+     */
+    public String current() {
+        return epoch + "-" + changes.get();
+    }
+
+    /**
+     * Move the version once the current transaction commits
+     */
+    public void changedAfterCommit() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            changes.incrementAndGet();
+            return;
+        }
+        // Bound for the rest of the transaction, so only its first change registers
+        if (TransactionSynchronizationManager.hasResource(this)) {
+            return;
+        }
+        TransactionSynchronizationManager.bindResource(this, Boolean.TRUE);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(CatalogVersion.this);
+                if (status == STATUS_COMMITTED) {
+                    changes.incrementAndGet();
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.crud.cache;
+
+import com.example.crud.entity.Product;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * JPA entity listener that moves {@link CatalogVersion} on every Product write
+ */
+public class CatalogVersionListener {
+
+    @Autowired
+    private ObjectProvider<CatalogVersion> catalogVersion;
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onChange(Product product) {
+        CatalogVersion version = catalogVersion.getIfAvailable();
+        if (version != null) {
+            version.changedAfterCommit();
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.crud.cache;
+
+import com.example.crud.dto.ProductResponseDto;
+import com.example.crud.repository.ProductRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+
+/**
+ * {@link ProductCache} that caches nothing, for product.cache.type=none
+ */
+@Component
+@ConditionalOnProperty(name = "product.cache.type", havingValue = "none")
+public class NoOpProductCache implements ProductCache {
+
+    private final ProductRepository productRepository;
+
+    @Autowired
+    public NoOpProductCache(ProductRepository productRepository) {
+        this.productRepository = productRepository;
+    }
+
+    @Override
+    public Optional<ProductResponseDto> get(Long id) {
+        return productRepository.findDtoById(id);
+    }
+
+    @Override
+    public void evictAfterCommit(Long id) {
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.crud.cache;
+
+import com.example.crud.dto.ProductResponseDto;
+
+import java.util.Optional;
+
+/**
+ * Product Cache
+ * Read-through cache of single products, keyed by id
+ *
+ * Demonstrates:
+ * - A cache behind an interface, chosen with product.cache.type
+ * - Read-through: callers never load the product themselves
+ * - Invalidation by id after commit
+ *
+ * The operations are deliberately those of a remote key-value store
+ * (GET, SET with expiry, DEL on "product:{id}"), so a Redis-backed
+ * implementation for several instances can replace
+ * {@link CaffeineProductCache} without changing callers. Such an
+ * implementation must publish evictions to the other instances.
+ */
+public interface ProductCache {
+
+    /**
+     * The product, from the cache or loaded from the database on a miss
+     */
+    Optional<ProductResponseDto> get(Long id);
+
+    /**
+     * Drop the product once the current transaction commits, or now if there is none
+     */
+    void evictAfterCommit(Long id);
+}
@@ -0,0 +1,25 @@
+package com.example.crud.cache;
+
+import com.example.crud.entity.Product;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * JPA entity listener that evicts updated and deleted products from {@link ProductCache}
+ */
+public class ProductCacheListener {
+
+    @Autowired
+    private ObjectProvider<ProductCache> productCache;
+
+    @PostUpdate
+    @PostRemove
+    public void onChange(Product product) {
+        ProductCache cache = productCache.getIfAvailable();
+        if (cache != null) {
+            cache.evictAfterCommit(product.getId());
+        }
+    }
+}
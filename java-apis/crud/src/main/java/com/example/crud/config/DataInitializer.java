@@ -7,6 +7,7 @@ import org.springframework.boot.CommandLineRunner;
 import org.springframework.stereotype.Component;
 
 import java.math.BigDecimal;
+import java.util.List;
 
 /**
  * Data Initializer
@@ -44,7 +45,6 @@ public class DataInitializer implements CommandLineRunner {
         laptop.setQuantity(50);
         laptop.setCategory("Electronics");
         laptop.setSupplierEmail("apple@example.com");
-        productRepository.save(laptop);
         
         Product phone = new Product();
         phone.setName("iPhone 15");
@@ -53,7 +53,6 @@ public class DataInitializer implements CommandLineRunner {
         phone.setQuantity(100);
         phone.setCategory("Electronics");
         phone.setSupplierEmail("apple@example.com");
-        productRepository.save(phone);
         
         Product book = new Product();
         book.setName("Spring Boot in Action");
@@ -62,7 +61,6 @@ public class DataInitializer implements CommandLineRunner {
         book.setQuantity(25);
         book.setCategory("Books");
         book.setSupplierEmail("manning@example.com");
-        productRepository.save(book);
         
         Product coffee = new Product();
         coffee.setName("Premium Coffee Beans");
@@ -71,7 +69,6 @@ public class DataInitializer implements CommandLineRunner {
         coffee.setQuantity(200);
         coffee.setCategory("Food & Beverages");
         coffee.setSupplierEmail("coffee@example.com");
-        productRepository.save(coffee);
         
         Product chair = new Product();
         chair.setName("Ergonomic Office Chair");
@@ -80,7 +77,6 @@ public class DataInitializer implements CommandLineRunner {
         chair.setQuantity(15);
         chair.setCategory("Furniture");
         chair.setSupplierEmail("furniture@example.com");
-        productRepository.save(chair);
         
         Product watch = new Product();
         watch.setName("Smart Watch");
@@ -89,7 +85,6 @@ public class DataInitializer implements CommandLineRunner {
         watch.setQuantity(75);
         watch.setCategory("Electronics");
         watch.setSupplierEmail("tech@example.com");
-        productRepository.save(watch);
         
         Product headphones = new Product();
         headphones.setName("Wireless Headphones");
@@ -98,7 +93,6 @@ public class DataInitializer implements CommandLineRunner {
         headphones.setQuantity(30);
         headphones.setCategory("Electronics");
         headphones.setSupplierEmail("audio@example.com");
-        productRepository.save(headphones);
         
         Product notebook = new Product();
         notebook.setName("Premium Notebook");
@@ -107,7 +101,6 @@ public class DataInitializer implements CommandLineRunner {
         notebook.setQuantity(150);
         notebook.setCategory("Office Supplies");
         notebook.setSupplierEmail("office@example.com");
-        productRepository.save(notebook);
         
         Product waterBottle = new Product();
         waterBottle.setName("Stainless Steel Water Bottle");
@@ -116,7 +109,6 @@ public class DataInitializer implements CommandLineRunner {
         waterBottle.setQuantity(80);
         waterBottle.setCategory("Sports & Outdoors");
         waterBottle.setSupplierEmail("outdoor@example.com");
-        productRepository.save(waterBottle);
         
         Product plant = new Product();
         plant.setName("Indoor Plant");
@@ -125,7 +117,10 @@ public class DataInitializer implements CommandLineRunner {
         plant.setQuantity(20);
         plant.setCategory("Home & Garden");
         plant.setSupplierEmail("garden@example.com");
-        productRepository.save(plant);
+        
+        // One saveAll: sequence ids are allocated in blocks, so the inserts go out as a JDBC batch
+        productRepository.saveAll(List.of(laptop, phone, book, coffee, chair,
+                watch, headphones, notebook, waterBottle, plant));
         
         System.out.println("Sample data initialized successfully!");
         System.out.println("Total products created: " + productRepository.count());
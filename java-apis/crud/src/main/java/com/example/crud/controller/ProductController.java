@@ -1,17 +1,49 @@
 package com.example.crud.controller;
 
+import com.example.crud.cache.CatalogVersion;
+import com.example.crud.dto.CursorPage;
+import com.example.crud.dto.ProductImportResult;
 import com.example.crud.dto.ProductRequestDto;
 import com.example.crud.dto.ProductResponseDto;
+import com.example.crud.dto.ProductSearchRequest;
+import com.example.crud.dto.ProductSearchResult;
+import com.example.crud.dto.StockAdjustmentRequest;
+import com.example.crud.dto.StockBatchRequest;
+import com.example.crud.dto.StockLevel;
+import com.example.crud.dto.StockReservation;
+import com.example.crud.dto.StockReservationRequest;
+import com.example.crud.service.ProductImportService;
 import com.example.crud.service.ProductService;
+import com.example.crud.service.StockService;
+import com.example.crud.watch.ProductWatchEventStream;
+import com.example.crud.watch.ProductWatchLists;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 /**
  * Product REST Controller
@@ -24,17 +56,42 @@ import java.util.Optional;
  * - Proper HTTP status codes
  * - Request/Response DTOs
  * - Exception handling
+ * - Streaming JSON array / NDJSON responses and cursor pagination
+ *
+ * Listing endpoints write each product to the response as it is read from the
+ * database, so they work for catalogs of any size. They return a JSON array by
+ * default and newline-delimited JSON when the client accepts application/x-ndjson.
+ * The matching /page endpoints return one page at a time with a cursor.
+ *
+ * Product reads carry an ETag: the version for a single product, the catalog
+ * version for listings. A request whose If-None-Match still matches gets 304
+ * Not Modified without the product being serialized, and listings skip the query too.
  */
 @RestController
 @RequestMapping("/products")
 @CrossOrigin(origins = "*") // Allow CORS for frontend integration
 public class ProductController {
     
+    // Caches may store product reads but must revalidate them; a current copy costs a 304
+    private static final CacheControl REVALIDATE = CacheControl.noCache().cachePublic();
+    
     private final ProductService productService;
+    private final ProductImportService productImportService;
+    private final StockService stockService;
+    private final ProductWatchEventStream productWatchEventStream;
+    private final CatalogVersion catalogVersion;
+    private final ObjectMapper objectMapper;
     
     @Autowired
-    public ProductController(ProductService productService) {
+    public ProductController(ProductService productService, ProductImportService productImportService,
+                             StockService stockService, ProductWatchEventStream productWatchEventStream,
+                             CatalogVersion catalogVersion, ObjectMapper objectMapper) {
         this.productService = productService;
+        this.productImportService = productImportService;
+        this.stockService = stockService;
+        this.productWatchEventStream = productWatchEventStream;
+        this.catalogVersion = catalogVersion;
+        this.objectMapper = objectMapper;
     }
     
     /**
@@ -57,18 +114,55 @@ public class ProductController {
         }
     }
     
+    /**
+     * POST /api/products/import?mode=CREATE|UPSERT
+     * Bulk import products from a CSV (text/csv) or NDJSON (application/x-ndjson) upload
+     * 
+     * Demonstrates:
+     * - Reading a raw request body as a stream
+     * - Partial success reporting
+     * 
+     * Returns 200 with per-row errors even when some rows fail; only a
+     * malformed CSV header is rejected with 400.
+     */
+    @PostMapping(value = "/import", consumes = {"text/csv", MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<ProductImportResult> importProducts(
+            InputStream body,
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+            @RequestParam(defaultValue = "CREATE") ProductImportService.Mode mode) throws IOException {
+        ProductImportService.Format format = contentType.isCompatibleWith(MediaType.APPLICATION_NDJSON)
+                ? ProductImportService.Format.NDJSON
+                : ProductImportService.Format.CSV;
+        return ResponseEntity.ok(productImportService.importProducts(body, format, mode));
+    }
+    
     /**
      * GET /api/products
-     * Get all products
+     * Get all products, streamed
      * 
      * Demonstrates:
      * - GET request for retrieving data
-     * - List response
+     * - Streaming a JSON array (or NDJSON) row by row
      */
     @GetMapping
-    public ResponseEntity<List<ProductResponseDto>> getAllProducts() {
-        List<ProductResponseDto> products = productService.getAllProducts();
-        return ResponseEntity.ok(products);
+    public ResponseEntity<StreamingResponseBody> getAllProducts(
+            @RequestHeader HttpHeaders headers) {
+        return streamProducts(headers, productService::streamAllProducts);
+    }
+    
+    /**
+     * GET /api/products/page?cursor=...&size=50
+     * Get all products, one page at a time
+     * 
+     * Demonstrates:
+     * - Cursor (keyset) pagination
+     */
+    @GetMapping("/page")
+    public ResponseEntity<CursorPage<ProductResponseDto>> getProductsPage(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + ProductService.DEFAULT_PAGE_SIZE) int size,
+            @RequestHeader HttpHeaders headers) {
+        return ifCatalogChanged(headers, () -> ResponseEntity.ok(productService.getProductsPage(cursor, size)));
     }
     
     /**
@@ -79,11 +173,13 @@ public class ProductController {
      * - Path variable usage
      * - Optional response handling
      * - 404 Not Found for missing resources
+     * - Strong ETag from the version, and 304 Not Modified for a current copy
      */
     @GetMapping("/{id}")
-    public ResponseEntity<ProductResponseDto> getProductById(@PathVariable Long id) {
+    public ResponseEntity<ProductResponseDto> getProductById(@PathVariable Long id,
+                                                             @RequestHeader HttpHeaders headers) {
         Optional<ProductResponseDto> product = productService.getProductById(id);
-        return product.map(ResponseEntity::ok)
+        return product.map(found -> ifProductChanged(headers, found))
                 .orElse(ResponseEntity.notFound().build());
     }
     
@@ -123,6 +219,81 @@ public class ProductController {
         return deleted ? ResponseEntity.noContent().build() : ResponseEntity.notFound().build();
     }
     
+    /**
+     * GET /api/products/{id}/stock
+     * Get the quantity of a product and how much of it is reserved
+     */
+    @GetMapping("/{id}/stock")
+    public ResponseEntity<StockLevel> getStockLevel(@PathVariable Long id) {
+        return stockService.getStockLevel(id)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+    
+    /**
+     * POST /api/products/{id}/stock
+     * Add to or take from a product's quantity
+     * 
+     * Demonstrates:
+     * - Atomic relative updates (no read-modify-write)
+     * - 409 Conflict when the stock is insufficient
+     */
+    @PostMapping("/{id}/stock")
+    public ResponseEntity<StockLevel> adjustStock(@PathVariable Long id,
+                                                  @Valid @RequestBody StockAdjustmentRequest request) {
+        return stockService.adjustStock(id, request.getDelta())
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+    
+    /**
+     * POST /api/products/stock
+     * Adjust the stock of several products at once; all adjustments apply or none do
+     */
+    @PostMapping("/stock")
+    public ResponseEntity<List<StockLevel>> adjustStockBatch(@Valid @RequestBody StockBatchRequest request) {
+        return ResponseEntity.ok(stockService.adjustStock(request.getAdjustments()));
+    }
+    
+    /**
+     * POST /api/products/{id}/reservations
+     * Hold stock of a product until the reservation is confirmed, released or expires
+     * 
+     * Demonstrates:
+     * - 201 Created for a new resource
+     * - 409 Conflict when the unreserved stock is insufficient
+     */
+    @PostMapping("/{id}/reservations")
+    public ResponseEntity<StockReservation> reserveStock(@PathVariable Long id,
+                                                         @Valid @RequestBody StockReservationRequest request) {
+        Duration ttl = request.getTtlSeconds() == null ? null : Duration.ofSeconds(request.getTtlSeconds());
+        return stockService.reserve(id, request.getQuantity(), ttl)
+                .map(reservation -> ResponseEntity.status(HttpStatus.CREATED).body(reservation))
+                .orElse(ResponseEntity.notFound().build());
+    }
+    
+    /**
+     * POST /api/products/reservations/{reservationId}/confirm
+     * Take the reserved stock out of the product
+     */
+    @PostMapping("/reservations/{reservationId}/confirm")
+    public ResponseEntity<StockLevel> confirmReservation(@PathVariable String reservationId) {
+        return stockService.confirmReservation(reservationId)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+    
+    /**
+     * DELETE /api/products/reservations/{reservationId}
+     * Release a reservation without taking its stock
+     */
+    @DeleteMapping("/reservations/{reservationId}")
+    public ResponseEntity<Void> releaseReservation(@PathVariable String reservationId) {
+        return stockService.releaseReservation(reservationId)
+                ? ResponseEntity.noContent().build()
+                : ResponseEntity.notFound().build();
+    }
+    
     /**
      * GET /api/products/category/{category}
      * Get products by category
@@ -132,9 +303,24 @@ public class ProductController {
      * - Path variable for filtering
      */
     @GetMapping("/category/{category}")
-    public ResponseEntity<List<ProductResponseDto>> getProductsByCategory(@PathVariable String category) {
-        List<ProductResponseDto> products = productService.getProductsByCategory(category);
-        return ResponseEntity.ok(products);
+    public ResponseEntity<StreamingResponseBody> getProductsByCategory(
+            @PathVariable String category,
+            @RequestHeader HttpHeaders headers) {
+        return streamProducts(headers, action -> productService.streamProductsByCategory(category, action));
+    }
+    
+    /**
+     * GET /api/products/category/{category}/page
+     * Get products by category, one page at a time
+     */
+    @GetMapping("/category/{category}/page")
+    public ResponseEntity<CursorPage<ProductResponseDto>> getProductsByCategoryPage(
+            @PathVariable String category,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + ProductService.DEFAULT_PAGE_SIZE) int size,
+            @RequestHeader HttpHeaders headers) {
+        return ifCatalogChanged(headers,
+                () -> ResponseEntity.ok(productService.getProductsByCategoryPage(category, cursor, size)));
     }
     
     /**
@@ -146,9 +332,43 @@ public class ProductController {
      * - Search functionality
      */
     @GetMapping("/search")
-    public ResponseEntity<List<ProductResponseDto>> searchProductsByName(@RequestParam String name) {
-        List<ProductResponseDto> products = productService.searchProductsByName(name);
-        return ResponseEntity.ok(products);
+    public ResponseEntity<StreamingResponseBody> searchProductsByName(
+            @RequestParam String name,
+            @RequestHeader HttpHeaders headers) {
+        return streamProducts(headers, action -> productService.streamProductsByName(name, action));
+    }
+    
+    /**
+     * GET /api/products/search/page
+     * Search products by name, one page at a time
+     */
+    @GetMapping("/search/page")
+    public ResponseEntity<CursorPage<ProductResponseDto>> searchProductsByNamePage(
+            @RequestParam String name,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + ProductService.DEFAULT_PAGE_SIZE) int size,
+            @RequestHeader HttpHeaders headers) {
+        return ifCatalogChanged(headers,
+                () -> ResponseEntity.ok(productService.searchProductsByNamePage(name, cursor, size)));
+    }
+    
+    /**
+     * GET /api/products/search/faceted?q=wireless&category=Electronics&minPrice=50&maxPrice=300&sort=PRICE_ASC
+     * Search products with combined filters and facet counts
+     * 
+     * Demonstrates:
+     * - @ModelAttribute binding of query parameters
+     * - Faceted search served from an in-memory index
+     * - 503 Service Unavailable while the index is loading
+     */
+    @GetMapping("/search/faceted")
+    public ResponseEntity<ProductSearchResult> searchProductsFaceted(@Valid @ModelAttribute ProductSearchRequest request,
+                                                                     @RequestHeader HttpHeaders headers) {
+        return ifCatalogChanged(headers, () -> productService.searchProducts(request)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                        .header(HttpHeaders.RETRY_AFTER, "5")
+                        .build()));
     }
     
     /**
@@ -160,39 +380,87 @@ public class ProductController {
      * - Range queries
      */
     @GetMapping("/price-range")
-    public ResponseEntity<List<ProductResponseDto>> getProductsByPriceRange(
+    public ResponseEntity<StreamingResponseBody> getProductsByPriceRange(
             @RequestParam BigDecimal minPrice,
-            @RequestParam BigDecimal maxPrice) {
-        List<ProductResponseDto> products = productService.getProductsByPriceRange(minPrice, maxPrice);
-        return ResponseEntity.ok(products);
+            @RequestParam BigDecimal maxPrice,
+            @RequestHeader HttpHeaders headers) {
+        return streamProducts(headers, action -> productService.streamProductsByPriceRange(minPrice, maxPrice, action));
     }
     
     /**
      * GET /api/products/low-stock
-     * Get products with low stock (quantity <= 10)
+     * Get products with low stock (quantity <= product.watch.low-stock-threshold)
      * 
      * Demonstrates:
      * - Business logic queries
      * - Specialized endpoints
      */
     @GetMapping("/low-stock")
-    public ResponseEntity<List<ProductResponseDto>> getLowStockProducts() {
-        List<ProductResponseDto> products = productService.getLowStockProducts();
-        return ResponseEntity.ok(products);
+    public ResponseEntity<StreamingResponseBody> getLowStockProducts(
+            @RequestHeader HttpHeaders headers) {
+        return streamProducts(headers, productService::streamLowStockProducts);
+    }
+    
+    /**
+     * GET /api/products/low-stock/page
+     * Get low stock products, one page at a time
+     */
+    @GetMapping("/low-stock/page")
+    public ResponseEntity<CursorPage<ProductResponseDto>> getLowStockProductsPage(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + ProductService.DEFAULT_PAGE_SIZE) int size,
+            @RequestHeader HttpHeaders headers) {
+        return ifCatalogChanged(headers, () -> ResponseEntity.ok(productService.getLowStockProductsPage(cursor, size)));
     }
     
     /**
      * GET /api/products/expensive
-     * Get expensive products (price > 100)
+     * Get expensive products (price > product.watch.expensive-threshold)
      * 
      * Demonstrates:
      * - Business logic queries
      * - Specialized endpoints
      */
     @GetMapping("/expensive")
-    public ResponseEntity<List<ProductResponseDto>> getExpensiveProducts() {
-        List<ProductResponseDto> products = productService.getExpensiveProducts();
-        return ResponseEntity.ok(products);
+    public ResponseEntity<StreamingResponseBody> getExpensiveProducts(
+            @RequestHeader HttpHeaders headers) {
+        return streamProducts(headers, productService::streamExpensiveProducts);
+    }
+    
+    /**
+     * GET /api/products/expensive/page
+     * Get expensive products, one page at a time, most expensive first
+     */
+    @GetMapping("/expensive/page")
+    public ResponseEntity<CursorPage<ProductResponseDto>> getExpensiveProductsPage(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + ProductService.DEFAULT_PAGE_SIZE) int size,
+            @RequestHeader HttpHeaders headers) {
+        return ifCatalogChanged(headers, () -> ResponseEntity.ok(productService.getExpensiveProductsPage(cursor, size)));
+    }
+    
+    /**
+     * GET /api/products/watch/stream?list=low-stock&list=expensive
+     * Server-Sent Events for products entering, changing on or leaving the watch lists
+     * 
+     * Demonstrates:
+     * - Server-Sent Events with SseEmitter
+     * - Push updates instead of polling
+     * 
+     * Each event is named after its list and carries a ProductWatchEvent. Both
+     * lists are sent when no list is given. An unknown list is answered with 400
+     * and no body, since a JSON error cannot be sent as text/event-stream.
+     */
+    @GetMapping(value = "/watch/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamWatchEvents(
+            @RequestParam(value = "list", defaultValue = ProductWatchLists.LOW_STOCK + "," + ProductWatchLists.EXPENSIVE)
+            Set<String> lists) {
+        for (String list : lists) {
+            if (!ProductWatchLists.LOW_STOCK.equals(list) && !ProductWatchLists.EXPENSIVE.equals(list)) {
+                return ResponseEntity.badRequest().build();
+            }
+        }
+        return ResponseEntity.ok(productWatchEventStream.subscribe(lists));
     }
     
     /**
@@ -204,9 +472,8 @@ public class ProductController {
      * - Statistics endpoints
      */
     @GetMapping("/stats/category-count")
-    public ResponseEntity<List<Object[]>> getProductCountByCategory() {
-        List<Object[]> categoryStats = productService.getProductCountByCategory();
-        return ResponseEntity.ok(categoryStats);
+    public ResponseEntity<Map<String, Long>> getProductCountByCategory(@RequestHeader HttpHeaders headers) {
+        return ifCatalogChanged(headers, () -> ResponseEntity.ok(productService.getProductCountByCategory()));
     }
     
     /**
@@ -221,4 +488,159 @@ public class ProductController {
     public ResponseEntity<String> healthCheck() {
         return ResponseEntity.ok("Product API is running!");
     }
-} 
\ No newline at end of file
+    
+    /**
+     * Write products to the response as the source produces them
+     * 
+     * Demonstrates:
+     * - StreamingResponseBody for responses larger than memory
+     * - Content negotiation between a JSON array and NDJSON
+     * 
+     * The status and headers are sent before the first row, so a failure part
+     * way through ends the response early instead of turning it into an error.
+     */
+    private ResponseEntity<StreamingResponseBody> streamProducts(HttpHeaders headers, ProductSource source) {
+        boolean ndjson = acceptsNdjson(headers.getFirst(HttpHeaders.ACCEPT));
+        // The two formats are different representations, so they get different tags
+        return ifCatalogChanged(headers, ndjson ? "-ndjson" : "", () -> ResponseEntity.ok()
+                .contentType(ndjson ? MediaType.APPLICATION_NDJSON : MediaType.APPLICATION_JSON)
+                .varyBy(HttpHeaders.ACCEPT)
+                .body(productsBody(ndjson, source)));
+    }
+    
+    private StreamingResponseBody productsBody(boolean ndjson, ProductSource source) {
+        return outputStream -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+                generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                generator.setRootValueSeparator(null);
+                if (!ndjson) {
+                    generator.writeStartArray();
+                }
+                source.forEach(product -> {
+                    try {
+                        objectMapper.writeValue(generator, product);
+                        if (ndjson) {
+                            generator.writeRaw('\n');
+                        }
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                if (!ndjson) {
+                    generator.writeEndArray();
+                }
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        };
+    }
+    
+    /**
+     * Answer 304 if the client's copy of a listing is current, otherwise build the response and tag it
+     * 
+     * Demonstrates:
+     * - Collection ETags from the catalog version
+     * - Conditional GET that skips the query and serialization
+     * 
+     * Every listing is tagged with the catalog version, read before the
+     * listing is built. Any product write changes it, so a tag can be
+     * invalidated more often than needed, but never too rarely.
+     */
+    private <T> ResponseEntity<T> ifCatalogChanged(HttpHeaders headers, Supplier<ResponseEntity<T>> response) {
+        return ifCatalogChanged(headers, "", response);
+    }
+    
+    private <T> ResponseEntity<T> ifCatalogChanged(HttpHeaders headers, String variant,
+                                                   Supplier<ResponseEntity<T>> response) {
+        String etag = "\"" + catalogVersion.current() + variant + "\"";
+        if (ifNoneMatch(headers, etag)) {
+            return notModified(etag, null);
+        }
+        ResponseEntity<T> built = response.get();
+        if (!built.getStatusCode().is2xxSuccessful()) {
+            return built;
+        }
+        return ResponseEntity.status(built.getStatusCode())
+                .headers(built.getHeaders())
+                .eTag(etag)
+                .cacheControl(REVALIDATE)
+                .body(built.getBody());
+    }
+    
+    /**
+     * Answer 304 if the client's copy of the product is current, otherwise return it tagged with its version
+     * 
+     * If-None-Match wins over If-Modified-Since, as HTTP requires.
+     */
+    private ResponseEntity<ProductResponseDto> ifProductChanged(HttpHeaders headers, ProductResponseDto product) {
+        String etag = "\"" + product.getVersion() + "\"";
+        LocalDateTime modified = product.getUpdatedAt() != null ? product.getUpdatedAt() : product.getCreatedAt();
+        ZonedDateTime lastModified = modified != null ? modified.atZone(ZoneId.systemDefault()) : null;
+        boolean current;
+        if (!headers.containsKey(HttpHeaders.IF_NONE_MATCH)) {
+            current = lastModified != null && ifModifiedSince(headers) / 1000 >= lastModified.toEpochSecond();
+        } else {
+            current = ifNoneMatch(headers, etag);
+        }
+        if (current) {
+            return notModified(etag, lastModified);
+        }
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok().eTag(etag).cacheControl(REVALIDATE);
+        if (lastModified != null) {
+            response.lastModified(lastModified);
+        }
+        return response.body(product);
+    }
+    
+    private static <T> ResponseEntity<T> notModified(String etag, ZonedDateTime lastModified) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                .eTag(etag)
+                .cacheControl(REVALIDATE);
+        if (lastModified != null) {
+            response.lastModified(lastModified);
+        }
+        return response.build();
+    }
+    
+    /**
+     * Whether If-None-Match lists the tag; the weak comparison applies, as HTTP requires for GET
+     */
+    private static boolean ifNoneMatch(HttpHeaders headers, String etag) {
+        try {
+            return headers.getIfNoneMatch().stream()
+                    .anyMatch(candidate -> candidate.equals("*") || candidate.equals(etag)
+                            || candidate.equals("W/" + etag));
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+    
+    private static long ifModifiedSince(HttpHeaders headers) {
+        try {
+            return headers.getIfModifiedSince();
+        } catch (IllegalArgumentException e) {
+            return -1;
+        }
+    }
+    
+    private static boolean acceptsNdjson(String accept) {
+        if (accept == null) {
+            return false;
+        }
+        try {
+            return MediaType.parseMediaTypes(accept).stream()
+                    .anyMatch(mediaType -> mediaType.isCompatibleWith(MediaType.APPLICATION_NDJSON)
+                            && !mediaType.isWildcardSubtype());
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+    
+    /**
+     * A service call that hands each product of a listing to an action
+     */
+    @FunctionalInterface
+    private interface ProductSource {
+        void forEach(Consumer<? super ProductResponseDto> action);
+    }
+}
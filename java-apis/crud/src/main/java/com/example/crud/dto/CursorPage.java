@@ -0,0 +1,77 @@
+package com.example.crud.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import java.util.List;
+
+/**
+ * Cursor Page DTO
+ * One page of a keyset-paginated listing
+ *
+ * Demonstrates:
+ * - Cursor (keyset) pagination instead of page numbers
+ * - Opaque continuation tokens
+ *
+ * Pass nextCursor back as the cursor parameter to get the following page;
+ * it is absent on the last page.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class CursorPage<T> {
+
+    private List<T> content;
+    private int size;
+    private boolean hasNext;
+    private String nextCursor;
+
+    // Default constructor
+    public CursorPage() {}
+
+    // Constructor with all fields
+    public CursorPage(List<T> content, int size, boolean hasNext, String nextCursor) {
+        this.content = content;
+        this.size = size;
+        this.hasNext = hasNext;
+        this.nextCursor = nextCursor;
+    }
+
+    // Getters and Setters
+    public List<T> getContent() {
+        return content;
+    }
+
+    public void setContent(List<T> content) {
+        this.content = content;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public void setSize(int size) {
+        this.size = size;
+    }
+
+    public boolean isHasNext() {
+        return hasNext;
+    }
+
+    public void setHasNext(boolean hasNext) {
+        this.hasNext = hasNext;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+
+    @Override
+    public String toString() {
+        return "CursorPage{" +
+                "size=" + size +
+                ", hasNext=" + hasNext +
+                ", nextCursor='" + nextCursor + '\'' +
+                '}';
+    }
+}
@@ -0,0 +1,125 @@
+package com.example.crud.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Product Import Result DTO
+ * Summary of a bulk import, returned once the whole input has been read
+ *
+ * Demonstrates:
+ * - Partial success reporting for batch operations
+ * - Row-level error details
+ *
+ * Rows are committed in chunks, so created and updated rows stay in the
+ * database even when later rows fail.
+ */
+public class ProductImportResult {
+
+    private int totalRows;
+    private int created;
+    private int updated;
+    private int failed;
+    private long durationMs;
+    private boolean errorsTruncated;
+    private List<RowError> errors = new ArrayList<>();
+
+    // Getters and Setters
+    public int getTotalRows() {
+        return totalRows;
+    }
+
+    public void setTotalRows(int totalRows) {
+        this.totalRows = totalRows;
+    }
+
+    public int getCreated() {
+        return created;
+    }
+
+    public void setCreated(int created) {
+        this.created = created;
+    }
+
+    public int getUpdated() {
+        return updated;
+    }
+
+    public void setUpdated(int updated) {
+        this.updated = updated;
+    }
+
+    public int getFailed() {
+        return failed;
+    }
+
+    public void setFailed(int failed) {
+        this.failed = failed;
+    }
+
+    public long getDurationMs() {
+        return durationMs;
+    }
+
+    public void setDurationMs(long durationMs) {
+        this.durationMs = durationMs;
+    }
+
+    public boolean isErrorsTruncated() {
+        return errorsTruncated;
+    }
+
+    public void setErrorsTruncated(boolean errorsTruncated) {
+        this.errorsTruncated = errorsTruncated;
+    }
+
+    public List<RowError> getErrors() {
+        return errors;
+    }
+
+    public void setErrors(List<RowError> errors) {
+        this.errors = errors;
+    }
+
+    /**
+     * Why one input row was not imported
+     * line is the 1-based line of the row in the uploaded file
+     */
+    public static class RowError {
+        private int line;
+        private String name;
+        private String message;
+
+        public RowError() {}
+
+        public RowError(int line, String name, String message) {
+            this.line = line;
+            this.name = name;
+            this.message = message;
+        }
+
+        public int getLine() {
+            return line;
+        }
+
+        public void setLine(int line) {
+            this.line = line;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+
+        public void setMessage(String message) {
+            this.message = message;
+        }
+    }
+}
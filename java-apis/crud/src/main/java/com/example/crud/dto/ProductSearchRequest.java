@@ -0,0 +1,99 @@
+package com.example.crud.dto;
+
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Product Search Request DTO
+ * Query parameters of the faceted product search
+ *
+ * Demonstrates:
+ * - Binding query parameters to an object with @ModelAttribute
+ * - Validation of query parameters
+ *
+ * All filters are optional and combined with AND; several categories match any of them.
+ */
+public class ProductSearchRequest {
+
+    public enum Sort { NAME, PRICE_ASC, PRICE_DESC }
+
+    private String q;
+
+    private List<String> category = new ArrayList<>();
+
+    @DecimalMin(value = "0", message = "minPrice cannot be negative")
+    private BigDecimal minPrice;
+
+    @DecimalMin(value = "0", message = "maxPrice cannot be negative")
+    private BigDecimal maxPrice;
+
+    private Sort sort = Sort.NAME;
+
+    @Min(value = 0, message = "page cannot be negative")
+    private int page = 0;
+
+    @Min(value = 1, message = "size must be at least 1")
+    @Max(value = 500, message = "size cannot exceed 500")
+    private int size = 20;
+
+    // Getters and Setters
+    public String getQ() {
+        return q;
+    }
+
+    public void setQ(String q) {
+        this.q = q;
+    }
+
+    public List<String> getCategory() {
+        return category;
+    }
+
+    public void setCategory(List<String> category) {
+        this.category = category;
+    }
+
+    public BigDecimal getMinPrice() {
+        return minPrice;
+    }
+
+    public void setMinPrice(BigDecimal minPrice) {
+        this.minPrice = minPrice;
+    }
+
+    public BigDecimal getMaxPrice() {
+        return maxPrice;
+    }
+
+    public void setMaxPrice(BigDecimal maxPrice) {
+        this.maxPrice = maxPrice;
+    }
+
+    public Sort getSort() {
+        return sort;
+    }
+
+    public void setSort(Sort sort) {
+        this.sort = sort;
+    }
+
+    public int getPage() {
+        return page;
+    }
+
+    public void setPage(int page) {
+        this.page = page;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public void setSize(int size) {
+        this.size = size;
+    }
+}
@@ -0,0 +1,132 @@
+package com.example.crud.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Product Search Result DTO
+ * One page of search hits plus facet counts
+ *
+ * Demonstrates:
+ * - Faceted search responses
+ *
+ * Each facet is counted with every filter except its own: categoryFacets
+ * ignore the category filter and priceFacets ignore the price filter, so a
+ * client can show how many hits each alternative choice would give.
+ */
+public class ProductSearchResult {
+
+    private List<ProductResponseDto> content;
+    private long totalHits;
+    private int page;
+    private int size;
+    private Map<String, Long> categoryFacets;
+    private List<PriceFacet> priceFacets;
+
+    // Default constructor
+    public ProductSearchResult() {}
+
+    // Constructor with all fields
+    public ProductSearchResult(List<ProductResponseDto> content, long totalHits, int page, int size,
+                               Map<String, Long> categoryFacets, List<PriceFacet> priceFacets) {
+        this.content = content;
+        this.totalHits = totalHits;
+        this.page = page;
+        this.size = size;
+        this.categoryFacets = categoryFacets;
+        this.priceFacets = priceFacets;
+    }
+
+    // Getters and Setters
+    public List<ProductResponseDto> getContent() {
+        return content;
+    }
+
+    public void setContent(List<ProductResponseDto> content) {
+        this.content = content;
+    }
+
+    public long getTotalHits() {
+        return totalHits;
+    }
+
+    public void setTotalHits(long totalHits) {
+        this.totalHits = totalHits;
+    }
+
+    public int getPage() {
+        return page;
+    }
+
+    public void setPage(int page) {
+        this.page = page;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public void setSize(int size) {
+        this.size = size;
+    }
+
+    public Map<String, Long> getCategoryFacets() {
+        return categoryFacets;
+    }
+
+    public void setCategoryFacets(Map<String, Long> categoryFacets) {
+        this.categoryFacets = categoryFacets;
+    }
+
+    public List<PriceFacet> getPriceFacets() {
+        return priceFacets;
+    }
+
+    public void setPriceFacets(List<PriceFacet> priceFacets) {
+        this.priceFacets = priceFacets;
+    }
+
+    /**
+     * Number of hits priced from (inclusive) up to to (exclusive); the last bucket has no upper bound
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public static class PriceFacet {
+        private BigDecimal from;
+        private BigDecimal to;
+        private long count;
+
+        public PriceFacet() {}
+
+        public PriceFacet(BigDecimal from, BigDecimal to, long count) {
+            this.from = from;
+            this.to = to;
+            this.count = count;
+        }
+
+        public BigDecimal getFrom() {
+            return from;
+        }
+
+        public void setFrom(BigDecimal from) {
+            this.from = from;
+        }
+
+        public BigDecimal getTo() {
+            return to;
+        }
+
+        public void setTo(BigDecimal to) {
+            this.to = to;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public void setCount(long count) {
+            this.count = count;
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.crud.dto;
+
+/**
+ * Product Watch Event DTO
+ * A change to one of the product watch lists (low stock, expensive)
+ *
+ * Demonstrates:
+ * - Change notifications instead of polling
+ *
+ * sequence increases with every event, so a client that also reads a list
+ * can tell which changes its copy already includes.
+ */
+public class ProductWatchEvent {
+
+    public enum Type {
+        /** The product now meets the list's threshold */
+        ENTERED,
+        /** The product is still on the list but changed */
+        UPDATED,
+        /** The product no longer meets the threshold, or was deleted */
+        LEFT
+    }
+
+    private final long sequence;
+    private final String list;
+    private final Type type;
+    private final ProductResponseDto product;
+
+    public ProductWatchEvent(long sequence, String list, Type type, ProductResponseDto product) {
+        this.sequence = sequence;
+        this.list = list;
+        this.type = type;
+        this.product = product;
+    }
+
+    // Getters
+    public long getSequence() {
+        return sequence;
+    }
+
+    public String getList() {
+        return list;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public ProductResponseDto getProduct() {
+        return product;
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.crud.dto;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+
+/**
+ * Stock Adjustment Request DTO
+ * A relative change to a product's quantity
+ *
+ * Demonstrates:
+ * - Relative updates instead of read-modify-write
+ *
+ * A negative delta takes stock out, a positive one puts it back. productId is
+ * only read in batch requests; the single-product endpoint takes it from the path.
+ */
+public class StockAdjustmentRequest {
+
+    private Long productId;
+
+    @NotNull(message = "Delta is required")
+    @Min(value = -999999, message = "Delta cannot be less than -999999")
+    @Max(value = 999999, message = "Delta cannot exceed 999999")
+    private Integer delta;
+
+    // Default constructor
+    public StockAdjustmentRequest() {}
+
+    // Constructor with all fields
+    public StockAdjustmentRequest(Long productId, Integer delta) {
+        this.productId = productId;
+        this.delta = delta;
+    }
+
+    // Getters and Setters
+    public Long getProductId() {
+        return productId;
+    }
+
+    public void setProductId(Long productId) {
+        this.productId = productId;
+    }
+
+    public Integer getDelta() {
+        return delta;
+    }
+
+    public void setDelta(Integer delta) {
+        this.delta = delta;
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.crud.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Stock Batch Request DTO
+ * Several stock adjustments applied together
+ *
+ * Demonstrates:
+ * - Nested validation with @Valid
+ *
+ * The batch is all-or-nothing: if any product lacks the stock, none of the
+ * adjustments are applied.
+ */
+public class StockBatchRequest {
+
+    @NotEmpty(message = "At least one adjustment is required")
+    @Size(max = 1000, message = "A batch cannot contain more than 1000 adjustments")
+    @Valid
+    private List<StockAdjustmentRequest> adjustments = new ArrayList<>();
+
+    // Getters and Setters
+    public List<StockAdjustmentRequest> getAdjustments() {
+        return adjustments;
+    }
+
+    public void setAdjustments(List<StockAdjustmentRequest> adjustments) {
+        this.adjustments = adjustments;
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.crud.dto;
+
+/**
+ * Stock Level DTO
+ * A product's quantity after a stock change, with the amount held by open reservations
+ *
+ * Demonstrates:
+ * - Small purpose-built response DTOs
+ * - Constructor expressions in JPQL queries
+ */
+public class StockLevel {
+
+    private Long productId;
+    private Integer quantity;
+    private int reserved;
+    private Long version;
+
+    // Default constructor
+    public StockLevel() {}
+
+    // Constructor used by the repository's constructor expression
+    public StockLevel(Long productId, Integer quantity, Long version) {
+        this.productId = productId;
+        this.quantity = quantity;
+        this.version = version;
+    }
+
+    // Getters and Setters
+    public Long getProductId() {
+        return productId;
+    }
+
+    public void setProductId(Long productId) {
+        this.productId = productId;
+    }
+
+    public Integer getQuantity() {
+        return quantity;
+    }
+
+    public void setQuantity(Integer quantity) {
+        this.quantity = quantity;
+    }
+
+    public int getReserved() {
+        return reserved;
+    }
+
+    public void setReserved(int reserved) {
+        this.reserved = reserved;
+    }
+
+    /**
+     * Quantity that can still be reserved or taken out
+     */
+    public int getAvailable() {
+        return quantity == null ? 0 : Math.max(0, quantity - reserved);
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+}
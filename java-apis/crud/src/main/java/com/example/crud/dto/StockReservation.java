@@ -0,0 +1,42 @@
+package com.example.crud.dto;
+
+import java.time.Instant;
+
+/**
+ * Stock Reservation DTO
+ * An open hold on stock, identified by reservationId
+ *
+ * Demonstrates:
+ * - Immutable response DTOs
+ */
+public class StockReservation {
+
+    private final String reservationId;
+    private final Long productId;
+    private final int quantity;
+    private final Instant expiresAt;
+
+    public StockReservation(String reservationId, Long productId, int quantity, Instant expiresAt) {
+        this.reservationId = reservationId;
+        this.productId = productId;
+        this.quantity = quantity;
+        this.expiresAt = expiresAt;
+    }
+
+    // Getters
+    public String getReservationId() {
+        return reservationId;
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public int getQuantity() {
+        return quantity;
+    }
+
+    public Instant getExpiresAt() {
+        return expiresAt;
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.crud.dto;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+
+/**
+ * Stock Reservation Request DTO
+ * Holds stock for a product until it is confirmed, released or expires
+ *
+ * Demonstrates:
+ * - Validation of optional fields
+ */
+public class StockReservationRequest {
+
+    @NotNull(message = "Quantity is required")
+    @Min(value = 1, message = "Quantity must be at least 1")
+    @Max(value = 999999, message = "Quantity cannot exceed 999999")
+    private Integer quantity;
+
+    // Defaults to product.stock.reservation-ttl when absent
+    @Min(value = 1, message = "ttlSeconds must be at least 1")
+    @Max(value = 86400, message = "ttlSeconds cannot exceed 86400")
+    private Integer ttlSeconds;
+
+    // Getters and Setters
+    public Integer getQuantity() {
+        return quantity;
+    }
+
+    public void setQuantity(Integer quantity) {
+        this.quantity = quantity;
+    }
+
+    public Integer getTtlSeconds() {
+        return ttlSeconds;
+    }
+
+    public void setTtlSeconds(Integer ttlSeconds) {
+        this.ttlSeconds = ttlSeconds;
+    }
+}
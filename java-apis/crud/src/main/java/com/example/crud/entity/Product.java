@@ -1,5 +1,9 @@
 package com.example.crud.entity;
 
+import com.example.crud.cache.CatalogVersionListener;
+import com.example.crud.cache.ProductCacheListener;
+import com.example.crud.search.ProductSearchIndexListener;
+import com.example.crud.watch.ProductWatchListener;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
 import java.math.BigDecimal;
@@ -13,13 +17,20 @@ import java.time.LocalDateTime;
  * - JPA annotations for database mapping
  * - Validation annotations for data integrity
  * - Jackson serialization (automatic with Spring Boot)
+ * - Sequence ids with a pooled optimizer, so inserts can be JDBC-batched
+ * - Entity listeners that keep the in-memory search index and watch lists in sync
+ *   and move the catalog version used for collection ETags, and evict the product cache
  */
 @Entity
-@Table(name = "products")
+@EntityListeners({ProductSearchIndexListener.class, ProductWatchListener.class, CatalogVersionListener.class,
+        ProductCacheListener.class})
+@Table(name = "products", uniqueConstraints = @UniqueConstraint(name = "uk_products_name", columnNames = "name"))
 public class Product {
     
+    // One sequence call hands out 50 ids; IDENTITY would force an INSERT per row
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "product_seq")
+    @SequenceGenerator(name = "product_seq", sequenceName = "product_seq", allocationSize = 50)
     private Long id;
     
     @NotBlank(message = "Product name is required")
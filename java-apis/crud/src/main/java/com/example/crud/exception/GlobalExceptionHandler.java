@@ -2,6 +2,7 @@ package com.example.crud.exception;
 
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -73,6 +74,49 @@ public class GlobalExceptionHandler {
         return ResponseEntity.badRequest().body(errorResponse);
     }
     
+    /**
+     * Handle InsufficientStockException
+     * 
+     * Demonstrates:
+     * - 409 Conflict for requests that cannot be met by the current state
+     */
+    @ExceptionHandler(InsufficientStockException.class)
+    public ResponseEntity<ErrorResponse> handleInsufficientStockException(InsufficientStockException ex) {
+        Map<String, String> details = new HashMap<>();
+        details.put("productId", String.valueOf(ex.getProductId()));
+        details.put("requested", String.valueOf(ex.getRequested()));
+        details.put("available", String.valueOf(ex.getAvailable()));
+        
+        ErrorResponse errorResponse = new ErrorResponse(
+                LocalDateTime.now(),
+                HttpStatus.CONFLICT.value(),
+                "Insufficient stock",
+                ex.getMessage(),
+                details
+        );
+        
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(errorResponse);
+    }
+    
+    /**
+     * Handle optimistic locking failures
+     * 
+     * Demonstrates:
+     * - 409 Conflict when the entity changed since it was read (@Version mismatch)
+     */
+    @ExceptionHandler(ObjectOptimisticLockingFailureException.class)
+    public ResponseEntity<ErrorResponse> handleOptimisticLockingFailure(ObjectOptimisticLockingFailureException ex) {
+        ErrorResponse errorResponse = new ErrorResponse(
+                LocalDateTime.now(),
+                HttpStatus.CONFLICT.value(),
+                "Concurrent modification",
+                "The resource was changed by another request; reload it and retry",
+                null
+        );
+        
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(errorResponse);
+    }
+    
     /**
      * Handle generic exceptions
      * 
@@ -0,0 +1,33 @@
+package com.example.crud.exception;
+
+/**
+ * Thrown when a stock change or reservation asks for more than a product has available
+ *
+ * Mapped to 409 Conflict by {@link GlobalExceptionHandler}.
+ */
+public class InsufficientStockException extends RuntimeException {
+
+    private final Long productId;
+    private final int requested;
+    private final int available;
+
+    public InsufficientStockException(Long productId, int requested, int available) {
+        super("Insufficient stock for product " + productId + ": requested " + requested
+                + ", available " + available);
+        this.productId = productId;
+        this.requested = requested;
+        this.available = available;
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public int getRequested() {
+        return requested;
+    }
+
+    public int getAvailable() {
+        return available;
+    }
+}
@@ -1,14 +1,25 @@
 package com.example.crud.repository;
 
 import com.example.crud.entity.Product;
+import com.example.crud.dto.ProductResponseDto;
+import com.example.crud.dto.StockLevel;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
 
 /**
  * Product Repository
@@ -19,10 +30,18 @@ import java.util.Optional;
  * - Custom query methods
  * - Method name-based queries
  * - @Query annotations for complex queries
+ * - Constructor expressions that read rows straight into response DTOs
+ * - Keyset (cursor) pagination and JPA Streams for unbounded listings
  */
 @Repository
 public interface ProductRepository extends JpaRepository<Product, Long> {
     
+    /**
+     * Constructor expression selecting a ProductResponseDto instead of a managed entity
+     */
+    String RESPONSE_DTO = "new com.example.crud.dto.ProductResponseDto(p.id, p.name, p.description, p.price, "
+            + "p.quantity, p.category, p.createdAt, p.updatedAt, p.version)";
+    
     /**
      * Find products by category
      * Method name-based query
@@ -64,12 +83,6 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
      */
     Optional<Product> findBySupplierEmail(String supplierEmail);
     
-    /**
-     * Custom query to find products with low stock (quantity <= 10)
-     */
-    @Query("SELECT p FROM Product p WHERE p.quantity <= 10")
-    List<Product> findLowStockProducts();
-    
     /**
      * Custom query to find products by category and price range
      */
@@ -78,12 +91,6 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
                                            @Param("minPrice") BigDecimal minPrice,
                                            @Param("maxPrice") BigDecimal maxPrice);
     
-    /**
-     * Custom query to find expensive products (price > 100)
-     */
-    @Query("SELECT p FROM Product p WHERE p.price > 100 ORDER BY p.price DESC")
-    List<Product> findExpensiveProducts();
-    
     /**
      * Custom query to count products by category
      */
@@ -99,4 +106,126 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
      * Check if product exists by name and id is not equal to the given id (for updates)
      */
     boolean existsByNameAndIdNot(String name, Long id);
-} 
\ No newline at end of file
+    
+    /**
+     * Names from the given set that are already taken (set-based duplicate check)
+     */
+    @Query("SELECT p.name FROM Product p WHERE p.name IN :names")
+    List<String> findExistingNames(@Param("names") Collection<String> names);
+    
+    /**
+     * Find products by any of the given names
+     */
+    List<Product> findByNameIn(Collection<String> names);
+
+    /**
+     * Find a product by id, read straight into a response DTO
+     */
+    @Query("SELECT " + RESPONSE_DTO + " FROM Product p WHERE p.id = :id")
+    Optional<ProductResponseDto> findDtoById(@Param("id") Long id);
+
+    /**
+     * Find products by id, in no particular order
+     */
+    @Query("SELECT " + RESPONSE_DTO + " FROM Product p WHERE p.id IN :ids")
+    List<ProductResponseDto> findDtosByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Stock changes: one conditional UPDATE, no entity load. The row lock is held
+    // only for the statement, and the version bump makes concurrent full updates
+    // of the same product fail their optimistic lock check instead of overwriting
+    
+    /**
+     * Add delta to the quantity if the result stays within [minQuantity, maxQuantity]
+     * 
+     * @return 1 if the product was changed, 0 if it does not exist or the bounds would be violated
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Product p SET p.quantity = p.quantity + :delta, p.version = p.version + 1, p.updatedAt = :now "
+            + "WHERE p.id = :id AND p.quantity + :delta BETWEEN :minQuantity AND :maxQuantity")
+    int adjustQuantity(@Param("id") Long id, @Param("delta") int delta, @Param("minQuantity") int minQuantity,
+                       @Param("maxQuantity") int maxQuantity, @Param("now") LocalDateTime now);
+    
+    /**
+     * Current quantity of a product
+     */
+    @Query("SELECT p.quantity FROM Product p WHERE p.id = :id")
+    Optional<Integer> findQuantityById(@Param("id") Long id);
+    
+    /**
+     * Quantity and version of a product
+     */
+    @Query("SELECT new com.example.crud.dto.StockLevel(p.id, p.quantity, p.version) FROM Product p WHERE p.id = :id")
+    Optional<StockLevel> findStockLevelById(@Param("id") Long id);
+    
+    // Keyset pagination: each page seeks past the last row of the previous one,
+    // so deep pages cost the same as the first
+    
+    /**
+     * Page of all products ordered by id
+     */
+    @Query("SELECT " + RESPONSE_DTO + " FROM Product p WHERE p.id > :afterId ORDER BY p.id")
+    List<ProductResponseDto> findPageAfter(@Param("afterId") Long afterId, Limit limit);
+    
+    /**
+     * Page of products in a category (case-insensitive) ordered by id
+     */
+    @Query("SELECT " + RESPONSE_DTO + " FROM Product p "
+            + "WHERE lower(p.category) = lower(:category) AND p.id > :afterId ORDER BY p.id")
+    List<ProductResponseDto> findPageByCategoryAfter(@Param("category") String category,
+                                                     @Param("afterId") Long afterId, Limit limit);
+    
+    /**
+     * Page of products whose lower-cased name matches a LIKE pattern, ordered by id
+     */
+    @Query("SELECT " + RESPONSE_DTO + " FROM Product p "
+            + "WHERE lower(p.name) LIKE :pattern ESCAPE '\\' AND p.id > :afterId ORDER BY p.id")
+    List<ProductResponseDto> findPageByNameLikeAfter(@Param("pattern") String pattern,
+                                                     @Param("afterId") Long afterId, Limit limit);
+    
+    /**
+     * Page of low stock products (quantity <= threshold) ordered by id
+     */
+    @Query("SELECT " + RESPONSE_DTO + " FROM Product p "
+            + "WHERE p.quantity <= :threshold AND p.id > :afterId ORDER BY p.id")
+    List<ProductResponseDto> findLowStockPageAfter(@Param("threshold") int threshold,
+                                                   @Param("afterId") Long afterId, Limit limit);
+    
+    /**
+     * Page of expensive products (price > threshold) ordered by price descending, then id
+     * A null afterPrice starts from the most expensive product
+     */
+    @Query("SELECT " + RESPONSE_DTO + " FROM Product p WHERE p.price > :threshold AND (:afterPrice IS NULL "
+            + "OR p.price < :afterPrice OR (p.price = :afterPrice AND p.id > :afterId)) "
+            + "ORDER BY p.price DESC, p.id")
+    List<ProductResponseDto> findExpensivePageAfter(@Param("threshold") BigDecimal threshold,
+                                                    @Param("afterPrice") BigDecimal afterPrice,
+                                                    @Param("afterId") Long afterId, Limit limit);
+    
+    // Streams: rows are read from the open result set as the caller consumes them.
+    // They must be consumed inside a transaction and closed afterwards.
+    
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT " + RESPONSE_DTO + " FROM Product p ORDER BY p.id")
+    Stream<ProductResponseDto> streamAll();
+    
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT " + RESPONSE_DTO + " FROM Product p WHERE lower(p.category) = lower(:category) ORDER BY p.id")
+    Stream<ProductResponseDto> streamByCategory(@Param("category") String category);
+    
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT " + RESPONSE_DTO + " FROM Product p WHERE lower(p.name) LIKE :pattern ESCAPE '\\' ORDER BY p.id")
+    Stream<ProductResponseDto> streamByNameLike(@Param("pattern") String pattern);
+    
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT " + RESPONSE_DTO + " FROM Product p WHERE p.price BETWEEN :minPrice AND :maxPrice ORDER BY p.id")
+    Stream<ProductResponseDto> streamByPriceRange(@Param("minPrice") BigDecimal minPrice,
+                                                  @Param("maxPrice") BigDecimal maxPrice);
+    
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT " + RESPONSE_DTO + " FROM Product p WHERE p.quantity <= :threshold ORDER BY p.id")
+    Stream<ProductResponseDto> streamLowStock(@Param("threshold") int threshold);
+    
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT " + RESPONSE_DTO + " FROM Product p WHERE p.price > :threshold ORDER BY p.price DESC, p.id")
+    Stream<ProductResponseDto> streamExpensive(@Param("threshold") BigDecimal threshold);
+}
@@ -0,0 +1,616 @@
+package com.example.crud.search;
+
+import com.example.crud.dto.ProductResponseDto;
+import com.example.crud.dto.ProductSearchRequest;
+import com.example.crud.dto.ProductSearchResult;
+import com.example.crud.repository.ProductRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Product Search Index
+ * In-memory faceted search over the product catalog
+ *
+ * Demonstrates:
+ * - An inverted index: name/description token -> sorted product ordinals
+ * - Category postings and a sorted price index for filters
+ * - Filters combined as bitmaps, facets counted in one pass over the hits
+ *
+ * Every product gets a dense ordinal. Each query turns its filters into
+ * bitmaps (java.util.BitSet, one bit per ordinal), so combining them is a
+ * bitwise AND. Query tokens match as prefixes ("lap" finds "laptop").
+ *
+ * The index keeps only the fields it searches, sorts and counts on; the
+ * caller loads the products of the returned page from the database.
+ *
+ * The index is built from the database when the application is ready and
+ * kept current by {@link ProductSearchIndexListener}, which applies each
+ * product write after its transaction commits. Changes made with bulk JPQL
+ * or SQL bypass the listener and must update the index themselves.
+ *
+ * Commit callbacks of concurrent transactions can run in any order, so each
+ * entry keeps its version and older writes are ignored. Deleted products leave
+ * a tombstone with their last version, so a write that commits before the
+ * delete but is applied after it cannot bring the product back.
+ */
+@Component
+public class ProductSearchIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductSearchIndex.class);
+
+    private static final Pattern TOKEN_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    // Walking the name-sorted index beats sorting the hits once they are this fraction of the catalog
+    private static final int NAME_SORT_SCAN_RATIO = 20;
+
+    private final ProductRepository productRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final List<BigDecimal> priceBucketBounds;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Guarded by lock
+    private IndexState state = new IndexState();
+    // Changes that arrive while a rebuild is reading the database; non-null only during a rebuild
+    private List<Consumer<IndexState>> pendingDuringRebuild;
+
+    private volatile boolean ready;
+
+    @Autowired
+    public ProductSearchIndex(ProductRepository productRepository,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${product.search.price-buckets:25,50,100,250,500,1000}")
+                              List<BigDecimal> priceBucketBounds) {
+        this.productRepository = productRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.priceBucketBounds = priceBucketBounds.stream().sorted().distinct().collect(Collectors.toList());
+    }
+
+    /**
+     * Whether the initial build has finished; searches before that would miss products
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Build the index from the database, replacing the current one
+     *
+     * Searches keep using the old index until the new one is complete. Writes
+     * committed meanwhile are replayed onto the new index before it is swapped in.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        long start = System.nanoTime();
+        lock.writeLock().lock();
+        try {
+            pendingDuringRebuild = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        IndexState fresh = new IndexState();
+        try {
+            readOnlyTransaction.executeWithoutResult(status -> {
+                try (Stream<ProductResponseDto> products = productRepository.streamAll()) {
+                    products.forEach(fresh::put);
+                }
+            });
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                pendingDuringRebuild = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw e;
+        }
+
+        lock.writeLock().lock();
+        try {
+            // Deletes applied before the rebuild started still have to hold back late writes
+            fresh.tombstones.putAll(state.tombstones);
+            // Stale replays are ignored: put() keeps the higher version
+            pendingDuringRebuild.forEach(change -> change.accept(fresh));
+            pendingDuringRebuild = null;
+            state = fresh;
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        logger.info("Indexed {} products for search in {} ms",
+                fresh.ordById.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Index the product once the current transaction commits, or immediately outside one
+     */
+    public void indexAfterCommit(ProductResponseDto product) {
+        afterCommit(state -> state.put(product));
+    }
+
+    /**
+     * Remove the product once the current transaction commits, or immediately outside one
+     *
+     * @param version the deleted product's last version; writes up to it that are applied later are ignored
+     */
+    public void removeAfterCommit(Long id, Long version) {
+        afterCommit(state -> state.remove(id, version));
+    }
+
+    /**
+     * Run a search: filter, count facets and pick the ids of the requested page
+     */
+    public Hits search(ProductSearchRequest request) {
+        List<String> queryTokens = tokenize(request.getQ()).distinct().collect(Collectors.toList());
+
+        lock.readLock().lock();
+        try {
+            BitSet text = state.matchAllPrefixes(queryTokens);
+            BitSet categories = state.matchCategories(request.getCategory());
+            BitSet prices = state.matchPriceRange(request.getMinPrice(), request.getMaxPrice());
+
+            BitSet hits = and(state.live, text, categories, prices);
+            Map<String, Long> categoryFacets = state.countCategories(and(state.live, text, prices));
+            List<ProductSearchResult.PriceFacet> priceFacets =
+                    state.countPriceBuckets(and(state.live, text, categories), priceBucketBounds);
+
+            long offset = (long) request.getPage() * request.getSize();
+            List<Long> ids = state.page(hits, request.getSort(), offset, request.getSize());
+            return new Hits(ids, hits.cardinality(), categoryFacets, priceFacets);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Number of products per category, ordered by category
+     */
+    public Map<String, Long> countByCategory() {
+        lock.readLock().lock();
+        try {
+            return state.countCategories(state.live);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void afterCommit(Consumer<IndexState> change) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            apply(change);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                apply(change);
+            }
+        });
+    }
+
+    private void apply(Consumer<IndexState> change) {
+        lock.writeLock().lock();
+        try {
+            change.accept(state);
+            if (pendingDuringRebuild != null) {
+                pendingDuringRebuild.add(change);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * The higher of two versions; null (unversioned) only when both are
+     */
+    private static Long newerVersion(Long first, Long second) {
+        if (first == null) {
+            return second;
+        }
+        return second == null ? first : Math.max(first, second);
+    }
+
+    static Stream<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return Stream.empty();
+        }
+        return Arrays.stream(TOKEN_SEPARATOR.split(text.toLowerCase(Locale.ROOT)))
+                .filter(token -> !token.isEmpty());
+    }
+
+    /**
+     * AND of the given bitmaps, skipping nulls (a null filter matches everything)
+     */
+    private static BitSet and(BitSet first, BitSet... others) {
+        BitSet result = (BitSet) first.clone();
+        for (BitSet other : others) {
+            if (other != null) {
+                result.and(other);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Ids of one page of hits, in the requested order, with the total and the facet counts
+     */
+    public static final class Hits {
+        private final List<Long> ids;
+        private final long totalHits;
+        private final Map<String, Long> categoryFacets;
+        private final List<ProductSearchResult.PriceFacet> priceFacets;
+
+        Hits(List<Long> ids, long totalHits, Map<String, Long> categoryFacets,
+             List<ProductSearchResult.PriceFacet> priceFacets) {
+            this.ids = ids;
+            this.totalHits = totalHits;
+            this.categoryFacets = categoryFacets;
+            this.priceFacets = priceFacets;
+        }
+
+        public List<Long> getIds() {
+            return ids;
+        }
+
+        public long getTotalHits() {
+            return totalHits;
+        }
+
+        public Map<String, Long> getCategoryFacets() {
+            return categoryFacets;
+        }
+
+        public List<ProductSearchResult.PriceFacet> getPriceFacets() {
+            return priceFacets;
+        }
+    }
+
+    /**
+     * The searchable fields of one product; the rest is loaded from the database for the returned page
+     */
+    private static final class Entry {
+        final long id;
+        final Long version;
+        final String category;
+        final BigDecimal price;
+        final String nameKey;
+        // Distinct tokens, kept so the product can be removed from the postings when it changes
+        final String[] tokens;
+
+        Entry(long id, Long version, String category, BigDecimal price, String nameKey, String[] tokens) {
+            this.id = id;
+            this.version = version;
+            this.category = category;
+            this.price = price;
+            this.nameKey = nameKey;
+            this.tokens = tokens;
+        }
+    }
+
+    /**
+     * Sorted ordinals of the products sharing a token, category or price
+     *
+     * Most tokens occur in a handful of products, so a sorted int array is far
+     * smaller than a bitmap as wide as the catalog. Bitmaps are only built per query.
+     */
+    private static final class Postings {
+        private int[] ords = new int[2];
+        private int size;
+
+        void add(int ord) {
+            if (size > 0 && ords[size - 1] >= ord) {
+                int index = Arrays.binarySearch(ords, 0, size, ord);
+                if (index >= 0) {
+                    return;
+                }
+                insertAt(-index - 1, ord);
+                return;
+            }
+            insertAt(size, ord);
+        }
+
+        void remove(int ord) {
+            int index = Arrays.binarySearch(ords, 0, size, ord);
+            if (index >= 0) {
+                System.arraycopy(ords, index + 1, ords, index, size - index - 1);
+                size--;
+            }
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        int size() {
+            return size;
+        }
+
+        int get(int index) {
+            return ords[index];
+        }
+
+        void addTo(BitSet bits) {
+            for (int i = 0; i < size; i++) {
+                bits.set(ords[i]);
+            }
+        }
+
+        private void insertAt(int index, int ord) {
+            if (size == ords.length) {
+                ords = Arrays.copyOf(ords, size + (size >> 1) + 1);
+            }
+            System.arraycopy(ords, index, ords, index + 1, size - index);
+            ords[index] = ord;
+            size++;
+        }
+    }
+
+    /**
+     * The indexed data; only accessed under the enclosing index's lock
+     */
+    private static final class IndexState {
+
+        final Map<Long, Integer> ordById = new HashMap<>();
+        // Indexed products by ordinal; null once removed. Ordinals are not reused until the next rebuild
+        final List<Entry> docs = new ArrayList<>();
+        final BitSet live = new BitSet();
+
+        final NavigableMap<String, Postings> postings = new TreeMap<>();
+        final Map<String, Postings> categories = new TreeMap<>();
+        final NavigableMap<BigDecimal, Postings> prices = new TreeMap<>();
+        // Lower-cased name + id -> ordinal, for name-ordered pages
+        final NavigableMap<String, Integer> byName = new TreeMap<>();
+        // Deleted product id -> last version; ids come from a sequence, so one entry per deleted product
+        final Map<Long, Long> tombstones = new HashMap<>();
+
+        void put(ProductResponseDto product) {
+            if (tombstones.containsKey(product.getId())) {
+                Long deletedVersion = tombstones.get(product.getId());
+                if (deletedVersion == null || product.getVersion() == null || product.getVersion() <= deletedVersion) {
+                    return;
+                }
+                tombstones.remove(product.getId());
+            }
+            Integer ord = ordById.get(product.getId());
+            if (ord == null) {
+                ord = docs.size();
+                docs.add(null);
+                ordById.put(product.getId(), ord);
+            } else {
+                Entry current = docs.get(ord);
+                if (isOlder(product, current)) {
+                    return;
+                }
+                unindex(ord, current);
+            }
+
+            String[] tokens = Stream.concat(tokenize(product.getName()), tokenize(product.getDescription()))
+                    .distinct()
+                    .toArray(String[]::new);
+            for (int i = 0; i < tokens.length; i++) {
+                // Share one String instance per token between the postings key and the entries
+                String token = tokens[i];
+                Postings tokenPostings = postings.get(token);
+                if (tokenPostings == null) {
+                    tokenPostings = new Postings();
+                    postings.put(token, tokenPostings);
+                } else {
+                    tokens[i] = postings.ceilingKey(token);
+                }
+                tokenPostings.add(ord);
+            }
+            Entry entry = new Entry(product.getId(), product.getVersion(), product.getCategory(), product.getPrice(),
+                    product.getName().toLowerCase(Locale.ROOT) + '\u0000' + product.getId(), tokens);
+
+            docs.set(ord, entry);
+            live.set(ord);
+            categories.computeIfAbsent(entry.category, key -> new Postings()).add(ord);
+            prices.computeIfAbsent(entry.price, key -> new Postings()).add(ord);
+            byName.put(entry.nameKey, ord);
+        }
+
+        void remove(Long id, Long version) {
+            Integer ord = ordById.remove(id);
+            Entry current = ord == null ? null : docs.get(ord);
+            tombstones.put(id, newerVersion(tombstones.get(id), lastVersion(version, current)));
+            if (ord == null) {
+                return;
+            }
+            unindex(ord, current);
+            docs.set(ord, null);
+            live.clear(ord);
+        }
+
+        private void unindex(int ord, Entry entry) {
+            for (String token : entry.tokens) {
+                removeOrd(postings, token, ord);
+            }
+            removeOrd(categories, entry.category, ord);
+            removeOrd(prices, entry.price, ord);
+            byName.remove(entry.nameKey);
+        }
+
+        /**
+         * Products containing every token, each matched as a prefix; null when there are no tokens
+         */
+        BitSet matchAllPrefixes(List<String> tokens) {
+            BitSet result = null;
+            for (String token : tokens) {
+                BitSet matches = new BitSet();
+                postings.subMap(token, true, token + Character.MAX_VALUE, false).values()
+                        .forEach(tokenPostings -> tokenPostings.addTo(matches));
+                if (result == null) {
+                    result = matches;
+                } else {
+                    result.and(matches);
+                }
+            }
+            return result;
+        }
+
+        /**
+         * Products in any of the categories (case-insensitive); null when none are given
+         */
+        BitSet matchCategories(List<String> requested) {
+            Set<String> wanted = requested == null ? Set.of() : requested.stream()
+                    .filter(Objects::nonNull)
+                    .map(category -> category.trim().toLowerCase(Locale.ROOT))
+                    .filter(category -> !category.isEmpty())
+                    .collect(Collectors.toSet());
+            if (wanted.isEmpty()) {
+                return null;
+            }
+            BitSet result = new BitSet();
+            categories.forEach((category, categoryPostings) -> {
+                if (wanted.contains(category.toLowerCase(Locale.ROOT))) {
+                    categoryPostings.addTo(result);
+                }
+            });
+            return result;
+        }
+
+        /**
+         * Products priced within [min, max]; null when neither bound is given
+         */
+        BitSet matchPriceRange(BigDecimal min, BigDecimal max) {
+            if (min == null && max == null) {
+                return null;
+            }
+            NavigableMap<BigDecimal, Postings> range = prices;
+            if (min != null) {
+                range = range.tailMap(min, true);
+            }
+            if (max != null) {
+                range = range.headMap(max, true);
+            }
+            BitSet result = new BitSet();
+            range.values().forEach(pricePostings -> pricePostings.addTo(result));
+            return result;
+        }
+
+        Map<String, Long> countCategories(BitSet among) {
+            Map<String, Long> counts = new HashMap<>();
+            for (int ord = among.nextSetBit(0); ord >= 0; ord = among.nextSetBit(ord + 1)) {
+                counts.merge(docs.get(ord).category, 1L, Long::sum);
+            }
+            return new TreeMap<>(counts);
+        }
+
+        List<ProductSearchResult.PriceFacet> countPriceBuckets(BitSet among, List<BigDecimal> bounds) {
+            long[] counts = new long[bounds.size() + 1];
+            for (int ord = among.nextSetBit(0); ord >= 0; ord = among.nextSetBit(ord + 1)) {
+                int index = Collections.binarySearch(bounds, docs.get(ord).price);
+                counts[index >= 0 ? index + 1 : -index - 1]++;
+            }
+            List<ProductSearchResult.PriceFacet> facets = new ArrayList<>();
+            for (int i = 0; i < counts.length; i++) {
+                BigDecimal from = i == 0 ? BigDecimal.ZERO : bounds.get(i - 1);
+                BigDecimal to = i < bounds.size() ? bounds.get(i) : null;
+                facets.add(new ProductSearchResult.PriceFacet(from, to, counts[i]));
+            }
+            return facets;
+        }
+
+        List<Long> page(BitSet hits, ProductSearchRequest.Sort sort, long offset, int size) {
+            int total = hits.cardinality();
+            List<Long> page = new ArrayList<>(Math.min(size, total));
+            if (offset >= total) {
+                return page;
+            }
+            long[] skip = {offset};
+            IntConsumer collect = ord -> {
+                if (skip[0] > 0) {
+                    skip[0]--;
+                } else {
+                    page.add(docs.get(ord).id);
+                }
+            };
+
+            switch (sort) {
+                case PRICE_ASC, PRICE_DESC -> {
+                    Map<BigDecimal, Postings> ordered = sort == ProductSearchRequest.Sort.PRICE_ASC
+                            ? prices : prices.descendingMap();
+                    for (Postings pricePostings : ordered.values()) {
+                        for (int i = 0; i < pricePostings.size() && page.size() < size; i++) {
+                            if (hits.get(pricePostings.get(i))) {
+                                collect.accept(pricePostings.get(i));
+                            }
+                        }
+                        if (page.size() >= size) {
+                            break;
+                        }
+                    }
+                }
+                default -> {
+                    if ((long) total * NAME_SORT_SCAN_RATIO < live.cardinality()) {
+                        hits.stream()
+                                .mapToObj(docs::get)
+                                .sorted(Comparator.comparing((Entry entry) -> entry.nameKey))
+                                .skip(offset)
+                                .limit(size)
+                                .forEach(entry -> page.add(entry.id));
+                    } else {
+                        for (Integer ord : byName.values()) {
+                            if (page.size() >= size) {
+                                break;
+                            }
+                            if (hits.get(ord)) {
+                                collect.accept(ord);
+                            }
+                        }
+                    }
+                }
+            }
+            return page;
+        }
+
+        private static Long lastVersion(Long deletedVersion, Entry current) {
+            return current == null ? deletedVersion : newerVersion(deletedVersion, current.version);
+        }
+
+        private static boolean isOlder(ProductResponseDto candidate, Entry current) {
+            return candidate.getVersion() != null && current.version != null
+                    && candidate.getVersion() < current.version;
+        }
+
+        private static <K> void removeOrd(Map<K, Postings> index, K key, int ord) {
+            Postings keyPostings = index.get(key);
+            if (keyPostings != null) {
+                keyPostings.remove(ord);
+                if (keyPostings.isEmpty()) {
+                    index.remove(key);
+                }
+            }
+        }
+    }
+}
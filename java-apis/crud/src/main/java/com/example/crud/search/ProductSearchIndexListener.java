@@ -0,0 +1,52 @@
+package com.example.crud.search;
+
+import com.example.crud.dto.ProductResponseDto;
+import com.example.crud.entity.Product;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * JPA entity listener that keeps {@link ProductSearchIndex} in sync with Product writes
+ *
+ * Demonstrates:
+ * - Entity lifecycle callbacks
+ * - Spring injection into JPA entity listeners
+ *
+ * The product is copied when the callback fires and applied to the index
+ * after commit, so rolled-back writes never become searchable.
+ */
+public class ProductSearchIndexListener {
+
+    @Autowired
+    private ObjectProvider<ProductSearchIndex> searchIndex;
+
+    @PostPersist
+    @PostUpdate
+    public void onSave(Product product) {
+        ProductSearchIndex index = searchIndex.getIfAvailable();
+        if (index != null) {
+            index.indexAfterCommit(new ProductResponseDto(
+                    product.getId(),
+                    product.getName(),
+                    product.getDescription(),
+                    product.getPrice(),
+                    product.getQuantity(),
+                    product.getCategory(),
+                    product.getCreatedAt(),
+                    product.getUpdatedAt(),
+                    product.getVersion()
+            ));
+        }
+    }
+
+    @PostRemove
+    public void onRemove(Product product) {
+        ProductSearchIndex index = searchIndex.getIfAvailable();
+        if (index != null) {
+            index.removeAfterCommit(product.getId(), product.getVersion());
+        }
+    }
+}
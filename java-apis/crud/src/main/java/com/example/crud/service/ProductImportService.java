@@ -0,0 +1,355 @@
+package com.example.crud.service;
+
+import com.example.crud.dto.ProductImportResult;
+import com.example.crud.dto.ProductRequestDto;
+import com.example.crud.entity.Product;
+import com.example.crud.repository.ProductRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Product Import Service
+ * Bulk import of products from CSV or NDJSON uploads
+ *
+ * Demonstrates:
+ * - Streaming input parsing (the upload is never held in memory)
+ * - Chunked processing with one transaction per chunk
+ * - Set-based duplicate checks (one IN query per chunk instead of one query per row)
+ * - JDBC batch inserts, enabled by pooled sequence ids on Product
+ * - Partial success with row-level error reporting
+ *
+ * Invalid rows are reported and skipped. If a chunk fails to commit (for
+ * example because another request inserted the same name meanwhile), it is
+ * rolled back and its rows are retried one by one, so only the offending rows fail.
+ * Those rows get a fixed message by failure type; the database's own message
+ * names tables and constraints, so it is only logged.
+ */
+@Service
+public class ProductImportService {
+
+    public enum Format { CSV, NDJSON }
+
+    /**
+     * CREATE rejects rows whose name already exists; UPSERT updates those products instead
+     */
+    public enum Mode { CREATE, UPSERT }
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductImportService.class);
+
+    private static final List<String> REQUIRED_CSV_COLUMNS =
+            List.of("name", "description", "price", "quantity", "category");
+
+    private final ProductRepository productRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final int chunkSize;
+    private final int maxErrors;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    public ProductImportService(ProductRepository productRepository,
+                                PlatformTransactionManager transactionManager,
+                                ObjectMapper objectMapper,
+                                Validator validator,
+                                @Value("${product.import.chunk-size:1000}") int chunkSize,
+                                @Value("${product.import.max-errors:100}") int maxErrors) {
+        this.productRepository = productRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.chunkSize = chunkSize;
+        this.maxErrors = maxErrors;
+    }
+
+    /**
+     * Import every row of the input, committing every chunk-size rows
+     *
+     * @throws IllegalArgumentException if a CSV header is missing required columns
+     */
+    public ProductImportResult importProducts(InputStream input, Format format, Mode mode) throws IOException {
+        long start = System.nanoTime();
+        ImportRun run = new ImportRun(mode);
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+
+        if (format == Format.CSV) {
+            readCsv(reader, run);
+        } else {
+            readNdjson(reader, run);
+        }
+        run.flush();
+
+        run.result.setDurationMs((System.nanoTime() - start) / 1_000_000);
+        return run.result;
+    }
+
+    private void readCsv(BufferedReader reader, ImportRun run) throws IOException {
+        CsvRecordReader csv = new CsvRecordReader(reader);
+        List<String> header = csv.next();
+        if (header == null) {
+            return;
+        }
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            columns.put(header.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+        List<String> missing = REQUIRED_CSV_COLUMNS.stream()
+                .filter(column -> !columns.containsKey(column))
+                .collect(Collectors.toList());
+        if (!missing.isEmpty()) {
+            throw new IllegalArgumentException("CSV header is missing column(s): " + String.join(", ", missing));
+        }
+
+        while (true) {
+            List<String> record;
+            try {
+                record = csv.next();
+            } catch (IllegalArgumentException e) {
+                // The rest of the input cannot be split into records reliably
+                run.reject(csv.getRecordLine(), null, e.getMessage());
+                return;
+            }
+            if (record == null) {
+                return;
+            }
+            if (record.size() == 1 && record.get(0).isBlank()) {
+                continue;
+            }
+
+            int line = csv.getRecordLine();
+            String name = field(record, columns, "name");
+            ProductRequestDto product = new ProductRequestDto();
+            product.setName(name);
+            product.setDescription(field(record, columns, "description"));
+            product.setCategory(field(record, columns, "category"));
+            product.setSupplierEmail(field(record, columns, "supplieremail"));
+            try {
+                String price = field(record, columns, "price");
+                product.setPrice(price == null ? null : new BigDecimal(price));
+            } catch (NumberFormatException e) {
+                run.reject(line, name, "Invalid price '" + field(record, columns, "price") + "'");
+                continue;
+            }
+            try {
+                String quantity = field(record, columns, "quantity");
+                product.setQuantity(quantity == null ? null : Integer.valueOf(quantity));
+            } catch (NumberFormatException e) {
+                run.reject(line, name, "Invalid quantity '" + field(record, columns, "quantity") + "'");
+                continue;
+            }
+            run.add(line, product);
+        }
+    }
+
+    private void readNdjson(BufferedReader reader, ImportRun run) throws IOException {
+        int line = 0;
+        String text;
+        while ((text = reader.readLine()) != null) {
+            line++;
+            if (text.isBlank()) {
+                continue;
+            }
+            try {
+                run.add(line, objectMapper.readValue(text, ProductRequestDto.class));
+            } catch (JsonProcessingException e) {
+                run.reject(line, null, "Malformed JSON: " + e.getOriginalMessage());
+            }
+        }
+    }
+
+    private static String field(List<String> record, Map<String, Integer> columns, String column) {
+        Integer index = columns.get(column);
+        if (index == null || index >= record.size()) {
+            return null;
+        }
+        String value = record.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    /**
+     * Write one chunk in the current transaction
+     *
+     * Existing names are looked up with one IN query. New products are
+     * inserted in JDBC batches when the chunk is flushed.
+     */
+    private ChunkOutcome applyChunk(List<ImportRow> rows, Mode mode) {
+        ChunkOutcome outcome = new ChunkOutcome();
+        Set<String> names = rows.stream().map(row -> row.product.getName()).collect(Collectors.toSet());
+
+        Map<String, Product> byName = new HashMap<>();
+        if (mode == Mode.UPSERT) {
+            productRepository.findByNameIn(names).forEach(product -> byName.put(product.getName(), product));
+        } else {
+            productRepository.findExistingNames(names).forEach(name -> byName.put(name, null));
+        }
+
+        List<Product> inserts = new ArrayList<>();
+        for (ImportRow row : rows) {
+            String name = row.product.getName();
+            if (byName.containsKey(name)) {
+                if (mode == Mode.CREATE) {
+                    outcome.errors.add(new ProductImportResult.RowError(row.line, name,
+                            "Product with name '" + name + "' already exists"));
+                    continue;
+                }
+                copyFields(row.product, byName.get(name));
+                outcome.updated++;
+            } else {
+                Product product = new Product();
+                copyFields(row.product, product);
+                inserts.add(product);
+                byName.put(name, product);
+                outcome.created++;
+            }
+        }
+
+        productRepository.saveAll(inserts);
+        productRepository.flush();
+        // With open-session-in-view every chunk shares one persistence context;
+        // without this, each flush would re-check every product imported so far
+        entityManager.clear();
+        return outcome;
+    }
+
+    /**
+     * Client-facing reason for a row that could not be written on its own
+     */
+    static String rowFailureMessage(RuntimeException failure) {
+        if (failure instanceof DataIntegrityViolationException) {
+            return "Conflicts with an existing product or violates a database constraint";
+        }
+        if (failure instanceof ConcurrencyFailureException) {
+            return "Product was changed by another request during the import; retry the row";
+        }
+        return "Row could not be saved";
+    }
+
+    private static void copyFields(ProductRequestDto source, Product target) {
+        target.setName(source.getName());
+        target.setDescription(source.getDescription());
+        target.setPrice(source.getPrice());
+        target.setQuantity(source.getQuantity());
+        target.setCategory(source.getCategory());
+        target.setSupplierEmail(source.getSupplierEmail());
+    }
+
+    private static class ImportRow {
+        final int line;
+        final ProductRequestDto product;
+
+        ImportRow(int line, ProductRequestDto product) {
+            this.line = line;
+            this.product = product;
+        }
+    }
+
+    private static class ChunkOutcome {
+        int created;
+        int updated;
+        final List<ProductImportResult.RowError> errors = new ArrayList<>();
+    }
+
+    /**
+     * State of one import: the pending chunk and the running totals
+     */
+    private class ImportRun {
+        final Mode mode;
+        final ProductImportResult result = new ProductImportResult();
+        final List<ImportRow> chunk = new ArrayList<>();
+
+        ImportRun(Mode mode) {
+            this.mode = mode;
+        }
+
+        void add(int line, ProductRequestDto product) {
+            result.setTotalRows(result.getTotalRows() + 1);
+            Set<ConstraintViolation<ProductRequestDto>> violations = validator.validate(product);
+            if (!violations.isEmpty()) {
+                String message = violations.stream()
+                        .map(ConstraintViolation::getMessage)
+                        .sorted()
+                        .collect(Collectors.joining("; "));
+                addError(new ProductImportResult.RowError(line, product.getName(), message));
+                return;
+            }
+            chunk.add(new ImportRow(line, product));
+            if (chunk.size() >= chunkSize) {
+                flush();
+            }
+        }
+
+        void reject(int line, String name, String message) {
+            result.setTotalRows(result.getTotalRows() + 1);
+            addError(new ProductImportResult.RowError(line, name, message));
+        }
+
+        void flush() {
+            if (chunk.isEmpty()) {
+                return;
+            }
+            try {
+                record(transactionTemplate.execute(status -> applyChunk(chunk, mode)));
+            } catch (RuntimeException chunkFailure) {
+                // Retry row by row so one conflicting row does not fail the whole chunk
+                entityManager.clear();
+                for (ImportRow row : chunk) {
+                    try {
+                        record(transactionTemplate.execute(status -> applyChunk(List.of(row), mode)));
+                    } catch (RuntimeException rowFailure) {
+                        entityManager.clear();
+                        logger.warn("Import row {} ('{}') failed: {}", row.line, row.product.getName(),
+                                NestedExceptionUtils.getMostSpecificCause(rowFailure).getMessage());
+                        addError(new ProductImportResult.RowError(row.line, row.product.getName(),
+                                rowFailureMessage(rowFailure)));
+                    }
+                }
+            }
+            chunk.clear();
+        }
+
+        private void record(ChunkOutcome outcome) {
+            result.setCreated(result.getCreated() + outcome.created);
+            result.setUpdated(result.getUpdated() + outcome.updated);
+            outcome.errors.forEach(this::addError);
+        }
+
+        private void addError(ProductImportResult.RowError error) {
+            result.setFailed(result.getFailed() + 1);
+            if (result.getErrors().size() < maxErrors) {
+                result.getErrors().add(error);
+            } else {
+                result.setErrorsTruncated(true);
+            }
+        }
+    }
+}
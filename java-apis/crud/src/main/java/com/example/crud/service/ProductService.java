@@ -1,17 +1,35 @@
 package com.example.crud.service;
 
+import com.example.crud.cache.ProductCache;
+import com.example.crud.dto.CursorPage;
 import com.example.crud.dto.ProductRequestDto;
 import com.example.crud.dto.ProductResponseDto;
+import com.example.crud.dto.ProductSearchRequest;
+import com.example.crud.dto.ProductSearchResult;
 import com.example.crud.entity.Product;
 import com.example.crud.repository.ProductRepository;
+import com.example.crud.search.ProductSearchIndex;
+import com.example.crud.watch.ProductWatchLists;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Product Service
@@ -23,16 +41,34 @@ import java.util.stream.Collectors;
  * - Entity to DTO conversion
  * - Business logic implementation
  * - Error handling
+ * - Cursor pagination and streaming for listings of any size
+ *
+ * Listings never load the whole catalog: they are either served a page at a
+ * time by keyset pagination or handed row by row to the caller from a JPA Stream.
+ * Both read DTOs directly, so no entities accumulate in the persistence context.
  */
 @Service
 @Transactional
 public class ProductService {
     
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 500;
+    
     private final ProductRepository productRepository;
+    private final ProductSearchIndex productSearchIndex;
+    private final ProductWatchLists productWatchLists;
+    private final ProductCache productCache;
+    private final StockReservationLedger reservationLedger;
     
     @Autowired
-    public ProductService(ProductRepository productRepository) {
+    public ProductService(ProductRepository productRepository, ProductSearchIndex productSearchIndex,
+                          ProductWatchLists productWatchLists, ProductCache productCache,
+                          StockReservationLedger reservationLedger) {
         this.productRepository = productRepository;
+        this.productSearchIndex = productSearchIndex;
+        this.productWatchLists = productWatchLists;
+        this.productCache = productCache;
+        this.reservationLedger = reservationLedger;
     }
     
     /**
@@ -61,23 +97,12 @@ public class ProductService {
     }
     
     /**
-     * Get all products
+     * Get product by ID, through the product cache
+     * Joins a caller's transaction but opens none, so a cache hit needs no database connection
      */
-    @Transactional(readOnly = true)
-    public List<ProductResponseDto> getAllProducts() {
-        List<Product> products = productRepository.findAll();
-        return products.stream()
-                .map(this::convertToResponseDto)
-                .collect(Collectors.toList());
-    }
-    
-    /**
-     * Get product by ID
-     */
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.SUPPORTS)
     public Optional<ProductResponseDto> getProductById(Long id) {
-        Optional<Product> product = productRepository.findById(id);
-        return product.map(this::convertToResponseDto);
+        return productCache.get(id);
     }
     
     /**
@@ -114,76 +139,191 @@ public class ProductService {
     
     /**
      * Delete product by ID
+     * Its open reservations are dropped once the delete commits
      */
     public boolean deleteProduct(Long id) {
         if (productRepository.existsById(id)) {
             productRepository.deleteById(id);
+            reservationLedger.discardAfterCommit(id);
             return true;
         }
         return false;
     }
     
     /**
-     * Get products by category
+     * Get a page of all products, ordered by id
      */
     @Transactional(readOnly = true)
-    public List<ProductResponseDto> getProductsByCategory(String category) {
-        List<Product> products = productRepository.findByCategoryIgnoreCase(category);
-        return products.stream()
-                .map(this::convertToResponseDto)
-                .collect(Collectors.toList());
+    public CursorPage<ProductResponseDto> getProductsPage(String cursor, int size) {
+        List<ProductResponseDto> rows = productRepository.findPageAfter(decodeIdCursor(cursor), fetchLimit(size));
+        return toPage(rows, size, ProductService::encodeIdCursor);
     }
     
     /**
-     * Get products by price range
+     * Get a page of products in a category, ordered by id
      */
     @Transactional(readOnly = true)
-    public List<ProductResponseDto> getProductsByPriceRange(BigDecimal minPrice, BigDecimal maxPrice) {
-        List<Product> products = productRepository.findByPriceBetween(minPrice, maxPrice);
-        return products.stream()
-                .map(this::convertToResponseDto)
-                .collect(Collectors.toList());
+    public CursorPage<ProductResponseDto> getProductsByCategoryPage(String category, String cursor, int size) {
+        List<ProductResponseDto> rows = productRepository.findPageByCategoryAfter(
+                category, decodeIdCursor(cursor), fetchLimit(size));
+        return toPage(rows, size, ProductService::encodeIdCursor);
     }
     
     /**
-     * Search products by name
+     * Get a page of products whose name contains the given text, ordered by id
      */
     @Transactional(readOnly = true)
-    public List<ProductResponseDto> searchProductsByName(String name) {
-        List<Product> products = productRepository.findByNameContainingIgnoreCase(name);
-        return products.stream()
-                .map(this::convertToResponseDto)
-                .collect(Collectors.toList());
+    public CursorPage<ProductResponseDto> searchProductsByNamePage(String name, String cursor, int size) {
+        List<ProductResponseDto> rows = productRepository.findPageByNameLikeAfter(
+                containsPattern(name), decodeIdCursor(cursor), fetchLimit(size));
+        return toPage(rows, size, ProductService::encodeIdCursor);
     }
     
     /**
-     * Get low stock products (quantity <= 10)
+     * Get a page of low stock products, ordered by id
+     * Served from the watch list once it is built
      */
     @Transactional(readOnly = true)
-    public List<ProductResponseDto> getLowStockProducts() {
-        List<Product> products = productRepository.findLowStockProducts();
-        return products.stream()
-                .map(this::convertToResponseDto)
-                .collect(Collectors.toList());
+    public CursorPage<ProductResponseDto> getLowStockProductsPage(String cursor, int size) {
+        Limit limit = fetchLimit(size);
+        Long afterId = decodeIdCursor(cursor);
+        List<ProductResponseDto> rows = productWatchLists.isReady()
+                ? first(productWatchLists.lowStockAfter(afterId).stream(), limit)
+                : productRepository.findLowStockPageAfter(productWatchLists.getLowStockThreshold(), afterId, limit);
+        return toPage(rows, size, ProductService::encodeIdCursor);
+    }
+    
+    /**
+     * Get a page of expensive products, most expensive first
+     * Served from the watch list once it is built
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<ProductResponseDto> getExpensiveProductsPage(String cursor, int size) {
+        BigDecimal afterPrice = null;
+        Long afterId = 0L;
+        if (cursor != null && !cursor.isBlank()) {
+            String[] parts = decodeCursor(cursor).split(":", 2);
+            try {
+                afterPrice = new BigDecimal(parts[0]);
+                afterId = Long.valueOf(parts[1]);
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+        }
+        Limit limit = fetchLimit(size);
+        List<ProductResponseDto> rows;
+        if (!productWatchLists.isReady()) {
+            rows = productRepository.findExpensivePageAfter(productWatchLists.getExpensiveThreshold(),
+                    afterPrice, afterId, limit);
+        } else if (afterPrice == null) {
+            rows = first(productWatchLists.expensive().stream(), limit);
+        } else {
+            rows = first(productWatchLists.expensiveAfter(afterPrice, afterId).stream(), limit);
+        }
+        return toPage(rows, size, product -> encodeCursor(product.getPrice().toPlainString() + ":" + product.getId()));
+    }
+    
+    /**
+     * Pass every product to the action, ordered by id
+     * 
+     * Rows are read from the database as the action consumes them, so memory
+     * use does not depend on the size of the catalog. The read transaction
+     * stays open until the action has seen the last row.
+     */
+    @Transactional(readOnly = true)
+    public void streamAllProducts(Consumer<? super ProductResponseDto> action) {
+        forEach(productRepository.streamAll(), action);
     }
     
     /**
-     * Get expensive products (price > 100)
+     * Pass every product in a category to the action, ordered by id
      */
     @Transactional(readOnly = true)
-    public List<ProductResponseDto> getExpensiveProducts() {
-        List<Product> products = productRepository.findExpensiveProducts();
-        return products.stream()
-                .map(this::convertToResponseDto)
+    public void streamProductsByCategory(String category, Consumer<? super ProductResponseDto> action) {
+        forEach(productRepository.streamByCategory(category), action);
+    }
+    
+    /**
+     * Pass every product in a price range to the action, ordered by id
+     */
+    @Transactional(readOnly = true)
+    public void streamProductsByPriceRange(BigDecimal minPrice, BigDecimal maxPrice,
+                                           Consumer<? super ProductResponseDto> action) {
+        forEach(productRepository.streamByPriceRange(minPrice, maxPrice), action);
+    }
+    
+    /**
+     * Pass every product whose name contains the given text to the action, ordered by id
+     */
+    @Transactional(readOnly = true)
+    public void streamProductsByName(String name, Consumer<? super ProductResponseDto> action) {
+        forEach(productRepository.streamByNameLike(containsPattern(name)), action);
+    }
+    
+    /**
+     * Pass every low stock product to the action, ordered by id
+     * Served from the watch list once it is built
+     */
+    @Transactional(readOnly = true)
+    public void streamLowStockProducts(Consumer<? super ProductResponseDto> action) {
+        if (productWatchLists.isReady()) {
+            productWatchLists.lowStock().forEach(action);
+        } else {
+            forEach(productRepository.streamLowStock(productWatchLists.getLowStockThreshold()), action);
+        }
+    }
+    
+    /**
+     * Pass every expensive product to the action, most expensive first
+     * Served from the watch list once it is built
+     */
+    @Transactional(readOnly = true)
+    public void streamExpensiveProducts(Consumer<? super ProductResponseDto> action) {
+        if (productWatchLists.isReady()) {
+            productWatchLists.expensive().forEach(action);
+        } else {
+            forEach(productRepository.streamExpensive(productWatchLists.getExpensiveThreshold()), action);
+        }
+    }
+    
+    /**
+     * Search products by text, categories and price range, with facet counts
+     * Empty until the search index has finished its initial build
+     */
+    @Transactional(readOnly = true)
+    public Optional<ProductSearchResult> searchProducts(ProductSearchRequest request) {
+        if (!productSearchIndex.isReady()) {
+            return Optional.empty();
+        }
+        ProductSearchIndex.Hits hits = productSearchIndex.search(request);
+        
+        // One query for the page, put back into the order the index chose
+        Map<Long, ProductResponseDto> byId = new HashMap<>();
+        if (!hits.getIds().isEmpty()) {
+            productRepository.findDtosByIdIn(hits.getIds()).forEach(product -> byId.put(product.getId(), product));
+        }
+        List<ProductResponseDto> content = hits.getIds().stream()
+                .map(byId::get)
+                .filter(Objects::nonNull)
                 .collect(Collectors.toList());
+        return Optional.of(new ProductSearchResult(content, hits.getTotalHits(), request.getPage(),
+                request.getSize(), hits.getCategoryFacets(), hits.getPriceFacets()));
     }
     
     /**
-     * Get product count by category
+     * Get product count by category, ordered by category
+     * Served from the search index once it is built
      */
     @Transactional(readOnly = true)
-    public List<Object[]> getProductCountByCategory() {
-        return productRepository.countProductsByCategory();
+    public Map<String, Long> getProductCountByCategory() {
+        if (productSearchIndex.isReady()) {
+            return productSearchIndex.countByCategory();
+        }
+        Map<String, Long> counts = new LinkedHashMap<>();
+        productRepository.countProductsByCategory().stream()
+                .sorted((a, b) -> ((String) a[0]).compareTo((String) b[0]))
+                .forEach(row -> counts.put((String) row[0], (Long) row[1]));
+        return counts;
     }
     
     /**
@@ -202,4 +342,70 @@ public class ProductService {
                 product.getVersion()
         );
     }
-} 
\ No newline at end of file
+    
+    private void forEach(Stream<ProductResponseDto> products, Consumer<? super ProductResponseDto> action) {
+        try (products) {
+            products.forEach(action);
+        }
+    }
+    
+    private static List<ProductResponseDto> first(Stream<ProductResponseDto> products, Limit limit) {
+        return products.limit(limit.max()).collect(Collectors.toList());
+    }
+    
+    /**
+     * Fetch one row more than the page size to learn whether another page follows
+     */
+    private Limit fetchLimit(int size) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Page size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        return Limit.of(size + 1);
+    }
+    
+    private CursorPage<ProductResponseDto> toPage(List<ProductResponseDto> rows, int size,
+                                                  Function<ProductResponseDto, String> cursorOf) {
+        boolean hasNext = rows.size() > size;
+        List<ProductResponseDto> content = hasNext ? rows.subList(0, size) : rows;
+        String nextCursor = hasNext ? cursorOf.apply(content.get(content.size() - 1)) : null;
+        return new CursorPage<>(content, content.size(), hasNext, nextCursor);
+    }
+    
+    private static String encodeIdCursor(ProductResponseDto product) {
+        return encodeCursor(String.valueOf(product.getId()));
+    }
+    
+    private static Long decodeIdCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return 0L;
+        }
+        try {
+            return Long.valueOf(decodeCursor(cursor));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+    
+    private static String encodeCursor(String value) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    private static String decodeCursor(String cursor) {
+        try {
+            return new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+    
+    /**
+     * Lower-cased LIKE pattern matching names that contain the text, with wildcards escaped
+     */
+    private static String containsPattern(String text) {
+        String escaped = text.toLowerCase(Locale.ROOT)
+                .replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+        return "%" + escaped + "%";
+    }
+}
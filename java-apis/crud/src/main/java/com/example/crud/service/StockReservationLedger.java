@@ -0,0 +1,374 @@
+package com.example.crud.service;
+
+import com.example.crud.dto.StockReservation;
+import com.example.crud.exception.InsufficientStockException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Stock Reservation Ledger
+ * In-memory record of stock held by open reservations
+ *
+ * Demonstrates:
+ * - Lock striping: products hash onto a fixed set of locks, so
+ *   reservations for different products rarely wait for each other
+ * - Lazy expiry without a background thread
+ *
+ * Reserving only touches the ledger; the product row is written once, when
+ * the reservation is confirmed. Many shoppers holding the same hot product
+ * therefore do not queue on its row lock, and a sold-out product is
+ * turned away in memory.
+ *
+ * The ledger is an admission check, not the source of truth: the conditional
+ * UPDATE that confirms a reservation still refuses to take the quantity
+ * below zero. Reservations live in this process only and are lost on restart.
+ * Expired reservations are dropped the next time their product is accessed.
+ *
+ * Decrements hold their products' stripes from reading the reserved quantity
+ * until their transaction completes ({@link #lockUntilCompletion}), and a
+ * reservation reads the quantity on hand under the same lock, so a reservation
+ * is never admitted against a quantity that a decrement is about to lower.
+ */
+@Component
+class StockReservationLedger {
+
+    private final Stripe[] stripes;
+    private final Duration defaultTtl;
+    private final Clock clock;
+
+    @Autowired
+    StockReservationLedger(@Value("${product.stock.ledger-stripes:64}") int stripeCount,
+                           @Value("${product.stock.reservation-ttl:10m}") Duration defaultTtl) {
+        this(stripeCount, defaultTtl, Clock.systemUTC());
+    }
+
+    StockReservationLedger(int stripeCount, Duration defaultTtl, Clock clock) {
+        if (stripeCount < 1) {
+            throw new IllegalArgumentException("product.stock.ledger-stripes must be at least 1");
+        }
+        // Round up to a power of two so the stripe is picked with a mask
+        int size = 1;
+        while (size < stripeCount) {
+            size <<= 1;
+        }
+        this.stripes = new Stripe[size];
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new Stripe();
+        }
+        this.defaultTtl = defaultTtl;
+        this.clock = clock;
+    }
+
+    /**
+     * Reserve quantity of a product
+     *
+     * @param onHand reads the product's current stock, empty if it does not exist; called under the
+     *               product's stripe lock, so after any decrement holding it has committed
+     * @param ttl how long the reservation is held; the configured default when null
+     * @return the reservation, or empty if the product does not exist
+     * @throws InsufficientStockException if the stock on hand minus the open reservations is less than quantity
+     */
+    Optional<StockReservation> reserve(Long productId, int quantity, Supplier<Optional<Integer>> onHand, Duration ttl) {
+        Stripe stripe = stripeFor(productId);
+        stripe.lock.lock();
+        try {
+            Optional<Integer> stock = onHand.get();
+            if (stock.isEmpty()) {
+                return Optional.empty();
+            }
+            Instant now = clock.instant();
+            Reservation reservation = new Reservation(productId + "." + UUID.randomUUID(), productId, quantity,
+                    now.plus(ttl != null ? ttl : defaultTtl));
+            ProductReservations open = stripe.products.computeIfAbsent(productId, id -> new ProductReservations());
+            open.dropExpired(now);
+            int available = stock.get() - open.reserved;
+            if (quantity > available) {
+                if (open.byId.isEmpty()) {
+                    stripe.products.remove(productId);
+                }
+                throw new InsufficientStockException(productId, quantity, Math.max(0, available));
+            }
+            open.byId.put(reservation.id, reservation);
+            open.reserved += quantity;
+            return Optional.of(reservation.toDto());
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    /**
+     * Hold the stripes of the given products until the current transaction completes
+     *
+     * Stripes are locked in index order, so two batches cannot deadlock on them.
+     * The locks are reentrant: reads of the ledger in the same transaction do not block.
+     *
+     * @throws IllegalStateException outside a transaction
+     */
+    void lockUntilCompletion(Collection<Long> productIds) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Stock decrements must run in a transaction");
+        }
+        SortedSet<Integer> indexes = new TreeSet<>();
+        productIds.forEach(productId -> indexes.add(stripeIndex(productId)));
+        List<Stripe> locked = new ArrayList<>(indexes.size());
+        for (int index : indexes) {
+            stripes[index].lock.lock();
+            locked.add(stripes[index]);
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                for (int i = locked.size() - 1; i >= 0; i--) {
+                    locked.get(i).lock.unlock();
+                }
+            }
+        });
+    }
+
+    /**
+     * Stock of the product held by open reservations
+     */
+    int reservedQuantity(Long productId) {
+        Stripe stripe = stripeFor(productId);
+        stripe.lock.lock();
+        try {
+            ProductReservations open = stripe.products.get(productId);
+            if (open == null) {
+                return 0;
+            }
+            open.dropExpired(clock.instant());
+            return open.reserved;
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    /**
+     * Mark an open reservation as being confirmed, so it cannot be confirmed twice
+     *
+     * The reservation keeps holding its stock until {@link #complete} or
+     * {@link #abort} is called.
+     *
+     * @return the reservation, or empty if it is unknown, expired or already being confirmed
+     */
+    Optional<StockReservation> beginConfirm(String reservationId) {
+        return withReservation(reservationId, (open, reservation) -> {
+            if (reservation.confirming) {
+                return Optional.empty();
+            }
+            reservation.confirming = true;
+            return Optional.of(reservation.toDto());
+        });
+    }
+
+    /**
+     * Drop a reservation whose stock has been taken out of the product, or could not be
+     */
+    void complete(StockReservation confirmed) {
+        remove(confirmed.getProductId(), confirmed.getReservationId());
+    }
+
+    /**
+     * Undo {@link #beginConfirm} after the confirmation failed for reasons unrelated to stock
+     */
+    void abort(StockReservation confirmed) {
+        Stripe stripe = stripeFor(confirmed.getProductId());
+        stripe.lock.lock();
+        try {
+            ProductReservations open = stripe.products.get(confirmed.getProductId());
+            Reservation reservation = open == null ? null : open.byId.get(confirmed.getReservationId());
+            if (reservation != null) {
+                reservation.confirming = false;
+            }
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    /**
+     * Release an open reservation without taking its stock
+     *
+     * @return false if the reservation is unknown, expired or being confirmed
+     */
+    boolean release(String reservationId) {
+        return withReservation(reservationId, (open, reservation) -> {
+            if (reservation.confirming) {
+                return Optional.empty();
+            }
+            open.remove(reservation);
+            return Optional.of(reservation.toDto());
+        }).isPresent();
+    }
+
+    /**
+     * Forget every reservation of a product, e.g. once it is gone
+     */
+    void discard(Long productId) {
+        Stripe stripe = stripeFor(productId);
+        stripe.lock.lock();
+        try {
+            stripe.products.remove(productId);
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    /**
+     * {@link #discard} once the surrounding transaction commits, so a rolled-back
+     * delete keeps the product's reservations
+     */
+    void discardAfterCommit(Long productId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            discard(productId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                discard(productId);
+            }
+        });
+    }
+
+    private void remove(Long productId, String reservationId) {
+        Stripe stripe = stripeFor(productId);
+        stripe.lock.lock();
+        try {
+            ProductReservations open = stripe.products.get(productId);
+            if (open == null) {
+                return;
+            }
+            Reservation reservation = open.byId.get(reservationId);
+            if (reservation != null) {
+                open.remove(reservation);
+            }
+            if (open.byId.isEmpty()) {
+                stripe.products.remove(productId);
+            }
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    private Optional<StockReservation> withReservation(String reservationId, ReservationAction action) {
+        Long productId = productIdOf(reservationId);
+        if (productId == null) {
+            return Optional.empty();
+        }
+        Stripe stripe = stripeFor(productId);
+        stripe.lock.lock();
+        try {
+            ProductReservations open = stripe.products.get(productId);
+            if (open == null) {
+                return Optional.empty();
+            }
+            open.dropExpired(clock.instant());
+            Reservation reservation = open.byId.get(reservationId);
+            Optional<StockReservation> result = reservation == null ? Optional.empty() : action.apply(open, reservation);
+            if (open.byId.isEmpty()) {
+                stripe.products.remove(productId);
+            }
+            return result;
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    private Stripe stripeFor(Long productId) {
+        return stripes[stripeIndex(productId)];
+    }
+
+    private int stripeIndex(Long productId) {
+        int hash = productId.hashCode();
+        // Spread the high bits so sequential ids do not cluster on neighbouring stripes only
+        return (hash ^ (hash >>> 16)) & (stripes.length - 1);
+    }
+
+    private static Long productIdOf(String reservationId) {
+        int dot = reservationId == null ? -1 : reservationId.indexOf('.');
+        if (dot <= 0) {
+            return null;
+        }
+        try {
+            return Long.valueOf(reservationId.substring(0, dot));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    @FunctionalInterface
+    private interface ReservationAction {
+        Optional<StockReservation> apply(ProductReservations open, Reservation reservation);
+    }
+
+    private static final class Stripe {
+        final ReentrantLock lock = new ReentrantLock();
+        // Guarded by lock
+        final Map<Long, ProductReservations> products = new HashMap<>();
+    }
+
+    /**
+     * Open reservations of one product; guarded by its stripe's lock
+     */
+    private static final class ProductReservations {
+        final Map<String, Reservation> byId = new LinkedHashMap<>();
+        int reserved;
+
+        void dropExpired(Instant now) {
+            Iterator<Reservation> it = byId.values().iterator();
+            while (it.hasNext()) {
+                Reservation reservation = it.next();
+                // A reservation being confirmed holds its stock until the confirmation finishes
+                if (!reservation.confirming && !reservation.expiresAt.isAfter(now)) {
+                    it.remove();
+                    reserved -= reservation.quantity;
+                }
+            }
+        }
+
+        void remove(Reservation reservation) {
+            if (byId.remove(reservation.id) != null) {
+                reserved -= reservation.quantity;
+            }
+        }
+    }
+
+    private static final class Reservation {
+        final String id;
+        final Long productId;
+        final int quantity;
+        final Instant expiresAt;
+        boolean confirming;
+
+        Reservation(String id, Long productId, int quantity, Instant expiresAt) {
+            this.id = id;
+            this.productId = productId;
+            this.quantity = quantity;
+            this.expiresAt = expiresAt;
+        }
+
+        StockReservation toDto() {
+            return new StockReservation(id, productId, quantity, expiresAt);
+        }
+    }
+}
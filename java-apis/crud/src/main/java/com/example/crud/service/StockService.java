@@ -0,0 +1,235 @@
+package com.example.crud.service;
+
+import com.example.crud.cache.CatalogVersion;
+import com.example.crud.cache.ProductCache;
+import com.example.crud.dto.StockAdjustmentRequest;
+import com.example.crud.dto.StockLevel;
+import com.example.crud.dto.StockReservation;
+import com.example.crud.exception.InsufficientStockException;
+import com.example.crud.repository.ProductRepository;
+import com.example.crud.watch.ProductWatchLists;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+
+/**
+ * Stock Service
+ * Atomic changes to product quantities, and reservations of stock
+ *
+ * Demonstrates:
+ * - Conditional UPDATEs instead of load-modify-save
+ * - All-or-nothing batches with a fixed lock order
+ * - Reservations held in memory ({@link StockReservationLedger})
+ *
+ * A decrement never takes the quantity below what open reservations hold,
+ * so reserved stock cannot be sold twice: it holds the product's ledger lock
+ * from reading the reserved quantity until it commits, and reservations read
+ * the quantity under that lock. Each change bumps the product's
+ * version, so a full update (PUT) based on an older read fails with 409
+ * instead of overwriting the new quantity.
+ */
+@Service
+public class StockService {
+
+    // Same bound as the Quantity validation on Product
+    static final int MAX_QUANTITY = 999999;
+
+    private final ProductRepository productRepository;
+    private final StockReservationLedger ledger;
+    private final ProductWatchLists productWatchLists;
+    private final CatalogVersion catalogVersion;
+    private final ProductCache productCache;
+    private final TransactionTemplate transactionTemplate;
+
+    @Autowired
+    public StockService(ProductRepository productRepository, StockReservationLedger ledger,
+                        ProductWatchLists productWatchLists, CatalogVersion catalogVersion,
+                        ProductCache productCache, PlatformTransactionManager transactionManager) {
+        this.productRepository = productRepository;
+        this.ledger = ledger;
+        this.productWatchLists = productWatchLists;
+        this.catalogVersion = catalogVersion;
+        this.productCache = productCache;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Current quantity of a product and the part of it held by reservations
+     */
+    @Transactional(readOnly = true)
+    public Optional<StockLevel> getStockLevel(Long productId) {
+        return productRepository.findStockLevelById(productId).map(this::withReserved);
+    }
+
+    /**
+     * Add delta to a product's quantity in one conditional UPDATE
+     *
+     * @return the new stock level, or empty if the product does not exist
+     * @throws InsufficientStockException if a decrement would dip into reserved stock or below zero
+     * @throws IllegalArgumentException if delta is zero or an increment would exceed the maximum quantity
+     */
+    @Transactional
+    public Optional<StockLevel> adjustStock(Long productId, int delta) {
+        requireNonZero(delta);
+        if (delta < 0) {
+            ledger.lockUntilCompletion(List.of(productId));
+        }
+        if (!adjust(productId, delta, delta < 0 ? ledger.reservedQuantity(productId) : 0)) {
+            return Optional.empty();
+        }
+        return stockLevelAfterAdjust(productId).map(this::withReserved);
+    }
+
+    /**
+     * Apply several adjustments in one transaction; none are applied if any fails
+     *
+     * Adjustments of the same product are summed, and products are updated
+     * in id order, so two overlapping batches cannot deadlock on row locks.
+     *
+     * @throws IllegalArgumentException if a product does not exist or an increment would exceed the maximum
+     * @throws InsufficientStockException if any product lacks the stock
+     */
+    @Transactional
+    public List<StockLevel> adjustStock(List<StockAdjustmentRequest> adjustments) {
+        Map<Long, Integer> deltas = new TreeMap<>();
+        for (StockAdjustmentRequest adjustment : adjustments) {
+            if (adjustment.getProductId() == null) {
+                throw new IllegalArgumentException("Every adjustment in a batch needs a productId");
+            }
+            requireNonZero(adjustment.getDelta());
+            deltas.merge(adjustment.getProductId(), adjustment.getDelta(), Integer::sum);
+        }
+
+        List<Long> decremented = deltas.entrySet().stream()
+                .filter(entry -> entry.getValue() < 0)
+                .map(Map.Entry::getKey)
+                .toList();
+        if (!decremented.isEmpty()) {
+            // All at once, before any row is locked
+            ledger.lockUntilCompletion(decremented);
+        }
+
+        List<StockLevel> levels = new ArrayList<>(deltas.size());
+        deltas.forEach((productId, delta) -> {
+            if (!adjust(productId, delta, delta < 0 ? ledger.reservedQuantity(productId) : 0)) {
+                throw new IllegalArgumentException("Product not found: " + productId);
+            }
+            levels.add(stockLevelAfterAdjust(productId).map(this::withReserved).orElseThrow());
+        });
+        return levels;
+    }
+
+    /**
+     * Hold stock of a product without changing its quantity yet
+     *
+     * @param ttl how long to hold it; the configured default when null
+     * @return the reservation, or empty if the product does not exist
+     * @throws InsufficientStockException if the quantity not yet reserved is too small
+     */
+    @Transactional(readOnly = true)
+    public Optional<StockReservation> reserve(Long productId, int quantity, Duration ttl) {
+        // A plain read: reserving takes no row lock, however hot the product is
+        return ledger.reserve(productId, quantity, () -> productRepository.findQuantityById(productId), ttl);
+    }
+
+    /**
+     * Take a reservation's stock out of the product and close the reservation
+     *
+     * @return the new stock level, or empty if the reservation is unknown, expired or already confirmed
+     * @throws InsufficientStockException if the stock was taken by other means in the meantime
+     */
+    public Optional<StockLevel> confirmReservation(String reservationId) {
+        Optional<StockReservation> begun = ledger.beginConfirm(reservationId);
+        if (begun.isEmpty()) {
+            return Optional.empty();
+        }
+        StockReservation reservation = begun.get();
+        try {
+            // Other reservations keep their hold; this one is still counted until it completes
+            Optional<StockLevel> level = transactionTemplate.execute(status -> {
+                ledger.lockUntilCompletion(List.of(reservation.getProductId()));
+                int otherReservations = ledger.reservedQuantity(reservation.getProductId()) - reservation.getQuantity();
+                if (!adjust(reservation.getProductId(), -reservation.getQuantity(), Math.max(0, otherReservations))) {
+                    return Optional.<StockLevel>empty();
+                }
+                return stockLevelAfterAdjust(reservation.getProductId());
+            });
+            ledger.complete(reservation);
+            if (level.isEmpty()) {
+                ledger.discard(reservation.getProductId());
+            }
+            return level.map(this::withReserved);
+        } catch (InsufficientStockException e) {
+            // The reservation cannot be honoured any more
+            ledger.complete(reservation);
+            throw e;
+        } catch (RuntimeException e) {
+            ledger.abort(reservation);
+            throw e;
+        }
+    }
+
+    /**
+     * Give up a reservation
+     *
+     * @return false if the reservation is unknown, expired or being confirmed
+     */
+    public boolean releaseReservation(String reservationId) {
+        return ledger.release(reservationId);
+    }
+
+    /**
+     * Run the conditional UPDATE, keeping the result within [floor, MAX_QUANTITY]
+     *
+     * @return false if the product does not exist
+     */
+    private boolean adjust(Long productId, int delta, int floor) {
+        if (productRepository.adjustQuantity(productId, delta, floor, MAX_QUANTITY, LocalDateTime.now()) == 1) {
+            return true;
+        }
+        // No row changed: find out whether the product is missing or the bounds were hit
+        Optional<Integer> quantity = productRepository.findQuantityById(productId);
+        if (quantity.isEmpty()) {
+            return false;
+        }
+        if (delta > 0) {
+            throw new IllegalArgumentException("Quantity of product " + productId + " cannot exceed " + MAX_QUANTITY);
+        }
+        throw new InsufficientStockException(productId, -delta, Math.max(0, quantity.get() - floor));
+    }
+
+    /**
+     * Read the stock level just written, and tell the watch lists, catalog version and
+     * product cache, which the bulk UPDATE bypassed
+     */
+    private Optional<StockLevel> stockLevelAfterAdjust(Long productId) {
+        Optional<StockLevel> level = productRepository.findStockLevelById(productId);
+        level.ifPresent(stock -> {
+            productWatchLists.quantityChangedAfterCommit(productId, stock.getQuantity());
+            catalogVersion.changedAfterCommit();
+            productCache.evictAfterCommit(productId);
+        });
+        return level;
+    }
+
+    private static void requireNonZero(int delta) {
+        if (delta == 0) {
+            throw new IllegalArgumentException("Delta cannot be zero");
+        }
+    }
+
+    private StockLevel withReserved(StockLevel level) {
+        level.setReserved(ledger.reservedQuantity(level.getProductId()));
+        return level;
+    }
+}
@@ -0,0 +1,170 @@
+package com.example.crud.watch;
+
+import com.example.crud.dto.ProductWatchEvent;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Product Watch Event Stream
+ * Pushes watch list changes to Server-Sent Events subscribers
+ *
+ * Demonstrates:
+ * - SseEmitter for server push over plain HTTP
+ * - A bounded queue per subscriber, drained by a small sender pool
+ *
+ * Publishing only enqueues, so a product write never waits for a client's
+ * network. A client that falls more than subscriber-queue events behind is
+ * disconnected; EventSource clients reconnect by themselves and should
+ * re-read the lists. Connections are also closed after stream-timeout, and a
+ * comment is sent every 30 seconds so idle connections stay open.
+ */
+@Component
+public class ProductWatchEventStream {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductWatchEventStream.class);
+
+    private static final Duration HEARTBEAT_INTERVAL = Duration.ofSeconds(30);
+    private static final ProductWatchEvent HEARTBEAT = new ProductWatchEvent(0, null, null, null);
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final ExecutorService senders;
+    private final ScheduledExecutorService heartbeat;
+    private final Duration timeout;
+    private final int queueCapacity;
+
+    @Autowired
+    public ProductWatchEventStream(@Value("${product.watch.stream-timeout:30m}") Duration timeout,
+                                   @Value("${product.watch.subscriber-queue:1000}") int queueCapacity,
+                                   @Value("${product.watch.sender-threads:2}") int senderThreads) {
+        this.timeout = timeout;
+        this.queueCapacity = queueCapacity;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.senders = Executors.newFixedThreadPool(senderThreads, runnable -> {
+            Thread thread = new Thread(runnable, "watch-sse-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.heartbeat = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "watch-sse-heartbeat");
+            thread.setDaemon(true);
+            return thread;
+        });
+        heartbeat.scheduleAtFixedRate(() -> subscribers.forEach(subscriber -> subscriber.offer(HEARTBEAT)),
+                HEARTBEAT_INTERVAL.toMillis(), HEARTBEAT_INTERVAL.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Open a stream of the changes to the given lists
+     */
+    public SseEmitter subscribe(Set<String> lists) {
+        SseEmitter emitter = new SseEmitter(timeout.toMillis());
+        Subscriber subscriber = new Subscriber(emitter, lists);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(error -> subscribers.remove(subscriber));
+        subscribers.add(subscriber);
+        return emitter;
+    }
+
+    /**
+     * Queue the event for every subscriber of its list
+     */
+    public void publish(ProductWatchEvent event) {
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.lists.contains(event.getList())) {
+                subscriber.offer(event);
+            }
+        }
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        heartbeat.shutdownNow();
+        senders.shutdownNow();
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+    }
+
+    private final class Subscriber {
+        final SseEmitter emitter;
+        final Set<String> lists;
+        // Guarded by this
+        private final Queue<ProductWatchEvent> queue = new ArrayDeque<>();
+        private boolean draining;
+
+        Subscriber(SseEmitter emitter, Set<String> lists) {
+            this.emitter = emitter;
+            this.lists = lists;
+        }
+
+        void offer(ProductWatchEvent event) {
+            synchronized (this) {
+                if (queue.size() >= queueCapacity) {
+                    logger.warn("Disconnecting a watch list subscriber that is {} events behind", queue.size());
+                    queue.clear();
+                    subscribers.remove(this);
+                    emitter.complete();
+                    return;
+                }
+                queue.add(event);
+                if (draining) {
+                    return;
+                }
+                draining = true;
+            }
+            senders.execute(this::drain);
+        }
+
+        private void drain() {
+            while (true) {
+                ProductWatchEvent event;
+                synchronized (this) {
+                    if (queue.isEmpty()) {
+                        draining = false;
+                        return;
+                    }
+                    event = queue.poll();
+                }
+                try {
+                    if (event == HEARTBEAT) {
+                        emitter.send(SseEmitter.event().comment("keep-alive"));
+                    } else {
+                        emitter.send(SseEmitter.event()
+                                .id(String.valueOf(event.getSequence()))
+                                .name(event.getList())
+                                .data(event, MediaType.APPLICATION_JSON));
+                    }
+                } catch (IOException | IllegalStateException e) {
+                    // The client went away or the emitter already completed
+                    subscribers.remove(this);
+                    synchronized (this) {
+                        queue.clear();
+                        draining = false;
+                    }
+                    return;
+                }
+            }
+        }
+    }
+}
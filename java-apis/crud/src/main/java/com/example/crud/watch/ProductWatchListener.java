@@ -0,0 +1,52 @@
+package com.example.crud.watch;
+
+import com.example.crud.dto.ProductResponseDto;
+import com.example.crud.entity.Product;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * JPA entity listener that keeps {@link ProductWatchLists} in sync with Product writes
+ *
+ * Demonstrates:
+ * - Entity lifecycle callbacks
+ * - Spring injection into JPA entity listeners
+ *
+ * Like the search index listener, it copies the product when the callback
+ * fires and applies it after commit.
+ */
+public class ProductWatchListener {
+
+    @Autowired
+    private ObjectProvider<ProductWatchLists> watchLists;
+
+    @PostPersist
+    @PostUpdate
+    public void onSave(Product product) {
+        ProductWatchLists lists = watchLists.getIfAvailable();
+        if (lists != null) {
+            lists.indexAfterCommit(new ProductResponseDto(
+                    product.getId(),
+                    product.getName(),
+                    product.getDescription(),
+                    product.getPrice(),
+                    product.getQuantity(),
+                    product.getCategory(),
+                    product.getCreatedAt(),
+                    product.getUpdatedAt(),
+                    product.getVersion()
+            ));
+        }
+    }
+
+    @PostRemove
+    public void onRemove(Product product) {
+        ProductWatchLists lists = watchLists.getIfAvailable();
+        if (lists != null) {
+            lists.removeAfterCommit(product.getId(), product.getVersion());
+        }
+    }
+}
@@ -0,0 +1,409 @@
+package com.example.crud.watch;
+
+import com.example.crud.dto.ProductResponseDto;
+import com.example.crud.dto.ProductWatchEvent;
+import com.example.crud.repository.ProductRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * Product Watch Lists
+ * Low-stock and expensive products, kept in memory and updated on every product write
+ *
+ * Demonstrates:
+ * - Materialized views maintained incrementally instead of re-queried
+ * - Concurrent sorted sets (ConcurrentSkipListSet) for lock-free reads
+ * - Change events for {@link ProductWatchEventStream}
+ *
+ * A product is on the low-stock list while its quantity is at or below
+ * product.watch.low-stock-threshold (ordered by id), and on the expensive
+ * list while its price is above product.watch.expensive-threshold (most
+ * expensive first). Only those products are held in full in memory.
+ *
+ * The lists are built from the database when the application is ready.
+ * {@link ProductWatchListener} applies entity writes after they commit.
+ * Bulk JPQL updates bypass the listener, so they must call
+ * {@link #quantityChangedAfterCommit} or {@link #refreshAfterCommit} themselves.
+ *
+ * Commit callbacks of concurrent transactions can run in any order, so each
+ * list keeps the last version it saw of every written product, on the list or
+ * not, and ignores older writes. Deleted products leave a tombstone with their
+ * last version, so a write applied after the delete cannot bring them back.
+ */
+@Component
+public class ProductWatchLists {
+
+    public static final String LOW_STOCK = "low-stock";
+    public static final String EXPENSIVE = "expensive";
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductWatchLists.class);
+
+    private final ProductRepository productRepository;
+    private final ProductWatchEventStream eventStream;
+    private final TransactionTemplate readOnlyTransaction;
+    private final int lowStockThreshold;
+    private final BigDecimal expensiveThreshold;
+    private final AtomicLong sequence = new AtomicLong();
+
+    // Writers hold this lock; readers use the concurrent sets directly
+    private final Object writeLock = new Object();
+    private volatile Lists lists;
+    // Changes that arrive while a rebuild is reading the database; non-null only during a rebuild
+    private List<Consumer<Lists>> pendingDuringRebuild;
+
+    private volatile boolean ready;
+
+    @Autowired
+    public ProductWatchLists(ProductRepository productRepository,
+                             ProductWatchEventStream eventStream,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${product.watch.low-stock-threshold:10}") int lowStockThreshold,
+                             @Value("${product.watch.expensive-threshold:100}") BigDecimal expensiveThreshold) {
+        this.productRepository = productRepository;
+        this.eventStream = eventStream;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.lowStockThreshold = lowStockThreshold;
+        this.expensiveThreshold = expensiveThreshold;
+        this.lists = newLists();
+    }
+
+    public int getLowStockThreshold() {
+        return lowStockThreshold;
+    }
+
+    public BigDecimal getExpensiveThreshold() {
+        return expensiveThreshold;
+    }
+
+    /**
+     * Whether the initial build has finished; until then the lists are incomplete
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Load both lists from the database, replacing the current ones
+     *
+     * Reads keep using the old lists until the new ones are complete. Writes
+     * committed meanwhile are replayed onto the new lists before they are swapped in.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        long start = System.nanoTime();
+        synchronized (writeLock) {
+            pendingDuringRebuild = new ArrayList<>();
+        }
+
+        Lists fresh = newLists();
+        try {
+            readOnlyTransaction.executeWithoutResult(status -> {
+                try (Stream<ProductResponseDto> products = productRepository.streamLowStock(lowStockThreshold)) {
+                    products.forEach(product -> fresh.lowStock.put(product, event -> { }));
+                }
+                try (Stream<ProductResponseDto> products = productRepository.streamExpensive(expensiveThreshold)) {
+                    products.forEach(product -> fresh.expensive.put(product, event -> { }));
+                }
+            });
+        } catch (RuntimeException e) {
+            synchronized (writeLock) {
+                pendingDuringRebuild = null;
+            }
+            throw e;
+        }
+
+        synchronized (writeLock) {
+            // Versions seen before the rebuild started still have to hold back late writes
+            fresh.keepVersionsOf(lists);
+            // Stale replays are ignored: put() keeps the higher version
+            pendingDuringRebuild.forEach(change -> change.accept(fresh));
+            pendingDuringRebuild = null;
+            lists = fresh;
+            ready = true;
+        }
+        logger.info("Loaded {} low-stock and {} expensive products in {} ms", fresh.lowStock.size(),
+                fresh.expensive.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Low-stock products, ordered by id
+     */
+    public NavigableSet<ProductResponseDto> lowStock() {
+        return lists.lowStock.entries;
+    }
+
+    /**
+     * Low-stock products with an id greater than afterId, ordered by id
+     */
+    public NavigableSet<ProductResponseDto> lowStockAfter(Long afterId) {
+        return lists.lowStock.entries.tailSet(probe(afterId, null), false);
+    }
+
+    /**
+     * Expensive products, most expensive first, then by id
+     */
+    public NavigableSet<ProductResponseDto> expensive() {
+        return lists.expensive.entries;
+    }
+
+    /**
+     * Expensive products after the given position, most expensive first, then by id
+     */
+    public NavigableSet<ProductResponseDto> expensiveAfter(BigDecimal afterPrice, Long afterId) {
+        return lists.expensive.entries.tailSet(probe(afterId, afterPrice), false);
+    }
+
+    /**
+     * Apply the product's new state once the current transaction commits
+     */
+    public void indexAfterCommit(ProductResponseDto product) {
+        afterCommit(() -> apply(lists -> lists.put(product)));
+    }
+
+    /**
+     * Remove the product from both lists once the current transaction commits
+     *
+     * @param version the deleted product's version; writes of this version or older are ignored afterwards
+     */
+    public void removeAfterCommit(Long id, Long version) {
+        afterCommit(() -> apply(lists -> lists.remove(id, version)));
+    }
+
+    /**
+     * Reload the product after commit and apply its state, for changes that bypass JPA entity callbacks
+     */
+    public void refreshAfterCommit(Long id) {
+        afterCommit(() -> refresh(id));
+    }
+
+    /**
+     * Like {@link #refreshAfterCommit}, but skips the reload when the new quantity cannot change either list
+     */
+    public void quantityChangedAfterCommit(Long id, int quantity) {
+        afterCommit(() -> {
+            Lists current = lists;
+            if (quantity > lowStockThreshold && !current.lowStock.contains(id) && !current.expensive.contains(id)) {
+                return;
+            }
+            refresh(id);
+        });
+    }
+
+    private void refresh(Long id) {
+        List<ProductResponseDto> found = productRepository.findDtosByIdIn(List.of(id));
+        if (found.isEmpty()) {
+            apply(lists -> lists.remove(id, null));
+        } else {
+            ProductResponseDto product = found.get(0);
+            apply(lists -> lists.put(product));
+        }
+    }
+
+    private void afterCommit(Runnable change) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            change.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                change.run();
+            }
+        });
+    }
+
+    private void apply(Consumer<Lists> change) {
+        synchronized (writeLock) {
+            change.accept(lists);
+            if (pendingDuringRebuild != null) {
+                pendingDuringRebuild.add(fresh -> fresh.replay(change));
+            }
+        }
+    }
+
+    private Lists newLists() {
+        return new Lists(
+                new WatchList(LOW_STOCK,
+                        product -> product.getQuantity() != null && product.getQuantity() <= lowStockThreshold,
+                        Comparator.comparing(ProductResponseDto::getId)),
+                new WatchList(EXPENSIVE,
+                        product -> product.getPrice() != null && product.getPrice().compareTo(expensiveThreshold) > 0,
+                        Comparator.comparing(ProductResponseDto::getPrice, Comparator.reverseOrder())
+                                .thenComparing(ProductResponseDto::getId)));
+    }
+
+    /**
+     * The higher of two versions; null (unversioned) only when both are
+     */
+    private static Long newerVersion(Long first, Long second) {
+        if (first == null) {
+            return second;
+        }
+        return second == null ? first : Math.max(first, second);
+    }
+
+    private static ProductResponseDto probe(Long id, BigDecimal price) {
+        ProductResponseDto probe = new ProductResponseDto();
+        probe.setId(id);
+        probe.setPrice(price);
+        return probe;
+    }
+
+    /**
+     * Both lists, plus where their change events go
+     */
+    private final class Lists {
+        final WatchList lowStock;
+        final WatchList expensive;
+        // Replays onto a list being rebuilt must not publish events a second time
+        private boolean replaying;
+
+        Lists(WatchList lowStock, WatchList expensive) {
+            this.lowStock = lowStock;
+            this.expensive = expensive;
+        }
+
+        void put(ProductResponseDto product) {
+            lowStock.put(product, this::publish);
+            expensive.put(product, this::publish);
+        }
+
+        void remove(Long id, Long version) {
+            lowStock.remove(id, version, this::publish);
+            expensive.remove(id, version, this::publish);
+        }
+
+        void keepVersionsOf(Lists previous) {
+            lowStock.keepVersionsOf(previous.lowStock);
+            expensive.keepVersionsOf(previous.expensive);
+        }
+
+        void replay(Consumer<Lists> change) {
+            replaying = true;
+            try {
+                change.accept(this);
+            } finally {
+                replaying = false;
+            }
+        }
+
+        private void publish(ProductWatchEvent event) {
+            if (!replaying && ready) {
+                eventStream.publish(event);
+            }
+        }
+    }
+
+    /**
+     * One threshold-based list; mutated only under the enclosing writeLock
+     */
+    private final class WatchList {
+        final String name;
+        final Predicate<ProductResponseDto> accepts;
+        final NavigableSet<ProductResponseDto> entries;
+        final Map<Long, ProductResponseDto> byId = new ConcurrentHashMap<>();
+        // Last version seen of written products that are not on the list; members keep theirs in byId
+        final Map<Long, Long> outsideVersions = new HashMap<>();
+        // Deleted product id -> last version; ids come from a sequence, so one entry per deleted product
+        final Map<Long, Long> tombstones = new HashMap<>();
+
+        WatchList(String name, Predicate<ProductResponseDto> accepts, Comparator<ProductResponseDto> order) {
+            this.name = name;
+            this.accepts = accepts;
+            this.entries = new ConcurrentSkipListSet<>(order);
+        }
+
+        int size() {
+            return byId.size();
+        }
+
+        boolean contains(Long id) {
+            return byId.containsKey(id);
+        }
+
+        void put(ProductResponseDto product, Consumer<ProductWatchEvent> events) {
+            Long id = product.getId();
+            if (tombstones.containsKey(id)) {
+                Long deletedVersion = tombstones.get(id);
+                if (deletedVersion == null || product.getVersion() == null || product.getVersion() <= deletedVersion) {
+                    return;
+                }
+                tombstones.remove(id);
+            }
+            ProductResponseDto current = byId.get(id);
+            if (isOlder(product.getVersion(), current != null ? current.getVersion() : outsideVersions.get(id))) {
+                return;
+            }
+            if (!accepts.test(product)) {
+                if (product.getVersion() != null) {
+                    outsideVersions.put(id, product.getVersion());
+                }
+                if (current != null) {
+                    entries.remove(current);
+                    byId.remove(id);
+                    events.accept(event(ProductWatchEvent.Type.LEFT, product));
+                }
+                return;
+            }
+            outsideVersions.remove(id);
+            if (current != null) {
+                entries.remove(current);
+            }
+            // Add before the id map so readers that find an id also find its entry
+            entries.add(product);
+            byId.put(id, product);
+            events.accept(event(current == null ? ProductWatchEvent.Type.ENTERED : ProductWatchEvent.Type.UPDATED,
+                    product));
+        }
+
+        void remove(Long id, Long version, Consumer<ProductWatchEvent> events) {
+            ProductResponseDto current = byId.remove(id);
+            Long lastVersion = current != null ? current.getVersion() : outsideVersions.remove(id);
+            tombstones.put(id, newerVersion(tombstones.get(id), newerVersion(version, lastVersion)));
+            if (current != null) {
+                entries.remove(current);
+                events.accept(event(ProductWatchEvent.Type.LEFT, current));
+            }
+        }
+
+        /**
+         * Take over the versions the previous list saw; its members are in the database read instead
+         */
+        void keepVersionsOf(WatchList previous) {
+            tombstones.putAll(previous.tombstones);
+            outsideVersions.putAll(previous.outsideVersions);
+        }
+
+        private ProductWatchEvent event(ProductWatchEvent.Type type, ProductResponseDto product) {
+            return new ProductWatchEvent(sequence.incrementAndGet(), name, type, product);
+        }
+
+        private boolean isOlder(Long candidate, Long current) {
+            return candidate != null && current != null && candidate < current;
+        }
+    }
+}
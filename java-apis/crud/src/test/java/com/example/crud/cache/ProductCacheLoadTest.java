@@ -0,0 +1,142 @@
+package com.example.crud.cache;
+
+import com.example.crud.dto.ProductRequestDto;
+import com.example.crud.service.ProductService;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Load test for single-product reads through {@link ProductCache}
+ *
+ * Demonstrates:
+ * - Read throughput under a skewed workload: 80% of reads go to 20% of the products
+ * - Stampede protection: concurrent misses for one id cause a single load
+ *
+ * Skipped by default. Compare implementations with
+ * {@code mvn test -Dtest=ProductCacheLoadTest -Dloadtest=true -Dproduct.cache.type=caffeine}
+ * and the same with {@code -Dproduct.cache.type=none}.
+ */
+@SpringBootTest
+@EnabledIfSystemProperty(named = "loadtest", matches = "true")
+class ProductCacheLoadTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductCacheLoadTest.class);
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductCache productCache;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void skewedReadThroughput() throws InterruptedException {
+        int products = Integer.getInteger("loadtest.products", 5000);
+        int threads = Integer.getInteger("loadtest.threads", 8);
+        long seconds = Long.getLong("loadtest.seconds", 5);
+
+        List<Long> ids = new ArrayList<>(products);
+        for (int i = 0; i < products; i++) {
+            ids.add(createProduct("Load " + i));
+        }
+
+        // The first round warms the JIT and the cache; only the second is reported
+        readFor(ids, threads, seconds);
+        long reads = readFor(ids, threads, seconds);
+
+        logger.info("{}: {} threads, {} products, {} reads/s",
+                productCache.getClass().getSimpleName(), threads, products, reads / seconds);
+    }
+
+    @Test
+    void concurrentMissesShareOneLoad() throws Exception {
+        assumeTrue(productCache instanceof CaffeineProductCache, "only the Caffeine cache coalesces loads");
+        Long id = createProduct("Stampede");
+        productCache.evictAfterCommit(id);
+
+        int threads = 32;
+        double loadsBefore = loads();
+        CyclicBarrier barrier = new CyclicBarrier(threads);
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        List<Future<Boolean>> reads = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            reads.add(pool.submit(() -> {
+                barrier.await();
+                return productCache.get(id).isPresent();
+            }));
+        }
+        for (Future<Boolean> read : reads) {
+            assertTrue(read.get(30, TimeUnit.SECONDS));
+        }
+        pool.shutdown();
+
+        assertEquals(1, loads() - loadsBefore, 0.0);
+    }
+
+    private Long createProduct(String name) {
+        ProductRequestDto request = new ProductRequestDto(name + " " + System.nanoTime(), "Load test product",
+                new BigDecimal("19.99"), 10, "LoadTest", "load@example.com");
+        return productService.createProduct(request).getId();
+    }
+
+    /**
+     * Read products from every thread for the given time; 80% of reads hit the first fifth of the ids
+     *
+     * @return the number of reads made
+     */
+    private long readFor(List<Long> ids, int threads, long seconds) throws InterruptedException {
+        int hot = Math.max(1, ids.size() / 5);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        AtomicLong reads = new AtomicLong();
+        CountDownLatch done = new CountDownLatch(threads);
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        for (int i = 0; i < threads; i++) {
+            pool.execute(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                long count = 0;
+                while (System.nanoTime() < deadline) {
+                    int index = random.nextInt(100) < 80 ? random.nextInt(hot) : random.nextInt(ids.size());
+                    productService.getProductById(ids.get(index));
+                    count++;
+                }
+                reads.addAndGet(count);
+                done.countDown();
+            });
+        }
+        assertTrue(done.await(seconds + 60, TimeUnit.SECONDS), "readers did not finish");
+        pool.shutdown();
+        return reads.get();
+    }
+
+    private double loads() {
+        FunctionCounter counter = meterRegistry.find("cache.load")
+                .tags("cache", CaffeineProductCache.CACHE_NAME, "result", "success")
+                .functionCounter();
+        return counter == null ? 0 : counter.count();
+    }
+}
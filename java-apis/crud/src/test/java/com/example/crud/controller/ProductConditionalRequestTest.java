@@ -0,0 +1,201 @@
+package com.example.crud.controller;
+
+import com.example.crud.dto.ProductRequestDto;
+import com.example.crud.dto.ProductResponseDto;
+import com.example.crud.service.ProductService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Tests for conditional GETs on products and listings
+ *
+ * Demonstrates:
+ * - Strong ETags from the product version, and 304 Not Modified without a body for a current copy
+ * - Weak and multi-valued If-None-Match headers, compared the weak way as HTTP requires for GET
+ * - Listing ETags from the catalog version, which moves only once a write commits
+ * - Different tags for the JSON and NDJSON representations of a streamed listing
+ *
+ * Each test works in its own category, so products created by other tests
+ * in the shared database do not change the results.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class ProductConditionalRequestTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void productIsTaggedWithItsVersion() throws Exception {
+        ProductResponseDto product = createProduct(uniqueCategory());
+
+        mockMvc.perform(get("/products/" + product.getId()))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"" + product.getVersion() + "\""))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache, public"))
+                .andExpect(header().exists(HttpHeaders.LAST_MODIFIED));
+    }
+
+    @Test
+    void matchingIfNoneMatchIsAnsweredWithNotModified() throws Exception {
+        ProductResponseDto product = createProduct(uniqueCategory());
+        String etag = etagOf("/products/" + product.getId());
+
+        mockMvc.perform(get("/products/" + product.getId()).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag))
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    void weakTagsAndTagListsMatch() throws Exception {
+        ProductResponseDto product = createProduct(uniqueCategory());
+        String etag = etagOf("/products/" + product.getId());
+
+        mockMvc.perform(get("/products/" + product.getId()).header(HttpHeaders.IF_NONE_MATCH, "W/" + etag))
+                .andExpect(status().isNotModified());
+        mockMvc.perform(get("/products/" + product.getId()).header(HttpHeaders.IF_NONE_MATCH, "\"other\", " + etag))
+                .andExpect(status().isNotModified());
+        mockMvc.perform(get("/products/" + product.getId()).header(HttpHeaders.IF_NONE_MATCH, "*"))
+                .andExpect(status().isNotModified());
+        mockMvc.perform(get("/products/" + product.getId()).header(HttpHeaders.IF_NONE_MATCH, "\"other\""))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void updatedProductGetsANewTag() throws Exception {
+        String category = uniqueCategory();
+        ProductResponseDto product = createProduct(category);
+        String etag = etagOf("/products/" + product.getId());
+
+        productService.updateProduct(product.getId(), productRequest(category, "Updated", "25.00"));
+
+        MvcResult result = mockMvc.perform(get("/products/" + product.getId()).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andReturn();
+        assertNotEquals(etag, result.getResponse().getHeader(HttpHeaders.ETAG));
+    }
+
+    @Test
+    void listingTagChangesOnlyOnceAWriteCommits() throws Exception {
+        String category = uniqueCategory();
+        createProduct(category);
+        String listing = "/products/category/" + category + "/page";
+        String before = etagOf(listing);
+        mockMvc.perform(get(listing).header(HttpHeaders.IF_NONE_MATCH, before))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            productService.createProduct(productRequest(category, "Second", "20.00"));
+            // Not committed yet: the listing may still be served from the client's copy
+            assertEquals(before, catalogTag(listing));
+        });
+
+        String after = etagOf(listing);
+        assertNotEquals(before, after);
+        mockMvc.perform(get(listing).header(HttpHeaders.IF_NONE_MATCH, before))
+                .andExpect(status().isOk());
+        mockMvc.perform(get(listing).header(HttpHeaders.IF_NONE_MATCH, after))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void rolledBackWriteKeepsTheListingTag() throws Exception {
+        String category = uniqueCategory();
+        createProduct(category);
+        String listing = "/products/category/" + category + "/page";
+        String before = etagOf(listing);
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            productService.createProduct(productRequest(category, "Discarded", "20.00"));
+            status.setRollbackOnly();
+        });
+
+        assertEquals(before, etagOf(listing));
+    }
+
+    @Test
+    void streamedListingFormatsHaveDifferentTags() throws Exception {
+        String category = uniqueCategory();
+        createProduct(category);
+        String listing = "/products/category/" + category;
+
+        MvcResult json = mockMvc.perform(get(listing))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        MvcResult ndjson = mockMvc.perform(get(listing).header(HttpHeaders.ACCEPT, MediaType.APPLICATION_NDJSON_VALUE))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String jsonTag = json.getResponse().getHeader(HttpHeaders.ETAG);
+        String ndjsonTag = ndjson.getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotNull(jsonTag);
+        assertNotEquals(jsonTag, ndjsonTag);
+
+        mockMvc.perform(get(listing).header(HttpHeaders.IF_NONE_MATCH, jsonTag))
+                .andExpect(status().isNotModified());
+        mockMvc.perform(get(listing).header(HttpHeaders.IF_NONE_MATCH, jsonTag)
+                        .header(HttpHeaders.ACCEPT, MediaType.APPLICATION_NDJSON_VALUE))
+                .andExpect(request().asyncStarted());
+    }
+
+    private String etagOf(String uri) throws Exception {
+        String etag = mockMvc.perform(get(uri))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotNull(etag);
+        assertTrue(etag.startsWith("\"") && etag.endsWith("\""), etag);
+        return etag;
+    }
+
+    /**
+     * {@link #etagOf} for callbacks that cannot throw checked exceptions
+     */
+    private String catalogTag(String uri) {
+        try {
+            return etagOf(uri);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private ProductResponseDto createProduct(String category) {
+        return productService.createProduct(productRequest(category, "First", "10.00"));
+    }
+
+    private static ProductRequestDto productRequest(String category, String name, String price) {
+        return new ProductRequestDto(category + " " + name, "For conditional request tests", new BigDecimal(price), 50,
+                category, null);
+    }
+
+    private static String uniqueCategory() {
+        return "Etag-" + UUID.randomUUID().toString().substring(0, 8);
+    }
+}
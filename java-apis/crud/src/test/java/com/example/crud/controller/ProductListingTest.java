@@ -0,0 +1,208 @@
+package com.example.crud.controller;
+
+import com.example.crud.dto.ProductRequestDto;
+import com.example.crud.dto.ProductResponseDto;
+import com.example.crud.service.ProductService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Tests for the streamed and cursor-paginated product listings
+ *
+ * Demonstrates:
+ * - Walking a listing page by page with the opaque cursor
+ * - Page boundaries, including products that tie on the sort key
+ * - Rejecting cursors that were not issued by the API
+ * - Reading streamed JSON array and NDJSON responses through MockMvc async dispatch
+ *
+ * Each test works in its own category, so products created by other tests
+ * in the shared database do not change the results.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class ProductListingTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void cursorWalksEveryProductOnceInIdOrder() throws Exception {
+        String category = uniqueCategory();
+        List<Long> ids = createProducts(category, "10.00", "20.00", "30.00", "40.00", "50.00");
+
+        List<Long> seen = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            JsonNode page = getJson("/products/category/" + category + "/page?size=2"
+                    + (cursor == null ? "" : "&cursor=" + cursor));
+            page.get("content").forEach(product -> seen.add(product.get("id").asLong()));
+            cursor = page.hasNonNull("nextCursor") ? page.get("nextCursor").asText() : null;
+            assertEquals(cursor != null, page.get("hasNext").asBoolean());
+            pages++;
+        } while (cursor != null);
+
+        assertEquals(ids, seen);
+        assertEquals(3, pages);
+    }
+
+    @Test
+    void fullLastPageHasNoNextCursor() throws Exception {
+        String category = uniqueCategory();
+        createProducts(category, "10.00", "20.00");
+
+        JsonNode page = getJson("/products/category/" + category + "/page?size=2");
+
+        assertEquals(2, page.get("size").asInt());
+        assertFalse(page.get("hasNext").asBoolean());
+        assertNull(page.get("nextCursor"));
+    }
+
+    @Test
+    void cursorIsOpaqueAndDecodesToTheLastId() throws Exception {
+        String category = uniqueCategory();
+        List<Long> ids = createProducts(category, "10.00", "20.00", "30.00");
+
+        String cursor = getJson("/products/category/" + category + "/page?size=1").get("nextCursor").asText();
+
+        assertFalse(cursor.contains("="), "cursors are URL-safe and unpadded");
+        assertEquals(String.valueOf(ids.get(0)),
+                new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void malformedCursorsAreRejected() throws Exception {
+        String notAnId = Base64.getUrlEncoder().withoutPadding().encodeToString("abc".getBytes(StandardCharsets.UTF_8));
+        mockMvc.perform(get("/products/page").param("cursor", "%%%")).andExpect(status().isBadRequest());
+        mockMvc.perform(get("/products/page").param("cursor", notAnId)).andExpect(status().isBadRequest());
+        mockMvc.perform(get("/products/expensive/page").param("cursor", notAnId)).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void expensivePagesSplitPriceTiesWithoutSkippingOrRepeating() throws Exception {
+        String category = uniqueCategory();
+        List<Long> ids = createProducts(category, "700.00", "900.00", "700.00", "900.00", "700.00");
+        Set<Long> ours = Set.copyOf(ids);
+
+        List<JsonNode> seen = new ArrayList<>();
+        String cursor = null;
+        do {
+            JsonNode page = getJson("/products/expensive/page?size=2" + (cursor == null ? "" : "&cursor=" + cursor));
+            page.get("content").forEach(product -> {
+                if (ours.contains(product.get("id").asLong())) {
+                    seen.add(product);
+                }
+            });
+            cursor = page.hasNonNull("nextCursor") ? page.get("nextCursor").asText() : null;
+        } while (cursor != null);
+
+        // Most expensive first, ties in id order
+        List<Long> expected = List.of(ids.get(1), ids.get(3), ids.get(0), ids.get(2), ids.get(4));
+        assertEquals(expected, seen.stream().map(product -> product.get("id").asLong()).toList());
+    }
+
+    @Test
+    void streamedListingIsAJsonArrayByDefault() throws Exception {
+        String category = uniqueCategory();
+        List<Long> ids = createProducts(category, "10.00", "20.00", "30.00");
+
+        MvcResult started = mockMvc.perform(get("/products/category/" + category))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String body = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andReturn().getResponse().getContentAsString();
+
+        List<ProductResponseDto> products = List.of(objectMapper.readValue(body, ProductResponseDto[].class));
+        assertEquals(ids, products.stream().map(ProductResponseDto::getId).toList());
+    }
+
+    @Test
+    void streamedListingIsNdjsonWhenAccepted() throws Exception {
+        String category = uniqueCategory();
+        List<Long> ids = createProducts(category, "10.00", "20.00", "30.00");
+
+        MvcResult started = mockMvc.perform(get("/products/category/" + category)
+                        .header(HttpHeaders.ACCEPT, MediaType.APPLICATION_NDJSON_VALUE))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String body = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString();
+
+        String[] lines = body.split("\n");
+        assertEquals(ids.size(), lines.length);
+        for (int i = 0; i < lines.length; i++) {
+            assertEquals(ids.get(i), objectMapper.readValue(lines[i], ProductResponseDto.class).getId());
+        }
+        assertTrue(body.endsWith("\n"));
+    }
+
+    @Test
+    void emptyStreamedListingIsAnEmptyArray() throws Exception {
+        MvcResult started = mockMvc.perform(get("/products/category/" + uniqueCategory()))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(content().string("[]"));
+    }
+
+    private JsonNode getJson(String uri) throws Exception {
+        String body = mockMvc.perform(get(uri))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(body);
+    }
+
+    private List<Long> createProducts(String category, String... prices) {
+        List<Long> ids = new ArrayList<>();
+        for (String price : prices) {
+            ProductRequestDto request = new ProductRequestDto(category + " product " + ids.size(), "For listing tests",
+                    new BigDecimal(price), 50, category, null);
+            ids.add(productService.createProduct(request).getId());
+        }
+        ids.sort(Comparator.naturalOrder());
+        return ids;
+    }
+
+    private static String uniqueCategory() {
+        return "Listing-" + UUID.randomUUID().toString().substring(0, 8);
+    }
+}
@@ -0,0 +1,154 @@
+package com.example.crud.search;
+
+import com.example.crud.dto.ProductResponseDto;
+import com.example.crud.dto.ProductSearchRequest;
+import com.example.crud.dto.ProductSearchResult;
+import com.example.crud.repository.ProductRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests for {@link ProductSearchIndex}
+ *
+ * Demonstrates:
+ * - Tokenization and prefix matching of name and description words
+ * - Category and price filters, facet counts and paging in each sort order
+ * - Out-of-order writes: older versions and writes applied after a delete are ignored
+ *
+ * Changes are applied outside a transaction, so they reach the index immediately.
+ */
+class ProductSearchIndexTest {
+
+    private final ProductRepository productRepository = mock(ProductRepository.class);
+    private final ProductSearchIndex index = new ProductSearchIndex(productRepository,
+            mock(PlatformTransactionManager.class), List.of(new BigDecimal("100"), new BigDecimal("50")));
+
+    @Test
+    void tokenizesOnNonAlphanumericsAndLowerCases() {
+        assertEquals(List.of("usb", "c", "hub", "4k", "héllo"),
+                ProductSearchIndex.tokenize("USB-C hub, 4K!  Héllo").collect(Collectors.toList()));
+        assertEquals(0, ProductSearchIndex.tokenize("  ").count());
+        assertEquals(0, ProductSearchIndex.tokenize(null).count());
+    }
+
+    @Test
+    void everyQueryTokenMustMatchAPrefix() {
+        index.indexAfterCommit(product(1, "Gaming Laptop", "Fast laptop", "Electronics", "1200.00", 1));
+        index.indexAfterCommit(product(2, "Laptop Stand", "Aluminium stand", "Office", "40.00", 1));
+        index.indexAfterCommit(product(3, "Lamp", "Desk lamp", "Office", "25.00", 1));
+
+        assertEquals(List.of(1L, 2L), ids(search("lap")));
+        assertEquals(List.of(2L), ids(search("LAP alu")));
+        assertEquals(List.of(3L), ids(search("desk")));
+        assertEquals(List.of(), ids(search("laptops")));
+        assertEquals(3, search(null).getTotalHits());
+    }
+
+    @Test
+    void categoryAndPriceFiltersCombineAndFacetsIgnoreTheirOwnFilter() {
+        index.indexAfterCommit(product(1, "Pen", "Blue pen", "Office", "2.00", 1));
+        index.indexAfterCommit(product(2, "Chair", "Office chair", "Office", "80.00", 1));
+        index.indexAfterCommit(product(3, "Phone", "Smart phone", "Electronics", "500.00", 1));
+        index.indexAfterCommit(product(4, "Cable", "Phone cable", "Electronics", "50.00", 1));
+
+        ProductSearchRequest request = new ProductSearchRequest();
+        request.setCategory(List.of(" electronics "));
+        request.setMinPrice(new BigDecimal("50"));
+        request.setMaxPrice(new BigDecimal("100"));
+        ProductSearchIndex.Hits hits = index.search(request);
+
+        assertEquals(List.of(4L), hits.getIds());
+        // Category facets apply the price filter only; price facets the category filter only
+        assertEquals(Map.of("Electronics", 1L, "Office", 1L), hits.getCategoryFacets());
+        assertEquals(List.of(0L, 1L, 1L), hits.getPriceFacets().stream()
+                .map(ProductSearchResult.PriceFacet::getCount).collect(Collectors.toList()));
+        assertEquals(new BigDecimal("50"), hits.getPriceFacets().get(1).getFrom());
+        assertEquals(new BigDecimal("100"), hits.getPriceFacets().get(1).getTo());
+    }
+
+    @Test
+    void pagesFollowTheRequestedSort() {
+        index.indexAfterCommit(product(1, "Delta", "item", "A", "30.00", 1));
+        index.indexAfterCommit(product(2, "alpha", "item", "A", "10.00", 1));
+        index.indexAfterCommit(product(3, "Charlie", "item", "A", "20.00", 1));
+        index.indexAfterCommit(product(4, "Bravo", "item", "A", "20.00", 1));
+
+        assertEquals(List.of(2L, 4L, 3L, 1L), ids(search("item", ProductSearchRequest.Sort.NAME, 0, 10)));
+        assertEquals(List.of(3L, 1L), ids(search("item", ProductSearchRequest.Sort.NAME, 1, 2)));
+        assertEquals(List.of(1L), ids(search("item", ProductSearchRequest.Sort.PRICE_DESC, 0, 1)));
+        assertEquals(List.of(2L), ids(search("item", ProductSearchRequest.Sort.PRICE_ASC, 0, 1)));
+        assertEquals(List.of(), ids(search("item", ProductSearchRequest.Sort.NAME, 5, 2)));
+        assertEquals(4, search("item", ProductSearchRequest.Sort.NAME, 5, 2).getTotalHits());
+    }
+
+    @Test
+    void updatesReplaceTheIndexedFieldsAndOlderVersionsAreIgnored() {
+        index.indexAfterCommit(product(1, "Desk", "Wooden desk", "Office", "100.00", 1));
+        index.indexAfterCommit(product(1, "Table", "Glass table", "Home", "150.00", 3));
+        index.indexAfterCommit(product(1, "Desk", "Wooden desk", "Office", "100.00", 2));
+
+        assertEquals(List.of(), ids(search("desk")));
+        assertEquals(List.of(1L), ids(search("glass")));
+        assertEquals(Map.of("Home", 1L), index.countByCategory());
+    }
+
+    @Test
+    void writesAppliedAfterADeleteDoNotBringTheProductBack() {
+        index.indexAfterCommit(product(1, "Desk", "Wooden desk", "Office", "100.00", 1));
+        index.removeAfterCommit(1L, 2L);
+        // The update committed before the delete, but its callback ran later
+        index.indexAfterCommit(product(1, "Desk", "Oak desk", "Office", "110.00", 2));
+        // Never indexed before its delete arrived
+        index.removeAfterCommit(2L, 1L);
+        index.indexAfterCommit(product(2, "Chair", "Oak chair", "Office", "50.00", 1));
+
+        assertEquals(List.of(), ids(search("oak")));
+        assertTrue(index.countByCategory().isEmpty());
+    }
+
+    @Test
+    void rebuildKeepsDeletesThatHappenedBeforeIt() {
+        index.removeAfterCommit(1L, 4L);
+        when(productRepository.streamAll()).thenReturn(Stream.of(
+                product(2, "Chair", "Oak chair", "Office", "50.00", 1)));
+
+        index.rebuild();
+        index.indexAfterCommit(product(1, "Desk", "Oak desk", "Office", "110.00", 4));
+
+        assertTrue(index.isReady());
+        assertEquals(List.of(2L), ids(search("oak")));
+    }
+
+    private ProductSearchIndex.Hits search(String q) {
+        return search(q, ProductSearchRequest.Sort.NAME, 0, 20);
+    }
+
+    private ProductSearchIndex.Hits search(String q, ProductSearchRequest.Sort sort, int page, int size) {
+        ProductSearchRequest request = new ProductSearchRequest();
+        request.setQ(q);
+        request.setSort(sort);
+        request.setPage(page);
+        request.setSize(size);
+        return index.search(request);
+    }
+
+    private static List<Long> ids(ProductSearchIndex.Hits hits) {
+        return hits.getIds();
+    }
+
+    private static ProductResponseDto product(long id, String name, String description, String category,
+                                              String price, long version) {
+        return new ProductResponseDto(id, name, description, new BigDecimal(price), 1, category, null, null, version);
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.crud.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for {@link CsvRecordReader}
+ *
+ * Demonstrates:
+ * - Quoted fields with commas, doubled quotes and line breaks
+ * - Line numbers of records that span several lines
+ * - CRLF input, empty fields and a last record without a line break
+ */
+class CsvRecordReaderTest {
+
+    @Test
+    void splitsPlainRecords() throws IOException {
+        CsvRecordReader csv = reader("name,price\nLamp,39.99\n");
+
+        assertEquals(List.of("name", "price"), csv.next());
+        assertEquals(List.of("Lamp", "39.99"), csv.next());
+        assertNull(csv.next());
+    }
+
+    @Test
+    void quotedFieldsKeepCommasQuotesAndLineBreaks() throws IOException {
+        CsvRecordReader csv = reader("\"Lamp, desk\",\"The \"\"bright\"\" one\",\"line one\nline two\"\nNext,row,here\n");
+
+        assertEquals(List.of("Lamp, desk", "The \"bright\" one", "line one\nline two"), csv.next());
+        assertEquals(1, csv.getRecordLine());
+        assertEquals(List.of("Next", "row", "here"), csv.next());
+        assertEquals(3, csv.getRecordLine(), "the quoted line break counts as a line");
+    }
+
+    @Test
+    void handlesCrlfEmptyFieldsAndAMissingFinalLineBreak() throws IOException {
+        CsvRecordReader csv = reader("a,,c\r\n,\r\nlast,row");
+
+        assertEquals(List.of("a", "", "c"), csv.next());
+        assertEquals(List.of("", ""), csv.next());
+        assertEquals(List.of("last", "row"), csv.next());
+        assertEquals(3, csv.getRecordLine());
+        assertNull(csv.next());
+    }
+
+    @Test
+    void quoteInsideAnUnquotedFieldIsKept() throws IOException {
+        assertEquals(List.of("12\" ruler", "x"), reader("12\" ruler,x\n").next());
+    }
+
+    @Test
+    void unterminatedQuoteIsReportedWithItsStartingLine() throws IOException {
+        CsvRecordReader csv = reader("ok,row\n\"never closed,\nmore\n");
+        csv.next();
+
+        IllegalArgumentException failure = assertThrows(IllegalArgumentException.class, csv::next);
+        assertTrue(failure.getMessage().contains("line 2"), failure.getMessage());
+    }
+
+    private static CsvRecordReader reader(String csv) {
+        return new CsvRecordReader(new StringReader(csv));
+    }
+}
@@ -0,0 +1,165 @@
+package com.example.crud.service;
+
+import com.example.crud.dto.ProductImportResult;
+import com.example.crud.dto.ProductRequestDto;
+import com.example.crud.repository.ProductRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for {@link ProductImportService}
+ *
+ * Demonstrates:
+ * - CSV imports with quoted fields, invalid rows and an unterminated quote
+ * - UPSERT updating products that already exist
+ * - A chunk that fails to commit being retried row by row
+ * - Row errors that do not expose database messages
+ *
+ * Runs with two rows per chunk, so small inputs span several chunks. The
+ * different settings start a second application context, so it gets its own
+ * in-memory database: sharing one, its create-drop schema would reset the
+ * id sequence under the other tests' context.
+ */
+@SpringBootTest(properties = {
+        "product.import.chunk-size=2",
+        "spring.datasource.url=jdbc:h2:mem:import-test;LAZY_QUERY_EXECUTION=1"
+})
+class ProductImportServiceTest {
+
+    private static final String HEADER = "name,description,price,quantity,category,supplierEmail\n";
+
+    @Autowired
+    private ProductImportService productImportService;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Test
+    void csvImportSkipsInvalidRowsAndKeepsTheRest() throws IOException {
+        String prefix = uniquePrefix();
+        String csv = HEADER
+                + prefix + " Lamp,\"LED lamp, dimmable\",39.99,40,Home,\n"
+                + prefix + " Chair,\"A \"\"comfy\"\"\nchair\",120.00,5,Home,\n"
+                + prefix + " Bad price,Desc,abc,1,Home,\n"
+                + prefix + " Bad quantity,Desc,1.00,many,Home,\n"
+                + "X,Too short a name,1.00,1,Home,\n"
+                + "\n"
+                + prefix + " Desk,Oak desk,250.00,2,Office,\n";
+
+        ProductImportResult result = importCsv(csv, ProductImportService.Mode.CREATE);
+
+        assertEquals(6, result.getTotalRows());
+        assertEquals(3, result.getCreated());
+        assertEquals(3, result.getFailed());
+        // The chair description spans lines 3 and 4
+        assertEquals(List.of(5, 6, 7), result.getErrors().stream().map(ProductImportResult.RowError::getLine).toList());
+        assertEquals("Invalid price 'abc'", result.getErrors().get(0).getMessage());
+        assertEquals("Invalid quantity 'many'", result.getErrors().get(1).getMessage());
+        assertEquals("A \"comfy\"\nchair", productRepository.findByNameIn(List.of(prefix + " Chair")).get(0).getDescription());
+    }
+
+    @Test
+    void unterminatedQuoteStopsTheImportAfterTheRowsBeforeIt() throws IOException {
+        String prefix = uniquePrefix();
+        String csv = HEADER
+                + prefix + " One,Desc,1.00,1,Home,\n"
+                + prefix + " Two,\"never closed,1.00,1,Home,\n"
+                + prefix + " Three,Desc,1.00,1,Home,\n";
+
+        ProductImportResult result = importCsv(csv, ProductImportService.Mode.CREATE);
+
+        assertEquals(1, result.getCreated());
+        assertEquals(1, result.getFailed());
+        assertEquals(3, result.getErrors().get(0).getLine());
+    }
+
+    @Test
+    void missingColumnsAreRejectedBeforeAnyRow() {
+        assertThrows(IllegalArgumentException.class,
+                () -> importCsv("name,price\nLamp,1.00\n", ProductImportService.Mode.CREATE));
+    }
+
+    @Test
+    void createRejectsExistingNamesAndUpsertUpdatesThem() throws IOException {
+        String prefix = uniquePrefix();
+        productService.createProduct(new ProductRequestDto(prefix + " Lamp", "Old", new BigDecimal("10.00"), 1, "Home", null));
+        String csv = HEADER
+                + prefix + " Lamp,New,12.50,7,Home,\n"
+                + prefix + " Shelf,Pine,30.00,3,Home,\n";
+
+        ProductImportResult created = importCsv(csv, ProductImportService.Mode.CREATE);
+        assertEquals(1, created.getCreated());
+        assertEquals("Product with name '" + prefix + " Lamp' already exists", created.getErrors().get(0).getMessage());
+
+        ProductImportResult upserted = importCsv(csv, ProductImportService.Mode.UPSERT);
+        assertEquals(0, upserted.getCreated());
+        assertEquals(2, upserted.getUpdated());
+        assertEquals(0, upserted.getFailed());
+        var lamp = productRepository.findByNameIn(List.of(prefix + " Lamp")).get(0);
+        assertEquals("New", lamp.getDescription());
+        assertEquals(7, lamp.getQuantity());
+    }
+
+    @Test
+    void failedChunkIsRetriedRowByRowWithASanitizedMessage() throws IOException {
+        String prefix = uniquePrefix();
+        // Passes validation but is longer than the supplier_email column, so the chunk fails to flush
+        String longEmail = "a".repeat(64) + "@" + ("b".repeat(50) + ".").repeat(4) + "com";
+        String csv = HEADER
+                + prefix + " Good,Desc,1.00,1,Home,\n"
+                + prefix + " Too long,Desc,1.00,1,Home," + longEmail + "\n"
+                + prefix + " Later,Desc,1.00,1,Home,\n";
+
+        ProductImportResult result = importCsv(csv, ProductImportService.Mode.CREATE);
+
+        assertEquals(2, result.getCreated());
+        assertEquals(1, result.getFailed());
+        ProductImportResult.RowError error = result.getErrors().get(0);
+        assertEquals(3, error.getLine());
+        assertEquals(prefix + " Too long", error.getName());
+        assertEquals("Conflicts with an existing product or violates a database constraint", error.getMessage());
+        assertFalse(error.getMessage().toUpperCase().contains("SUPPLIER_EMAIL"));
+        assertTrue(productRepository.existsByName(prefix + " Good"));
+        assertTrue(productRepository.existsByName(prefix + " Later"));
+    }
+
+    @Test
+    void ndjsonImportReportsMalformedLines() throws IOException {
+        String prefix = uniquePrefix();
+        String ndjson = "{\"name\":\"" + prefix + " Json\",\"description\":\"Desc\",\"price\":5.00,\"quantity\":2,\"category\":\"Home\"}\n"
+                + "{not json}\n";
+
+        ProductImportResult result = productImportService.importProducts(
+                new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)),
+                ProductImportService.Format.NDJSON, ProductImportService.Mode.CREATE);
+
+        assertEquals(1, result.getCreated());
+        assertEquals(2, result.getErrors().get(0).getLine());
+        assertTrue(result.getErrors().get(0).getMessage().startsWith("Malformed JSON"));
+    }
+
+    private ProductImportResult importCsv(String csv, ProductImportService.Mode mode) throws IOException {
+        return productImportService.importProducts(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)),
+                ProductImportService.Format.CSV, mode);
+    }
+
+    private static String uniquePrefix() {
+        return "Import " + UUID.randomUUID().toString().substring(0, 8);
+    }
+}
@@ -0,0 +1,128 @@
+package com.example.crud.service;
+
+import com.example.crud.dto.ProductRequestDto;
+import com.example.crud.exception.InsufficientStockException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Contention benchmark for stock changes
+ *
+ * Demonstrates:
+ * - Many threads taking single units of one hot product
+ * - Exactly the stock on hand is sold, the rest is refused, and the quantity ends at zero
+ *
+ * Skipped by default. Run with
+ * {@code mvn test -Dtest=StockContentionBenchmarkTest -Dbenchmark=true -Dbenchmark.threads=16}.
+ */
+@SpringBootTest
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class StockContentionBenchmarkTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(StockContentionBenchmarkTest.class);
+
+    private static final int STOCK = 1600;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private StockService stockService;
+
+    @Test
+    void conditionalUpdateNeverOversells() throws InterruptedException {
+        Long productId = createProduct("Contention update");
+
+        Outcome outcome = contend("conditional UPDATE", () -> stockService.adjustStock(productId, -1).isPresent());
+
+        assertSoldOut(productId, outcome);
+    }
+
+    @Test
+    void reserveAndConfirmNeverOversells() throws InterruptedException {
+        Long productId = createProduct("Contention reservation");
+
+        Outcome outcome = contend("reserve+confirm", () -> stockService.reserve(productId, 1, null)
+                .flatMap(reservation -> stockService.confirmReservation(reservation.getReservationId()))
+                .isPresent());
+
+        assertSoldOut(productId, outcome);
+    }
+
+    private Long createProduct(String name) {
+        ProductRequestDto request = new ProductRequestDto(name + " " + System.nanoTime(), "Benchmark product",
+                new BigDecimal("9.99"), STOCK, "Benchmark", "bench@example.com");
+        return productService.createProduct(request).getId();
+    }
+
+    /**
+     * Attempt twice the stock in single units from all threads at once
+     */
+    private Outcome contend(String label, BooleanSupplier takeOne) throws InterruptedException {
+        int threads = Integer.getInteger("benchmark.threads", 16);
+        AtomicInteger remaining = new AtomicInteger(STOCK * 2);
+        Outcome outcome = new Outcome();
+        CountDownLatch start = new CountDownLatch(1);
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        for (int i = 0; i < threads; i++) {
+            pool.execute(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                while (remaining.getAndDecrement() > 0) {
+                    try {
+                        (takeOne.getAsBoolean() ? outcome.applied : outcome.rejected).incrementAndGet();
+                    } catch (InsufficientStockException e) {
+                        outcome.rejected.incrementAndGet();
+                    } catch (RuntimeException e) {
+                        outcome.failed.incrementAndGet();
+                        logger.warn("Unexpected failure during {}", label, e);
+                    }
+                }
+            });
+        }
+
+        long begin = System.nanoTime();
+        start.countDown();
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(5, TimeUnit.MINUTES), label + " did not finish");
+        long elapsedMillis = Math.max(1, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - begin));
+
+        logger.info("{}: {} threads, {} applied, {} rejected, {} failed in {} ms ({} ops/s)",
+                label, threads, outcome.applied.get(), outcome.rejected.get(), outcome.failed.get(),
+                elapsedMillis, STOCK * 2 * 1000L / elapsedMillis);
+        return outcome;
+    }
+
+    private void assertSoldOut(Long productId, Outcome outcome) {
+        assertEquals(0, outcome.failed.get());
+        assertEquals(STOCK, outcome.applied.get());
+        assertEquals(STOCK, outcome.rejected.get());
+        assertEquals(0, stockService.getStockLevel(productId).orElseThrow().getQuantity());
+    }
+
+    private static final class Outcome {
+        final AtomicInteger applied = new AtomicInteger();
+        final AtomicInteger rejected = new AtomicInteger();
+        final AtomicInteger failed = new AtomicInteger();
+    }
+}
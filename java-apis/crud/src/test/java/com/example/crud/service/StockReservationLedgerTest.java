@@ -0,0 +1,185 @@
+package com.example.crud.service;
+
+import com.example.crud.dto.StockReservation;
+import com.example.crud.exception.InsufficientStockException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for {@link StockReservationLedger}
+ *
+ * Demonstrates:
+ * - Admission against the stock on hand minus open reservations
+ * - Lazy expiry, except for reservations being confirmed
+ * - The confirm protocol: beginConfirm, then complete or abort
+ * - Reservations waiting for a decrement's transaction to complete
+ *
+ * Runs on a clock the test moves by hand.
+ */
+class StockReservationLedgerTest {
+
+    private static final Long PRODUCT = 42L;
+
+    private final MutableClock clock = new MutableClock();
+    private final StockReservationLedger ledger = new StockReservationLedger(4, Duration.ofMinutes(10), clock);
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void reservesOnlyWhatIsNotHeldAlready() {
+        reserve(6, 10);
+        reserve(4, 10);
+
+        InsufficientStockException refused = assertThrows(InsufficientStockException.class, () -> reserve(1, 10));
+        assertEquals(0, refused.getAvailable());
+        assertEquals(10, ledger.reservedQuantity(PRODUCT));
+    }
+
+    @Test
+    void unknownProductGetsNoReservation() {
+        assertTrue(ledger.reserve(PRODUCT, 1, Optional::empty, null).isEmpty());
+        assertEquals(0, ledger.reservedQuantity(PRODUCT));
+    }
+
+    @Test
+    void expiredReservationsStopHoldingStock() {
+        StockReservation shortHold = ledger.reserve(PRODUCT, 5, () -> Optional.of(5), Duration.ofSeconds(30)).orElseThrow();
+        assertEquals(clock.instant().plusSeconds(30), shortHold.getExpiresAt());
+
+        clock.advance(Duration.ofSeconds(30));
+
+        assertEquals(0, ledger.reservedQuantity(PRODUCT));
+        assertTrue(ledger.beginConfirm(shortHold.getReservationId()).isEmpty());
+        assertFalse(ledger.release(shortHold.getReservationId()));
+        reserve(5, 5);
+    }
+
+    @Test
+    void reservationIsConfirmedOnlyOnceAndHoldsStockWhileConfirming() {
+        StockReservation reservation = reserve(3, 10);
+
+        assertTrue(ledger.beginConfirm(reservation.getReservationId()).isPresent());
+        assertTrue(ledger.beginConfirm(reservation.getReservationId()).isEmpty());
+        // Neither expiry nor a release can take its stock away mid-confirmation
+        clock.advance(Duration.ofHours(1));
+        assertFalse(ledger.release(reservation.getReservationId()));
+        assertEquals(3, ledger.reservedQuantity(PRODUCT));
+
+        ledger.complete(reservation);
+        assertEquals(0, ledger.reservedQuantity(PRODUCT));
+        assertTrue(ledger.beginConfirm(reservation.getReservationId()).isEmpty());
+    }
+
+    @Test
+    void abortedConfirmationCanBeRetriedOrReleased() {
+        StockReservation reservation = reserve(3, 10);
+        ledger.beginConfirm(reservation.getReservationId());
+
+        ledger.abort(reservation);
+
+        assertTrue(ledger.beginConfirm(reservation.getReservationId()).isPresent());
+        ledger.abort(reservation);
+        assertTrue(ledger.release(reservation.getReservationId()));
+        assertEquals(0, ledger.reservedQuantity(PRODUCT));
+        assertFalse(ledger.release(reservation.getReservationId()));
+    }
+
+    @Test
+    void malformedReservationIdsAreUnknown() {
+        assertTrue(ledger.beginConfirm("not-a-reservation").isEmpty());
+        assertTrue(ledger.beginConfirm(null).isEmpty());
+        assertFalse(ledger.release("x.42"));
+        assertFalse(ledger.release(PRODUCT + ".missing"));
+    }
+
+    @Test
+    void discardDropsEveryReservationOfTheProduct() {
+        StockReservation first = reserve(2, 10);
+        StockReservation other = ledger.reserve(7L, 2, () -> Optional.of(10), null).orElseThrow();
+        reserve(3, 10);
+
+        ledger.discard(PRODUCT);
+
+        assertEquals(0, ledger.reservedQuantity(PRODUCT));
+        assertFalse(ledger.release(first.getReservationId()));
+        assertEquals(2, ledger.reservedQuantity(7L));
+        assertTrue(ledger.release(other.getReservationId()));
+    }
+
+    @Test
+    void reservationWaitsForADecrementToComplete() throws Exception {
+        TransactionSynchronizationManager.initSynchronization();
+        ledger.lockUntilCompletion(List.of(PRODUCT, 7L));
+        int[] onHand = {10};
+
+        CompletableFuture<Optional<StockReservation>> waiting = CompletableFuture.supplyAsync(
+                () -> ledger.reserve(PRODUCT, 10, () -> Optional.of(onHand[0]), null));
+        assertThrows(TimeoutException.class, () -> waiting.get(200, TimeUnit.MILLISECONDS));
+
+        // The decrement commits: its quantity is what the reservation must see
+        onHand[0] = 4;
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+        }
+
+        ExecutionException failure = assertThrows(ExecutionException.class, () -> waiting.get(5, TimeUnit.SECONDS));
+        assertTrue(failure.getCause() instanceof InsufficientStockException);
+        assertEquals(4, ((InsufficientStockException) failure.getCause()).getAvailable());
+    }
+
+    @Test
+    void lockingRequiresATransaction() {
+        assertThrows(IllegalStateException.class, () -> ledger.lockUntilCompletion(List.of(PRODUCT)));
+    }
+
+    private StockReservation reserve(int quantity, int onHand) {
+        return ledger.reserve(PRODUCT, quantity, () -> Optional.of(onHand), null).orElseThrow();
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant now = Instant.parse("2026-01-01T00:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
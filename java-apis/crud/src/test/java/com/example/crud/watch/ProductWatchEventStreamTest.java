@@ -0,0 +1,142 @@
+package com.example.crud.watch;
+
+import com.example.crud.dto.ProductRequestDto;
+import com.example.crud.service.ProductService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Tests for {@link ProductWatchEventStream} through GET /products/watch/stream
+ *
+ * Demonstrates:
+ * - Reading Server-Sent Events from an open MockMvc async response
+ * - Events named after their list, in the order the product changed
+ * - Subscribers only receive the lists they asked for, and are dropped when the connection closes
+ *
+ * Each test uses its own product name, so events caused by other tests do not match.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class ProductWatchEventStreamTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductWatchEventStream eventStream;
+
+    @Test
+    void subscriberReceivesEnterUpdateAndLeaveInOrder() throws Exception {
+        MvcResult stream = subscribe(ProductWatchLists.LOW_STOCK);
+        try {
+            String name = uniqueName();
+            Long id = productService.createProduct(productRequest(name, "20.00", 5)).getId();
+            productService.updateProduct(id, productRequest(name, "20.00", 3));
+            productService.updateProduct(id, productRequest(name, "20.00", 50));
+
+            awaitTrue(() -> body(stream).contains("\"type\":\"LEFT\""), "the LEFT event should arrive");
+            String body = body(stream);
+            int entered = body.indexOf("\"type\":\"ENTERED\",\"product\":{\"id\":" + id);
+            int updated = body.indexOf("\"type\":\"UPDATED\",\"product\":{\"id\":" + id);
+            int left = body.indexOf("\"type\":\"LEFT\",\"product\":{\"id\":" + id);
+            assertTrue(entered >= 0 && entered < updated && updated < left, body);
+            assertTrue(body.contains("event:" + ProductWatchLists.LOW_STOCK + "\n"), body);
+            assertFalse(body.contains("event:" + ProductWatchLists.EXPENSIVE + "\n"), body);
+        } finally {
+            close(stream);
+        }
+    }
+
+    @Test
+    void subscriberOnlyReceivesItsLists() throws Exception {
+        MvcResult lowStock = subscribe(ProductWatchLists.LOW_STOCK);
+        MvcResult expensive = subscribe(ProductWatchLists.EXPENSIVE);
+        try {
+            String cheap = uniqueName();
+            String pricey = uniqueName();
+            productService.createProduct(productRequest(cheap, "20.00", 5));
+            productService.createProduct(productRequest(pricey, "500.00", 50));
+
+            awaitTrue(() -> body(lowStock).contains(cheap), "the low-stock product should arrive");
+            awaitTrue(() -> body(expensive).contains(pricey), "the expensive product should arrive");
+            assertFalse(body(lowStock).contains(pricey));
+            assertFalse(body(expensive).contains(cheap));
+        } finally {
+            close(lowStock);
+            close(expensive);
+        }
+    }
+
+    @Test
+    void closedConnectionIsUnsubscribed() throws Exception {
+        int before = eventStream.getSubscriberCount();
+        MvcResult stream = subscribe(ProductWatchLists.LOW_STOCK);
+        assertEquals(before + 1, eventStream.getSubscriberCount());
+
+        close(stream);
+
+        assertEquals(before, eventStream.getSubscriberCount());
+    }
+
+    @Test
+    void unknownListIsRejected() throws Exception {
+        mockMvc.perform(get("/products/watch/stream").param("list", "cheap")
+                        .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(status().isBadRequest());
+    }
+
+    private MvcResult subscribe(String list) throws Exception {
+        return mockMvc.perform(get("/products/watch/stream").param("list", list)
+                        .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+    }
+
+    private static void close(MvcResult stream) {
+        // As when the client disconnects: runs the emitter's completion callbacks
+        stream.getRequest().getAsyncContext().complete();
+    }
+
+    private static String body(MvcResult stream) {
+        try {
+            return stream.getResponse().getContentAsString();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void awaitTrue(BooleanSupplier condition, String message) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(condition.getAsBoolean(), message);
+    }
+
+    private static ProductRequestDto productRequest(String name, String price, int quantity) {
+        return new ProductRequestDto(name, "For watch stream tests", new BigDecimal(price), quantity, "Watch", null);
+    }
+
+    private static String uniqueName() {
+        return "Watched " + UUID.randomUUID().toString().substring(0, 8);
+    }
+}
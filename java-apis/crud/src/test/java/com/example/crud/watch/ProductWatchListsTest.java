@@ -0,0 +1,163 @@
+package com.example.crud.watch;
+
+import com.example.crud.dto.ProductResponseDto;
+import com.example.crud.dto.ProductWatchEvent;
+import com.example.crud.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests for {@link ProductWatchLists}
+ *
+ * Demonstrates:
+ * - ENTERED, UPDATED and LEFT events as a product crosses the thresholds
+ * - Out-of-order writes: older versions are ignored whether or not the product is on the list
+ * - Writes applied after a delete, or after a rebuild, cannot bring back an older state
+ *
+ * Changes are applied outside a transaction, so they reach the lists immediately.
+ * The low-stock threshold is 10 and the expensive threshold 100.
+ */
+class ProductWatchListsTest {
+
+    private final ProductRepository productRepository = mock(ProductRepository.class);
+    private final ProductWatchEventStream eventStream = mock(ProductWatchEventStream.class);
+    private final List<ProductWatchEvent> events = new ArrayList<>();
+    private final List<ProductResponseDto> stored = new ArrayList<>();
+
+    private ProductWatchLists watchLists;
+
+    @BeforeEach
+    void setUp() {
+        doAnswer(invocation -> events.add(invocation.getArgument(0))).when(eventStream).publish(any());
+        when(productRepository.streamLowStock(anyInt())).thenAnswer(invocation -> stored.stream()
+                .filter(product -> product.getQuantity() <= 10));
+        when(productRepository.streamExpensive(any())).thenAnswer(invocation -> Stream.<ProductResponseDto>empty());
+        watchLists = new ProductWatchLists(productRepository, eventStream, mock(PlatformTransactionManager.class),
+                10, new BigDecimal("100"));
+        // Events are published once the lists are ready
+        watchLists.rebuild();
+    }
+
+    @Test
+    void productEntersChangesOnAndLeavesTheList() {
+        watchLists.indexAfterCommit(product(1, 5, "20.00", 1));
+        watchLists.indexAfterCommit(product(1, 3, "20.00", 2));
+        watchLists.indexAfterCommit(product(1, 50, "20.00", 3));
+
+        assertEquals(List.of("low-stock ENTERED 5", "low-stock UPDATED 3", "low-stock LEFT 50"), describe(events));
+        assertTrue(watchLists.lowStock().isEmpty());
+        assertTrue(events.get(0).getSequence() < events.get(1).getSequence());
+        assertTrue(events.get(1).getSequence() < events.get(2).getSequence());
+    }
+
+    @Test
+    void productCanBeOnBothLists() {
+        watchLists.indexAfterCommit(product(1, 5, "500.00", 1));
+        watchLists.indexAfterCommit(product(1, 5, "50.00", 2));
+
+        assertEquals(List.of("low-stock ENTERED 5", "expensive ENTERED 5", "low-stock UPDATED 5", "expensive LEFT 5"),
+                describe(events));
+        assertEquals(List.of(1L), ids(watchLists.lowStock()));
+        assertTrue(watchLists.expensive().isEmpty());
+    }
+
+    @Test
+    void olderWriteOfAMemberIsIgnored() {
+        watchLists.indexAfterCommit(product(1, 3, "20.00", 2));
+        watchLists.indexAfterCommit(product(1, 50, "20.00", 1));
+
+        assertEquals(List.of("low-stock ENTERED 3"), describe(events));
+        assertEquals(3, watchLists.lowStock().first().getQuantity());
+    }
+
+    @Test
+    void olderWriteCannotBringBackAProductThatLeft() {
+        watchLists.indexAfterCommit(product(1, 3, "20.00", 1));
+        watchLists.indexAfterCommit(product(1, 50, "20.00", 3));
+        // Committed before version 3, applied after it
+        watchLists.indexAfterCommit(product(1, 4, "20.00", 2));
+
+        assertEquals(List.of("low-stock ENTERED 3", "low-stock LEFT 50"), describe(events));
+        assertTrue(watchLists.lowStock().isEmpty());
+    }
+
+    @Test
+    void olderWriteOfANonMemberIsIgnored() {
+        watchLists.indexAfterCommit(product(1, 50, "20.00", 2));
+        watchLists.indexAfterCommit(product(1, 4, "20.00", 1));
+
+        assertTrue(events.isEmpty());
+        assertTrue(watchLists.lowStock().isEmpty());
+    }
+
+    @Test
+    void deleteLeavesATombstoneForItsVersion() {
+        watchLists.indexAfterCommit(product(1, 3, "20.00", 1));
+        watchLists.removeAfterCommit(1L, 2L);
+        // A write of the deleted version, applied after the delete
+        watchLists.indexAfterCommit(product(1, 4, "20.00", 2));
+
+        assertEquals(List.of("low-stock ENTERED 3", "low-stock LEFT 3"), describe(events));
+        assertTrue(watchLists.lowStock().isEmpty());
+
+        watchLists.indexAfterCommit(product(1, 4, "20.00", 3));
+        assertEquals(List.of(1L), ids(watchLists.lowStock()));
+    }
+
+    @Test
+    void deleteOfANonMemberAlsoHoldsBackLateWrites() {
+        watchLists.indexAfterCommit(product(1, 50, "20.00", 1));
+        watchLists.removeAfterCommit(1L, null);
+        watchLists.indexAfterCommit(product(1, 4, "20.00", 1));
+
+        assertTrue(events.isEmpty());
+        assertTrue(watchLists.lowStock().isEmpty());
+    }
+
+    @Test
+    void rebuildKeepsTheVersionsSeenBeforeIt() {
+        watchLists.indexAfterCommit(product(1, 50, "20.00", 2));
+        watchLists.indexAfterCommit(product(2, 3, "20.00", 1));
+        watchLists.removeAfterCommit(2L, 1L);
+        stored.add(product(3, 2, "20.00", 1));
+
+        watchLists.rebuild();
+        events.clear();
+        watchLists.indexAfterCommit(product(1, 4, "20.00", 1));
+        watchLists.indexAfterCommit(product(2, 3, "20.00", 1));
+
+        assertTrue(events.isEmpty());
+        assertEquals(List.of(3L), ids(watchLists.lowStock()));
+    }
+
+    private static List<String> describe(List<ProductWatchEvent> events) {
+        return events.stream()
+                .map(event -> event.getList() + " " + event.getType() + " " + event.getProduct().getQuantity())
+                .toList();
+    }
+
+    private static List<Long> ids(Iterable<ProductResponseDto> products) {
+        List<Long> ids = new ArrayList<>();
+        products.forEach(product -> ids.add(product.getId()));
+        return ids;
+    }
+
+    private static ProductResponseDto product(long id, int quantity, String price, long version) {
+        return new ProductResponseDto(id, "Product " + id, "For watch list tests", new BigDecimal(price), quantity,
+                "Watch", null, null, version);
+    }
+}
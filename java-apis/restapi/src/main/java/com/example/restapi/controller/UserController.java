@@ -1,10 +1,13 @@
 package com.example.restapi.controller;
 
 import com.example.restapi.model.User;
+import com.example.restapi.persistence.UserPersistence;
+import com.example.restapi.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
@@ -16,14 +19,20 @@ import java.util.Optional;
 @RequestMapping("/api/users")
 public class UserController {
 
-    // Simulating a database with a list of users
-    private final List<User> users = new ArrayList<>();
+    // Thread-safe in-memory storage, shared by all requests
+    private final UserRepository userRepository;
+    private final UserPersistence userPersistence;
 
-    // Constructor to initialize some sample data
-    public UserController() {
-        users.add(new User(1L, "John Doe", "john@example.com", 25));
-        users.add(new User(2L, "Jane Smith", "jane@example.com", 30));
-        users.add(new User(3L, "Bob Johnson", "bob@example.com", 35));
+    // Constructor to initialize some sample data, unless users were restored from disk
+    @Autowired
+    public UserController(UserRepository userRepository, UserPersistence userPersistence) {
+        this.userRepository = userRepository;
+        this.userPersistence = userPersistence;
+        if (userRepository.count() == 0) {
+            userRepository.create(new User(null, "John Doe", "john@example.com", 25));
+            userRepository.create(new User(null, "Jane Smith", "jane@example.com", 30));
+            userRepository.create(new User(null, "Bob Johnson", "bob@example.com", 35));
+        }
     }
 
     /**
@@ -32,7 +41,7 @@ public class UserController {
      */
     @GetMapping
     public ResponseEntity<List<User>> getAllUsers() {
-        return ResponseEntity.ok(users);
+        return ResponseEntity.ok(userRepository.findAll());
     }
 
     /**
@@ -41,10 +50,8 @@ public class UserController {
      */
     @GetMapping("/{id}")
     public ResponseEntity<User> getUserById(@PathVariable Long id) {
-        Optional<User> user = users.stream()
-                .filter(u -> u.getId().equals(id))
-                .findFirst();
-        
+        Optional<User> user = userRepository.findById(id);
+
         return user.map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
@@ -55,11 +62,44 @@ public class UserController {
      */
     @GetMapping("/search")
     public ResponseEntity<List<User>> searchUsersByName(@RequestParam String name) {
-        List<User> foundUsers = users.stream()
-                .filter(user -> user.getName().toLowerCase().contains(name.toLowerCase()))
-                .toList();
-        
-        return ResponseEntity.ok(foundUsers);
+        return ResponseEntity.ok(userRepository.searchByName(name));
+    }
+
+    /**
+     * POST /api/users
+     * Creates a user; the id is assigned by the server
+     */
+    @PostMapping
+    public ResponseEntity<User> createUser(@RequestBody User user) {
+        if (isBlank(user.getName())) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.status(HttpStatus.CREATED).body(userRepository.create(user));
+    }
+
+    /**
+     * PUT /api/users/{id}
+     * Replaces a user's name, email and age
+     */
+    @PutMapping("/{id}")
+    public ResponseEntity<User> updateUser(@PathVariable Long id, @RequestBody User user) {
+        if (isBlank(user.getName())) {
+            return ResponseEntity.badRequest().build();
+        }
+        return userRepository.update(id, user)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * DELETE /api/users/{id}
+     * Deletes a user
+     */
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> deleteUser(@PathVariable Long id) {
+        return userRepository.delete(id)
+                ? ResponseEntity.noContent().build()
+                : ResponseEntity.notFound().build();
     }
 
     /**
@@ -68,7 +108,21 @@ public class UserController {
      */
     @GetMapping("/count")
     public ResponseEntity<String> getUserCount() {
-        return ResponseEntity.ok("Total users: " + users.size());
+        return ResponseEntity.ok("Total users: " + userRepository.count());
+    }
+
+    /**
+     * POST /api/users/snapshot
+     * Writes a snapshot of all users to disk now, instead of waiting for the next scheduled one
+     */
+    @PostMapping("/snapshot")
+    public ResponseEntity<String> snapshot() {
+        if (!userPersistence.isEnabled()) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body("Persistence is disabled");
+        }
+        return ResponseEntity.ok(userPersistence.snapshot()
+                .map(count -> "Snapshot written: " + count + " users")
+                .orElse("No changes since the last snapshot"));
     }
 
     /**
@@ -79,4 +133,8 @@ public class UserController {
     public ResponseEntity<String> healthCheck() {
         return ResponseEntity.ok("API is running!");
     }
-} 
\ No newline at end of file
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+}
@@ -0,0 +1,211 @@
+package com.example.restapi.persistence;
+
+import com.example.restapi.model.User;
+import com.example.restapi.repository.UserRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps the in-memory users on disk
+ *
+ * Two files work together:
+ * - a snapshot of all users ({@link UserSnapshotFile}), written every few
+ *   minutes, on request and at shutdown
+ * - a log of every change since ({@link UserWriteAheadLog}), appended
+ *   before the change is applied
+ *
+ * On startup the snapshot is loaded in bulk and the log replayed on top of
+ * it, so a restart, even after a crash, comes back with every change the
+ * log received. Without sync-writes a crash of the machine (not just the
+ * process) can lose the last changes the OS had not yet written to disk.
+ */
+@Component
+public class UserPersistence {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserPersistence.class);
+
+    private static final String SNAPSHOT_FILE = "users.snapshot";
+
+    private final boolean enabled;
+    private final Path directory;
+    private final Duration snapshotInterval;
+    private final UserWriteAheadLog log;
+    private UserRepository repository;
+    private ScheduledExecutorService scheduler;
+    // Last log sequence included in the snapshot on disk
+    private long snapshotSequence;
+
+    public UserPersistence(@Value("${users.persistence.enabled:true}") boolean enabled,
+                           @Value("${users.persistence.directory:data}") Path directory,
+                           @Value("${users.persistence.sync-writes:false}") boolean syncWrites,
+                           @Value("${users.persistence.snapshot-interval:5m}") Duration snapshotInterval) {
+        this.enabled = enabled;
+        this.directory = directory;
+        this.snapshotInterval = snapshotInterval;
+        this.log = new UserWriteAheadLog(directory, syncWrites);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Load the latest snapshot and the changes logged after it into the repository,
+     * then start taking snapshots
+     */
+    public synchronized void restore(UserRepository repository) {
+        this.repository = repository;
+        if (!enabled) {
+            return;
+        }
+        try {
+            long start = System.nanoTime();
+            Files.createDirectories(directory);
+            Optional<UserSnapshotFile.Contents> snapshot = UserSnapshotFile.read(directory.resolve(SNAPSHOT_FILE));
+            snapshot.ifPresent(contents -> {
+                repository.load(contents.users, contents.nextId);
+                snapshotSequence = contents.sequence;
+            });
+            long replayed = log.replay(snapshotSequence, new UserWriteAheadLog.Handler() {
+                @Override
+                public void put(User user) {
+                    repository.replayPut(user);
+                }
+
+                @Override
+                public void delete(long id) {
+                    repository.replayDelete(id);
+                }
+            });
+            log.roll();
+            logger.info("Restored {} users from {} ({} from the snapshot, {} logged changes) in {} ms",
+                    repository.count(), directory, snapshot.map(contents -> contents.users.size()).orElse(0),
+                    replayed, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not restore users from " + directory, e);
+        }
+
+        scheduler = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "user-snapshots");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = snapshotInterval.toMillis();
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                snapshot();
+            } catch (RuntimeException e) {
+                // Keep the schedule; the log still holds every change
+                logger.error("Scheduled user snapshot failed", e);
+            }
+        }, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Called by the repository, under its write lock, before it applies a change
+     */
+    public void logPut(User user) {
+        if (enabled) {
+            log.appendPut(user);
+        }
+    }
+
+    /**
+     * Called by the repository, under its write lock, before it applies a delete
+     */
+    public void logDelete(long id) {
+        if (enabled) {
+            log.appendDelete(id);
+        }
+    }
+
+    /**
+     * Write a snapshot of all users, unless nothing changed since the last one,
+     * and delete the log segments it makes obsolete
+     *
+     * Writers wait only while the users are captured and the log moves to a
+     * new segment, not while the file is written.
+     *
+     * @return the number of users written, or empty if nothing changed
+     */
+    public synchronized Optional<Integer> snapshot() {
+        if (!enabled || repository == null) {
+            return Optional.empty();
+        }
+        Checkpoint checkpoint = repository.capture((users, nextId) -> {
+            long sequence = log.lastSequence();
+            if (sequence == snapshotSequence) {
+                return null;
+            }
+            log.roll();
+            return new Checkpoint(users, nextId, sequence);
+        });
+        if (checkpoint == null) {
+            return Optional.empty();
+        }
+        try {
+            long start = System.nanoTime();
+            long size = UserSnapshotFile.write(directory.resolve(SNAPSHOT_FILE),
+                    checkpoint.sequence, checkpoint.nextId, checkpoint.users);
+            snapshotSequence = checkpoint.sequence;
+            log.deleteUpTo(checkpoint.sequence);
+            logger.info("Wrote a snapshot of {} users ({} bytes) in {} ms", checkpoint.users.size(), size,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            return Optional.of(checkpoint.users.size());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write a user snapshot to " + directory, e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+        if (enabled && repository != null) {
+            // Startup then only has to load the snapshot
+            snapshot();
+            synchronized (this) {
+                // Under the repository's write lock, so no write is appending while the log closes
+                repository.capture((users, nextId) -> {
+                    closeLog();
+                    return null;
+                });
+            }
+        }
+    }
+
+    private void closeLog() {
+        try {
+            log.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not close the user log in " + directory, e);
+        }
+    }
+
+    private static final class Checkpoint {
+        final List<User> users;
+        final long nextId;
+        final long sequence;
+
+        Checkpoint(List<User> users, long nextId, long sequence) {
+            this.users = users;
+            this.nextId = nextId;
+            this.sequence = sequence;
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package com.example.restapi.persistence;
+
+import com.example.restapi.model.User;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.zip.CRC32C;
+
+/**
+ * Compact binary snapshot of all users
+ *
+ * Layout, big-endian:
+ * - header: magic "USR1", format version, log sequence, next id, user count
+ * - per user, in id order: id, age, name, email (length-prefixed UTF-8, -1 for null)
+ * - trailer: CRC32C of everything before it
+ *
+ * A snapshot is written to a temporary file, forced to disk and renamed over
+ * the previous one, so a crash while writing leaves the previous snapshot in
+ * place. It is read through a memory-mapped buffer: the decoder reads the
+ * file's pages directly instead of copying them through read() calls.
+ */
+final class UserSnapshotFile {
+
+    private static final int MAGIC = 0x55535231; // "USR1"
+    private static final int FORMAT_VERSION = 1;
+    private static final int HEADER_SIZE = Integer.BYTES * 3 + Long.BYTES * 2;
+    private static final int WRITE_BUFFER_SIZE = 1 << 20;
+
+    private UserSnapshotFile() {
+    }
+
+    /**
+     * @return the snapshot, or empty if the file does not exist
+     * @throws IOException if the file cannot be read or is damaged
+     */
+    static Optional<Contents> read(Path file) throws IOException {
+        if (!Files.exists(file)) {
+            return Optional.empty();
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_SIZE + Integer.BYTES || size > Integer.MAX_VALUE) {
+                throw new IOException("Snapshot " + file + " has an unexpected size of " + size + " bytes");
+            }
+            MappedByteBuffer data = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+
+            int bodySize = (int) size - Integer.BYTES;
+            CRC32C crc = new CRC32C();
+            crc.update(data.slice(0, bodySize));
+            if ((int) crc.getValue() != data.getInt(bodySize)) {
+                throw new IOException("Snapshot " + file + " is damaged (checksum mismatch)");
+            }
+            if (data.getInt() != MAGIC || data.getInt() != FORMAT_VERSION) {
+                throw new IOException(file + " is not a user snapshot of format version " + FORMAT_VERSION);
+            }
+            long sequence = data.getLong();
+            long nextId = data.getLong();
+            int count = data.getInt();
+
+            List<User> users = new ArrayList<>(count);
+            byte[] scratch = new byte[256];
+            for (int i = 0; i < count; i++) {
+                long id = data.getLong();
+                int age = data.getInt();
+                String name = UserWriteAheadLog.readString(data, scratch);
+                String email = UserWriteAheadLog.readString(data, scratch);
+                users.add(new User(id, name, email, age));
+            }
+            return Optional.of(new Contents(sequence, nextId, users));
+        }
+    }
+
+    /**
+     * Replace the snapshot with the given users
+     *
+     * @param users ordered by id
+     * @return the size of the snapshot in bytes
+     */
+    static long write(Path file, long sequence, long nextId, List<User> users) throws IOException {
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        CRC32C crc = new CRC32C();
+        ByteBuffer buffer = ByteBuffer.allocate(WRITE_BUFFER_SIZE);
+        long size;
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            buffer.putInt(MAGIC).putInt(FORMAT_VERSION).putLong(sequence).putLong(nextId).putInt(users.size());
+            for (User user : users) {
+                byte[] name = UserWriteAheadLog.bytes(user.getName());
+                byte[] email = UserWriteAheadLog.bytes(user.getEmail());
+                int recordSize = Long.BYTES + Integer.BYTES * 3
+                        + (name == null ? 0 : name.length) + (email == null ? 0 : email.length);
+                if (buffer.remaining() < recordSize) {
+                    flush(channel, buffer, crc);
+                    if (buffer.capacity() < recordSize) {
+                        buffer = ByteBuffer.allocate(recordSize);
+                    }
+                }
+                buffer.putLong(user.getId()).putInt(user.getAge());
+                UserWriteAheadLog.writeString(buffer, name);
+                UserWriteAheadLog.writeString(buffer, email);
+            }
+            flush(channel, buffer, crc);
+            buffer.putInt((int) crc.getValue()).flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+            size = channel.size();
+        }
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return size;
+    }
+
+    private static void flush(FileChannel channel, ByteBuffer buffer, CRC32C crc) throws IOException {
+        buffer.flip();
+        crc.update(buffer.array(), 0, buffer.limit());
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * What a snapshot holds: the users and the log position they include
+     */
+    static final class Contents {
+        final long sequence;
+        final long nextId;
+        final List<User> users;
+
+        Contents(long sequence, long nextId, List<User> users) {
+            this.sequence = sequence;
+            this.nextId = nextId;
+            this.users = users;
+        }
+    }
+}
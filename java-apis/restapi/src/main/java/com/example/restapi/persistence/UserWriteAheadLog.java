@@ -0,0 +1,273 @@
+package com.example.restapi.persistence;
+
+import com.example.restapi.model.User;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only log of user changes
+ *
+ * Every change is appended before it is applied in memory. On startup the
+ * changes made after the last snapshot are replayed from here.
+ *
+ * The log is a series of segment files, users-{first sequence}.wal. A new
+ * segment starts at every startup and snapshot, so once a snapshot is
+ * written the segments before it can simply be deleted. Each record carries
+ * its length and a CRC. A crash in the middle of an append leaves an
+ * incomplete record at the end of a segment; replay cuts it off.
+ *
+ * Not thread-safe: the repository appends under its write lock.
+ */
+class UserWriteAheadLog implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserWriteAheadLog.class);
+
+    private static final String PREFIX = "users-";
+    private static final String SUFFIX = ".wal";
+    private static final byte PUT = 1;
+    private static final byte DELETE = 2;
+    // Length and CRC in front of each record's payload
+    private static final int HEADER_SIZE = Integer.BYTES * 2;
+
+    private final Path directory;
+    private final boolean syncWrites;
+    private final CRC32C crc = new CRC32C();
+    private final byte[] scratch = new byte[256];
+    private ByteBuffer buffer = ByteBuffer.allocate(1024);
+    private FileChannel segment;
+    private long lastSequence;
+
+    UserWriteAheadLog(Path directory, boolean syncWrites) {
+        this.directory = directory;
+        this.syncWrites = syncWrites;
+    }
+
+    /**
+     * Sequence number of the last record appended or replayed
+     */
+    long lastSequence() {
+        return lastSequence;
+    }
+
+    /**
+     * Pass every record after the given sequence to the handler, oldest first
+     *
+     * @return the number of records replayed
+     */
+    long replay(long afterSequence, Handler handler) throws IOException {
+        lastSequence = afterSequence;
+        long replayed = 0;
+        for (Path file : segments()) {
+            long damagedAt = -1;
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                MappedByteBuffer records = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                while (records.hasRemaining()) {
+                    int start = records.position();
+                    int length = records.remaining() >= HEADER_SIZE ? records.getInt() : -1;
+                    int checksum = length > 0 ? records.getInt() : 0;
+                    if (length <= 0 || length > records.remaining() || checksum != checksum(records, length)) {
+                        damagedAt = start;
+                        break;
+                    }
+                    byte type = records.get();
+                    long sequence = records.getLong();
+                    long id = records.getLong();
+                    if (type == PUT) {
+                        int age = records.getInt();
+                        String name = readString(records, scratch);
+                        String email = readString(records, scratch);
+                        if (sequence > afterSequence) {
+                            handler.put(new User(id, name, email, age));
+                        }
+                    } else if (sequence > afterSequence) {
+                        handler.delete(id);
+                    }
+                    if (sequence > afterSequence) {
+                        lastSequence = sequence;
+                        replayed++;
+                    }
+                }
+            }
+            if (damagedAt >= 0) {
+                // Left by a crash during an append; cut it off so later segments still replay after it
+                logger.warn("Dropping a damaged or incomplete record at byte {} of {}", damagedAt, file.getFileName());
+                try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                    channel.truncate(damagedAt);
+                }
+            }
+        }
+        return replayed;
+    }
+
+    /**
+     * Start a new segment; records appended from now on go there
+     */
+    void roll() {
+        try {
+            if (segment != null) {
+                segment.close();
+            }
+            segment = FileChannel.open(segmentPath(lastSequence + 1),
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not start a new log segment in " + directory, e);
+        }
+    }
+
+    void appendPut(User user) {
+        byte[] name = bytes(user.getName());
+        byte[] email = bytes(user.getEmail());
+        ByteBuffer payload = payload(PUT, user.getId(), Integer.BYTES * 3
+                + (name == null ? 0 : name.length) + (email == null ? 0 : email.length));
+        payload.putInt(user.getAge());
+        writeString(payload, name);
+        writeString(payload, email);
+        append(payload);
+    }
+
+    void appendDelete(long id) {
+        append(payload(DELETE, id, 0));
+    }
+
+    /**
+     * Delete the segments that hold only records up to the given sequence
+     */
+    void deleteUpTo(long sequence) throws IOException {
+        for (Path file : segments()) {
+            if (firstSequence(file) <= sequence) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (segment != null) {
+            segment.force(false);
+            segment.close();
+            segment = null;
+        }
+    }
+
+    private ByteBuffer payload(byte type, long id, int bodySize) {
+        int size = HEADER_SIZE + 1 + Long.BYTES * 2 + bodySize;
+        if (buffer.capacity() < size) {
+            buffer = ByteBuffer.allocate(Math.max(size, buffer.capacity() * 2));
+        }
+        buffer.clear();
+        buffer.position(HEADER_SIZE);
+        buffer.put(type).putLong(lastSequence + 1).putLong(id);
+        return buffer;
+    }
+
+    private void append(ByteBuffer record) {
+        if (segment == null) {
+            throw new IllegalStateException("The user log in " + directory + " is closed");
+        }
+        int length = record.position() - HEADER_SIZE;
+        crc.reset();
+        crc.update(record.array(), HEADER_SIZE, length);
+        record.putInt(0, length).putInt(Integer.BYTES, (int) crc.getValue());
+        record.flip();
+        long end = -1;
+        try {
+            end = segment.size();
+            while (record.hasRemaining()) {
+                segment.write(record);
+            }
+            if (syncWrites) {
+                segment.force(false);
+            }
+        } catch (IOException e) {
+            // Do not leave a partial record for the next append to follow
+            if (end >= 0) {
+                try {
+                    segment.truncate(end);
+                } catch (IOException suppressed) {
+                    e.addSuppressed(suppressed);
+                }
+            }
+            throw new UncheckedIOException("Could not append to the user log in " + directory, e);
+        }
+        lastSequence++;
+    }
+
+    private int checksum(MappedByteBuffer records, int length) {
+        crc.reset();
+        crc.update(records.slice(records.position(), length));
+        return (int) crc.getValue();
+    }
+
+    private List<Path> segments() throws IOException {
+        List<Path> files = new ArrayList<>();
+        try (Stream<Path> listing = Files.list(directory)) {
+            listing.filter(file -> {
+                String name = file.getFileName().toString();
+                return name.startsWith(PREFIX) && name.endsWith(SUFFIX);
+            }).forEach(files::add);
+        }
+        files.sort((a, b) -> Long.compare(firstSequence(a), firstSequence(b)));
+        return files;
+    }
+
+    private Path segmentPath(long firstSequence) {
+        // Zero-padded so a directory listing shows the segments in order
+        return directory.resolve(PREFIX + String.format("%020d", firstSequence) + SUFFIX);
+    }
+
+    private static long firstSequence(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+    }
+
+    static byte[] bytes(String value) {
+        return value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Length-prefixed UTF-8; -1 stands for null
+     */
+    static void writeString(ByteBuffer target, byte[] value) {
+        if (value == null) {
+            target.putInt(-1);
+        } else {
+            target.putInt(value.length).put(value);
+        }
+    }
+
+    /**
+     * @param scratch reused for every string that fits, saving a copy per string
+     */
+    static String readString(ByteBuffer source, byte[] scratch) {
+        int length = source.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] value = length <= scratch.length ? scratch : new byte[length];
+        source.get(value, 0, length);
+        return new String(value, 0, length, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Receives replayed changes
+     */
+    interface Handler {
+        void put(User user);
+
+        void delete(long id);
+    }
+}
@@ -0,0 +1,250 @@
+package com.example.restapi.repository;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Trigram index over user names
+ * Maps every three-letter piece of a lower-cased name to the ids of the users whose name contains it
+ *
+ * A name contains the search term only if it contains every trigram of
+ * the term, so intersecting the term's posting lists gives a short list of
+ * candidates, which the caller then checks with contains().
+ *
+ * Posting lists are immutable. A change builds a new list and swaps it in,
+ * so readers never lock and never see a half-written list. Each list is
+ * split into sorted blocks of at most {@link #BLOCK_SIZE} ids, and a change
+ * copies only the block it touches: common trigrams are shared by a large
+ * part of all users, and copying their whole list on every write would make
+ * writes slower as the store grows. Changes must come from one thread at a time.
+ */
+final class UserNameIndex {
+
+    static final int GRAM_LENGTH = 3;
+    static final int BLOCK_SIZE = 256;
+
+    private static final long[] NONE = new long[0];
+
+    private final ConcurrentHashMap<String, Postings> postings = new ConcurrentHashMap<>();
+
+    /**
+     * The form names and search terms are compared in
+     */
+    static String normalize(String name) {
+        return name == null ? "" : name.toLowerCase(Locale.ROOT);
+    }
+
+    void add(long id, String normalizedName) {
+        for (String gram : grams(normalizedName)) {
+            postings.compute(gram, (key, ids) -> (ids == null ? Postings.EMPTY : ids).with(id));
+        }
+    }
+
+    /**
+     * Index many users at once, building every posting list in one pass
+     * instead of copying a block per id
+     *
+     * @param ids ascending; the index must be empty
+     */
+    void addAll(long[] ids, String[] normalizedNames) {
+        Map<String, IdList> lists = new HashMap<>();
+        for (int i = 0; i < ids.length; i++) {
+            String name = normalizedNames[i];
+            for (int j = 0; j + GRAM_LENGTH <= name.length(); j++) {
+                lists.computeIfAbsent(name.substring(j, j + GRAM_LENGTH), gram -> new IdList()).add(ids[i]);
+            }
+        }
+        lists.forEach((gram, list) -> postings.put(gram, list.toPostings()));
+    }
+
+    void remove(long id, String normalizedName) {
+        remove(id, normalizedName, "");
+    }
+
+    /**
+     * Remove the user from the trigrams of its old name that its new name does not have
+     */
+    void remove(long id, String normalizedName, String keptName) {
+        Set<String> removed = grams(normalizedName);
+        removed.removeAll(grams(keptName));
+        for (String gram : removed) {
+            postings.computeIfPresent(gram, (key, ids) -> {
+                Postings remaining = ids.without(id);
+                return remaining.size == 0 ? null : remaining;
+            });
+        }
+    }
+
+    /**
+     * Sorted ids of the users whose name has every trigram of the term
+     *
+     * @param normalizedTerm a term of at least {@link #GRAM_LENGTH} characters
+     */
+    long[] candidates(String normalizedTerm) {
+        Set<String> grams = grams(normalizedTerm);
+        Postings[] lists = new Postings[grams.size()];
+        int i = 0;
+        for (String gram : grams) {
+            Postings ids = postings.get(gram);
+            if (ids == null) {
+                return NONE;
+            }
+            lists[i++] = ids;
+        }
+        // Walk the shortest list and probe the others
+        Arrays.sort(lists, Comparator.comparingInt(ids -> ids.size));
+        long[] result = new long[lists[0].size];
+        int size = 0;
+        for (long[] block : lists[0].blocks) {
+            for (long id : block) {
+                boolean inAll = true;
+                for (int j = 1; j < lists.length && inAll; j++) {
+                    inAll = lists[j].contains(id);
+                }
+                if (inAll) {
+                    result[size++] = id;
+                }
+            }
+        }
+        return Arrays.copyOf(result, size);
+    }
+
+    private static Set<String> grams(String normalized) {
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + GRAM_LENGTH <= normalized.length(); i++) {
+            grams.add(normalized.substring(i, i + GRAM_LENGTH));
+        }
+        return grams;
+    }
+
+    /**
+     * Growable list of ascending ids, used while building the index in bulk
+     */
+    private static final class IdList {
+        long[] ids = new long[8];
+        int size;
+
+        void add(long id) {
+            // A name with the same trigram twice adds its id twice in a row
+            if (size > 0 && ids[size - 1] == id) {
+                return;
+            }
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            ids[size++] = id;
+        }
+
+        Postings toPostings() {
+            long[][] blocks = new long[(size + BLOCK_SIZE - 1) / BLOCK_SIZE][];
+            for (int i = 0; i < blocks.length; i++) {
+                blocks[i] = Arrays.copyOfRange(ids, i * BLOCK_SIZE, Math.min(size, (i + 1) * BLOCK_SIZE));
+            }
+            return new Postings(blocks, size);
+        }
+    }
+
+    /**
+     * Sorted ids of one trigram, in blocks ordered by their first id
+     * Immutable: with() and without() share every block but the one they change
+     */
+    private static final class Postings {
+        static final Postings EMPTY = new Postings(new long[0][], 0);
+
+        final long[][] blocks;
+        final int size;
+
+        Postings(long[][] blocks, int size) {
+            this.blocks = blocks;
+            this.size = size;
+        }
+
+        boolean contains(long id) {
+            int block = blockFor(id);
+            return block >= 0 && Arrays.binarySearch(blocks[block], id) >= 0;
+        }
+
+        Postings with(long id) {
+            if (blocks.length == 0) {
+                return new Postings(new long[][] {{id}}, 1);
+            }
+            // An id below every block goes to the first block
+            int block = Math.max(0, blockFor(id));
+            int position = Arrays.binarySearch(blocks[block], id);
+            if (position >= 0) {
+                return this;
+            }
+            long[] grown = insert(blocks[block], -position - 1, id);
+            if (grown.length <= BLOCK_SIZE) {
+                long[][] copy = blocks.clone();
+                copy[block] = grown;
+                return new Postings(copy, size + 1);
+            }
+            // Split the full block in two
+            long[][] copy = new long[blocks.length + 1][];
+            System.arraycopy(blocks, 0, copy, 0, block);
+            copy[block] = Arrays.copyOfRange(grown, 0, grown.length / 2);
+            copy[block + 1] = Arrays.copyOfRange(grown, grown.length / 2, grown.length);
+            System.arraycopy(blocks, block + 1, copy, block + 2, blocks.length - block - 1);
+            return new Postings(copy, size + 1);
+        }
+
+        Postings without(long id) {
+            int block = blockFor(id);
+            int position = block < 0 ? -1 : Arrays.binarySearch(blocks[block], id);
+            if (position < 0) {
+                return this;
+            }
+            long[][] copy;
+            if (blocks[block].length == 1) {
+                copy = new long[blocks.length - 1][];
+                System.arraycopy(blocks, 0, copy, 0, block);
+                System.arraycopy(blocks, block + 1, copy, block, blocks.length - block - 1);
+            } else {
+                copy = blocks.clone();
+                copy[block] = delete(blocks[block], position);
+            }
+            return new Postings(copy, size - 1);
+        }
+
+        /**
+         * Index of the last block whose first id is at most id, or -1 if there is none
+         */
+        private int blockFor(long id) {
+            int low = 0;
+            int high = blocks.length - 1;
+            int found = -1;
+            while (low <= high) {
+                int middle = (low + high) >>> 1;
+                if (blocks[middle][0] <= id) {
+                    found = middle;
+                    low = middle + 1;
+                } else {
+                    high = middle - 1;
+                }
+            }
+            return found;
+        }
+
+        private static long[] insert(long[] ids, int position, long id) {
+            long[] copy = new long[ids.length + 1];
+            System.arraycopy(ids, 0, copy, 0, position);
+            copy[position] = id;
+            System.arraycopy(ids, position, copy, position + 1, ids.length - position);
+            return copy;
+        }
+
+        private static long[] delete(long[] ids, int position) {
+            long[] copy = new long[ids.length - 1];
+            System.arraycopy(ids, 0, copy, 0, position);
+            System.arraycopy(ids, position + 1, copy, position, ids.length - position - 1);
+            return copy;
+        }
+    }
+}
@@ -0,0 +1,338 @@
+package com.example.restapi.repository;
+
+import com.example.restapi.model.User;
+import com.example.restapi.persistence.UserPersistence;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+
+/**
+ * In-memory User Repository
+ * Thread-safe storage for users, shared by all request threads
+ *
+ * Reads never take a lock:
+ * - Users are found by id in a hash map (ConcurrentHashMap)
+ * - Name search uses a trigram index ({@link UserNameIndex}) built from
+ *   names lower-cased once per stored user; after a restart the index
+ *   is built in the background and searches scan all users until it is ready
+ * - The full listing is an immutable snapshot, rebuilt on the first read
+ *   after a change and then shared by every reader until the next change
+ *
+ * Writes are serialized by one lock, and each is logged ({@link UserPersistence})
+ * before it is applied, so the users survive a restart. The repository keeps
+ * its own copies of the users it is given, and the users it returns must not
+ * be modified.
+ */
+@Repository
+public class UserRepository {
+
+    private final UserPersistence persistence;
+    private final ConcurrentHashMap<Long, StoredUser> byId = new ConcurrentHashMap<>();
+    // Replaced once by the index built in the background after a restart
+    private volatile UserNameIndex nameIndex = new UserNameIndex();
+    private final AtomicReference<Listing> listing = new AtomicReference<>(new Listing(0, List.of(), List.of()));
+
+    private final Object writeLock = new Object();
+    // Guarded by writeLock
+    private long nextId = 1;
+    // Bumped after every change, so a listing can tell whether it is current
+    private volatile long changes;
+    // False from loading a snapshot until the name index is built; changed under writeLock
+    private volatile boolean indexed = true;
+    // Index changes made while the index is built; non-null only during the build. Guarded by writeLock
+    private List<Consumer<UserNameIndex>> pendingDuringBuild;
+
+    @Autowired
+    public UserRepository(UserPersistence persistence) {
+        this.persistence = persistence;
+    }
+
+    @PostConstruct
+    void restore() {
+        persistence.restore(this);
+        if (!indexed) {
+            // Indexing a large snapshot takes longer than loading it; searches scan until it is done
+            Thread builder = new Thread(this::buildIndex, "user-name-index");
+            builder.setDaemon(true);
+            builder.start();
+        }
+    }
+
+    /**
+     * All users, ordered by id
+     */
+    public List<User> findAll() {
+        return listing().users;
+    }
+
+    public Optional<User> findById(Long id) {
+        StoredUser entry = byId.get(id);
+        return entry == null ? Optional.empty() : Optional.of(entry.user);
+    }
+
+    /**
+     * Users whose name contains the term, ignoring case, ordered by id
+     */
+    public List<User> searchByName(String term) {
+        String normalizedTerm = UserNameIndex.normalize(term);
+        List<User> found = new ArrayList<>();
+        if (normalizedTerm.length() < UserNameIndex.GRAM_LENGTH || !indexed) {
+            // Too short for the index, or the index is not built yet;
+            // the listing still saves lower-casing every name
+            for (StoredUser entry : listing().entries) {
+                if (entry.normalizedName().contains(normalizedTerm)) {
+                    found.add(entry.user);
+                }
+            }
+            return found;
+        }
+        for (long id : nameIndex.candidates(normalizedTerm)) {
+            StoredUser entry = byId.get(id);
+            // The index may be a step behind a concurrent rename
+            if (entry != null && entry.normalizedName().contains(normalizedTerm)) {
+                found.add(entry.user);
+            }
+        }
+        return found;
+    }
+
+    public int count() {
+        return byId.size();
+    }
+
+    /**
+     * Store a new user under the next free id
+     *
+     * @return the stored user, with its id
+     */
+    public User create(User user) {
+        synchronized (writeLock) {
+            User stored = copyOf(nextId, user);
+            persistence.logPut(stored);
+            nextId++;
+            put(stored);
+            return stored;
+        }
+    }
+
+    /**
+     * Replace an existing user's name, email and age
+     *
+     * @return the stored user, or empty if there is no user with that id
+     */
+    public Optional<User> update(Long id, User user) {
+        synchronized (writeLock) {
+            if (!byId.containsKey(id)) {
+                return Optional.empty();
+            }
+            User stored = copyOf(id, user);
+            persistence.logPut(stored);
+            put(stored);
+            return Optional.of(stored);
+        }
+    }
+
+    /**
+     * @return false if there is no user with that id
+     */
+    public boolean delete(Long id) {
+        synchronized (writeLock) {
+            if (!byId.containsKey(id)) {
+                return false;
+            }
+            persistence.logDelete(id);
+            remove(id);
+            return true;
+        }
+    }
+
+    /**
+     * Fill the empty repository with users from a snapshot
+     * The name index is left to be built in bulk once startup is done.
+     *
+     * @param users ordered by id
+     */
+    public void load(List<User> users, long nextId) {
+        synchronized (writeLock) {
+            if (!byId.isEmpty()) {
+                throw new IllegalStateException("Users can only be loaded into an empty repository");
+            }
+            List<StoredUser> entries = new ArrayList<>(users.size());
+            for (User user : users) {
+                StoredUser entry = new StoredUser(user);
+                byId.put(user.getId(), entry);
+                entries.add(entry);
+            }
+            indexed = false;
+            this.nextId = nextId;
+            // The snapshot is already in id order; no need to sort it again on the first read
+            listing.set(new Listing(++changes, Collections.unmodifiableList(entries),
+                    Collections.unmodifiableList(users)));
+        }
+    }
+
+    /**
+     * Apply a logged create or update, without logging it again
+     */
+    public void replayPut(User user) {
+        synchronized (writeLock) {
+            put(user);
+            nextId = Math.max(nextId, user.getId() + 1);
+        }
+    }
+
+    /**
+     * Apply a logged delete, without logging it again
+     */
+    public void replayDelete(long id) {
+        synchronized (writeLock) {
+            remove(id);
+        }
+    }
+
+    /**
+     * Pass all users, ordered by id, and the next free id to the function,
+     * with writes held off until it returns
+     */
+    public <T> T capture(BiFunction<List<User>, Long, T> function) {
+        synchronized (writeLock) {
+            return function.apply(listing().users, nextId);
+        }
+    }
+
+    private void put(User user) {
+        StoredUser entry = new StoredUser(user);
+        long id = user.getId();
+        // Index the new name before the user is visible, drop the old one after
+        index(index -> index.add(id, entry.normalizedName()));
+        StoredUser previous = byId.put(id, entry);
+        if (previous != null) {
+            index(index -> index.remove(id, previous.normalizedName(), entry.normalizedName()));
+        }
+        changes++;
+    }
+
+    private void remove(long id) {
+        StoredUser removed = byId.remove(id);
+        if (removed != null) {
+            index(index -> index.remove(id, removed.normalizedName()));
+            changes++;
+        }
+    }
+
+    /**
+     * Apply a change to the name index, or keep it for the index being built; called under writeLock
+     */
+    private void index(Consumer<UserNameIndex> change) {
+        if (indexed) {
+            change.accept(nameIndex);
+        } else if (pendingDuringBuild != null) {
+            pendingDuringBuild.add(change);
+        }
+    }
+
+    /**
+     * Index every user in one pass, without holding off writes while it runs
+     *
+     * The users are captured under the write lock; changes made after that
+     * are kept and applied to the new index before it is swapped in.
+     */
+    private void buildIndex() {
+        List<StoredUser> entries;
+        synchronized (writeLock) {
+            entries = listing().entries;
+            pendingDuringBuild = new ArrayList<>();
+        }
+
+        UserNameIndex fresh = new UserNameIndex();
+        try {
+            long[] ids = new long[entries.size()];
+            String[] normalizedNames = new String[entries.size()];
+            for (int i = 0; i < ids.length; i++) {
+                ids[i] = entries.get(i).user.getId();
+                normalizedNames[i] = entries.get(i).normalizedName();
+            }
+            fresh.addAll(ids, normalizedNames);
+        } catch (RuntimeException e) {
+            synchronized (writeLock) {
+                pendingDuringBuild = null;
+            }
+            throw e;
+        }
+
+        synchronized (writeLock) {
+            pendingDuringBuild.forEach(change -> change.accept(fresh));
+            pendingDuringBuild = null;
+            nameIndex = fresh;
+            indexed = true;
+        }
+    }
+
+    /**
+     * The current listing, rebuilt if a change happened since it was built
+     */
+    private Listing listing() {
+        Listing current = listing.get();
+        long stamp = changes;
+        if (current.stamp == stamp) {
+            return current;
+        }
+        // Read the stamp before the users: a change made while copying bumps it
+        // again, so this listing is replaced on the next read
+        List<StoredUser> entries = new ArrayList<>(byId.values());
+        entries.sort(Comparator.comparing(entry -> entry.user.getId()));
+        List<User> users = new ArrayList<>(entries.size());
+        for (StoredUser entry : entries) {
+            users.add(entry.user);
+        }
+        Listing fresh = new Listing(stamp, Collections.unmodifiableList(entries), Collections.unmodifiableList(users));
+        listing.compareAndSet(current, fresh);
+        return fresh;
+    }
+
+    private static User copyOf(Long id, User user) {
+        return new User(id, user.getName(), user.getEmail(), user.getAge());
+    }
+
+    private static final class StoredUser {
+        final User user;
+        // Lower-cased on first use, so loading a snapshot does not lower-case every name up front.
+        // Threads may race to set it; they all compute the same immutable String
+        private String normalizedName;
+
+        StoredUser(User user) {
+            this.user = user;
+        }
+
+        String normalizedName() {
+            String name = normalizedName;
+            if (name == null) {
+                name = UserNameIndex.normalize(user.getName());
+                normalizedName = name;
+            }
+            return name;
+        }
+    }
+
+    private static final class Listing {
+        final long stamp;
+        final List<StoredUser> entries;
+        final List<User> users;
+
+        Listing(long stamp, List<StoredUser> entries, List<User> users) {
+            this.stamp = stamp;
+            this.entries = entries;
+            this.users = users;
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.restapi.persistence;
+
+import com.example.restapi.model.User;
+import com.example.restapi.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests for {@link UserPersistence}
+ *
+ * Demonstrates:
+ * - A restart loads the snapshot and replays the changes logged after it
+ * - A record torn by a crash is dropped, and everything before it survives
+ * - A write after shutdown is refused before it changes the repository
+ */
+class UserPersistenceTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void restoresSnapshotAndLogAfterCrash() throws IOException {
+        UserPersistence persistence = new UserPersistence(true, directory, false, Duration.ofMinutes(5));
+        UserRepository repository = new UserRepository(persistence);
+        persistence.restore(repository);
+
+        repository.create(new User(null, "Alice", "alice@example.com", 30));
+        repository.create(new User(null, "Bob", "bob@example.com", 31));
+        repository.create(new User(null, "Carol", "carol@example.com", 32));
+        repository.update(2L, new User(null, "Bob Updated", "bob@example.com", 41));
+        repository.delete(1L);
+        assertEquals(Optional.of(2), persistence.snapshot());
+
+        repository.create(new User(null, "Dave", "dave@example.com", 33));
+        repository.delete(2L);
+        repository.update(3L, new User(null, "Carol Renamed", "carol@example.com", 42));
+        // Torn below, as if the process died while appending it
+        repository.update(4L, new User(null, "Dave Lost", "dave@example.com", 99));
+
+        // The first instance is abandoned without shutdown(), as a crash would leave it
+        Path newestSegment;
+        try (Stream<Path> files = Files.list(directory)) {
+            newestSegment = files.filter(file -> file.getFileName().toString().endsWith(".wal"))
+                    .max(Comparator.naturalOrder())
+                    .orElseThrow();
+        }
+        try (FileChannel channel = FileChannel.open(newestSegment, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 3);
+        }
+
+        UserPersistence restarted = new UserPersistence(true, directory, false, Duration.ofMinutes(5));
+        UserRepository restored = new UserRepository(restarted);
+        restarted.restore(restored);
+        try {
+            List<User> users = restored.findAll();
+            assertEquals(List.of(3L, 4L), users.stream().map(User::getId).toList());
+            assertEquals("Carol Renamed", users.get(0).getName());
+            assertEquals(42, users.get(0).getAge());
+            assertEquals("Dave", users.get(1).getName());
+            assertEquals(List.of(3L), restored.searchByName("renamed").stream().map(User::getId).toList());
+
+            // Ids are never reused, not even those of deleted users
+            assertEquals(5L, restored.create(new User(null, "Erin", "erin@example.com", 34)).getId());
+        } finally {
+            restarted.shutdown();
+        }
+    }
+
+    @Test
+    void writeAfterShutdownIsRefused() {
+        UserPersistence persistence = new UserPersistence(true, directory, false, Duration.ofMinutes(5));
+        UserRepository repository = new UserRepository(persistence);
+        persistence.restore(repository);
+        repository.create(new User(null, "Alice", "alice@example.com", 30));
+
+        persistence.shutdown();
+
+        assertThrows(IllegalStateException.class,
+                () -> repository.create(new User(null, "Bob", "bob@example.com", 31)));
+        assertEquals(1, repository.count());
+
+        UserPersistence restarted = new UserPersistence(true, directory, false, Duration.ofMinutes(5));
+        UserRepository restored = new UserRepository(restarted);
+        restarted.restore(restored);
+        try {
+            assertEquals(List.of("Alice"), restored.findAll().stream().map(User::getName).toList());
+        } finally {
+            restarted.shutdown();
+        }
+    }
+}
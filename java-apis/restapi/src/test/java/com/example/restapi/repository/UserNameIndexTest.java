@@ -0,0 +1,212 @@
+package com.example.restapi.repository;
+
+import com.example.restapi.model.User;
+import com.example.restapi.persistence.UserPersistence;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for {@link UserNameIndex}
+ *
+ * Demonstrates:
+ * - Posting lists stay sorted and complete as blocks split and empty out
+ * - Candidates are exactly the ids whose name holds every trigram of the term
+ * - A rename keeps the trigrams the old and new name share
+ * - Name search stays consistent with the users while 8 threads write and search
+ */
+class UserNameIndexTest {
+
+    private static final String[] SYLLABLES = {"ka", "ri", "mo", "su", "te", "na", "lo", "vi", "an", "el"};
+
+    @Test
+    void postingsStaySortedAcrossBlockSplits() {
+        UserNameIndex index = new UserNameIndex();
+        int count = UserNameIndex.BLOCK_SIZE * 8;
+        List<Long> ids = new ArrayList<>();
+        for (long id = 1; id <= count; id++) {
+            ids.add(id);
+        }
+        // Arrival out of order inserts into the middle of full blocks
+        Collections.shuffle(ids, new Random(1));
+        for (long id : ids) {
+            index.add(id, "shared");
+        }
+        assertArrayEquals(LongStream.rangeClosed(1, count).toArray(), index.candidates("shared"));
+
+        for (long id = 1; id <= count; id += 3) {
+            index.remove(id, "shared");
+        }
+        assertArrayEquals(LongStream.rangeClosed(1, count).filter(id -> id % 3 != 1).toArray(),
+                index.candidates("shared"));
+
+        // Emptying whole blocks must not lose the neighbours
+        for (long id = 1; id <= count / 2; id++) {
+            index.remove(id, "shared");
+        }
+        assertArrayEquals(LongStream.rangeClosed(count / 2 + 1, count).filter(id -> id % 3 != 1).toArray(),
+                index.candidates("shared"));
+
+        for (long id = count / 2 + 1; id <= count; id++) {
+            index.remove(id, "shared");
+        }
+        assertEquals(0, index.candidates("shared").length);
+    }
+
+    @Test
+    void candidatesMatchBruteForce() {
+        Random random = new Random(2);
+        int count = 5000;
+        long[] ids = new long[count];
+        String[] names = new String[count];
+        UserNameIndex incremental = new UserNameIndex();
+        for (int i = 0; i < count; i++) {
+            ids[i] = i + 1;
+            names[i] = UserNameIndex.normalize(randomName(random));
+            incremental.add(ids[i], names[i]);
+        }
+        UserNameIndex bulk = new UserNameIndex();
+        bulk.addAll(ids, names);
+
+        for (int i = 0; i < 300; i++) {
+            String name = names[random.nextInt(count)];
+            int length = UserNameIndex.GRAM_LENGTH + random.nextInt(4);
+            int start = random.nextInt(Math.max(1, name.length() - length + 1));
+            String term = name.substring(start, Math.min(name.length(), start + length));
+
+            long[] candidates = incremental.candidates(term);
+            assertArrayEquals(withAllGrams(ids, names, term), candidates, term);
+            assertArrayEquals(candidates, bulk.candidates(term), term);
+            for (long id : containing(ids, names, term)) {
+                assertTrue(contains(candidates, id), term + " is missing " + id);
+            }
+        }
+        assertEquals(0, incremental.candidates("zzz").length);
+    }
+
+    @Test
+    void renameKeepsSharedGrams() {
+        UserNameIndex index = new UserNameIndex();
+        index.add(1, "anna smith");
+        index.add(2, "smithers");
+
+        // As UserRepository.put does: index the new name, then drop what only the old one had
+        index.add(1, "anna jones");
+        index.remove(1, "anna smith", "anna jones");
+
+        assertArrayEquals(new long[] {1}, index.candidates("anna"));
+        assertArrayEquals(new long[] {1}, index.candidates("jones"));
+        assertArrayEquals(new long[] {2}, index.candidates("smith"));
+    }
+
+    @Test
+    void searchStaysConsistentUnderConcurrentWrites(@TempDir Path directory) throws Exception {
+        UserRepository repository = new UserRepository(
+                new UserPersistence(false, directory, false, Duration.ofMinutes(5)));
+        repository.restore();
+
+        // Never changed, so every search for them must find all of them at every moment
+        int anchors = UserNameIndex.BLOCK_SIZE + 44;
+        List<Long> anchorIds = new ArrayList<>();
+        for (int i = 0; i < anchors; i++) {
+            anchorIds.add(repository.create(new User(null, "Anchor " + i, "anchor" + i + "@example.com", 30)).getId());
+        }
+
+        int threads = 8;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        List<Future<?>> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            Random random = new Random(100 + t);
+            workers.add(pool.submit(() -> {
+                start.await();
+                List<Long> own = new ArrayList<>();
+                for (int op = 0; op < 3000; op++) {
+                    int choice = random.nextInt(10);
+                    if (choice < 4 || own.isEmpty()) {
+                        own.add(repository.create(new User(null, randomName(random), "user@example.com", 20)).getId());
+                    } else if (choice < 6) {
+                        long id = own.get(random.nextInt(own.size()));
+                        repository.update(id, new User(null, randomName(random), "user@example.com", 21));
+                    } else if (choice < 7) {
+                        repository.delete(own.remove(random.nextInt(own.size())));
+                    } else {
+                        assertEquals(anchors, repository.searchByName("anchor").size());
+                        String term = UserNameIndex.normalize(randomName(random).substring(0, 4));
+                        for (User user : repository.searchByName(term)) {
+                            assertTrue(UserNameIndex.normalize(user.getName()).contains(term), term);
+                        }
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(2, TimeUnit.MINUTES), "workers did not finish");
+        for (Future<?> worker : workers) {
+            worker.get();
+        }
+
+        List<User> all = repository.findAll();
+        long[] ids = all.stream().mapToLong(User::getId).toArray();
+        String[] names = all.stream().map(user -> UserNameIndex.normalize(user.getName())).toArray(String[]::new);
+        Random random = new Random(3);
+        for (int i = 0; i < 200; i++) {
+            String term = randomName(random).substring(0, 3 + random.nextInt(3));
+            long[] found = repository.searchByName(term).stream().mapToLong(User::getId).toArray();
+            assertArrayEquals(containing(ids, names, UserNameIndex.normalize(term)), found, term);
+        }
+        assertEquals(anchorIds, repository.searchByName("anchor").stream().map(User::getId).toList());
+    }
+
+    private static String randomName(Random random) {
+        StringBuilder name = new StringBuilder();
+        int syllables = 3 + random.nextInt(3);
+        for (int i = 0; i < syllables; i++) {
+            if (i == 2) {
+                name.append(' ');
+            }
+            name.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+        }
+        name.setCharAt(0, Character.toUpperCase(name.charAt(0)));
+        return name.toString();
+    }
+
+    private static long[] containing(long[] ids, String[] names, String term) {
+        return LongStream.range(0, ids.length).filter(i -> names[(int) i].contains(term))
+                .map(i -> ids[(int) i]).toArray();
+    }
+
+    private static long[] withAllGrams(long[] ids, String[] names, String term) {
+        return LongStream.range(0, ids.length).filter(i -> {
+            for (int start = 0; start + UserNameIndex.GRAM_LENGTH <= term.length(); start++) {
+                if (!names[(int) i].contains(term.substring(start, start + UserNameIndex.GRAM_LENGTH))) {
+                    return false;
+                }
+            }
+            return true;
+        }).map(i -> ids[(int) i]).toArray();
+    }
+
+    private static boolean contains(long[] sorted, long id) {
+        return Arrays.binarySearch(sorted, id) >= 0;
+    }
+}
@@ -4,6 +4,7 @@ import com.codewhisperer.model.VoiceRequest;
 import com.codewhisperer.model.CodeResponse;
 import com.codewhisperer.model.ProjectContext;
 import com.codewhisperer.model.ConversationHistory;
+import com.codewhisperer.model.CodeSymbol;
 import com.codewhisperer.service.CodeWhispererService;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -11,6 +12,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import jakarta.validation.Valid;
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
 
 @Slf4j
@@ -177,6 +179,19 @@ public class VoiceController {
         }
     }
 
+    @GetMapping("/symbols")
+    public ResponseEntity<List<CodeSymbol>> findSymbols(@RequestParam String projectPath, @RequestParam String name) {
+        try {
+            return ResponseEntity.ok(codeWhispererService.findSymbols(projectPath, name));
+        } catch (IllegalArgumentException e) {
+            log.warn("Rejected symbol lookup: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            log.error("Error looking up symbol {} in project: {}", name, projectPath, e);
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     @GetMapping("/history/{sessionId}")
     public ResponseEntity<ConversationHistory> getConversationHistory(@PathVariable String sessionId) {
         ConversationHistory history = codeWhispererService.getConversationHistory(sessionId);
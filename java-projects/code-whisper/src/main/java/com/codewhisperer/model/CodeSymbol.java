@@ -0,0 +1,28 @@
+package com.codewhisperer.model;
+
+import lombok.Data;
+import lombok.Builder;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CodeSymbol {
+    private SymbolKind kind;
+    private String name;
+    private String container; // Enclosing type, or groupId for dependencies
+    private String filePath; // Relative to the project root
+    private int line;
+    private String detail; // Dependency version, empty otherwise
+
+    public enum SymbolKind {
+        CLASS,
+        INTERFACE,
+        ENUM,
+        RECORD,
+        METHOD,
+        DEPENDENCY
+    }
+}
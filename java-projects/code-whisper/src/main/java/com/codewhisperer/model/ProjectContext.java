@@ -20,5 +20,6 @@ public class ProjectContext {
     private String gitBranch;
     private String lastCommitMessage;
     private List<String> recentFiles; // Recently modified files
+    private List<String> changedFiles; // Uncommitted git changes
     private Map<String, Object> projectMetadata;
 } 
\ No newline at end of file
@@ -1,13 +1,15 @@
 package com.codewhisperer.service;
 
 import com.codewhisperer.model.*;
+import com.codewhisperer.service.index.SymbolIndexService;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 @Slf4j
 @Service
@@ -25,39 +27,66 @@ public class CodeWhispererService {
     @Autowired(required = false)
     private ConversationHistoryService conversationHistoryService;
 
-    @Autowired(required = false)
-    private SimpMessagingTemplate messagingTemplate;
+    @Autowired
+    private WebSocketUpdateDispatcher webSocketUpdateDispatcher;
+
+    @Autowired
+    private PipelineMetrics pipelineMetrics;
+
+    @Autowired
+    private SymbolIndexService symbolIndexService;
+
+    @Autowired
+    private PipelineIoExecutor pipelineIoExecutor;
 
     public CompletableFuture<CodeResponse> processVoiceRequest(VoiceRequest request) {
         String sessionId = request.getSessionId() != null ? request.getSessionId() : UUID.randomUUID().toString();
         
         log.info("Processing voice request for session: {}", sessionId);
 
-        // Step 1: Convert voice to text
-        return voiceToTextService.convertVoiceToText(request.getAudioData(), sessionId)
-                .thenCompose(voiceText -> {
+        // Transcription, project scanning and the history lookup are independent of each other,
+        // so they run concurrently and join before code generation.
+        CompletableFuture<String> transcription = pipelineMetrics.timeStage("transcription", voiceToTextService.getProviderName(),
+                () -> voiceToTextService.convertVoiceToText(request.getAudioData(), sessionId))
+                .thenApply(voiceText -> {
                     // Send real-time update if WebSocket is available
                     sendWebSocketUpdate(sessionId, "Converting voice to text...", "PROCESSING");
-                    
                     log.info("Voice converted to text: {}", voiceText);
-                    
-                    // Step 2: Scan project context
-                    ProjectContext projectContext = projectScannerService.scanProject(request.getProjectPath());
+                    return voiceText;
+                });
+
+        // Shared with concurrent requests for the same path
+        CompletableFuture<ProjectContext> projectScan = pipelineMetrics.timeStage("scan", "filesystem",
+                () -> projectScannerService.scanProjectShared(request.getProjectPath()))
+                .thenApply(projectContext -> {
                     sendWebSocketUpdate(sessionId, "Analyzing project structure...", "PROCESSING");
-                    
-                    // Step 3: Generate code using LLM
-                    return llmService.generateCode(voiceText, projectContext, sessionId)
+                    return projectContext;
+                });
+
+        CompletableFuture<Boolean> historyLookup = pipelineMetrics.timeStage("historyLookup", null,
+                () -> CompletableFuture.supplyAsync(() -> conversationExists(sessionId), pipelineIoExecutor.executor()));
+
+        return pipelineMetrics.timeRequest(() -> CompletableFuture.allOf(transcription, projectScan, historyLookup)
+                .thenCompose(ignored -> {
+                    String voiceText = transcription.join();
+                    ProjectContext projectContext = projectScan.join();
+
+                    // Generate code using LLM
+                    return pipelineMetrics.timeStage("generation", llmService.getProviderName(),
+                                    () -> llmService.generateCode(voiceText, projectContext, sessionId),
+                                    CodeWhispererService::responseTypeOf)
                             .thenApply(codeResponse -> {
-                                // Step 4: Save conversation history (optional)
-                                saveConversationHistory(sessionId, request.getProjectPath(), voiceText, codeResponse);
+                                // Save conversation history (optional)
+                                saveConversationHistory(sessionId, request.getProjectPath(), voiceText, codeResponse,
+                                        historyLookup.join());
                                 
-                                // Step 5: Send final result
+                                // Send final result
                                 sendWebSocketUpdate(sessionId, "Code generation completed!", "COMPLETED");
                                 
                                 log.info("Code generation completed for session: {}", sessionId);
                                 return codeResponse;
                             });
-                })
+                }), CodeWhispererService::responseTypeOf)
                 .exceptionally(throwable -> {
                     log.error("Error processing voice request for session: {}", sessionId, throwable);
                     sendWebSocketUpdate(sessionId, "Error: " + throwable.getMessage(), "ERROR");
@@ -73,32 +102,42 @@ public class CodeWhispererService {
     }
 
     private void sendWebSocketUpdate(String sessionId, String message, String status) {
-        if (messagingTemplate != null) {
-            try {
-                WebSocketUpdate update = WebSocketUpdate.builder()
-                        .sessionId(sessionId)
-                        .message(message)
-                        .status(status)
-                        .timestamp(System.currentTimeMillis())
-                        .build();
-                
-                messagingTemplate.convertAndSend("/topic/session/" + sessionId, update);
-            } catch (Exception e) {
-                log.warn("Failed to send WebSocket update for session: {}", sessionId, e);
-            }
+        WebSocketUpdate update = WebSocketUpdate.builder()
+                .sessionId(sessionId)
+                .message(message)
+                .status(status)
+                .timestamp(System.currentTimeMillis())
+                .build();
+
+        // Queued per session and sent off the pipeline thread; see WebSocketUpdateDispatcher
+        webSocketUpdateDispatcher.dispatch(update);
+    }
+
+    private boolean conversationExists(String sessionId) {
+        if (conversationHistoryService == null) {
+            return false;
+        }
+        try {
+            return conversationHistoryService.getConversationBySessionId(sessionId).isPresent();
+        } catch (Exception e) {
+            log.warn("Failed to look up conversation history for session: {}", sessionId, e);
+            return false;
         }
     }
 
-    private void saveConversationHistory(String sessionId, String projectPath, String voiceInput, CodeResponse codeResponse) {
+    private void saveConversationHistory(String sessionId, String projectPath, String voiceInput, CodeResponse codeResponse,
+                                         boolean conversationExists) {
         if (conversationHistoryService != null) {
             try {
-                // Check if conversation exists, if not create it
-                if (!conversationHistoryService.getConversationBySessionId(sessionId).isPresent()) {
-                    conversationHistoryService.saveConversation(sessionId, projectPath, "default-user");
-                }
-                
-                // Add the conversation entry
-                conversationHistoryService.addConversationEntry(sessionId, voiceInput, codeResponse);
+                pipelineMetrics.recordStage("historySave", () -> {
+                    // Create the conversation if the lookup did not find one
+                    if (!conversationExists) {
+                        conversationHistoryService.saveConversation(sessionId, projectPath, "default-user");
+                    }
+
+                    // Add the conversation entry
+                    conversationHistoryService.addConversationEntry(sessionId, voiceInput, codeResponse);
+                });
             } catch (Exception e) {
                 log.warn("Failed to save conversation history for session: {}", sessionId, e);
             }
@@ -107,8 +146,27 @@ public class CodeWhispererService {
         }
     }
 
+    private static String responseTypeOf(CodeResponse codeResponse) {
+        return codeResponse.getType() != null ? codeResponse.getType().name() : null;
+    }
+
     public ProjectContext getProjectContext(String projectPath) {
-        return projectScannerService.scanProject(projectPath);
+        try {
+            return projectScannerService.scanProjectShared(projectPath).join();
+        } catch (CompletionException e) {
+            // Throw what the scan threw, as callers saw it before scans were shared
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+
+    public List<CodeSymbol> findSymbols(String projectPath, String name) {
+        return symbolIndexService.findSymbols(projectPath, name);
     }
 
     public ConversationHistory getConversationHistory(String sessionId) {
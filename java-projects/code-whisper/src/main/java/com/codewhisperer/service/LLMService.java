@@ -2,15 +2,16 @@ package com.codewhisperer.service;
 
 import com.codewhisperer.model.CodeResponse;
 import com.codewhisperer.model.ProjectContext;
-import com.theokanning.openai.completion.chat.ChatCompletionRequest;
-import com.theokanning.openai.completion.chat.ChatMessage;
-import com.theokanning.openai.service.OpenAiService;
+import com.codewhisperer.service.llm.ContextPacker;
+import com.codewhisperer.service.llm.ContextSnippet;
+import com.codewhisperer.service.llm.LlmGateway;
+import com.codewhisperer.service.llm.LlmPrompt;
+import com.codewhisperer.service.llm.TokenEstimator;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import java.time.Duration;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
 
@@ -18,74 +19,43 @@ import java.util.concurrent.CompletableFuture;
 @Service
 public class LLMService {
 
-    @Value("${codewhisperer.openai.api-key:}")
-    private String openaiApiKey;
-
-    @Value("${codewhisperer.openai.model:gpt-4}")
-    private String model;
-
     @Value("${codewhisperer.openai.max-tokens:2000}")
     private Integer maxTokens;
 
-    private OpenAiService openAiService;
+    @Autowired
+    private LlmGateway llmGateway;
+
+    @Autowired
+    private ContextPacker contextPacker;
 
     public void initialize() {
-        if (openaiApiKey != null && !openaiApiKey.isEmpty()) {
-            this.openAiService = new OpenAiService(openaiApiKey, Duration.ofSeconds(60));
-            log.info("OpenAI service initialized with model: {}", model);
-        } else {
-            log.warn("OpenAI API key not configured, using mock responses");
-        }
+        llmGateway.initialize();
     }
 
     public CompletableFuture<CodeResponse> generateCode(String voiceInput, ProjectContext projectContext, String sessionId) {
-        return CompletableFuture.supplyAsync(() -> {
-            try {
-                log.info("Generating code for input: {}", voiceInput);
-                
-                if (openAiService == null) {
-                    return generateMockCode(voiceInput, projectContext, sessionId);
-                } else {
-                    return generateRealCode(voiceInput, projectContext, sessionId);
-                }
-                
-            } catch (Exception e) {
-                log.error("Error generating code for session: {}", sessionId, e);
-                return CodeResponse.builder()
-                        .generatedCode("// Error generating code: " + e.getMessage())
-                        .explanation("Failed to generate code due to an error")
-                        .sessionId(sessionId)
-                        .timestamp(System.currentTimeMillis())
-                        .type(CodeResponse.ResponseType.CODE_GENERATION)
-                        .build();
-            }
-        });
-    }
-
-    private CodeResponse generateRealCode(String voiceInput, ProjectContext projectContext, String sessionId) {
-        String prompt = buildContextAwarePrompt(voiceInput, projectContext);
-        
-        List<ChatMessage> messages = new ArrayList<>();
-        messages.add(new ChatMessage("system", getSystemPrompt()));
-        messages.add(new ChatMessage("user", prompt));
-
-        ChatCompletionRequest request = ChatCompletionRequest.builder()
-                .model(model)
-                .messages(messages)
-                .maxTokens(maxTokens)
-                .temperature(0.3)
-                .build();
+        log.info("Generating code for input: {}", voiceInput);
 
-        try {
-            String response = openAiService.createChatCompletion(request)
-                    .getChoices().get(0).getMessage().getContent();
-            
-            return parseLLMResponse(response, sessionId);
-            
-        } catch (Exception e) {
-            log.error("Error calling OpenAI API", e);
-            throw new RuntimeException("Failed to generate code via OpenAI", e);
+        CompletableFuture<CodeResponse> generation;
+        if (!llmGateway.isConfigured()) {
+            generation = CompletableFuture.supplyAsync(() -> generateMockCode(voiceInput, projectContext, sessionId));
+        } else {
+            LlmPrompt prompt = new LlmPrompt(getSystemPrompt(), buildContextAwarePrompt(voiceInput, projectContext),
+                    maxTokens, 0.3, null);
+            generation = llmGateway.complete(prompt)
+                    .thenApply(response -> parseLLMResponse(response, sessionId));
         }
+
+        return generation
+                .exceptionally(throwable -> {
+                    log.error("Error generating code for session: {}", sessionId, throwable);
+                    return CodeResponse.builder()
+                            .generatedCode("// Error generating code: " + throwable.getMessage())
+                            .explanation("Failed to generate code due to an error")
+                            .sessionId(sessionId)
+                            .timestamp(System.currentTimeMillis())
+                            .type(CodeResponse.ResponseType.CODE_GENERATION)
+                            .build();
+                });
     }
 
     private CodeResponse generateMockCode(String voiceInput, ProjectContext projectContext, String sessionId) {
@@ -117,21 +87,32 @@ public class LLMService {
         prompt.append("- Primary Language: ").append(projectContext.getPrimaryLanguage()).append("\n");
         prompt.append("- Build Tool: ").append(projectContext.getDependencies().get("buildTool")).append("\n");
         prompt.append("- Git Branch: ").append(projectContext.getGitBranch()).append("\n");
-        
-        if (!projectContext.getSourceFiles().isEmpty()) {
-            prompt.append("- Source Files: ").append(String.join(", ", projectContext.getSourceFiles().subList(0, Math.min(10, projectContext.getSourceFiles().size())))).append("\n");
+
+        StringBuilder instructions = new StringBuilder();
+        instructions.append("\nVoice Input: ").append(voiceInput).append("\n\n");
+        instructions.append("Please generate appropriate code based on the project context and voice input. ");
+        instructions.append("Return the response in the following JSON format:\n");
+        instructions.append("{\n");
+        instructions.append("  \"code\": \"the generated code\",\n");
+        instructions.append("  \"explanation\": \"brief explanation of what the code does\",\n");
+        instructions.append("  \"filePath\": \"suggested file path\",\n");
+        instructions.append("  \"type\": \"CODE_GENERATION|EXPLANATION|ERROR_FIX|API_SCAFFOLDING\"\n");
+        instructions.append("}");
+
+        // Whatever the fixed parts leave of the input budget goes to ranked file snippets
+        int fixedTokens = TokenEstimator.estimate(getSystemPrompt()) + TokenEstimator.estimate(prompt)
+                + TokenEstimator.estimate(instructions);
+        List<ContextSnippet> snippets = contextPacker.pack(voiceInput, projectContext,
+                contextPacker.getMaxInputTokens() - fixedTokens);
+
+        if (!snippets.isEmpty()) {
+            prompt.append("\nRelevant Code:\n");
+            for (ContextSnippet snippet : snippets) {
+                prompt.append(ContextPacker.render(snippet.path(), snippet.startLine(), snippet.endLine(), snippet.text()));
+            }
         }
-        
-        prompt.append("\nVoice Input: ").append(voiceInput).append("\n\n");
-        prompt.append("Please generate appropriate code based on the project context and voice input. ");
-        prompt.append("Return the response in the following JSON format:\n");
-        prompt.append("{\n");
-        prompt.append("  \"code\": \"the generated code\",\n");
-        prompt.append("  \"explanation\": \"brief explanation of what the code does\",\n");
-        prompt.append("  \"filePath\": \"suggested file path\",\n");
-        prompt.append("  \"type\": \"CODE_GENERATION|EXPLANATION|ERROR_FIX|API_SCAFFOLDING\"\n");
-        prompt.append("}");
-        
+
+        prompt.append(instructions);
         return prompt.toString();
     }
 
@@ -374,7 +355,11 @@ public class LLMService {
         }
     }
 
+    public String getProviderName() {
+        return llmGateway.isConfigured() ? llmGateway.getActiveProviderName() : "mock";
+    }
+
     public boolean isLLMConfigured() {
-        return openAiService != null;
+        return llmGateway.isConfigured();
     }
 } 
\ No newline at end of file
@@ -0,0 +1,66 @@
+package com.codewhisperer.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bounded pool for the blocking I/O stages of the pipeline: project scans
+ * (filesystem walks, JGit status) and conversation history lookups.
+ *
+ * These block their thread, so they stay off ForkJoinPool.commonPool(), which
+ * is sized to the CPU count and shared with every other supplyAsync and
+ * parallel stream. When all threads are busy and the queue is full, the
+ * submitting thread runs the task itself, slowing intake instead of failing
+ * the request.
+ */
+@Component
+public class PipelineIoExecutor {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${codewhisperer.pipeline.io-threads:8}")
+    private int threads;
+
+    @Value("${codewhisperer.pipeline.io-queue-capacity:64}")
+    private int queueCapacity;
+
+    private ThreadPoolExecutor executor;
+
+    @PostConstruct
+    void createExecutor() {
+        executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(queueCapacity), new CustomizableThreadFactory("pipeline-io-"),
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.allowCoreThreadTimeOut(true);
+
+        Gauge.builder(PipelineMetrics.EXECUTOR_QUEUE_GAUGE, executor, pool -> pool.getQueue().size())
+                .description("Tasks waiting in the pipeline executor queue")
+                .tag("executor", "pipelineIo")
+                .register(meterRegistry);
+        Gauge.builder(PipelineMetrics.EXECUTOR_ACTIVE_GAUGE, executor, ThreadPoolExecutor::getActiveCount)
+                .description("Pipeline executor threads currently running tasks")
+                .tag("executor", "pipelineIo")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    void shutdownExecutor() {
+        executor.shutdownNow();
+    }
+
+    public Executor executor() {
+        return executor;
+    }
+}
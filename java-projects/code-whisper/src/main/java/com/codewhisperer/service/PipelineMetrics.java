@@ -0,0 +1,132 @@
+package com.codewhisperer.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Records how long each stage of the voice processing pipeline takes.
+ * Stage timings are published as {@code codewhisperer.pipeline.stage} timers with percentile
+ * histograms, tagged by stage, provider, response type and outcome, and exported through
+ * the actuator {@code metrics} and {@code prometheus} endpoints.
+ */
+@Component
+public class PipelineMetrics {
+
+    public static final String STAGE_TIMER = "codewhisperer.pipeline.stage";
+    public static final String REQUEST_TIMER = "codewhisperer.pipeline.request";
+    public static final String ACTIVE_SESSIONS_GAUGE = "codewhisperer.sessions.active";
+    public static final String EXECUTOR_QUEUE_GAUGE = "codewhisperer.executor.queued";
+    public static final String EXECUTOR_ACTIVE_GAUGE = "codewhisperer.executor.active";
+
+    private static final String NONE = "none";
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final AtomicInteger activeSessions = new AtomicInteger();
+
+    @PostConstruct
+    void registerGauges() {
+        Gauge.builder(ACTIVE_SESSIONS_GAUGE, activeSessions, AtomicInteger::get)
+                .description("Voice requests currently being processed")
+                .register(meterRegistry);
+
+        // Transcription and generation run on the common pool (CompletableFuture.supplyAsync without an
+        // executor); the blocking I/O stages report under their own tag from PipelineIoExecutor
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+        Gauge.builder(EXECUTOR_QUEUE_GAUGE, pool, p -> p.getQueuedSubmissionCount() + p.getQueuedTaskCount())
+                .description("Tasks waiting in the pipeline executor queue")
+                .tag("executor", "commonPool")
+                .register(meterRegistry);
+        Gauge.builder(EXECUTOR_ACTIVE_GAUGE, pool, ForkJoinPool::getActiveThreadCount)
+                .description("Pipeline executor threads currently running tasks")
+                .tag("executor", "commonPool")
+                .register(meterRegistry);
+    }
+
+    public <T> CompletableFuture<T> timeStage(String stage, String provider, Supplier<CompletableFuture<T>> stageCall) {
+        return timeStage(stage, provider, stageCall, result -> NONE);
+    }
+
+    /**
+     * Times an asynchronous stage; {@code responseTypeOf} derives the response type tag from the stage result.
+     */
+    public <T> CompletableFuture<T> timeStage(String stage, String provider, Supplier<CompletableFuture<T>> stageCall,
+                                              Function<T, String> responseTypeOf) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        return invoke(stageCall).whenComplete((result, throwable) ->
+                sample.stop(timer(STAGE_TIMER, Tags.of("stage", stage, "provider", tagValue(provider))
+                        .and(resultTags(result, throwable, responseTypeOf)))));
+    }
+
+    /**
+     * Times a synchronous stage such as saving history or sending a WebSocket update.
+     */
+    public void recordStage(String stage, Runnable stageCall) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        Throwable failure = null;
+        try {
+            stageCall.run();
+        } catch (RuntimeException e) {
+            failure = e;
+            throw e;
+        } finally {
+            sample.stop(timer(STAGE_TIMER, Tags.of("stage", stage, "provider", NONE, "responseType", NONE,
+                    "outcome", outcome(failure))));
+        }
+    }
+
+    /**
+     * Times a whole request and tracks it in the active sessions gauge while it runs.
+     */
+    public <T> CompletableFuture<T> timeRequest(Supplier<CompletableFuture<T>> requestCall,
+                                                Function<T, String> responseTypeOf) {
+        activeSessions.incrementAndGet();
+        Timer.Sample sample = Timer.start(meterRegistry);
+        return invoke(requestCall).whenComplete((result, throwable) -> {
+            activeSessions.decrementAndGet();
+            sample.stop(timer(REQUEST_TIMER, resultTags(result, throwable, responseTypeOf)));
+        });
+    }
+
+    private Timer timer(String name, Tags tags) {
+        // Builders resolve to the already registered timer when the name and tags match
+        return Timer.builder(name)
+                .tags(tags)
+                .publishPercentileHistogram()
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+    }
+
+    private <T> Tags resultTags(T result, Throwable throwable, Function<T, String> responseTypeOf) {
+        String responseType = throwable == null && result != null ? tagValue(responseTypeOf.apply(result)) : NONE;
+        return Tags.of("responseType", responseType, "outcome", outcome(throwable));
+    }
+
+    private <T> CompletableFuture<T> invoke(Supplier<CompletableFuture<T>> call) {
+        try {
+            return call.get();
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private String tagValue(String value) {
+        return value == null || value.isEmpty() ? NONE : value;
+    }
+
+    private String outcome(Throwable throwable) {
+        return throwable == null ? "success" : "error";
+    }
+}
@@ -1,22 +1,110 @@
 package com.codewhisperer.service;
 
+import com.codewhisperer.model.CodeSymbol;
 import com.codewhisperer.model.ProjectContext;
+import com.codewhisperer.service.index.PomDependencyParser;
+import com.codewhisperer.service.index.SymbolIndexService;
 import lombok.extern.slf4j.Slf4j;
 import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.api.Status;
 import org.eclipse.jgit.api.errors.GitAPIException;
 import org.eclipse.jgit.lib.Repository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.io.IOException;
 import java.nio.file.*;
 import java.nio.file.attribute.BasicFileAttributes;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 @Slf4j
 @Service
 public class ProjectScannerService {
 
+    /**
+     * Extensions of the files listed as source files
+     */
+    public static final Set<String> SOURCE_EXTENSIONS = Set.of(".java", ".py", ".js", ".ts", ".go", ".rs", ".cpp", ".c", ".h", ".hpp");
+
+    /**
+     * Directories whose contents are never listed as source files: VCS data, build output and dependencies
+     */
+    public static final Set<String> EXCLUDED_DIRECTORIES = Set.of("target", "node_modules", ".git", "build");
+
+    @Autowired
+    private SymbolIndexService symbolIndexService;
+
+    @Autowired
+    private PipelineIoExecutor pipelineIoExecutor;
+
+    private final PomDependencyParser pomParser = new PomDependencyParser();
+
+    @Value("${codewhisperer.project.scan-cache-ttl-seconds:10}")
+    private long scanCacheTtlSeconds;
+
+    // Scans currently running, keyed by normalized project path. Concurrent callers share one walk.
+    private final Map<String, CompletableFuture<ProjectContext>> inFlightScans = new ConcurrentHashMap<>();
+
+    // Recently completed scans, served until they expire
+    private final Map<String, CachedScan> recentScans = new ConcurrentHashMap<>();
+
+    /**
+     * Scans a project, deduplicating concurrent requests for the same path and
+     * reusing a completed scan for {@code codewhisperer.project.scan-cache-ttl-seconds}.
+     */
+    public CompletableFuture<ProjectContext> scanProjectShared(String projectPath) {
+        if (projectPath == null) {
+            return CompletableFuture.failedFuture(new IllegalArgumentException("Project path is required"));
+        }
+        String key = normalizeKey(projectPath);
+
+        CachedScan cached = recentScans.get(key);
+        if (cached != null) {
+            if (!cached.isExpired()) {
+                log.debug("Serving cached project scan for: {}", key);
+                return CompletableFuture.completedFuture(cached.context());
+            }
+            recentScans.remove(key, cached);
+        }
+
+        CompletableFuture<ProjectContext> scan = new CompletableFuture<>();
+        CompletableFuture<ProjectContext> existing = inFlightScans.putIfAbsent(key, scan);
+        if (existing != null) {
+            log.debug("Joining in-flight project scan for: {}", key);
+            // Copy so one caller cancelling its future does not affect the others
+            return existing.copy();
+        }
+
+        // A blocking walk and JGit status: run on the bounded I/O pool, not the common pool
+        CompletableFuture.supplyAsync(() -> scanProject(projectPath), pipelineIoExecutor.executor())
+                .whenComplete((context, throwable) -> {
+                    if (throwable == null && scanCacheTtlSeconds > 0) {
+                        evictExpiredScans();
+                        recentScans.put(key, new CachedScan(context, System.currentTimeMillis() + scanCacheTtlSeconds * 1000));
+                    }
+                    inFlightScans.remove(key, scan);
+
+                    if (throwable != null) {
+                        scan.completeExceptionally(throwable);
+                    } else {
+                        scan.complete(context);
+                    }
+                });
+
+        return scan.copy();
+    }
+
+    /**
+     * Drops any memoized scan for the given project so the next request walks the filesystem again.
+     */
+    public void invalidateScan(String projectPath) {
+        recentScans.remove(normalizeKey(projectPath));
+    }
+
     public ProjectContext scanProject(String projectPath) {
         try {
             Path path = Paths.get(projectPath);
@@ -33,9 +121,14 @@ public class ProjectScannerService {
                     .gitBranch(getGitBranch(path))
                     .lastCommitMessage(getLastCommitMessage(path))
                     .recentFiles(getRecentFiles(path))
+                    .changedFiles(getChangedFiles(path))
                     .projectMetadata(extractProjectMetadata(path))
                     .build();
 
+            // Keep the symbol index in step with the files the prompt may reference, without
+            // making the scan wait for a second walk of the tree
+            symbolIndexService.refreshInBackground(projectPath);
+
             log.info("Project scanned successfully: {}", context.getProjectName());
             return context;
 
@@ -45,6 +138,18 @@ public class ProjectScannerService {
         }
     }
 
+    private String normalizeKey(String projectPath) {
+        try {
+            return Paths.get(projectPath).toAbsolutePath().normalize().toString();
+        } catch (InvalidPathException e) {
+            return projectPath;
+        }
+    }
+
+    private void evictExpiredScans() {
+        recentScans.values().removeIf(CachedScan::isExpired);
+    }
+
     private String detectPrimaryLanguage(Path projectPath) {
         Map<String, Integer> languageCounts = new HashMap<>();
         
@@ -74,14 +179,13 @@ public class ProjectScannerService {
 
     private List<String> scanSourceFiles(Path projectPath) {
         List<String> sourceFiles = new ArrayList<>();
-        Set<String> sourceExtensions = Set.of(".java", ".py", ".js", ".ts", ".go", ".rs", ".cpp", ".c", ".h", ".hpp");
         
         try {
             Files.walkFileTree(projectPath, new SimpleFileVisitor<Path>() {
                 @Override
                 public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
                     String fileName = file.toString().toLowerCase();
-                    if (sourceExtensions.stream().anyMatch(fileName::endsWith)) {
+                    if (SOURCE_EXTENSIONS.stream().anyMatch(fileName::endsWith)) {
                         sourceFiles.add(projectPath.relativize(file).toString());
                     }
                     return FileVisitResult.CONTINUE;
@@ -89,9 +193,7 @@ public class ProjectScannerService {
                 
                 @Override
                 public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
-                    String dirName = dir.getFileName().toString();
-                    if (dirName.equals("target") || dirName.equals("node_modules") || 
-                        dirName.equals(".git") || dirName.equals("build")) {
+                    if (EXCLUDED_DIRECTORIES.contains(dir.getFileName().toString())) {
                         return FileVisitResult.SKIP_SUBTREE;
                     }
                     return FileVisitResult.CONTINUE;
@@ -111,7 +213,9 @@ public class ProjectScannerService {
         Path pomXml = projectPath.resolve("pom.xml");
         if (Files.exists(pomXml)) {
             dependencies.put("buildTool", "maven");
-            // Could parse pom.xml for actual dependencies
+            for (CodeSymbol dependency : pomParser.parse(pomXml, "pom.xml")) {
+                dependencies.put(dependency.getContainer() + ":" + dependency.getName(), dependency.getDetail());
+            }
         }
         
         // Check for build.gradle
@@ -155,6 +259,21 @@ public class ProjectScannerService {
         }
     }
 
+    private List<String> getChangedFiles(Path projectPath) {
+        try (Git git = Git.open(projectPath.toFile())) {
+            Status status = git.status().call();
+            Set<String> changed = new LinkedHashSet<>();
+            changed.addAll(status.getModified());
+            changed.addAll(status.getChanged());
+            changed.addAll(status.getAdded());
+            changed.addAll(status.getUntracked());
+            return changed.stream().limit(50).collect(Collectors.toList());
+        } catch (IOException | GitAPIException e) {
+            log.debug("Could not get changed files for project: {}", projectPath, e);
+            return new ArrayList<>();
+        }
+    }
+
     private List<String> getRecentFiles(Path projectPath) {
         List<String> recentFiles = new ArrayList<>();
         try {
@@ -200,4 +319,10 @@ public class ProjectScannerService {
         
         return metadata;
     }
+
+    private record CachedScan(ProjectContext context, long expiresAt) {
+        boolean isExpired() {
+            return System.currentTimeMillis() >= expiresAt;
+        }
+    }
 } 
\ No newline at end of file
@@ -85,6 +85,10 @@ public class VoiceToTextService {
         return "Real voice-to-text processing not implemented";
     }
 
+    public String getProviderName() {
+        return voiceProvider;
+    }
+
     public boolean isVoiceProviderConfigured() {
         return !"mock".equals(voiceProvider) && openaiApiKey != null && !openaiApiKey.isEmpty();
     }
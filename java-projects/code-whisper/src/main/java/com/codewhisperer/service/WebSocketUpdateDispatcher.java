@@ -0,0 +1,186 @@
+package com.codewhisperer.service;
+
+import com.codewhisperer.service.CodeWhispererService.WebSocketUpdate;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Sends pipeline status updates to WebSocket subscribers off the request path.
+ *
+ * <p>Every session has a small bounded queue drained by a shared pool, one drain task per session
+ * at a time. A status update that has not been sent yet is replaced by a newer one, so rapid
+ * PROCESSING updates collapse into the latest state. When a queue is full, the oldest intermediate
+ * update is dropped. Terminal updates (COMPLETED, ERROR) are never coalesced or dropped.
+ * Updates are queued and finished queues removed inside the map's per-key lock, so an update
+ * never lands in a queue that is being discarded and a session never has two drains at once.
+ *
+ * <p>Queues are keyed by pipeline session, not by subscriber: every update goes to the session
+ * topic once and the broker fans it out. Coalescing therefore protects the broker from a chatty
+ * pipeline but cannot give each subscriber its own pace. Slow subscribers are handled per
+ * connection by the transport limits in {@link com.codewhisperer.config.WebSocketConfig}, which
+ * disconnect a client whose send buffer or send time is exceeded.
+ */
+@Slf4j
+@Component
+public class WebSocketUpdateDispatcher {
+
+    private static final Set<String> TERMINAL_STATUSES = Set.of("COMPLETED", "ERROR");
+    private static final String UPDATES_COUNTER = "codewhisperer.websocket.updates";
+
+    @Autowired(required = false)
+    private SimpMessagingTemplate messagingTemplate;
+
+    @Autowired
+    private PipelineMetrics pipelineMetrics;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${codewhisperer.websocket.dispatcher.threads:4}")
+    private int threads;
+
+    @Value("${codewhisperer.websocket.dispatcher.queue-capacity:16}")
+    private int queueCapacity;
+
+    private final Map<String, SessionQueue> queues = new ConcurrentHashMap<>();
+
+    private ExecutorService executor;
+
+    @PostConstruct
+    void createExecutor() {
+        executor = Executors.newFixedThreadPool(threads, new CustomizableThreadFactory("ws-dispatch-"));
+    }
+
+    @PreDestroy
+    void shutdownExecutor() {
+        executor.shutdown();
+    }
+
+    public void dispatch(WebSocketUpdate update) {
+        if (messagingTemplate == null) {
+            return;
+        }
+
+        SessionQueue[] scheduled = {null};
+        queues.compute(update.getSessionId(), (sessionId, queue) -> {
+            SessionQueue target = queue != null ? queue : new SessionQueue(sessionId);
+            if (target.offer(update)) {
+                scheduled[0] = target;
+            }
+            return target;
+        });
+        if (scheduled[0] != null) {
+            SessionQueue queue = scheduled[0];
+            executor.execute(() -> drain(queue));
+        }
+    }
+
+    public int getPendingSessionCount() {
+        return queues.size();
+    }
+
+    private void drain(SessionQueue queue) {
+        WebSocketUpdate update;
+        while ((update = queue.poll()) != null) {
+            send(update);
+        }
+        // Re-checked under the key's lock: a dispatch that got in after the last poll keeps the queue
+        queues.computeIfPresent(queue.sessionId,
+                (sessionId, current) -> current == queue && queue.isFinished() ? null : current);
+    }
+
+    private void send(WebSocketUpdate update) {
+        try {
+            pipelineMetrics.recordStage("websocketSend",
+                    () -> messagingTemplate.convertAndSend("/topic/session/" + update.getSessionId(), update));
+            count("sent");
+        } catch (Exception e) {
+            count("failed");
+            log.warn("Failed to send WebSocket update for session: {}", update.getSessionId(), e);
+        }
+    }
+
+    private void count(String outcome) {
+        meterRegistry.counter(UPDATES_COUNTER, "outcome", outcome).increment();
+    }
+
+    private static boolean isTerminal(WebSocketUpdate update) {
+        return TERMINAL_STATUSES.contains(update.getStatus());
+    }
+
+    private final class SessionQueue {
+
+        private final String sessionId;
+        private final Deque<WebSocketUpdate> pending = new ArrayDeque<>();
+        private boolean scheduled;
+        private boolean terminalSent;
+
+        private SessionQueue(String sessionId) {
+            this.sessionId = sessionId;
+        }
+
+        /**
+         * Queues an update and returns true when the caller must schedule a drain.
+         */
+        synchronized boolean offer(WebSocketUpdate update) {
+            WebSocketUpdate last = pending.peekLast();
+            if (last != null && !isTerminal(last) && !isTerminal(update)) {
+                // Newer intermediate state supersedes the unsent one
+                pending.pollLast();
+                count("coalesced");
+            } else if (pending.size() >= queueCapacity) {
+                dropOldestIntermediate();
+            }
+
+            pending.addLast(update);
+            terminalSent = false;
+            if (scheduled) {
+                return false;
+            }
+            scheduled = true;
+            return true;
+        }
+
+        synchronized WebSocketUpdate poll() {
+            WebSocketUpdate next = pending.pollFirst();
+            if (next == null) {
+                scheduled = false;
+            } else if (isTerminal(next)) {
+                terminalSent = true;
+            }
+            return next;
+        }
+
+        synchronized boolean isFinished() {
+            return terminalSent && pending.isEmpty() && !scheduled;
+        }
+
+        private void dropOldestIntermediate() {
+            Iterator<WebSocketUpdate> iterator = pending.iterator();
+            while (iterator.hasNext()) {
+                if (!isTerminal(iterator.next())) {
+                    iterator.remove();
+                    count("dropped");
+                    return;
+                }
+            }
+            // Only terminal updates are queued; keep them all rather than lose a final state
+        }
+    }
+}
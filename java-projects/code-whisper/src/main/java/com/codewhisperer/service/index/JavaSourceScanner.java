@@ -0,0 +1,154 @@
+package com.codewhisperer.service.index;
+
+import com.codewhisperer.model.CodeSymbol;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Lightweight line-based Java scanner. It strips comments and literals, tracks brace depth and
+ * reports type declarations plus methods and constructors declared directly in a type body.
+ * It does not build a syntax tree, so unusual formatting can hide a declaration.
+ */
+public class JavaSourceScanner {
+
+    private static final Pattern TYPE_DECLARATION =
+            Pattern.compile("\\b(class|interface|enum|record)\\s+([A-Za-z_$][\\w$]*)");
+
+    private static final Pattern METHOD_DECLARATION = Pattern.compile(
+            "^\\s*(?:@[\\w.]+(?:\\([^)]*\\))?\\s+)*"
+                    + "(?:(?:public|protected|private|static|final|abstract|synchronized|native|default|strictfp)\\s+)*"
+                    + "(?:[\\w$.\\[\\]?]+\\s+)?([A-Za-z_$][\\w$]*)\\s*\\(");
+
+    private static final Pattern ENUM_CONSTANT = Pattern.compile("[A-Z][A-Z0-9_]*");
+
+    private static final Set<String> NOT_METHODS = Set.of(
+            "if", "for", "while", "switch", "catch", "synchronized", "return", "new", "throw", "else", "do", "try");
+
+    public List<CodeSymbol> scan(String filePath, String source) {
+        List<CodeSymbol> symbols = new ArrayList<>();
+        String[] lines = stripCommentsAndLiterals(source).split("\n", -1);
+
+        Deque<TypeFrame> types = new ArrayDeque<>();
+        TypeFrame pendingType = null;
+        int depth = 0;
+
+        for (int i = 0; i < lines.length; i++) {
+            String line = removeGenerics(lines[i]);
+            int lineNumber = i + 1;
+
+            Matcher type = TYPE_DECLARATION.matcher(line);
+            if (type.find()) {
+                String container = types.isEmpty() ? "" : types.peek().name();
+                symbols.add(symbol(typeKind(type.group(1)), type.group(2), container, filePath, lineNumber));
+                pendingType = new TypeFrame(type.group(2), -1);
+            } else if (!types.isEmpty() && depth == types.peek().bodyDepth()) {
+                Matcher method = METHOD_DECLARATION.matcher(line);
+                // Upper-case names at body level are enum constants with constructor arguments
+                if (method.find() && !NOT_METHODS.contains(method.group(1)) && !ENUM_CONSTANT.matcher(method.group(1)).matches()) {
+                    symbols.add(symbol(CodeSymbol.SymbolKind.METHOD, method.group(1), types.peek().name(), filePath, lineNumber));
+                }
+            }
+
+            for (int c = 0; c < line.length(); c++) {
+                char ch = line.charAt(c);
+                if (ch == '{') {
+                    depth++;
+                    if (pendingType != null) {
+                        types.push(new TypeFrame(pendingType.name(), depth));
+                        pendingType = null;
+                    }
+                } else if (ch == '}') {
+                    if (!types.isEmpty() && depth == types.peek().bodyDepth()) {
+                        types.pop();
+                    }
+                    depth--;
+                }
+            }
+        }
+        return symbols;
+    }
+
+    private CodeSymbol symbol(CodeSymbol.SymbolKind kind, String name, String container, String filePath, int line) {
+        return CodeSymbol.builder()
+                .kind(kind)
+                .name(name)
+                .container(container)
+                .filePath(filePath)
+                .line(line)
+                .detail("")
+                .build();
+    }
+
+    private CodeSymbol.SymbolKind typeKind(String keyword) {
+        return switch (keyword) {
+            case "interface" -> CodeSymbol.SymbolKind.INTERFACE;
+            case "enum" -> CodeSymbol.SymbolKind.ENUM;
+            case "record" -> CodeSymbol.SymbolKind.RECORD;
+            default -> CodeSymbol.SymbolKind.CLASS;
+        };
+    }
+
+    // Collapses type arguments so "Map<String, List<Integer>> find(" reads as "Map find("
+    private String removeGenerics(String line) {
+        String previous;
+        String current = line;
+        do {
+            previous = current;
+            current = current.replaceAll("<[^<>]*>", "");
+        } while (!current.equals(previous));
+        return current;
+    }
+
+    /**
+     * Blanks out comments, string and char literals (including text blocks) while keeping line breaks,
+     * so line numbers stay correct and braces inside literals are ignored.
+     */
+    private String stripCommentsAndLiterals(String source) {
+        StringBuilder out = new StringBuilder(source.length());
+        int i = 0;
+        while (i < source.length()) {
+            char c = source.charAt(i);
+            if (source.startsWith("//", i)) {
+                while (i < source.length() && source.charAt(i) != '\n') {
+                    i++;
+                }
+            } else if (source.startsWith("/*", i)) {
+                int end = source.indexOf("*/", i + 2);
+                i = skipKeepingNewlines(source, i, end < 0 ? source.length() : end + 2, out);
+            } else if (source.startsWith("\"\"\"", i)) {
+                int end = source.indexOf("\"\"\"", i + 3);
+                i = skipKeepingNewlines(source, i, end < 0 ? source.length() : end + 3, out);
+                out.append("\"\"");
+            } else if (c == '"' || c == '\'') {
+                int j = i + 1;
+                while (j < source.length() && source.charAt(j) != c && source.charAt(j) != '\n') {
+                    j += source.charAt(j) == '\\' ? 2 : 1;
+                }
+                i = Math.min(source.length(), j + 1);
+                out.append(c).append(c);
+            } else {
+                out.append(c);
+                i++;
+            }
+        }
+        return out.toString();
+    }
+
+    private int skipKeepingNewlines(String source, int from, int to, StringBuilder out) {
+        for (int i = from; i < to; i++) {
+            if (source.charAt(i) == '\n') {
+                out.append('\n');
+            }
+        }
+        return to;
+    }
+
+    private record TypeFrame(String name, int bodyDepth) {
+    }
+}
@@ -0,0 +1,112 @@
+package com.codewhisperer.service.index;
+
+import com.codewhisperer.model.CodeSymbol;
+import lombok.extern.slf4j.Slf4j;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+
+import javax.xml.XMLConstants;
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Reads the direct {@code <dependencies>} of a pom.xml. Versions that reference
+ * {@code <properties>} are resolved; versions managed by a parent are reported as empty.
+ */
+@Slf4j
+public class PomDependencyParser {
+
+    private static final Pattern PROPERTY_REFERENCE = Pattern.compile("\\$\\{([^}]+)}");
+
+    public List<CodeSymbol> parse(Path pomFile, String relativePath) {
+        List<CodeSymbol> dependencies = new ArrayList<>();
+        try (InputStream in = Files.newInputStream(pomFile)) {
+            Document document = newDocumentBuilder().parse(in);
+            Element project = document.getDocumentElement();
+            Map<String, String> properties = readProperties(project);
+
+            Element dependenciesElement = firstChild(project, "dependencies");
+            if (dependenciesElement == null) {
+                return dependencies;
+            }
+
+            NodeList children = dependenciesElement.getChildNodes();
+            for (int i = 0; i < children.getLength(); i++) {
+                if (children.item(i) instanceof Element dependency && "dependency".equals(dependency.getTagName())) {
+                    dependencies.add(CodeSymbol.builder()
+                            .kind(CodeSymbol.SymbolKind.DEPENDENCY)
+                            .name(text(dependency, "artifactId"))
+                            .container(text(dependency, "groupId"))
+                            .filePath(relativePath)
+                            .line(0)
+                            .detail(resolve(text(dependency, "version"), properties))
+                            .build());
+                }
+            }
+        } catch (Exception e) {
+            log.warn("Could not parse dependencies from {}: {}", pomFile, e.getMessage());
+        }
+        return dependencies;
+    }
+
+    private DocumentBuilder newDocumentBuilder() throws Exception {
+        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+        // Project files are untrusted input; never resolve external entities
+        factory.setFeature("http://apache.org/xml/features/disallow-doctype-decl", true);
+        factory.setAttribute(XMLConstants.ACCESS_EXTERNAL_DTD, "");
+        factory.setAttribute(XMLConstants.ACCESS_EXTERNAL_SCHEMA, "");
+        return factory.newDocumentBuilder();
+    }
+
+    private Map<String, String> readProperties(Element project) {
+        Map<String, String> properties = new HashMap<>();
+        properties.put("project.version", text(project, "version"));
+        Element propertiesElement = firstChild(project, "properties");
+        if (propertiesElement != null) {
+            NodeList children = propertiesElement.getChildNodes();
+            for (int i = 0; i < children.getLength(); i++) {
+                if (children.item(i) instanceof Element property) {
+                    properties.put(property.getTagName(), property.getTextContent().trim());
+                }
+            }
+        }
+        return properties;
+    }
+
+    private String resolve(String value, Map<String, String> properties) {
+        Matcher matcher = PROPERTY_REFERENCE.matcher(value);
+        StringBuilder resolved = new StringBuilder();
+        while (matcher.find()) {
+            matcher.appendReplacement(resolved, Matcher.quoteReplacement(properties.getOrDefault(matcher.group(1), matcher.group())));
+        }
+        matcher.appendTail(resolved);
+        return resolved.toString();
+    }
+
+    private Element firstChild(Element parent, String tagName) {
+        NodeList children = parent.getChildNodes();
+        for (int i = 0; i < children.getLength(); i++) {
+            Node child = children.item(i);
+            if (child instanceof Element element && tagName.equals(element.getTagName())) {
+                return element;
+            }
+        }
+        return null;
+    }
+
+    private String text(Element parent, String tagName) {
+        Element child = firstChild(parent, tagName);
+        return child != null ? child.getTextContent().trim() : "";
+    }
+}
@@ -0,0 +1,177 @@
+package com.codewhisperer.service.index;
+
+import com.codewhisperer.model.CodeSymbol;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+/**
+ * Symbols of one project, grouped by the file they came from so changed files can be re-scanned
+ * on their own. Lookups go through an immutable name map that is swapped after each update.
+ *
+ * <p>On disk the index is a flat binary file read and written through memory mapping:
+ * a header (magic, format version, file count) followed by one record per file holding its
+ * path, modification time, size and symbols.
+ */
+public class ProjectSymbolIndex {
+
+    private static final int MAGIC = 0x43575349; // "CWSI"
+    private static final int FORMAT_VERSION = 1;
+    private static final CodeSymbol.SymbolKind[] KINDS = CodeSymbol.SymbolKind.values();
+
+    private final Map<String, FileEntry> files = new HashMap<>();
+
+    private volatile Map<String, List<CodeSymbol>> symbolsByName = Map.of();
+    private volatile Map<String, List<CodeSymbol>> symbolsByFile = Map.of();
+
+    public synchronized boolean isCurrent(String filePath, long lastModified, long size) {
+        FileEntry entry = files.get(filePath);
+        return entry != null && entry.lastModified() == lastModified && entry.size() == size;
+    }
+
+    public synchronized void put(String filePath, long lastModified, long size, List<CodeSymbol> symbols) {
+        files.put(filePath, new FileEntry(lastModified, size, List.copyOf(symbols)));
+    }
+
+    /**
+     * Drops files that no longer exist and returns how many were removed.
+     */
+    public synchronized int retainOnly(Set<String> existingFiles) {
+        int before = files.size();
+        files.keySet().retainAll(existingFiles);
+        return before - files.size();
+    }
+
+    /**
+     * Rebuilds the lookup maps after a batch of {@link #put} and {@link #retainOnly} calls.
+     */
+    public synchronized void publish() {
+        Map<String, List<CodeSymbol>> byName = new HashMap<>();
+        Map<String, List<CodeSymbol>> byFile = new HashMap<>();
+        for (Map.Entry<String, FileEntry> file : files.entrySet()) {
+            byFile.put(file.getKey(), file.getValue().symbols());
+            for (CodeSymbol symbol : file.getValue().symbols()) {
+                byName.computeIfAbsent(symbol.getName().toLowerCase(Locale.ROOT), k -> new ArrayList<>()).add(symbol);
+            }
+        }
+        symbolsByName = byName;
+        symbolsByFile = byFile;
+    }
+
+    /**
+     * Case-insensitive exact name lookup.
+     */
+    public List<CodeSymbol> lookup(String name) {
+        return symbolsByName.getOrDefault(name.toLowerCase(Locale.ROOT), List.of());
+    }
+
+    public List<CodeSymbol> symbolsInFile(String filePath) {
+        return symbolsByFile.getOrDefault(filePath, List.of());
+    }
+
+    public List<CodeSymbol> symbolsOfKind(CodeSymbol.SymbolKind kind) {
+        List<CodeSymbol> matches = new ArrayList<>();
+        for (List<CodeSymbol> symbols : symbolsByFile.values()) {
+            for (CodeSymbol symbol : symbols) {
+                if (symbol.getKind() == kind) {
+                    matches.add(symbol);
+                }
+            }
+        }
+        return matches;
+    }
+
+    public synchronized void writeTo(Path indexFile) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeInt(files.size());
+            for (Map.Entry<String, FileEntry> file : files.entrySet()) {
+                writeString(out, file.getKey());
+                out.writeLong(file.getValue().lastModified());
+                out.writeLong(file.getValue().size());
+                out.writeInt(file.getValue().symbols().size());
+                for (CodeSymbol symbol : file.getValue().symbols()) {
+                    out.writeByte(symbol.getKind().ordinal());
+                    writeString(out, symbol.getName());
+                    writeString(out, symbol.getContainer());
+                    out.writeInt(symbol.getLine());
+                    writeString(out, symbol.getDetail());
+                }
+            }
+        }
+
+        byte[] data = bytes.toByteArray();
+        Files.createDirectories(indexFile.getParent());
+        Path tempFile = indexFile.resolveSibling(indexFile.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(tempFile, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, data.length);
+            buffer.put(data);
+            buffer.force();
+        }
+        // Readers never see a partially written index
+        Files.move(tempFile, indexFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    public static ProjectSymbolIndex readFrom(Path indexFile) throws IOException {
+        ProjectSymbolIndex index = new ProjectSymbolIndex();
+        try (FileChannel channel = FileChannel.open(indexFile, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.remaining() < 12 || buffer.getInt() != MAGIC || buffer.getInt() != FORMAT_VERSION) {
+                throw new IOException("Unsupported symbol index format: " + indexFile);
+            }
+
+            int fileCount = buffer.getInt();
+            for (int f = 0; f < fileCount; f++) {
+                String filePath = readString(buffer);
+                long lastModified = buffer.getLong();
+                long size = buffer.getLong();
+                int symbolCount = buffer.getInt();
+                List<CodeSymbol> symbols = new ArrayList<>(symbolCount);
+                for (int s = 0; s < symbolCount; s++) {
+                    symbols.add(CodeSymbol.builder()
+                            .kind(KINDS[buffer.get()])
+                            .name(readString(buffer))
+                            .container(readString(buffer))
+                            .filePath(filePath)
+                            .line(buffer.getInt())
+                            .detail(readString(buffer))
+                            .build());
+                }
+                index.files.put(filePath, new FileEntry(lastModified, size, symbols));
+            }
+        } catch (RuntimeException e) {
+            // Truncated or corrupt file; the caller rebuilds from sources
+            throw new IOException("Corrupt symbol index: " + indexFile, e);
+        }
+        index.publish();
+        return index;
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] encoded = (value != null ? value : "").getBytes(StandardCharsets.UTF_8);
+        out.writeInt(encoded.length);
+        out.write(encoded);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        byte[] encoded = new byte[buffer.getInt()];
+        buffer.get(encoded);
+        return new String(encoded, StandardCharsets.UTF_8);
+    }
+
+    private record FileEntry(long lastModified, long size, List<CodeSymbol> symbols) {
+    }
+}
@@ -0,0 +1,245 @@
+package com.codewhisperer.service.index;
+
+import com.codewhisperer.model.CodeSymbol;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Maintains a persistent symbol index per project. Each refresh walks the project, re-scans only
+ * Java sources and pom.xml files whose size or modification time changed, and writes the index
+ * back to {@code codewhisperer.index.directory} when persistence is enabled and anything changed.
+ *
+ * Project scans request refreshes through {@link #refreshInBackground}, which runs them on a
+ * small dedicated pool and coalesces repeated requests for the same project, so a scan never
+ * waits for a second walk of the tree.
+ *
+ * Only projects that have been scanned can be looked up, so a lookup never walks an arbitrary
+ * path. At most {@code codewhisperer.index.max-projects} indexes are held in memory; the least
+ * recently used one is dropped and reloaded from disk when next needed.
+ */
+@Slf4j
+@Service
+public class SymbolIndexService {
+
+    private static final Set<String> EXCLUDED_DIRS = Set.of("target", "node_modules", ".git", "build", "dist");
+
+    @Value("${codewhisperer.index.persistent:true}")
+    private boolean persistent;
+
+    @Value("${codewhisperer.index.directory:${user.home}/.codewhisperer/index}")
+    private String indexDirectory;
+
+    @Value("${codewhisperer.index.refresh-threads:2}")
+    private int refreshThreads;
+
+    @Value("${codewhisperer.index.refresh-queue-capacity:32}")
+    private int refreshQueueCapacity;
+
+    @Value("${codewhisperer.index.max-projects:32}")
+    private int maxProjects;
+
+    // Least recently used first; guarded by itself
+    private final Map<String, ProjectSymbolIndex> indexes = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, ProjectSymbolIndex> eldest) {
+            return size() > maxProjects;
+        }
+    };
+    // Roots of the projects that have been scanned
+    private final Set<String> knownProjects = ConcurrentHashMap.newKeySet();
+    // Projects with a background refresh queued but not yet started
+    private final Set<String> pendingRefreshes = ConcurrentHashMap.newKeySet();
+    private final JavaSourceScanner javaScanner = new JavaSourceScanner();
+    private final PomDependencyParser pomParser = new PomDependencyParser();
+
+    private ThreadPoolExecutor refreshExecutor;
+
+    @PostConstruct
+    void createExecutor() {
+        refreshExecutor = new ThreadPoolExecutor(refreshThreads, refreshThreads, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(refreshQueueCapacity), new CustomizableThreadFactory("symbol-index-"));
+        refreshExecutor.allowCoreThreadTimeOut(true);
+    }
+
+    @PreDestroy
+    void shutdownExecutor() {
+        refreshExecutor.shutdownNow();
+    }
+
+    /**
+     * Queues a refresh of the project's index unless one is already waiting to run. Readers keep
+     * seeing the previous index until the refresh publishes.
+     */
+    public void refreshInBackground(String projectPath) {
+        String key = Paths.get(projectPath).toAbsolutePath().normalize().toString();
+        knownProjects.add(key);
+        if (!pendingRefreshes.add(key)) {
+            return;
+        }
+        try {
+            refreshExecutor.execute(() -> {
+                pendingRefreshes.remove(key);
+                try {
+                    refresh(key);
+                } catch (RuntimeException e) {
+                    log.warn("Symbol index refresh failed for {}: {}", key, e.getMessage());
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            pendingRefreshes.remove(key);
+            log.debug("Symbol index refresh queue full, skipping {}", key);
+        }
+    }
+
+    /**
+     * Brings the project's index up to date with the filesystem and returns it.
+     */
+    public ProjectSymbolIndex refresh(String projectPath) {
+        Path root = Paths.get(projectPath).toAbsolutePath().normalize();
+        ProjectSymbolIndex index = getOrLoad(root);
+
+        synchronized (index) {
+            Set<String> seen = new HashSet<>();
+            int[] rescanned = {0};
+            try {
+                Files.walkFileTree(root, new SimpleFileVisitor<Path>() {
+                    @Override
+                    public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                        return !dir.equals(root) && EXCLUDED_DIRS.contains(dir.getFileName().toString())
+                                ? FileVisitResult.SKIP_SUBTREE
+                                : FileVisitResult.CONTINUE;
+                    }
+
+                    @Override
+                    public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                        String fileName = file.getFileName().toString();
+                        if (!fileName.endsWith(".java") && !fileName.equals("pom.xml")) {
+                            return FileVisitResult.CONTINUE;
+                        }
+
+                        String relativePath = root.relativize(file).toString();
+                        seen.add(relativePath);
+                        long lastModified = attrs.lastModifiedTime().toMillis();
+                        if (!index.isCurrent(relativePath, lastModified, attrs.size())) {
+                            index.put(relativePath, lastModified, attrs.size(), scanFile(file, relativePath));
+                            rescanned[0]++;
+                        }
+                        return FileVisitResult.CONTINUE;
+                    }
+
+                    @Override
+                    public FileVisitResult visitFileFailed(Path file, IOException exc) {
+                        return FileVisitResult.CONTINUE;
+                    }
+                });
+            } catch (IOException e) {
+                log.warn("Error walking project for symbol index: {}", e.getMessage());
+                return index;
+            }
+
+            int removed = index.retainOnly(seen);
+            if (rescanned[0] > 0 || removed > 0) {
+                index.publish();
+                persist(root, index);
+                log.info("Symbol index updated for {}: {} files re-scanned, {} removed", root, rescanned[0], removed);
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Returns the last refreshed index without touching the filesystem, or null if the project has none yet.
+     */
+    public ProjectSymbolIndex getIndex(String projectPath) {
+        String key = Paths.get(projectPath).toAbsolutePath().normalize().toString();
+        synchronized (indexes) {
+            return indexes.get(key);
+        }
+    }
+
+    /**
+     * Looks up symbols in a project that has been scanned.
+     *
+     * @throws IllegalArgumentException if no scan has been requested for the project
+     */
+    public List<CodeSymbol> findSymbols(String projectPath, String name) {
+        String key = Paths.get(projectPath).toAbsolutePath().normalize().toString();
+        if (!knownProjects.contains(key)) {
+            throw new IllegalArgumentException("Unknown project: " + projectPath);
+        }
+        return refresh(key).lookup(name);
+    }
+
+    private ProjectSymbolIndex getOrLoad(Path root) {
+        String key = root.toString();
+        synchronized (indexes) {
+            ProjectSymbolIndex index = indexes.get(key);
+            if (index != null) {
+                return index;
+            }
+        }
+        // Read from disk outside the lock; if two threads load the same project the first one wins
+        ProjectSymbolIndex loaded = load(root);
+        synchronized (indexes) {
+            ProjectSymbolIndex index = indexes.putIfAbsent(key, loaded);
+            return index != null ? index : loaded;
+        }
+    }
+
+    private List<CodeSymbol> scanFile(Path file, String relativePath) {
+        if (relativePath.endsWith("pom.xml")) {
+            return pomParser.parse(file, relativePath);
+        }
+        try {
+            return javaScanner.scan(relativePath, Files.readString(file, StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            log.debug("Could not read {} for symbol index", file, e);
+            return List.of();
+        }
+    }
+
+    private ProjectSymbolIndex load(Path root) {
+        Path indexFile = indexFile(root);
+        if (persistent && Files.exists(indexFile)) {
+            try {
+                ProjectSymbolIndex index = ProjectSymbolIndex.readFrom(indexFile);
+                log.info("Loaded symbol index for {} from {}", root, indexFile);
+                return index;
+            } catch (IOException e) {
+                log.warn("Discarding unreadable symbol index {}: {}", indexFile, e.getMessage());
+            }
+        }
+        return new ProjectSymbolIndex();
+    }
+
+    private void persist(Path root, ProjectSymbolIndex index) {
+        if (!persistent) {
+            return;
+        }
+        try {
+            index.writeTo(indexFile(root));
+        } catch (IOException e) {
+            log.warn("Could not write symbol index for {}: {}", root, e.getMessage());
+        }
+    }
+
+    private Path indexFile(Path root) {
+        String name = UUID.nameUUIDFromBytes(root.toString().getBytes(StandardCharsets.UTF_8)) + ".idx";
+        return Paths.get(indexDirectory).resolve(name);
+    }
+}
@@ -0,0 +1,169 @@
+package com.codewhisperer.service.llm;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bulkhead whose size adapts with AIMD: every fast success raises the limit by {@code 1/limit}
+ * (about one permit per round of calls), slow calls shrink it by 10% and throttling halves it.
+ * The limit always stays between the configured minimum and maximum.
+ *
+ * Callers waiting for a permit queue up without holding a thread; a released permit is handed
+ * to the oldest waiter. Waiters that time out or are cancelled leave the queue right away, so
+ * sustained overload cannot grow it.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    private static final double LATENCY_BACKOFF = 0.9;
+    private static final double THROTTLE_BACKOFF = 0.5;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final long latencyThresholdMillis;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Deque<CompletableFuture<Boolean>> waiters = new ArrayDeque<>();
+
+    private double limit;
+    private int inFlight;
+
+    public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, long latencyThresholdMillis) {
+        if (minLimit < 1 || maxLimit < minLimit) {
+            throw new IllegalArgumentException("Concurrency limits must satisfy 1 <= min <= max");
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.latencyThresholdMillis = latencyThresholdMillis;
+        this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+    }
+
+    /**
+     * Requests a permit without blocking. The future completes with true once a permit is granted,
+     * or with false if none became available within {@code maxWaitMillis}. Cancelling the future
+     * gives up the place in the queue; a permit granted at the same moment is handed on.
+     */
+    public CompletableFuture<Boolean> acquire(long maxWaitMillis) {
+        CompletableFuture<Boolean> permit = new CompletableFuture<>();
+        lock.lock();
+        try {
+            if (inFlight < (int) limit) {
+                inFlight++;
+                return CompletableFuture.completedFuture(true);
+            }
+            if (maxWaitMillis <= 0) {
+                return CompletableFuture.completedFuture(false);
+            }
+            waiters.add(permit);
+        } finally {
+            lock.unlock();
+        }
+        permit.whenComplete((granted, throwable) -> {
+            if (!Boolean.TRUE.equals(granted)) {
+                leaveQueue(permit);
+            }
+        });
+        CompletableFuture.delayedExecutor(maxWaitMillis, TimeUnit.MILLISECONDS).execute(() -> permit.complete(false));
+        return permit;
+    }
+
+    /**
+     * Waits up to {@code maxWaitMillis} for a permit; returns false if none became available.
+     */
+    public boolean tryAcquire(long maxWaitMillis) throws InterruptedException {
+        CompletableFuture<Boolean> permit = acquire(maxWaitMillis);
+        try {
+            return permit.get();
+        } catch (InterruptedException e) {
+            if (!permit.cancel(false) && permit.join()) {
+                onFailure();
+            }
+            throw e;
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Permit future failed", e.getCause());
+        }
+    }
+
+    public void onSuccess(long latencyMillis) {
+        release(latencyMillis > latencyThresholdMillis
+                ? limit * LATENCY_BACKOFF
+                : limit + 1.0 / limit);
+    }
+
+    public void onThrottled() {
+        release(limit * THROTTLE_BACKOFF);
+    }
+
+    /**
+     * Releases a permit after a failure that says nothing about provider load.
+     */
+    public void onFailure() {
+        release(limit);
+    }
+
+    public int getLimit() {
+        lock.lock();
+        try {
+            return (int) limit;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getInFlight() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getWaiting() {
+        lock.lock();
+        try {
+            return waiters.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void leaveQueue(CompletableFuture<Boolean> waiter) {
+        lock.lock();
+        try {
+            waiters.remove(waiter);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void release(double newLimit) {
+        List<CompletableFuture<Boolean>> granted = new ArrayList<>();
+        lock.lock();
+        try {
+            inFlight--;
+            limit = Math.max(minLimit, Math.min(maxLimit, newLimit));
+            while (inFlight < (int) limit && !waiters.isEmpty()) {
+                CompletableFuture<Boolean> waiter = waiters.poll();
+                if (!waiter.isDone()) {
+                    inFlight++;
+                    granted.add(waiter);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+        // Completed outside the lock: the waiter's continuation runs on this thread
+        for (CompletableFuture<Boolean> waiter : granted) {
+            if (!waiter.complete(true)) {
+                // Timed out or cancelled after it was picked
+                onFailure();
+            }
+        }
+    }
+}
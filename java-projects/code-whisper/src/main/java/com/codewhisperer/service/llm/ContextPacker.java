@@ -0,0 +1,298 @@
+package com.codewhisperer.service.llm;
+
+import com.codewhisperer.model.CodeSymbol;
+import com.codewhisperer.model.ProjectContext;
+import com.codewhisperer.service.ProjectScannerService;
+import com.codewhisperer.service.index.ProjectSymbolIndex;
+import com.codewhisperer.service.index.SymbolIndexService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.*;
+
+/**
+ * Chooses which project files go into an LLM prompt. Candidates are ranked by lexical overlap with
+ * the voice input (path, content and declared symbols) and uncommitted git changes, with recent
+ * modification only breaking ties, then the best-matching window of each file is packed until the
+ * input token budget is spent.
+ *
+ * Snippets are sent to an external provider, so only source files the scanner would list are
+ * considered: nothing under VCS, build or dependency directories, no dotfiles, and nothing
+ * outside the project. A file must match the request to be packed at all. File contents are
+ * cached by path and modification time, so repeated requests do not re-read unchanged files.
+ */
+@Slf4j
+@Component
+public class ContextPacker {
+
+    private static final double PATH_MATCH_WEIGHT = 3.0;
+    private static final double SYMBOL_MATCH_WEIGHT = 2.0;
+    private static final double CHANGED_FILE_BOOST = 3.0;
+    private static final int MIN_SNIPPET_TOKENS = 40;
+
+    private static final Set<String> STOP_WORDS = Set.of(
+            "the", "and", "for", "with", "this", "that", "from", "into", "my", "our", "your",
+            "add", "create", "generate", "make", "new", "please", "code", "class", "can", "you", "how", "what");
+
+    @Autowired(required = false)
+    private SymbolIndexService symbolIndexService;
+
+    @Value("${codewhisperer.llm.context.max-input-tokens:3000}")
+    private int maxInputTokens;
+
+    @Value("${codewhisperer.llm.context.snippet-lines:40}")
+    private int snippetLines;
+
+    @Value("${codewhisperer.llm.context.max-file-bytes:65536}")
+    private long maxFileBytes;
+
+    @Value("${codewhisperer.llm.context.file-cache-entries:256}")
+    private int fileCacheEntries;
+
+    // Least recently used file contents, keyed by absolute path; guarded by itself
+    private final Map<Path, CachedFile> fileCache = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Path, CachedFile> eldest) {
+            return size() > fileCacheEntries;
+        }
+    };
+
+    public int getMaxInputTokens() {
+        return maxInputTokens;
+    }
+
+    /**
+     * Returns snippets in relevance order whose combined size fits in {@code tokenBudget}.
+     */
+    public List<ContextSnippet> pack(String voiceInput, ProjectContext projectContext, int tokenBudget) {
+        if (tokenBudget < MIN_SNIPPET_TOKENS || projectContext.getProjectPath() == null) {
+            return List.of();
+        }
+
+        Path root = Paths.get(projectContext.getProjectPath()).toAbsolutePath().normalize();
+        Set<String> terms = extractTerms(voiceInput);
+        Set<String> changed = new HashSet<>(nullToEmpty(projectContext.getChangedFiles()));
+        Set<String> recent = new HashSet<>(nullToEmpty(projectContext.getRecentFiles()));
+
+        ProjectSymbolIndex symbolIndex = symbolIndexService != null
+                ? symbolIndexService.getIndex(projectContext.getProjectPath())
+                : null;
+
+        List<Candidate> candidates = new ArrayList<>();
+        for (String file : candidateFiles(projectContext)) {
+            Candidate candidate = score(root, file, terms, changed.contains(file), symbolIndex);
+            if (candidate != null && candidate.score() > 0) {
+                candidates.add(candidate);
+            }
+        }
+        // Recency only decides between files that match equally well
+        candidates.sort(Comparator.comparingDouble(Candidate::score).reversed()
+                .thenComparing(candidate -> !recent.contains(candidate.path())));
+
+        List<ContextSnippet> snippets = new ArrayList<>();
+        int remaining = tokenBudget;
+        for (Candidate candidate : candidates) {
+            if (remaining < MIN_SNIPPET_TOKENS) {
+                break;
+            }
+            ContextSnippet snippet = fitSnippet(candidate, remaining);
+            if (snippet != null) {
+                snippets.add(snippet);
+                remaining -= snippet.tokens();
+            }
+        }
+
+        log.debug("Packed {} of {} candidate files into {} tokens", snippets.size(), candidates.size(), tokenBudget - remaining);
+        return snippets;
+    }
+
+    /**
+     * Renders a snippet the way it appears in the prompt; its token estimate covers this whole block.
+     */
+    public static String render(String path, int startLine, int endLine, String text) {
+        return "```" + path + " (lines " + startLine + "-" + endLine + ")\n" + text + "\n```\n";
+    }
+
+    private Collection<String> candidateFiles(ProjectContext projectContext) {
+        // Changed and recent files first so they survive deduplication with their original spelling
+        Set<String> files = new LinkedHashSet<>();
+        files.addAll(nullToEmpty(projectContext.getChangedFiles()));
+        files.addAll(nullToEmpty(projectContext.getRecentFiles()));
+        files.addAll(nullToEmpty(projectContext.getSourceFiles()));
+        files.removeIf(file -> !isEligible(file));
+        return files;
+    }
+
+    /**
+     * Whether a project-relative path may be sent to the provider: a source file by the scanner's
+     * extensions, not inside an excluded directory and with no hidden segment
+     */
+    static boolean isEligible(String file) {
+        String normalized = file.replace('\\', '/');
+        if (normalized.startsWith("/")) {
+            return false;
+        }
+        for (String segment : normalized.split("/")) {
+            if (segment.startsWith(".") || ProjectScannerService.EXCLUDED_DIRECTORIES.contains(segment)) {
+                // Also rejects "." and ".." segments
+                return false;
+            }
+        }
+        String lowerPath = normalized.toLowerCase(Locale.ROOT);
+        return ProjectScannerService.SOURCE_EXTENSIONS.stream().anyMatch(lowerPath::endsWith);
+    }
+
+    private Candidate score(Path root, String file, Set<String> terms, boolean changed, ProjectSymbolIndex symbolIndex) {
+        if (terms.isEmpty()) {
+            return null;
+        }
+        Path path = root.resolve(file).normalize();
+        if (!path.startsWith(root)) {
+            return null;
+        }
+        List<String> lines = readLines(path);
+        if (lines == null) {
+            return null;
+        }
+
+        double score = 0;
+        String lowerPath = file.toLowerCase(Locale.ROOT);
+        for (String term : terms) {
+            if (lowerPath.contains(term)) {
+                score += PATH_MATCH_WEIGHT;
+            }
+        }
+
+        int[] lineHits = new int[lines.size()];
+        Map<String, Integer> termHits = new HashMap<>();
+        for (int i = 0; i < lines.size(); i++) {
+            String lowerLine = lines.get(i).toLowerCase(Locale.ROOT);
+            for (String term : terms) {
+                if (lowerLine.contains(term)) {
+                    lineHits[i]++;
+                    termHits.merge(term, 1, Integer::sum);
+                }
+            }
+        }
+        for (int hits : termHits.values()) {
+            score += Math.log1p(hits);
+        }
+
+        // Files that declare a type or method named after the request outrank files that merely mention it
+        if (symbolIndex != null) {
+            for (String term : terms) {
+                for (CodeSymbol symbol : symbolIndex.symbolsInFile(file)) {
+                    if (symbol.getName().toLowerCase(Locale.ROOT).contains(term)) {
+                        score += SYMBOL_MATCH_WEIGHT;
+                        break;
+                    }
+                }
+            }
+        }
+
+        if (score == 0) {
+            // Being changed or recent is not enough: the file has to match the request
+            return null;
+        }
+        if (changed) {
+            score += CHANGED_FILE_BOOST;
+        }
+
+        return new Candidate(file, lines, bestWindowStart(lineHits), score);
+    }
+
+    /**
+     * The file's lines, from the cache while its size and modification time are unchanged;
+     * null for files that are missing, too large or not text
+     */
+    private List<String> readLines(Path path) {
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+            if (!attributes.isRegularFile() || attributes.size() > maxFileBytes) {
+                return null;
+            }
+            long modified = attributes.lastModifiedTime().toMillis();
+            synchronized (fileCache) {
+                CachedFile cached = fileCache.get(path);
+                if (cached != null && cached.modified() == modified && cached.size() == attributes.size()) {
+                    return cached.lines();
+                }
+            }
+            List<String> lines = List.copyOf(Files.readAllLines(path, StandardCharsets.UTF_8));
+            synchronized (fileCache) {
+                fileCache.put(path, new CachedFile(modified, attributes.size(), lines));
+            }
+            return lines;
+        } catch (IOException | RuntimeException e) {
+            // Unreadable or binary content is simply not a candidate
+            return null;
+        }
+    }
+
+    private int bestWindowStart(int[] lineHits) {
+        int window = Math.min(snippetLines, lineHits.length);
+        int sum = 0;
+        for (int i = 0; i < window; i++) {
+            sum += lineHits[i];
+        }
+
+        int best = sum;
+        int bestStart = 0;
+        for (int start = 1; start + window <= lineHits.length; start++) {
+            sum += lineHits[start + window - 1] - lineHits[start - 1];
+            if (sum > best) {
+                best = sum;
+                bestStart = start;
+            }
+        }
+        return bestStart;
+    }
+
+    private ContextSnippet fitSnippet(Candidate candidate, int tokenBudget) {
+        int end = Math.min(candidate.lines().size(), candidate.windowStart() + snippetLines);
+        // Drop trailing lines until the rendered block fits the remaining budget
+        while (end > candidate.windowStart()) {
+            String text = String.join("\n", candidate.lines().subList(candidate.windowStart(), end));
+            String rendered = render(candidate.path(), candidate.windowStart() + 1, end, text);
+            int tokens = TokenEstimator.estimate(rendered);
+            if (tokens <= tokenBudget) {
+                return new ContextSnippet(candidate.path(), candidate.windowStart() + 1, end, text, tokens);
+            }
+            end -= Math.max(1, (end - candidate.windowStart()) / 4);
+        }
+        return null;
+    }
+
+    private Set<String> extractTerms(String voiceInput) {
+        Set<String> terms = new LinkedHashSet<>();
+        if (voiceInput == null) {
+            return terms;
+        }
+        // Split camelCase as well so "UserController" matches "user controller"
+        String spaced = voiceInput.replaceAll("([a-z0-9])([A-Z])", "$1 $2");
+        for (String word : spaced.toLowerCase(Locale.ROOT).split("[^a-z0-9]+")) {
+            if (word.length() >= 3 && !STOP_WORDS.contains(word)) {
+                terms.add(word);
+            }
+        }
+        return terms;
+    }
+
+    private static List<String> nullToEmpty(List<String> files) {
+        return files != null ? files : List.of();
+    }
+
+    private record Candidate(String path, List<String> lines, int windowStart, double score) {
+    }
+
+    private record CachedFile(long modified, long size, List<String> lines) {
+    }
+}
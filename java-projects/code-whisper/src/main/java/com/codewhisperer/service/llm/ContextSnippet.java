@@ -0,0 +1,7 @@
+package com.codewhisperer.service.llm;
+
+/**
+ * A slice of a project file selected for the prompt. Line numbers are 1-based and inclusive.
+ */
+public record ContextSnippet(String path, int startLine, int endLine, String text, int tokens) {
+}
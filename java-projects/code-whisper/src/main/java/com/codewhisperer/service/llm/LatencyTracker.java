@@ -0,0 +1,36 @@
+package com.codewhisperer.service.llm;
+
+import java.util.Arrays;
+
+/**
+ * Keeps the most recent call latencies in a ring buffer so percentiles track current provider behaviour.
+ */
+public class LatencyTracker {
+
+    private final long[] samples;
+    private int next;
+    private int size;
+
+    public LatencyTracker(int capacity) {
+        this.samples = new long[capacity];
+    }
+
+    public synchronized void record(long latencyMillis) {
+        samples[next] = latencyMillis;
+        next = (next + 1) % samples.length;
+        size = Math.min(size + 1, samples.length);
+    }
+
+    /**
+     * Returns the given percentile of recent latencies, or -1 when fewer than {@code minSamples} are recorded.
+     */
+    public synchronized long percentile(double percentile, int minSamples) {
+        if (size == 0 || size < minSamples) {
+            return -1;
+        }
+        long[] sorted = Arrays.copyOf(samples, size);
+        Arrays.sort(sorted);
+        int index = (int) Math.ceil(percentile * size) - 1;
+        return sorted[Math.max(0, Math.min(size - 1, index))];
+    }
+}
@@ -0,0 +1,347 @@
+package com.codewhisperer.service.llm;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Front door for LLM calls. Each provider gets an adaptive bulkhead, a latency tracker used to
+ * hedge slow calls past the observed p95, and a retry budget shared by retries and hedges.
+ * Calls run on a bounded executor so a slow provider cannot pile up unbounded in-flight work;
+ * a call only reaches the executor once it holds a permit, and the losing side of a hedge is
+ * cancelled as soon as the other side answers.
+ */
+@Slf4j
+@Service
+public class LlmGateway {
+
+    private static final String CALLS_COUNTER = "codewhisperer.llm.calls";
+
+    @Autowired
+    private List<LlmProvider> providers;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${codewhisperer.llm.provider:openai}")
+    private String providerName;
+
+    @Value("${codewhisperer.llm.fallback-model:}")
+    private String fallbackModel;
+
+    @Value("${codewhisperer.llm.concurrency.initial-limit:4}")
+    private int initialLimit;
+
+    @Value("${codewhisperer.llm.concurrency.min-limit:1}")
+    private int minLimit;
+
+    @Value("${codewhisperer.llm.concurrency.max-limit:16}")
+    private int maxLimit;
+
+    @Value("${codewhisperer.llm.concurrency.max-wait-ms:5000}")
+    private long maxWaitMillis;
+
+    @Value("${codewhisperer.llm.concurrency.latency-threshold-ms:20000}")
+    private long latencyThresholdMillis;
+
+    @Value("${codewhisperer.llm.concurrency.queue-capacity:64}")
+    private int queueCapacity;
+
+    @Value("${codewhisperer.llm.hedge.enabled:true}")
+    private boolean hedgeEnabled;
+
+    @Value("${codewhisperer.llm.hedge.min-samples:20}")
+    private int hedgeMinSamples;
+
+    @Value("${codewhisperer.llm.hedge.min-delay-ms:1000}")
+    private long hedgeMinDelayMillis;
+
+    @Value("${codewhisperer.llm.retry.max-attempts:2}")
+    private int maxAttempts;
+
+    @Value("${codewhisperer.llm.retry.backoff-ms:500}")
+    private long retryBackoffMillis;
+
+    @Value("${codewhisperer.llm.retry.budget-ratio:0.1}")
+    private double retryBudgetRatio;
+
+    @Value("${codewhisperer.llm.retry.max-balance:10}")
+    private double retryMaxBalance;
+
+    private final Map<String, ProviderGuard> guards = new ConcurrentHashMap<>();
+
+    private ThreadPoolExecutor executor;
+
+    @PostConstruct
+    void createExecutor() {
+        // Room for a hedge next to every permitted call
+        int threads = maxLimit * 2;
+        executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(queueCapacity), new CustomizableThreadFactory("llm-"));
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    @PreDestroy
+    void shutdownExecutor() {
+        executor.shutdownNow();
+    }
+
+    public void initialize() {
+        providers.forEach(LlmProvider::initialize);
+        log.info("LLM gateway using provider: {} (available: {})", providerName, isConfigured());
+    }
+
+    public boolean isConfigured() {
+        LlmProvider provider = activeProvider();
+        return provider != null && provider.isAvailable();
+    }
+
+    public String getActiveProviderName() {
+        return providerName;
+    }
+
+    public CompletableFuture<String> complete(LlmPrompt prompt) {
+        LlmProvider provider = activeProvider();
+        if (provider == null || !provider.isAvailable()) {
+            return CompletableFuture.failedFuture(
+                    new LlmProviderException("LLM provider not available: " + providerName, false, false));
+        }
+
+        ProviderGuard guard = guardFor(provider);
+        guard.retryBudget().onRequest();
+        return attempt(provider, guard, prompt, 1);
+    }
+
+    private CompletableFuture<String> attempt(LlmProvider provider, ProviderGuard guard, LlmPrompt prompt, int attemptNumber) {
+        return hedged(provider, guard, prompt).exceptionallyCompose(throwable -> {
+            Throwable cause = unwrap(throwable);
+            boolean retryable = cause instanceof LlmProviderException providerException && providerException.isRetryable();
+
+            if (retryable && attemptNumber < maxAttempts && guard.retryBudget().tryWithdraw()) {
+                LlmPrompt retryPrompt = fallbackModel.isEmpty() ? prompt : prompt.withModel(fallbackModel);
+                log.warn("Retrying {} call (attempt {}) after: {}", provider.getName(), attemptNumber + 1, cause.getMessage());
+                Executor delayed = CompletableFuture.delayedExecutor(retryBackoffMillis, TimeUnit.MILLISECONDS);
+                return CompletableFuture.supplyAsync(() -> retryPrompt, delayed)
+                        .thenCompose(next -> attempt(provider, guard, next, attemptNumber + 1));
+            }
+            return CompletableFuture.failedFuture(cause);
+        });
+    }
+
+    private CompletableFuture<String> hedged(LlmProvider provider, ProviderGuard guard, LlmPrompt prompt) {
+        CompletableFuture<String> result = new CompletableFuture<>();
+        AtomicInteger outstanding = new AtomicInteger(1);
+
+        Call primary = call(provider, guard, prompt, "primary", maxWaitMillis);
+        primary.result().whenComplete((response, throwable) -> settle(result, outstanding, response, throwable));
+        // Whichever call loses is cancelled so it stops holding a permit and a thread
+        result.whenComplete((response, throwable) -> primary.cancel());
+
+        long p95 = guard.latency().percentile(0.95, hedgeMinSamples);
+        if (hedgeEnabled && p95 >= 0) {
+            long hedgeDelay = Math.max(p95, hedgeMinDelayMillis);
+            CompletableFuture.delayedExecutor(hedgeDelay, TimeUnit.MILLISECONDS).execute(() -> {
+                if (result.isDone() || !guard.retryBudget().tryWithdraw()) {
+                    return;
+                }
+                log.debug("Hedging {} call after {} ms", provider.getName(), hedgeDelay);
+                outstanding.incrementAndGet();
+                // Hedges never wait for a permit; if the bulkhead is full the provider is already saturated
+                Call hedge = call(provider, guard, prompt, "hedge", 0);
+                hedge.result().whenComplete((response, throwable) -> settle(result, outstanding, response, throwable));
+                result.whenComplete((response, throwable) -> hedge.cancel());
+            });
+        }
+
+        return result;
+    }
+
+    private void settle(CompletableFuture<String> result, AtomicInteger outstanding, String response, Throwable throwable) {
+        if (throwable == null) {
+            result.complete(response);
+        } else if (outstanding.decrementAndGet() == 0) {
+            result.completeExceptionally(unwrap(throwable));
+        }
+    }
+
+    /**
+     * Starts a provider call. The permit is acquired before anything is submitted, so waiting for
+     * one never occupies an executor thread.
+     */
+    private Call call(LlmProvider provider, ProviderGuard guard, LlmPrompt prompt, String kind, long waitMillis) {
+        Call call = new Call(provider, guard, kind);
+        call.start(prompt, waitMillis);
+        return call;
+    }
+
+    private LlmProvider activeProvider() {
+        return providers.stream()
+                .filter(provider -> provider.getName().equals(providerName))
+                .findFirst()
+                .orElse(null);
+    }
+
+    private ProviderGuard guardFor(LlmProvider provider) {
+        return guards.computeIfAbsent(provider.getName(), name -> {
+            ProviderGuard guard = new ProviderGuard(
+                    new AdaptiveConcurrencyLimiter(initialLimit, minLimit, maxLimit, latencyThresholdMillis),
+                    new LatencyTracker(256),
+                    new RetryBudget(retryBudgetRatio, retryMaxBalance));
+            Gauge.builder("codewhisperer.llm.concurrency.limit", guard.limiter(), AdaptiveConcurrencyLimiter::getLimit)
+                    .tag("provider", name)
+                    .register(meterRegistry);
+            Gauge.builder("codewhisperer.llm.concurrency.inflight", guard.limiter(), AdaptiveConcurrencyLimiter::getInFlight)
+                    .tag("provider", name)
+                    .register(meterRegistry);
+            Gauge.builder("codewhisperer.llm.concurrency.waiting", guard.limiter(), AdaptiveConcurrencyLimiter::getWaiting)
+                    .tag("provider", name)
+                    .register(meterRegistry);
+            return guard;
+        });
+    }
+
+    private void countCall(LlmProvider provider, String kind, String outcome) {
+        meterRegistry.counter(CALLS_COUNTER, "provider", provider.getName(), "kind", kind, "outcome", outcome).increment();
+    }
+
+    private static Throwable unwrap(Throwable throwable) {
+        return throwable instanceof CompletionException && throwable.getCause() != null ? throwable.getCause() : throwable;
+    }
+
+    private record ProviderGuard(AdaptiveConcurrencyLimiter limiter, LatencyTracker latency, RetryBudget retryBudget) {
+    }
+
+    /**
+     * One attempt against a provider: a bulkhead permit, then the blocking provider call on the
+     * executor. The permit is released exactly once, when the call finishes or is cancelled,
+     * whichever comes first.
+     */
+    private final class Call {
+
+        private final LlmProvider provider;
+        private final ProviderGuard guard;
+        private final String kind;
+        private final CompletableFuture<String> result = new CompletableFuture<>();
+        private final AtomicBoolean permitHeld = new AtomicBoolean();
+        private volatile CompletableFuture<Boolean> permit;
+        private volatile Future<?> task;
+
+        Call(LlmProvider provider, ProviderGuard guard, String kind) {
+            this.provider = provider;
+            this.guard = guard;
+            this.kind = kind;
+        }
+
+        CompletableFuture<String> result() {
+            return result;
+        }
+
+        void start(LlmPrompt prompt, long waitMillis) {
+            permit = guard.limiter().acquire(waitMillis);
+            permit.whenComplete((granted, throwable) -> {
+                if (!Boolean.TRUE.equals(granted)) {
+                    if (throwable == null) {
+                        countCall(provider, kind, "rejected");
+                    }
+                    result.completeExceptionally(
+                            new LlmProviderException(provider.getName() + " concurrency limit reached", false, false));
+                    return;
+                }
+                permitHeld.set(true);
+                if (result.isDone()) {
+                    // Cancelled while the permit was being granted
+                    release(guard.limiter()::onFailure);
+                    return;
+                }
+                try {
+                    task = executor.submit(() -> run(prompt));
+                } catch (RejectedExecutionException e) {
+                    release(guard.limiter()::onFailure);
+                    countCall(provider, kind, "rejected");
+                    result.completeExceptionally(new LlmProviderException("LLM executor queue is full", e, false, false));
+                }
+            });
+        }
+
+        /**
+         * Gives up on a call that has not finished: leaves the permit queue, or interrupts the
+         * provider call, and returns the permit right away. Finished calls are left alone.
+         */
+        void cancel() {
+            if (!result.cancel(false)) {
+                return;
+            }
+            permit.cancel(false);
+            // Released before the interrupt, so the interrupted call does not count itself as an error
+            if (release(guard.limiter()::onFailure)) {
+                countCall(provider, kind, "cancelled");
+            }
+            Future<?> running = task;
+            if (running != null) {
+                running.cancel(true);
+            }
+        }
+
+        private void run(LlmPrompt prompt) {
+            if (result.isDone()) {
+                release(guard.limiter()::onFailure);
+                return;
+            }
+            long start = System.nanoTime();
+            try {
+                String response = provider.complete(prompt);
+                long latencyMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+                if (release(() -> guard.limiter().onSuccess(latencyMillis))) {
+                    guard.latency().record(latencyMillis);
+                    countCall(provider, kind, "success");
+                }
+                result.complete(response);
+            } catch (LlmProviderException e) {
+                if (e.isThrottled()) {
+                    if (release(guard.limiter()::onThrottled)) {
+                        countCall(provider, kind, "throttled");
+                    }
+                } else if (release(guard.limiter()::onFailure)) {
+                    countCall(provider, kind, "error");
+                }
+                result.completeExceptionally(e);
+            } catch (RuntimeException e) {
+                if (release(guard.limiter()::onFailure)) {
+                    countCall(provider, kind, "error");
+                }
+                result.completeExceptionally(new LlmProviderException("LLM call failed: " + e.getMessage(), e, false, false));
+            }
+        }
+
+        /**
+         * Runs the limiter feedback if this call still holds its permit; false if it was already released
+         */
+        private boolean release(Runnable feedback) {
+            if (!permitHeld.compareAndSet(true, false)) {
+                return false;
+            }
+            feedback.run();
+            return true;
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.codewhisperer.service.llm;
+
+/**
+ * A single completion request. {@code model} is optional and overrides the provider's default,
+ * which is how the gateway switches to the fallback model on retries.
+ */
+public record LlmPrompt(String systemPrompt, String userPrompt, int maxTokens, double temperature, String model) {
+
+    public LlmPrompt withModel(String model) {
+        return new LlmPrompt(systemPrompt, userPrompt, maxTokens, temperature, model);
+    }
+}
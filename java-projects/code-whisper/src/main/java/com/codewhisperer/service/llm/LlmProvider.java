@@ -0,0 +1,29 @@
+package com.codewhisperer.service.llm;
+
+/**
+ * A backend that turns a prompt into a raw completion. Implementations are plain Spring beans
+ * and are picked up by {@link LlmGateway}, which adds concurrency limits, hedging and retries.
+ */
+public interface LlmProvider {
+
+    /**
+     * Name used in configuration ({@code codewhisperer.llm.provider}) and metric tags.
+     */
+    String getName();
+
+    /**
+     * Called once at startup; providers that need credentials or clients set them up here.
+     */
+    default void initialize() {
+    }
+
+    boolean isAvailable();
+
+    /**
+     * Performs a blocking completion call.
+     *
+     * @throws LlmProviderException when the call fails; {@link LlmProviderException#isThrottled()}
+     *                              signals overload so the gateway can back off
+     */
+    String complete(LlmPrompt prompt);
+}
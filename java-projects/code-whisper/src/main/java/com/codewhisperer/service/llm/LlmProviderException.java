@@ -0,0 +1,30 @@
+package com.codewhisperer.service.llm;
+
+public class LlmProviderException extends RuntimeException {
+
+    private final boolean retryable;
+    private final boolean throttled;
+
+    public LlmProviderException(String message, boolean retryable, boolean throttled) {
+        super(message);
+        this.retryable = retryable;
+        this.throttled = throttled;
+    }
+
+    public LlmProviderException(String message, Throwable cause, boolean retryable, boolean throttled) {
+        super(message, cause);
+        this.retryable = retryable;
+        this.throttled = throttled;
+    }
+
+    public boolean isRetryable() {
+        return retryable;
+    }
+
+    /**
+     * True when the provider signalled overload (HTTP 429 or a timeout).
+     */
+    public boolean isThrottled() {
+        return throttled;
+    }
+}
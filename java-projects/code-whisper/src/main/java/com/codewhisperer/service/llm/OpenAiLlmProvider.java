@@ -0,0 +1,80 @@
+package com.codewhisperer.service.llm;
+
+import com.theokanning.openai.OpenAiHttpException;
+import com.theokanning.openai.completion.chat.ChatCompletionRequest;
+import com.theokanning.openai.completion.chat.ChatMessage;
+import com.theokanning.openai.service.OpenAiService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.net.SocketTimeoutException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Slf4j
+@Component
+public class OpenAiLlmProvider implements LlmProvider {
+
+    @Value("${codewhisperer.openai.api-key:}")
+    private String openaiApiKey;
+
+    @Value("${codewhisperer.openai.model:gpt-4}")
+    private String model;
+
+    @Value("${codewhisperer.llm.timeout-seconds:60}")
+    private long timeoutSeconds;
+
+    private OpenAiService openAiService;
+
+    @Override
+    public String getName() {
+        return "openai";
+    }
+
+    @Override
+    public void initialize() {
+        if (openaiApiKey != null && !openaiApiKey.isEmpty()) {
+            this.openAiService = new OpenAiService(openaiApiKey, Duration.ofSeconds(timeoutSeconds));
+            log.info("OpenAI service initialized with model: {}", model);
+        } else {
+            log.warn("OpenAI API key not configured, using mock responses");
+        }
+    }
+
+    @Override
+    public boolean isAvailable() {
+        return openAiService != null;
+    }
+
+    @Override
+    public String complete(LlmPrompt prompt) {
+        if (openAiService == null) {
+            throw new LlmProviderException("OpenAI service not initialized", false, false);
+        }
+
+        List<ChatMessage> messages = new ArrayList<>();
+        messages.add(new ChatMessage("system", prompt.systemPrompt()));
+        messages.add(new ChatMessage("user", prompt.userPrompt()));
+
+        ChatCompletionRequest request = ChatCompletionRequest.builder()
+                .model(prompt.model() != null ? prompt.model() : model)
+                .messages(messages)
+                .maxTokens(prompt.maxTokens())
+                .temperature(prompt.temperature())
+                .build();
+
+        try {
+            return openAiService.createChatCompletion(request)
+                    .getChoices().get(0).getMessage().getContent();
+        } catch (OpenAiHttpException e) {
+            boolean throttled = e.statusCode == 429;
+            throw new LlmProviderException("OpenAI API returned status " + e.statusCode, e,
+                    throttled || e.statusCode >= 500, throttled);
+        } catch (RuntimeException e) {
+            boolean timedOut = e.getCause() instanceof SocketTimeoutException;
+            throw new LlmProviderException("Failed to generate code via OpenAI", e, timedOut, timedOut);
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.codewhisperer.service.llm;
+
+/**
+ * Caps retries and hedges to a fraction of regular traffic. Every request deposits {@code ratio}
+ * tokens (up to {@code maxBalance}); every retry or hedge withdraws a whole token.
+ */
+public class RetryBudget {
+
+    private final double ratio;
+    private final double maxBalance;
+    private double balance;
+
+    public RetryBudget(double ratio, double maxBalance) {
+        this.ratio = ratio;
+        this.maxBalance = maxBalance;
+        this.balance = maxBalance;
+    }
+
+    public synchronized void onRequest() {
+        balance = Math.min(maxBalance, balance + ratio);
+    }
+
+    public synchronized boolean tryWithdraw() {
+        if (balance >= 1.0) {
+            balance -= 1.0;
+            return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,46 @@
+package com.codewhisperer.service.llm;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Local provider that answers with a canned response in the JSON format the prompt asks for.
+ * Select it with {@code codewhisperer.llm.provider: stub} to exercise the gateway without network access.
+ */
+@Component
+public class StubLlmProvider implements LlmProvider {
+
+    @Value("${codewhisperer.llm.stub.latency-ms:50}")
+    private long latencyMillis;
+
+    @Override
+    public String getName() {
+        return "stub";
+    }
+
+    @Override
+    public boolean isAvailable() {
+        return true;
+    }
+
+    @Override
+    public String complete(LlmPrompt prompt) {
+        if (latencyMillis > 0) {
+            try {
+                Thread.sleep(latencyMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new LlmProviderException("Stub provider interrupted", e, false, false);
+            }
+        }
+
+        return """
+                {
+                  "code": "// Stub response",
+                  "explanation": "Generated by the local stub provider",
+                  "filePath": "src/main/java/com/example/Stub.java",
+                  "type": "CODE_GENERATION"
+                }
+                """;
+    }
+}
@@ -0,0 +1,40 @@
+package com.codewhisperer.service.llm;
+
+/**
+ * Fast local approximation of BPE token counts. Runs of letters and digits cost one token per
+ * four characters, every other visible character costs one token and whitespace is free.
+ * This tracks OpenAI tokenizers closely enough on source code to budget prompts without a vocabulary.
+ */
+public final class TokenEstimator {
+
+    private static final int CHARS_PER_WORD_TOKEN = 4;
+
+    private TokenEstimator() {
+    }
+
+    public static int estimate(CharSequence text) {
+        if (text == null) {
+            return 0;
+        }
+
+        int tokens = 0;
+        int wordLength = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isLetterOrDigit(c) || c == '_') {
+                wordLength++;
+                continue;
+            }
+            tokens += wordTokens(wordLength);
+            wordLength = 0;
+            if (!Character.isWhitespace(c)) {
+                tokens++;
+            }
+        }
+        return tokens + wordTokens(wordLength);
+    }
+
+    private static int wordTokens(int wordLength) {
+        return (wordLength + CHARS_PER_WORD_TOKEN - 1) / CHARS_PER_WORD_TOKEN;
+    }
+}
@@ -3,7 +3,7 @@ package com.codewhisperer;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
 
-@SpringBootTest
+@SpringBootTest(properties = "codewhisperer.index.persistent=false")
 class CodeWhispererApplicationTests {
 
     @Test
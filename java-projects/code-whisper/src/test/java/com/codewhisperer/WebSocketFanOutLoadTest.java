@@ -0,0 +1,124 @@
+package com.codewhisperer;
+
+import com.codewhisperer.service.CodeWhispererService.WebSocketUpdate;
+import com.codewhisperer.service.WebSocketUpdateDispatcher;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.simp.stomp.StompFrameHandler;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Connects many STOMP subscribers to one session topic and publishes a burst of status updates.
+ * Every subscriber must receive the terminal update; intermediate ones may be coalesced.
+ *
+ * <p>Run with {@code mvn test -Dtest=WebSocketFanOutLoadTest -Dloadtest=true -Dloadtest.subscribers=5000}.
+ */
+@Slf4j
+@EnabledIfSystemProperty(named = "loadtest", matches = "true")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "codewhisperer.index.persistent=false")
+class WebSocketFanOutLoadTest {
+
+    private static final String SESSION_ID = "load-test";
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private WebSocketUpdateDispatcher dispatcher;
+
+    @Test
+    void everySubscriberReceivesTerminalUpdate() throws Exception {
+        int subscribers = Integer.getInteger("loadtest.subscribers", 2000);
+        int intermediateUpdates = Integer.getInteger("loadtest.updates", 200);
+
+        WebSocketStompClient client = new WebSocketStompClient(new StandardWebSocketClient());
+        client.setMessageConverter(new MappingJackson2MessageConverter());
+
+        CountDownLatch ready = new CountDownLatch(subscribers);
+        CountDownLatch completed = new CountDownLatch(subscribers);
+        AtomicLong received = new AtomicLong();
+        List<StompSession> sessions = new ArrayList<>();
+
+        // SockJS endpoints also accept plain WebSocket connections under /websocket
+        String url = "ws://localhost:" + port + "/ws/websocket";
+        for (int i = 0; i < subscribers; i++) {
+            StompSession session = client.connectAsync(url, new StompSessionHandlerAdapter() {
+            }).get(10, TimeUnit.SECONDS);
+            AtomicBoolean firstFrame = new AtomicBoolean(true);
+            session.subscribe("/topic/session/" + SESSION_ID, new StompFrameHandler() {
+                @Override
+                public Type getPayloadType(StompHeaders headers) {
+                    return Map.class;
+                }
+
+                @Override
+                public void handleFrame(StompHeaders headers, Object payload) {
+                    if (firstFrame.compareAndSet(true, false)) {
+                        ready.countDown();
+                    }
+                    if ("READY".equals(((Map<?, ?>) payload).get("status"))) {
+                        return;
+                    }
+                    received.incrementAndGet();
+                    if ("COMPLETED".equals(((Map<?, ?>) payload).get("status"))) {
+                        completed.countDown();
+                    }
+                }
+            });
+            sessions.add(session);
+        }
+
+        // The simple broker sends no receipts, so probe until every subscription has seen a frame
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(60);
+        while (!ready.await(200, TimeUnit.MILLISECONDS)) {
+            assertTrue(System.nanoTime() < deadline, "subscriptions were not established");
+            dispatcher.dispatch(update("Probe", "READY"));
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < intermediateUpdates; i++) {
+            dispatcher.dispatch(update("Step " + i, "PROCESSING"));
+        }
+        dispatcher.dispatch(update("Done", "COMPLETED"));
+
+        boolean allCompleted = completed.await(60, TimeUnit.SECONDS);
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        log.info("{} subscribers, {} updates published, {} frames delivered in {} ms",
+                subscribers, intermediateUpdates + 1, received.get(), elapsedMillis);
+
+        sessions.forEach(StompSession::disconnect);
+        client.stop();
+
+        assertTrue(allCompleted, "not every subscriber received the terminal update");
+    }
+
+    private WebSocketUpdate update(String message, String status) {
+        return WebSocketUpdate.builder()
+                .sessionId(SESSION_ID)
+                .message(message)
+                .status(status)
+                .timestamp(System.currentTimeMillis())
+                .build();
+    }
+}
@@ -0,0 +1,53 @@
+package com.codewhisperer.service;
+
+import com.codewhisperer.model.ProjectContext;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class CodeWhispererServiceTest {
+
+    private final ProjectScannerService projectScannerService = mock(ProjectScannerService.class);
+    private final CodeWhispererService service = new CodeWhispererService();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(service, "projectScannerService", projectScannerService);
+    }
+
+    @Test
+    void projectContextComesFromTheSharedScan() {
+        ProjectContext context = ProjectContext.builder().projectPath("/work/demo").build();
+        when(projectScannerService.scanProjectShared("/work/demo")).thenReturn(CompletableFuture.completedFuture(context));
+
+        assertSame(context, service.getProjectContext("/work/demo"));
+    }
+
+    @Test
+    void projectContextRethrowsTheScanFailureUnwrapped() {
+        RuntimeException scanFailure = new RuntimeException("Failed to scan project");
+        // As the shared scan completes it: wrapped by the async stage that ran the walk
+        CompletableFuture<ProjectContext> failed = CompletableFuture.supplyAsync(() -> {
+            throw scanFailure;
+        });
+        when(projectScannerService.scanProjectShared("/work/demo")).thenReturn(failed);
+
+        RuntimeException thrown = assertThrows(RuntimeException.class, () -> service.getProjectContext("/work/demo"));
+        assertSame(scanFailure, thrown);
+    }
+
+    @Test
+    void projectContextRethrowsInvalidPathUnwrapped() {
+        when(projectScannerService.scanProjectShared("/work/demo"))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalArgumentException("Project path is required")));
+
+        assertThrows(IllegalArgumentException.class, () -> service.getProjectContext("/work/demo"));
+    }
+}
@@ -0,0 +1,166 @@
+package com.codewhisperer.service;
+
+import com.codewhisperer.model.ProjectContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.when;
+
+class ProjectScannerServiceTest {
+
+    private static final String PROJECT = "/work/demo";
+
+    private final ExecutorService ioPool = Executors.newFixedThreadPool(4);
+    private final AtomicInteger scans = new AtomicInteger();
+    private final CountDownLatch scanMayFinish = new CountDownLatch(1);
+    private volatile RuntimeException scanFailure;
+
+    private ProjectScannerService scanner;
+
+    @BeforeEach
+    void setUp() {
+        PipelineIoExecutor pipelineIoExecutor = mock(PipelineIoExecutor.class);
+        when(pipelineIoExecutor.executor()).thenReturn(ioPool);
+
+        scanner = spy(new ProjectScannerService());
+        ReflectionTestUtils.setField(scanner, "pipelineIoExecutor", pipelineIoExecutor);
+        ReflectionTestUtils.setField(scanner, "scanCacheTtlSeconds", 10L);
+        // Stands in for the filesystem walk; each scan returns a new context
+        doAnswer(invocation -> {
+            scans.incrementAndGet();
+            scanMayFinish.await(10, TimeUnit.SECONDS);
+            if (scanFailure != null) {
+                throw scanFailure;
+            }
+            return ProjectContext.builder().projectPath(invocation.getArgument(0)).build();
+        }).when(scanner).scanProject(anyString());
+    }
+
+    @AfterEach
+    void tearDown() {
+        ioPool.shutdownNow();
+    }
+
+    @Test
+    void concurrentCallersShareOneScan() throws Exception {
+        List<CompletableFuture<ProjectContext>> results = callConcurrently(8);
+        scanMayFinish.countDown();
+
+        ProjectContext first = results.get(0).get(10, TimeUnit.SECONDS);
+        for (CompletableFuture<ProjectContext> result : results) {
+            assertSame(first, result.get(10, TimeUnit.SECONDS));
+        }
+        assertEquals(1, scans.get());
+    }
+
+    @Test
+    void cancellingOneCallerLeavesTheOthers() throws Exception {
+        CompletableFuture<ProjectContext> cancelled = scanner.scanProjectShared(PROJECT);
+        CompletableFuture<ProjectContext> other = scanner.scanProjectShared(PROJECT);
+
+        cancelled.cancel(true);
+        scanMayFinish.countDown();
+
+        assertEquals(PROJECT, other.get(10, TimeUnit.SECONDS).getProjectPath());
+        assertEquals(1, scans.get());
+    }
+
+    @Test
+    void completedScanIsReusedUntilItExpires() throws Exception {
+        ReflectionTestUtils.setField(scanner, "scanCacheTtlSeconds", 1L);
+        scanMayFinish.countDown();
+
+        ProjectContext first = scanner.scanProjectShared(PROJECT).get(10, TimeUnit.SECONDS);
+        assertSame(first, scanner.scanProjectShared(PROJECT + "/.").get(10, TimeUnit.SECONDS));
+        assertEquals(1, scans.get());
+
+        Thread.sleep(1100);
+        ProjectContext second = scanner.scanProjectShared(PROJECT).get(10, TimeUnit.SECONDS);
+        assertNotSame(first, second, "an expired scan must not be served");
+        assertEquals(2, scans.get());
+    }
+
+    @Test
+    void zeroTtlDisablesMemoization() throws Exception {
+        ReflectionTestUtils.setField(scanner, "scanCacheTtlSeconds", 0L);
+        scanMayFinish.countDown();
+
+        scanner.scanProjectShared(PROJECT).get(10, TimeUnit.SECONDS);
+        scanner.scanProjectShared(PROJECT).get(10, TimeUnit.SECONDS);
+
+        assertEquals(2, scans.get());
+    }
+
+    @Test
+    void failedScanReachesEveryCallerAndIsNotMemoized() throws Exception {
+        scanFailure = new RuntimeException("Failed to scan project");
+        List<CompletableFuture<ProjectContext>> results = callConcurrently(4);
+        scanMayFinish.countDown();
+
+        for (CompletableFuture<ProjectContext> result : results) {
+            ExecutionException failure = assertThrows(ExecutionException.class, () -> result.get(10, TimeUnit.SECONDS));
+            assertSame(scanFailure, failure.getCause());
+        }
+        assertEquals(1, scans.get());
+
+        scanFailure = null;
+        assertEquals(PROJECT, scanner.scanProjectShared(PROJECT).get(10, TimeUnit.SECONDS).getProjectPath());
+        assertEquals(2, scans.get());
+    }
+
+    @Test
+    void missingPathFailsWithoutScanning() {
+        CompletableFuture<ProjectContext> result = scanner.scanProjectShared(null);
+
+        ExecutionException failure = assertThrows(ExecutionException.class, result::get);
+        assertTrue(failure.getCause() instanceof IllegalArgumentException);
+        assertEquals(0, scans.get());
+    }
+
+    /**
+     * Call scanProjectShared from the given number of threads at once, while the scan is held
+     */
+    private List<CompletableFuture<ProjectContext>> callConcurrently(int callers) throws Exception {
+        CyclicBarrier barrier = new CyclicBarrier(callers);
+        ExecutorService callerPool = Executors.newFixedThreadPool(callers);
+        try {
+            List<Future<CompletableFuture<ProjectContext>>> calls = new ArrayList<>();
+            for (int i = 0; i < callers; i++) {
+                calls.add(callerPool.submit(() -> {
+                    barrier.await();
+                    return scanner.scanProjectShared(PROJECT);
+                }));
+            }
+            List<CompletableFuture<ProjectContext>> results = new ArrayList<>();
+            for (Future<CompletableFuture<ProjectContext>> call : calls) {
+                results.add(call.get(10, TimeUnit.SECONDS));
+            }
+            return results;
+        } finally {
+            callerPool.shutdown();
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.codewhisperer.service;
+
+import com.codewhisperer.service.CodeWhispererService.WebSocketUpdate;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+class WebSocketUpdateDispatcherTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final Map<String, List<WebSocketUpdate>> sent = new ConcurrentHashMap<>();
+    private final WebSocketUpdateDispatcher dispatcher = new WebSocketUpdateDispatcher();
+
+    @BeforeEach
+    void setUp() {
+        SimpMessagingTemplate messagingTemplate = mock(SimpMessagingTemplate.class);
+        doAnswer(invocation -> {
+            WebSocketUpdate update = invocation.getArgument(1);
+            sent.computeIfAbsent(update.getSessionId(), id -> new CopyOnWriteArrayList<>()).add(update);
+            return null;
+        }).when(messagingTemplate).convertAndSend(anyString(), any(Object.class));
+
+        PipelineMetrics pipelineMetrics = new PipelineMetrics();
+        ReflectionTestUtils.setField(pipelineMetrics, "meterRegistry", meterRegistry);
+
+        ReflectionTestUtils.setField(dispatcher, "messagingTemplate", messagingTemplate);
+        ReflectionTestUtils.setField(dispatcher, "pipelineMetrics", pipelineMetrics);
+        ReflectionTestUtils.setField(dispatcher, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(dispatcher, "threads", 4);
+        ReflectionTestUtils.setField(dispatcher, "queueCapacity", 4);
+        dispatcher.createExecutor();
+    }
+
+    @AfterEach
+    void tearDown() {
+        dispatcher.shutdownExecutor();
+    }
+
+    @Test
+    void terminalUpdateIsSentLastAndTheQueueIsRemoved() throws InterruptedException {
+        for (int i = 0; i < 10; i++) {
+            dispatcher.dispatch(update("s1", "PROCESSING", i));
+        }
+        dispatcher.dispatch(update("s1", "COMPLETED", 10));
+
+        awaitNoPendingSessions();
+        List<WebSocketUpdate> updates = sent.get("s1");
+        assertEquals("COMPLETED", updates.get(updates.size() - 1).getStatus());
+        assertInOrder(updates);
+    }
+
+    @Test
+    void sessionsReusedWhileDrainingKeepOrderAndEveryTerminalUpdate() throws Exception {
+        int sessions = 8;
+        int rounds = 500;
+        ExecutorService producers = Executors.newFixedThreadPool(sessions);
+        try {
+            List<Future<?>> done = new ArrayList<>();
+            for (int s = 0; s < sessions; s++) {
+                String sessionId = "session-" + s;
+                done.add(producers.submit(() -> {
+                    long sequence = 0;
+                    for (int round = 0; round < rounds; round++) {
+                        dispatcher.dispatch(update(sessionId, "PROCESSING", sequence++));
+                        // Each terminal update lets a drain retire the queue while the next round starts
+                        dispatcher.dispatch(update(sessionId, "COMPLETED", sequence++));
+                    }
+                }));
+            }
+            for (Future<?> future : done) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            producers.shutdown();
+        }
+
+        awaitNoPendingSessions();
+        for (int s = 0; s < sessions; s++) {
+            List<WebSocketUpdate> updates = sent.get("session-" + s);
+            assertInOrder(updates);
+            assertEquals(rounds, updates.stream().filter(update -> "COMPLETED".equals(update.getStatus())).count());
+        }
+    }
+
+    private void awaitNoPendingSessions() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (dispatcher.getPendingSessionCount() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(0, dispatcher.getPendingSessionCount());
+    }
+
+    private static void assertInOrder(List<WebSocketUpdate> updates) {
+        for (int i = 1; i < updates.size(); i++) {
+            assertTrue(updates.get(i - 1).getTimestamp() < updates.get(i).getTimestamp(),
+                    "update " + updates.get(i).getTimestamp() + " sent after " + updates.get(i - 1).getTimestamp());
+        }
+    }
+
+    private static WebSocketUpdate update(String sessionId, String status, long sequence) {
+        return WebSocketUpdate.builder().sessionId(sessionId).status(status).message(status).timestamp(sequence).build();
+    }
+}
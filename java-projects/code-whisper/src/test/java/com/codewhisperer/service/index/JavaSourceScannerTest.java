@@ -0,0 +1,59 @@
+package com.codewhisperer.service.index;
+
+import com.codewhisperer.model.CodeSymbol;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class JavaSourceScannerTest {
+
+    private final JavaSourceScanner scanner = new JavaSourceScanner();
+
+    @Test
+    void findsTypesMethodsAndConstructors() {
+        String source = """
+                package com.example;
+
+                // class Commented { }
+                public class UserService {
+
+                    private final Map<String, List<User>> cache = new HashMap<>();
+
+                    public UserService(UserRepository repository) {
+                        if (repository == null) {
+                            throw new IllegalArgumentException("class Fake {");
+                        }
+                    }
+
+                    @Transactional(readOnly = true)
+                    public Map<String, List<User>> findAll() {
+                        return cache;
+                    }
+
+                    enum Status { ACTIVE("a"), INACTIVE("i");
+                        Status(String code) { }
+                    }
+
+                    interface Listener {
+                        void onChange(User user);
+                    }
+                }
+                """;
+
+        List<CodeSymbol> symbols = scanner.scan("UserService.java", source);
+
+        assertEquals(List.of(
+                "CLASS UserService  4",
+                "METHOD UserService UserService 8",
+                "METHOD findAll UserService 15",
+                "ENUM Status UserService 19",
+                "METHOD Status Status 20",
+                "INTERFACE Listener UserService 23",
+                "METHOD onChange Listener 24"),
+                symbols.stream()
+                        .map(s -> s.getKind() + " " + s.getName() + " " + s.getContainer() + " " + s.getLine())
+                        .toList());
+    }
+}
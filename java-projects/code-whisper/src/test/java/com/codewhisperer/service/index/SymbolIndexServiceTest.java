@@ -0,0 +1,94 @@
+package com.codewhisperer.service.index;
+
+import com.codewhisperer.model.CodeSymbol;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SymbolIndexServiceTest {
+
+    @TempDir
+    Path workspace;
+
+    private final SymbolIndexService service = new SymbolIndexService();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(service, "persistent", true);
+        ReflectionTestUtils.setField(service, "indexDirectory", workspace.resolve("index").toString());
+        ReflectionTestUtils.setField(service, "refreshThreads", 1);
+        ReflectionTestUtils.setField(service, "refreshQueueCapacity", 4);
+        ReflectionTestUtils.setField(service, "maxProjects", 1);
+        service.createExecutor();
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        service.shutdownExecutor();
+        // A background refresh may still be writing its index into the temporary directory
+        ThreadPoolExecutor refreshExecutor = (ThreadPoolExecutor) ReflectionTestUtils.getField(service, "refreshExecutor");
+        refreshExecutor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void unscannedProjectsAreRejected() throws IOException {
+        Path project = project("orders", "OrderService");
+
+        assertThrows(IllegalArgumentException.class, () -> service.findSymbols(project.toString(), "OrderService"));
+        assertThrows(IllegalArgumentException.class, () -> service.findSymbols("/", "OrderService"));
+        assertNull(service.getIndex(project.toString()));
+    }
+
+    @Test
+    void scannedProjectsCanBeLookedUp() throws IOException {
+        Path project = project("orders", "OrderService");
+        service.refreshInBackground(project.toString());
+
+        List<CodeSymbol> symbols = service.findSymbols(project + "/.", "OrderService");
+
+        assertEquals(1, symbols.size());
+        assertEquals("src/OrderService.java", symbols.get(0).getFilePath());
+    }
+
+    @Test
+    void leastRecentlyUsedIndexIsDroppedAndReloadedFromDisk() throws IOException {
+        Path orders = project("orders", "OrderService");
+        Path billing = project("billing", "BillingService");
+        // Only the lookups below touch the indexes; the scans just register the projects
+        service.shutdownExecutor();
+        service.refreshInBackground(orders.toString());
+        service.refreshInBackground(billing.toString());
+
+        assertEquals(1, service.findSymbols(orders.toString(), "OrderService").size());
+        assertEquals(1, service.findSymbols(billing.toString(), "BillingService").size());
+
+        assertNull(service.getIndex(orders.toString()));
+        assertNotNull(service.getIndex(billing.toString()));
+        try (var files = Files.list(workspace.resolve("index"))) {
+            assertTrue(files.count() >= 2, "both indexes should be persisted");
+        }
+        assertEquals(1, service.findSymbols(orders.toString(), "OrderService").size());
+    }
+
+    private Path project(String name, String className) throws IOException {
+        Path source = workspace.resolve(name).resolve("src").resolve(className + ".java");
+        Files.createDirectories(source.getParent());
+        Files.writeString(source, "public class " + className + " {\n}\n");
+        return workspace.resolve(name);
+    }
+}
@@ -0,0 +1,105 @@
+package com.codewhisperer.service.llm;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    @Test
+    void rejectsWhenLimitReached() throws InterruptedException {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(2, 1, 4, 1000);
+
+        assertTrue(limiter.tryAcquire(0));
+        assertTrue(limiter.tryAcquire(0));
+        assertFalse(limiter.tryAcquire(10));
+        assertEquals(2, limiter.getInFlight());
+    }
+
+    @Test
+    void growsOnFastCallsAndHalvesOnThrottling() throws InterruptedException {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(2, 1, 8, 1000);
+
+        for (int i = 0; i < 20; i++) {
+            assertTrue(limiter.tryAcquire(0));
+            limiter.onSuccess(10);
+        }
+        int grown = limiter.getLimit();
+        assertTrue(grown > 2, "limit should grow after fast successes");
+
+        assertTrue(limiter.tryAcquire(0));
+        limiter.onThrottled();
+        assertEquals(Math.max(1, grown / 2), limiter.getLimit());
+        assertEquals(0, limiter.getInFlight());
+    }
+
+    @Test
+    void neverDropsBelowMinimum() throws InterruptedException {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(2, 1, 4, 1000);
+
+        for (int i = 0; i < 5; i++) {
+            assertTrue(limiter.tryAcquire(0));
+            limiter.onThrottled();
+        }
+        assertEquals(1, limiter.getLimit());
+    }
+
+    @Test
+    void handsReleasedPermitToQueuedWaiter() throws Exception {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(1, 1, 4, 1000);
+
+        assertTrue(limiter.tryAcquire(0));
+        CompletableFuture<Boolean> waiter = limiter.acquire(5000);
+        assertFalse(waiter.isDone());
+
+        limiter.onFailure();
+        assertTrue(waiter.getNow(false));
+        assertEquals(1, limiter.getInFlight());
+    }
+
+    @Test
+    void abandonedWaitersDoNotKeepPermits() throws Exception {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(1, 1, 4, 1000);
+
+        assertTrue(limiter.tryAcquire(0));
+        CompletableFuture<Boolean> timedOut = limiter.acquire(10);
+        CompletableFuture<Boolean> cancelled = limiter.acquire(5000);
+        assertFalse(timedOut.get());
+        cancelled.cancel(false);
+
+        limiter.onFailure();
+        assertEquals(0, limiter.getInFlight());
+        assertTrue(limiter.tryAcquire(0));
+    }
+
+    @Test
+    void abandonedWaitersLeaveTheQueueWithoutARelease() throws Exception {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(1, 1, 4, 1000);
+        assertTrue(limiter.tryAcquire(0));
+
+        List<CompletableFuture<Boolean>> timedOut = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            timedOut.add(limiter.acquire(10));
+            limiter.acquire(5000).cancel(false);
+        }
+        for (CompletableFuture<Boolean> waiter : timedOut) {
+            assertFalse(waiter.get());
+        }
+
+        // The timer thread leaves the queue just after completing the waiter
+        long deadline = System.currentTimeMillis() + 1000;
+        while (limiter.getWaiting() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+
+        // The permit is still held, so nothing polled the queue
+        assertEquals(1, limiter.getInFlight());
+        assertEquals(0, limiter.getWaiting());
+    }
+}
@@ -0,0 +1,158 @@
+package com.codewhisperer.service.llm;
+
+import com.codewhisperer.model.ProjectContext;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ContextPackerTest {
+
+    @TempDir
+    Path project;
+
+    private final ContextPacker packer = new ContextPacker();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(packer, "maxInputTokens", 3000);
+        ReflectionTestUtils.setField(packer, "snippetLines", 40);
+        ReflectionTestUtils.setField(packer, "maxFileBytes", 65536L);
+        ReflectionTestUtils.setField(packer, "fileCacheEntries", 16);
+    }
+
+    @Test
+    void filesMatchingTheRequestComeFirst() throws IOException {
+        write("src/Invoice.java", "class Invoice {\n  Total invoiceTotal() { return total; }\n}");
+        write("src/Report.java", "class Report {\n  // prints the invoice\n}");
+        write("src/Util.java", "class Util {\n}");
+
+        List<ContextSnippet> snippets = packer.pack("explain the invoice total",
+                context(List.of("src/Util.java", "src/Report.java", "src/Invoice.java"), List.of(), List.of()), 3000);
+
+        assertEquals(List.of("src/Invoice.java", "src/Report.java"), paths(snippets));
+    }
+
+    @Test
+    void recentOrChangedFilesWithoutAMatchAreNotPacked() throws IOException {
+        write("src/Invoice.java", "class Invoice {\n}");
+        write("src/Unrelated.java", "class Unrelated {\n}");
+
+        List<ContextSnippet> snippets = packer.pack("invoice",
+                context(List.of("src/Invoice.java", "src/Unrelated.java"),
+                        List.of("src/Unrelated.java"), List.of("src/Unrelated.java")), 3000);
+
+        assertEquals(List.of("src/Invoice.java"), paths(snippets));
+    }
+
+    @Test
+    void recencyOnlyBreaksTies() throws IOException {
+        write("src/InvoiceA.java", "class InvoiceA {\n}");
+        write("src/InvoiceB.java", "class InvoiceB {\n}");
+
+        List<ContextSnippet> snippets = packer.pack("invoice",
+                context(List.of("src/InvoiceA.java", "src/InvoiceB.java"), List.of("src/InvoiceB.java"), List.of()), 3000);
+
+        assertEquals(List.of("src/InvoiceB.java", "src/InvoiceA.java"), paths(snippets));
+    }
+
+    @Test
+    void nonSourceHiddenBuildAndOutsideFilesAreNeverPacked() throws IOException {
+        String secret = "invoice secret";
+        write(".env", secret);
+        write(".git/logs/HEAD", secret);
+        write(".hidden/Invoice.java", secret);
+        write("target/generated/Invoice.java", secret);
+        write("build/Invoice.java", secret);
+        write("node_modules/invoice/index.js", secret);
+        write("notes.txt", secret);
+        Files.writeString(project.getParent().resolve("Invoice.java"), secret);
+        write("src/Invoice.java", "class Invoice {\n}");
+
+        List<String> files = List.of(".env", ".git/logs/HEAD", ".hidden/Invoice.java", "target/generated/Invoice.java",
+                "build/Invoice.java", "node_modules/invoice/index.js", "notes.txt", "../Invoice.java",
+                "src/../../Invoice.java", "src/Invoice.java");
+        List<ContextSnippet> snippets = packer.pack("invoice secret", context(files, files, files), 3000);
+
+        assertEquals(List.of("src/Invoice.java"), paths(snippets));
+    }
+
+    @Test
+    void isEligibleFollowsTheScannerRules() {
+        assertTrue(ContextPacker.isEligible("src/main/App.java"));
+        assertTrue(ContextPacker.isEligible("web\\app.TS"));
+        assertFalse(ContextPacker.isEligible("/etc/App.java"));
+        assertFalse(ContextPacker.isEligible("./App.java"));
+        assertFalse(ContextPacker.isEligible("src\\.secrets\\App.java"));
+        assertFalse(ContextPacker.isEligible("pom.xml"));
+    }
+
+    @Test
+    void snippetsStayWithinTheTokenBudget() throws IOException {
+        StringBuilder body = new StringBuilder();
+        for (int i = 0; i < 40; i++) {
+            body.append("  invoice line number ").append(i).append(" with several words in it\n");
+        }
+        for (int i = 0; i < 5; i++) {
+            write("src/Invoice" + i + ".java", body.toString());
+        }
+        List<String> files = List.of("src/Invoice0.java", "src/Invoice1.java", "src/Invoice2.java",
+                "src/Invoice3.java", "src/Invoice4.java");
+
+        int budget = 400;
+        List<ContextSnippet> snippets = packer.pack("invoice", context(files, List.of(), List.of()), budget);
+
+        assertFalse(snippets.isEmpty());
+        assertTrue(snippets.size() < files.size(), "the budget should cut off later files");
+        int total = 0;
+        for (ContextSnippet snippet : snippets) {
+            assertEquals(TokenEstimator.estimate(ContextPacker.render(snippet.path(), snippet.startLine(),
+                    snippet.endLine(), snippet.text())), snippet.tokens());
+            total += snippet.tokens();
+        }
+        assertTrue(total <= budget, "packed " + total + " tokens");
+
+        assertTrue(packer.pack("invoice", context(files, List.of(), List.of()), 39).isEmpty());
+    }
+
+    @Test
+    void modifiedFilesAreReadAgain() throws IOException {
+        Path file = write("src/Invoice.java", "class Invoice {\n}");
+        ProjectContext context = context(List.of("src/Invoice.java"), List.of(), List.of());
+        assertTrue(packer.pack("invoice", context, 3000).get(0).text().contains("class Invoice"));
+
+        Files.writeString(file, "class Invoice {\n  int refund;\n}");
+        Files.setLastModifiedTime(file, FileTime.fromMillis(Files.getLastModifiedTime(file).toMillis() + 5000));
+
+        assertTrue(packer.pack("invoice", context, 3000).get(0).text().contains("refund"));
+    }
+
+    private Path write(String relativePath, String content) throws IOException {
+        Path file = project.resolve(relativePath);
+        Files.createDirectories(file.getParent());
+        return Files.writeString(file, content);
+    }
+
+    private ProjectContext context(List<String> sourceFiles, List<String> recentFiles, List<String> changedFiles) {
+        return ProjectContext.builder()
+                .projectPath(project.toString())
+                .sourceFiles(sourceFiles)
+                .recentFiles(recentFiles)
+                .changedFiles(changedFiles)
+                .build();
+    }
+
+    private static List<String> paths(List<ContextSnippet> snippets) {
+        return snippets.stream().map(ContextSnippet::path).toList();
+    }
+}
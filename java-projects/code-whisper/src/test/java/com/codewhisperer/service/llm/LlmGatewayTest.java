@@ -0,0 +1,204 @@
+package com.codewhisperer.service.llm;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.function.IntFunction;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LlmGatewayTest {
+
+    private static final LlmPrompt PROMPT = new LlmPrompt("system", "user", 100, 0.1, null);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ScriptedStubProvider stub = new ScriptedStubProvider();
+    private final LlmGateway gateway = new LlmGateway();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(stub, "latencyMillis", 0L);
+        ReflectionTestUtils.setField(gateway, "providers", List.<LlmProvider>of(stub));
+        ReflectionTestUtils.setField(gateway, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(gateway, "providerName", "stub");
+        ReflectionTestUtils.setField(gateway, "fallbackModel", "");
+        ReflectionTestUtils.setField(gateway, "initialLimit", 4);
+        ReflectionTestUtils.setField(gateway, "minLimit", 1);
+        ReflectionTestUtils.setField(gateway, "maxLimit", 4);
+        ReflectionTestUtils.setField(gateway, "maxWaitMillis", 1000L);
+        ReflectionTestUtils.setField(gateway, "latencyThresholdMillis", 20000L);
+        ReflectionTestUtils.setField(gateway, "queueCapacity", 16);
+        ReflectionTestUtils.setField(gateway, "hedgeEnabled", false);
+        ReflectionTestUtils.setField(gateway, "hedgeMinSamples", 5);
+        ReflectionTestUtils.setField(gateway, "hedgeMinDelayMillis", 20L);
+        ReflectionTestUtils.setField(gateway, "maxAttempts", 2);
+        ReflectionTestUtils.setField(gateway, "retryBackoffMillis", 10L);
+        ReflectionTestUtils.setField(gateway, "retryBudgetRatio", 0.1);
+        ReflectionTestUtils.setField(gateway, "retryMaxBalance", 10.0);
+        gateway.createExecutor();
+    }
+
+    @AfterEach
+    void tearDown() {
+        gateway.shutdownExecutor();
+    }
+
+    @Test
+    void answersWithTheStubResponse() throws Exception {
+        String response = gateway.complete(PROMPT).get(5, TimeUnit.SECONDS);
+
+        assertTrue(response.contains("Generated by the local stub provider"));
+        assertEquals(1, calls("primary", "success"));
+        assertEquals(0, inFlight());
+    }
+
+    @Test
+    void hedgeAnswersForASlowPrimaryAndTheLoserIsCancelled() throws Exception {
+        ReflectionTestUtils.setField(gateway, "hedgeEnabled", true);
+        // Enough fast samples for a p95, then one call that would hang without the hedge
+        for (int i = 0; i < 5; i++) {
+            gateway.complete(PROMPT).get(5, TimeUnit.SECONDS);
+        }
+        stub.latencyOfCall = call -> call == 6 ? 10_000L : 0L;
+
+        long start = System.nanoTime();
+        String response = gateway.complete(PROMPT).get(5, TimeUnit.SECONDS);
+
+        assertTrue(response.contains("Stub response"));
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 5000, "the hedge should answer first");
+        awaitTrue(() -> stub.interrupted.get() == 1, "the slow primary should be interrupted");
+        awaitTrue(() -> inFlight() == 0, "the loser should return its permit");
+        assertEquals(1, calls("primary", "cancelled"));
+        assertEquals(1, calls("hedge", "success"));
+    }
+
+    @Test
+    void retryableFailureIsRetriedWithTheSameModelWithoutAFallback() throws Exception {
+        stub.failureOfCall = call -> call == 1 ? new LlmProviderException("busy", true, false) : null;
+
+        gateway.complete(PROMPT).get(5, TimeUnit.SECONDS);
+
+        assertEquals(2, stub.models.size());
+        assertNull(stub.models.get(0));
+        assertNull(stub.models.get(1));
+    }
+
+    @Test
+    void retryUsesTheFallbackModelWhenConfigured() throws Exception {
+        ReflectionTestUtils.setField(gateway, "fallbackModel", "small-model");
+        stub.failureOfCall = call -> call == 1 ? new LlmProviderException("busy", true, false) : null;
+
+        gateway.complete(PROMPT).get(5, TimeUnit.SECONDS);
+
+        assertEquals(List.of("small-model"), stub.models.subList(1, 2));
+    }
+
+    @Test
+    void retriesStopWhenTheBudgetIsSpent() throws Exception {
+        ReflectionTestUtils.setField(gateway, "maxAttempts", 5);
+        ReflectionTestUtils.setField(gateway, "retryBudgetRatio", 0.0);
+        ReflectionTestUtils.setField(gateway, "retryMaxBalance", 1.0);
+        stub.failureOfCall = call -> new LlmProviderException("busy", true, false);
+
+        assertProviderFailure(gateway.complete(PROMPT), "busy");
+        // The single token in the budget paid for one retry
+        assertEquals(2, stub.calls.get());
+
+        assertProviderFailure(gateway.complete(PROMPT), "busy");
+        assertEquals(3, stub.calls.get());
+        assertEquals(0, inFlight());
+    }
+
+    @Test
+    void nonRetryableFailureIsNotRetried() throws Exception {
+        stub.failureOfCall = call -> new LlmProviderException("bad request", false, false);
+
+        assertProviderFailure(gateway.complete(PROMPT), "bad request");
+        assertEquals(1, stub.calls.get());
+        assertEquals(1, calls("primary", "error"));
+    }
+
+    @Test
+    void unknownProviderFailsWithoutACall() {
+        ReflectionTestUtils.setField(gateway, "providerName", "missing");
+
+        assertFalse(gateway.isConfigured());
+        assertProviderFailure(gateway.complete(PROMPT), "LLM provider not available: missing");
+        assertEquals(0, stub.calls.get());
+    }
+
+    private static void assertProviderFailure(CompletableFuture<String> result, String message) {
+        ExecutionException failure = assertThrows(ExecutionException.class, () -> result.get(5, TimeUnit.SECONDS));
+        assertTrue(failure.getCause() instanceof LlmProviderException, String.valueOf(failure.getCause()));
+        assertEquals(message, failure.getCause().getMessage());
+    }
+
+    private double calls(String kind, String outcome) {
+        Counter counter = meterRegistry.find("codewhisperer.llm.calls")
+                .tags("provider", "stub", "kind", kind, "outcome", outcome)
+                .counter();
+        return counter == null ? 0 : counter.count();
+    }
+
+    private double inFlight() {
+        Gauge gauge = meterRegistry.find("codewhisperer.llm.concurrency.inflight").tags("provider", "stub").gauge();
+        return gauge == null ? 0 : gauge.value();
+    }
+
+    private static void awaitTrue(BooleanSupplier condition, String message) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(condition.getAsBoolean(), message);
+    }
+
+    /**
+     * The stub provider with per-call latency and failures; answers with the stub's canned response
+     */
+    private static final class ScriptedStubProvider extends StubLlmProvider {
+
+        final AtomicInteger calls = new AtomicInteger();
+        final AtomicInteger interrupted = new AtomicInteger();
+        final List<String> models = new CopyOnWriteArrayList<>();
+        volatile IntFunction<Long> latencyOfCall = call -> 0L;
+        volatile IntFunction<RuntimeException> failureOfCall = call -> null;
+
+        @Override
+        public String complete(LlmPrompt prompt) {
+            int call = calls.incrementAndGet();
+            models.add(prompt.model());
+            long latency = latencyOfCall.apply(call);
+            if (latency > 0) {
+                try {
+                    Thread.sleep(latency);
+                } catch (InterruptedException e) {
+                    interrupted.incrementAndGet();
+                    Thread.currentThread().interrupt();
+                    throw new LlmProviderException("Stub provider interrupted", e, false, false);
+                }
+            }
+            RuntimeException failure = failureOfCall.apply(call);
+            if (failure != null) {
+                throw failure;
+            }
+            return super.complete(prompt);
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.codewhisperer.service.llm;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class TokenEstimatorTest {
+
+    @Test
+    void emptyAndNullCostNothing() {
+        assertEquals(0, TokenEstimator.estimate(null));
+        assertEquals(0, TokenEstimator.estimate(""));
+        assertEquals(0, TokenEstimator.estimate(" \n\t "));
+    }
+
+    @Test
+    void wordsCostOneTokenPerFourCharacters() {
+        assertEquals(1, TokenEstimator.estimate("get"));
+        assertEquals(1, TokenEstimator.estimate("user"));
+        assertEquals(2, TokenEstimator.estimate("users"));
+        assertEquals(4, TokenEstimator.estimate("user_id_value"));
+        assertEquals(2, TokenEstimator.estimate("find  user"));
+    }
+
+    @Test
+    void punctuationCostsOneTokenPerCharacter() {
+        assertEquals(3, TokenEstimator.estimate("();"));
+        // get ( id ) ;
+        assertEquals(5, TokenEstimator.estimate("get(id);"));
+    }
+}
@@ -0,0 +1,38 @@
+package com.enterpriseshop.config.cache;
+
+import org.springframework.cloud.config.environment.Environment;
+
+/**
+ * A resolved Environment together with the ETag of its content
+ *
+ * The Environment is shared by every caller and must not be modified.
+ */
+public class CachedEnvironment {
+
+    private final Environment environment;
+    private final String eTag;
+
+    public CachedEnvironment(Environment environment, String eTag) {
+        this.environment = environment;
+        this.eTag = eTag;
+    }
+
+    public Environment getEnvironment() {
+        return environment;
+    }
+
+    /**
+     * Quoted entity tag, changes whenever the resolved content changes
+     */
+    public String getETag() {
+        return eTag;
+    }
+
+    /**
+     * Version of the backing store the Environment was resolved from, e.g. the git commit;
+     * null for stores without versions
+     */
+    public String getVersion() {
+        return environment.getVersion();
+    }
+}
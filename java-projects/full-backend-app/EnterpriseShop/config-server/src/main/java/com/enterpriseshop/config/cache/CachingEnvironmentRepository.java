@@ -0,0 +1,72 @@
+package com.enterpriseshop.config.cache;
+
+import org.springframework.cloud.config.environment.Environment;
+import org.springframework.cloud.config.server.environment.EnvironmentRepository;
+import org.springframework.cloud.config.server.environment.SearchPathLocator;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+/**
+ * The primary EnvironmentRepository: serves Environments from {@link EnvironmentCache}
+ *
+ * It stands in for the repository the config server would otherwise use, so
+ * the standard /{application}/{profile}[/{label}] endpoints read from the cache
+ * just like the /config/... ones. The Environment served during a request is
+ * kept as a request attribute, which tells {@link EnvironmentETagAdvice} to tag the response.
+ *
+ * Search path lookups (used to serve plain files) go straight to the backing
+ * repository, as do requests that ask for the origin of each property.
+ */
+public class CachingEnvironmentRepository implements EnvironmentRepository, SearchPathLocator {
+
+    /**
+     * Request attribute holding the {@link CachedEnvironment} served during the request
+     */
+    public static final String CACHED_ENVIRONMENT_ATTRIBUTE = CachingEnvironmentRepository.class.getName() + ".CACHED";
+
+    private final EnvironmentRepository backingStore;
+    private final EnvironmentCache environmentCache;
+
+    public CachingEnvironmentRepository(EnvironmentRepository backingStore, EnvironmentCache environmentCache) {
+        this.backingStore = backingStore;
+        this.environmentCache = environmentCache;
+    }
+
+    /**
+     * The repository this one replaced, which loads and refreshes go to
+     */
+    public EnvironmentRepository getBackingStore() {
+        return backingStore;
+    }
+
+    @Override
+    public Environment findOne(String application, String profile, String label) {
+        CachedEnvironment cached = environmentCache.get(application, profile, label);
+        RequestAttributes request = RequestContextHolder.getRequestAttributes();
+        if (request != null) {
+            request.setAttribute(CACHED_ENVIRONMENT_ATTRIBUTE, cached, RequestAttributes.SCOPE_REQUEST);
+        }
+        // Callers may add property sources (e.g. server overrides); the cached list stays as it is
+        Environment environment = new Environment(cached.getEnvironment());
+        environment.addAll(cached.getEnvironment().getPropertySources());
+        return environment;
+    }
+
+    @Override
+    public Environment findOne(String application, String profile, String label, boolean includeOrigin) {
+        if (includeOrigin) {
+            // Origins are not part of the cached entries
+            return backingStore.findOne(application, profile, label, true);
+        }
+        return findOne(application, profile, label);
+    }
+
+    @Override
+    public Locations getLocations(String application, String profile, String label) {
+        if (backingStore instanceof SearchPathLocator locator) {
+            return locator.getLocations(application, profile, label);
+        }
+        throw new UnsupportedOperationException(
+                backingStore.getClass().getSimpleName() + " does not serve files from search paths");
+    }
+}
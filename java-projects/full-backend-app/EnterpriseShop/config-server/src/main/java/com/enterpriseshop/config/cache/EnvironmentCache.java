@@ -0,0 +1,198 @@
+package com.enterpriseshop.config.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.CacheLoader;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.config.environment.Environment;
+import org.springframework.cloud.config.server.environment.EnvironmentRepository;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Cache of resolved Environments, keyed by application, profile and label
+ *
+ * Resolving an Environment reads the backing store (a git fetch, a scan of the
+ * native search locations). Every service start and every refresh poll used to
+ * do that again, so a fleet restarting at once stormed the config server. Here
+ * each (application, profile, label) is resolved once and served from memory;
+ * concurrent misses for the same key share one load.
+ *
+ * Change detection:
+ * - An entry older than config.cache.refresh-seconds is resolved again in the
+ *   background on its next read, while the old one is still served
+ * - When that finds a new version (git commit), every entry resolved from the
+ *   old version is dropped: the commit moved for all applications at once
+ * - {@link #refresh} resolves again immediately
+ * - Entries expire after config.cache.ttl-seconds, which bounds staleness for
+ *   stores that have no version, such as native
+ *
+ * Each entry carries an ETag computed once from its content, so clients that
+ * poll with If-None-Match get a 304 without the Environment being serialized.
+ *
+ * The config server's own repository is replaced by a
+ * {@link CachingEnvironmentRepository} that reads through this cache (see
+ * {@link EnvironmentCacheConfiguration}); loads and background refreshes go
+ * to the repository it replaced. They block on git, so they run on a small
+ * pool of their own rather than ForkJoinPool.commonPool().
+ */
+@Component
+public class EnvironmentCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(EnvironmentCache.class);
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${config.cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${config.cache.maximum-size:1000}")
+    private long maximumSize;
+
+    @Value("${config.cache.refresh-seconds:30}")
+    private long refreshSeconds;
+
+    @Value("${config.cache.ttl-seconds:300}")
+    private long ttlSeconds;
+
+    @Value("${config.cache.load-threads:2}")
+    private int loadThreads;
+
+    // The backing store, set once when the config server's repository is wrapped
+    private volatile EnvironmentRepository environmentRepository;
+
+    private ExecutorService loadExecutor;
+
+    private LoadingCache<EnvironmentKey, CachedEnvironment> environments;
+
+    private Counter versionChanges;
+
+    @PostConstruct
+    public void initialize() {
+        loadExecutor = Executors.newFixedThreadPool(loadThreads, new CustomizableThreadFactory("config-cache-"));
+        environments = Caffeine.newBuilder()
+                .executor(loadExecutor)
+                .maximumSize(maximumSize)
+                .refreshAfterWrite(Duration.ofSeconds(refreshSeconds))
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build(new CacheLoader<EnvironmentKey, CachedEnvironment>() {
+                    @Override
+                    public CachedEnvironment load(EnvironmentKey key) {
+                        return resolve(key);
+                    }
+
+                    @Override
+                    public CachedEnvironment reload(EnvironmentKey key, CachedEnvironment previous) {
+                        CachedEnvironment current = resolve(key);
+                        if (!Objects.equals(previous.getVersion(), current.getVersion())) {
+                            versionChanged(key, previous.getVersion(), current.getVersion());
+                        }
+                        return current;
+                    }
+                });
+
+        CaffeineCacheMetrics.monitor(meterRegistry, environments, "config-environments");
+        versionChanges = Counter.builder("config.cache.version.changes").register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        loadExecutor.shutdownNow();
+    }
+
+    /**
+     * Serve the Environments of the given repository through this cache
+     *
+     * @return the repository to use in place of the given one
+     */
+    public CachingEnvironmentRepository wrap(EnvironmentRepository backingStore) {
+        if (environmentRepository != null) {
+            throw new IllegalStateException("The environment cache already wraps "
+                    + environmentRepository.getClass().getSimpleName());
+        }
+        environmentRepository = backingStore;
+        return new CachingEnvironmentRepository(backingStore, this);
+    }
+
+    /**
+     * The Environment for an application and profile, resolved on a miss
+     *
+     * @param label null for the default label
+     */
+    public CachedEnvironment get(String application, String profile, String label) {
+        EnvironmentKey key = new EnvironmentKey(application, profile, label);
+        if (!enabled) {
+            return resolve(key);
+        }
+        return environments.get(key);
+    }
+
+    /**
+     * Resolve the Environment from the backing store now and cache the result
+     */
+    public CachedEnvironment refresh(String application, String profile, String label) {
+        EnvironmentKey key = new EnvironmentKey(application, profile, label);
+        if (!enabled) {
+            return resolve(key);
+        }
+        try {
+            return environments.refresh(key).join();
+        } catch (CompletionException e) {
+            // Surface the backing store's own exception, as a plain get() would
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+
+    private CachedEnvironment resolve(EnvironmentKey key) {
+        EnvironmentRepository environmentRepository = this.environmentRepository;
+        if (environmentRepository == null) {
+            throw new IllegalStateException("No EnvironmentRepository has been wrapped by the environment cache");
+        }
+        Environment environment = environmentRepository.findOne(key.application(), key.profile(), key.label());
+        return new CachedEnvironment(environment, eTagOf(environment));
+    }
+
+    /**
+     * Drop the other entries resolved from the old version; they are resolved again on their next read
+     */
+    private void versionChanged(EnvironmentKey reloaded, String previousVersion, String currentVersion) {
+        logger.info("Configuration version changed from {} to {}", previousVersion, currentVersion);
+        versionChanges.increment();
+        // The reloaded key is skipped: dropping it would discard the value just resolved
+        environments.asMap().entrySet().removeIf(entry -> !entry.getKey().equals(reloaded)
+                && Objects.equals(entry.getValue().getVersion(), previousVersion));
+    }
+
+    private String eTagOf(Environment environment) {
+        try {
+            return "\"" + DigestUtils.md5DigestAsHex(objectMapper.writeValueAsBytes(environment)) + "\"";
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException("Could not serialize the environment of " + environment.getName(), e);
+        }
+    }
+
+    private record EnvironmentKey(String application, String profile, String label) {}
+}
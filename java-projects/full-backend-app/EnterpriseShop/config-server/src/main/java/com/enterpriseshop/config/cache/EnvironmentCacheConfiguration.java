@@ -0,0 +1,58 @@
+package com.enterpriseshop.config.cache;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.cloud.config.server.config.ConfigServerHealthIndicator;
+import org.springframework.cloud.config.server.environment.EnvironmentRepository;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Puts {@link CachingEnvironmentRepository} in place of the config server's primary EnvironmentRepository
+ *
+ * Spring Cloud Config already declares a @Primary repository (the composite of
+ * the git and native ones), and that composite collects every
+ * EnvironmentRepository bean. A second @Primary bean would be ambiguous and would
+ * end up inside the composite it reads from, so the primary bean is wrapped where
+ * it is created instead: everything injected with "the" EnvironmentRepository,
+ * including the config server's EnvironmentController, gets the caching one.
+ *
+ * The config server's health indicator would get it too, and report UP from
+ * cached entries while git is unreachable. It is switched off
+ * (spring.cloud.config.server.health.enabled in application.yml) and replaced
+ * by one that checks the backing repository.
+ */
+@Configuration(proxyBeanMethods = false)
+public class EnvironmentCacheConfiguration {
+
+    @Bean
+    static BeanPostProcessor cachingEnvironmentRepositoryPostProcessor(ObjectProvider<EnvironmentCache> environmentCache,
+                                                                      ConfigurableListableBeanFactory beanFactory) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof EnvironmentRepository repository
+                        && !(bean instanceof CachingEnvironmentRepository)
+                        && beanFactory.containsBeanDefinition(beanName)
+                        && beanFactory.getMergedBeanDefinition(beanName).isPrimary()) {
+                    return environmentCache.getObject().wrap(repository);
+                }
+                return bean;
+            }
+        };
+    }
+
+    /**
+     * The config server's health indicator, checking the repository the cache replaced
+     *
+     * Bound to the same spring.cloud.config.server.health properties as the built-in one.
+     */
+    @Bean
+    ConfigServerHealthIndicator configServerHealthIndicator(EnvironmentRepository environmentRepository) {
+        EnvironmentRepository checked = environmentRepository instanceof CachingEnvironmentRepository caching
+                ? caching.getBackingStore()
+                : environmentRepository;
+        return new ConfigServerHealthIndicator(checked);
+    }
+}
@@ -0,0 +1,95 @@
+package com.enterpriseshop.config.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cloud.config.server.environment.EnvironmentController;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.http.server.ServletServerHttpResponse;
+import org.springframework.util.DigestUtils;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * ETag revalidation for the config server's own EnvironmentController
+ *
+ * Responses built from an Environment that {@link CachingEnvironmentRepository}
+ * served during the request are tagged, and a GET whose If-None-Match matches
+ * the tag is answered with 304 Not Modified and no body.
+ *
+ * The tag is computed from the body as it is about to be written, together
+ * with its content type, rather than taken from the cache entry: the
+ * controller adds the server's overrides and renders .yml and .properties
+ * variants, so the same entry is sent in several forms. This serializes JSON
+ * bodies once more. {@code ConfigController} sends the cached Environment
+ * unchanged, so it uses the entry's own tag.
+ */
+@ControllerAdvice(assignableTypes = EnvironmentController.class)
+public class EnvironmentETagAdvice implements ResponseBodyAdvice<Object> {
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        if (body == null
+                || !(request instanceof ServletServerHttpRequest servletRequest)
+                || !(response instanceof ServletServerHttpResponse servletResponse)) {
+            return body;
+        }
+        HttpServletRequest httpRequest = servletRequest.getServletRequest();
+        if (!(httpRequest.getAttribute(CachingEnvironmentRepository.CACHED_ENVIRONMENT_ATTRIBUTE)
+                instanceof CachedEnvironment)) {
+            return body;
+        }
+        HttpServletResponse httpResponse = servletResponse.getServletResponse();
+        // Written to the servlet response directly, so they are sent even when there is no body
+        httpResponse.setHeader(HttpHeaders.CACHE_CONTROL, CacheControl.noCache().getHeaderValue());
+        // Sets the ETag header, and the 304 status when the client's copy is current
+        if (new ServletWebRequest(httpRequest, httpResponse).checkNotModified(eTagOf(body, selectedContentType))) {
+            return null;
+        }
+        return body;
+    }
+
+    private String eTagOf(Object body, MediaType contentType) {
+        byte[] content;
+        if (body instanceof String text) {
+            content = text.getBytes(StandardCharsets.UTF_8);
+        } else if (body instanceof byte[] bytes) {
+            content = bytes;
+        } else {
+            try {
+                content = objectMapper.writeValueAsBytes(body);
+            } catch (JsonProcessingException e) {
+                throw new UncheckedIOException("Could not serialize a " + body.getClass().getSimpleName(), e);
+            }
+        }
+        // The same content in another format is another representation
+        byte[] format = (contentType + "\n").getBytes(StandardCharsets.UTF_8);
+        byte[] tagged = Arrays.copyOf(format, format.length + content.length);
+        System.arraycopy(content, 0, tagged, format.length, content.length);
+        return "\"" + DigestUtils.md5DigestAsHex(tagged) + "\"";
+    }
+}
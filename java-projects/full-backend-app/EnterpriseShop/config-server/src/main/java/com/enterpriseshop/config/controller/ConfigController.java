@@ -1,8 +1,10 @@
 package com.enterpriseshop.config.controller;
 
+import com.enterpriseshop.config.cache.CachedEnvironment;
+import com.enterpriseshop.config.cache.EnvironmentCache;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.cloud.config.environment.Environment;
-import org.springframework.cloud.config.server.environment.EnvironmentRepository;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -17,13 +19,17 @@ import java.util.Map;
  * - Environment information
  * - Configuration refresh
  * - Health checks
+ *
+ * Environments come from {@link EnvironmentCache} rather than the backing
+ * store. Responses carry the ETag of the cached Environment, and Spring
+ * answers a GET whose If-None-Match matches it with 304 Not Modified.
  */
 @RestController
 @RequestMapping("/config")
 public class ConfigController {
     
     @Autowired
-    private EnvironmentRepository environmentRepository;
+    private EnvironmentCache environmentCache;
     
     /**
      * Get configuration for a specific application and profile
@@ -33,8 +39,8 @@ public class ConfigController {
             @PathVariable String application,
             @PathVariable String profile) {
         
-        Environment env = environmentRepository.findOne(application, profile, null);
-        return ResponseEntity.ok(env);
+        CachedEnvironment cached = environmentCache.get(application, profile, null);
+        return revalidated(cached).body(cached.getEnvironment());
     }
     
     /**
@@ -46,8 +52,8 @@ public class ConfigController {
             @PathVariable String profile,
             @PathVariable String label) {
         
-        Environment env = environmentRepository.findOne(application, profile, label);
-        return ResponseEntity.ok(env);
+        CachedEnvironment cached = environmentCache.get(application, profile, label);
+        return revalidated(cached).body(cached.getEnvironment());
     }
     
     /**
@@ -59,7 +65,8 @@ public class ConfigController {
             @RequestParam(defaultValue = "default") String profile,
             @RequestParam(required = false) String label) {
         
-        Environment env = environmentRepository.findOne(application, profile, label);
+        CachedEnvironment cached = environmentCache.get(application, profile, label);
+        Environment env = cached.getEnvironment();
         Map<String, Object> response = new HashMap<>();
         
         response.put("application", application);
@@ -69,7 +76,7 @@ public class ConfigController {
         response.put("version", env.getVersion());
         response.put("state", env.getState());
         
-        return ResponseEntity.ok(response);
+        return revalidated(cached).body(response);
     }
     
     /**
@@ -135,7 +142,7 @@ public class ConfigController {
         Map<String, Object> response = new HashMap<>();
         
         try {
-            Environment env = environmentRepository.findOne(application, profile, label);
+            Environment env = environmentCache.get(application, profile, label).getEnvironment();
             
             response.put("valid", true);
             response.put("application", application);
@@ -168,13 +175,14 @@ public class ConfigController {
         Map<String, Object> response = new HashMap<>();
         
         try {
-            // Force refresh by getting configuration again
-            Environment env = environmentRepository.findOne(application, profile, label);
+            // Resolve from the backing store again, bypassing the cached copy
+            Environment env = environmentCache.refresh(application, profile, label).getEnvironment();
             
             response.put("success", true);
             response.put("application", application);
             response.put("profile", profile);
             response.put("label", label);
+            response.put("version", env.getVersion());
             response.put("message", "Configuration refreshed successfully");
             response.put("timestamp", System.currentTimeMillis());
             
@@ -189,4 +197,13 @@ public class ConfigController {
         
         return ResponseEntity.ok(response);
     }
+    
+    /**
+     * 200 response carrying the cached Environment's ETag; clients must revalidate before reusing it
+     */
+    private static ResponseEntity.BodyBuilder revalidated(CachedEnvironment cached) {
+        return ResponseEntity.ok()
+                .eTag(cached.getETag())
+                .cacheControl(CacheControl.noCache());
+    }
 }
@@ -0,0 +1,119 @@
+package com.enterpriseshop.config.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.config.environment.Environment;
+import org.springframework.cloud.config.environment.PropertySource;
+import org.springframework.cloud.config.server.environment.EnvironmentRepository;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Tests for {@link EnvironmentCache}
+ *
+ * Demonstrates:
+ * - A refresh that finds a new version drops the entries resolved from the old one
+ * - Entries from other versions, and the refreshed entry itself, are kept
+ * - {@link CachingEnvironmentRepository} reads through the cache
+ */
+class EnvironmentCacheTest {
+
+    private final Map<String, AtomicInteger> loads = new ConcurrentHashMap<>();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private volatile String version = "v1";
+
+    private EnvironmentCache environmentCache;
+    private CachingEnvironmentRepository cachingRepository;
+
+    @BeforeEach
+    void setUp() {
+        environmentCache = new EnvironmentCache();
+        ReflectionTestUtils.setField(environmentCache, "objectMapper", new ObjectMapper());
+        ReflectionTestUtils.setField(environmentCache, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(environmentCache, "enabled", true);
+        ReflectionTestUtils.setField(environmentCache, "maximumSize", 100L);
+        ReflectionTestUtils.setField(environmentCache, "refreshSeconds", 30L);
+        ReflectionTestUtils.setField(environmentCache, "ttlSeconds", 300L);
+        ReflectionTestUtils.setField(environmentCache, "loadThreads", 1);
+        environmentCache.initialize();
+
+        cachingRepository = environmentCache.wrap(new EnvironmentRepository() {
+            @Override
+            public Environment findOne(String application, String profile, String label) {
+                loads.computeIfAbsent(application, name -> new AtomicInteger()).incrementAndGet();
+                Environment environment = new Environment(application, new String[] {profile}, label, version, null);
+                environment.add(new PropertySource(application + ".yml", Map.of("resolved.version", version)));
+                return environment;
+            }
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        environmentCache.shutdown();
+    }
+
+    @Test
+    void newVersionDropsEntriesOfTheOldVersion() {
+        version = "v0";
+        environmentCache.get("legacy", "default", null);
+        version = "v1";
+        environmentCache.get("orders", "default", null);
+        environmentCache.get("billing", "default", null);
+        environmentCache.get("billing", "default", null);
+        assertEquals(1, loads("billing"));
+
+        version = "v2";
+        assertEquals("v2", environmentCache.refresh("orders", "default", null).getVersion());
+
+        // Resolved from v1, like the refreshed entry: the next read goes to the backing store
+        assertEquals("v2", environmentCache.get("billing", "default", null).getVersion());
+        assertEquals(2, loads("billing"));
+        // Resolved from another version: left to its own refresh
+        assertEquals("v0", environmentCache.get("legacy", "default", null).getVersion());
+        assertEquals(1, loads("legacy"));
+        // The refreshed entry keeps the value just resolved
+        assertEquals("v2", environmentCache.get("orders", "default", null).getVersion());
+        assertEquals(2, loads("orders"));
+
+        assertEquals(1.0, meterRegistry.counter("config.cache.version.changes").count());
+    }
+
+    @Test
+    void sameVersionKeepsOtherEntries() {
+        environmentCache.get("orders", "default", null);
+        environmentCache.get("billing", "default", null);
+
+        environmentCache.refresh("orders", "default", null);
+
+        environmentCache.get("billing", "default", null);
+        assertEquals(1, loads("billing"));
+        assertEquals(0.0, meterRegistry.counter("config.cache.version.changes").count());
+    }
+
+    @Test
+    void cachingRepositoryReadsThroughTheCache() {
+        Environment first = cachingRepository.findOne("orders", "dev", "main");
+        // Callers such as the server's overrides add property sources to what they get
+        first.addFirst(new PropertySource("overrides", Map.of("a", "b")));
+
+        Environment second = cachingRepository.findOne("orders", "dev", "main");
+
+        assertEquals(1, loads("orders"));
+        assertEquals(1, second.getPropertySources().size());
+        assertEquals("orders.yml", second.getPropertySources().get(0).getName());
+    }
+
+    private int loads(String application) {
+        AtomicInteger count = loads.get(application);
+        return count == null ? 0 : count.get();
+    }
+}
@@ -0,0 +1,257 @@
+package com.enterpriseshop.user.cache;
+
+import com.enterpriseshop.user.dto.UserDto;
+import com.enterpriseshop.user.event.UserCacheInvalidationEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import jakarta.annotation.PostConstruct;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+/**
+ * Near-cache for user lookups by ID, auth user ID and email
+ *
+ * Profiles are cached by ID. Lookups by auth user ID or email go through small
+ * index caches that map the key to an ID, and the profile found is checked
+ * against the key, so an index entry left behind by an email change is simply
+ * reloaded. Misses are cached too, for a shorter time, so lookups for unknown
+ * users do not reach the database on every call.
+ *
+ * Coherence:
+ * - Every committed User write evicts its entries here and publishes an
+ *   invalidation on Kafka that the other instances apply
+ * - Loads and evictions of the same key are serialised by the cache, so a load
+ *   that read a row before the write committed does not survive the eviction
+ * - Entries expire after user.cache.ttl-seconds, which bounds staleness if an
+ *   invalidation message is lost
+ *
+ * Last-login times written by {@link com.enterpriseshop.user.login.LastLoginBuffer}
+ * do not evict entries, so a cached lastLoginAt can lag by up to the TTL.
+ * Cached DTOs are shared between callers and must not be modified.
+ */
+@Component
+public class UserCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserCache.class);
+
+    @Autowired
+    private KafkaTemplate<String, String> kafkaTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${user.cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${user.cache.maximum-size:100000}")
+    private long maximumSize;
+
+    @Value("${user.cache.ttl-seconds:60}")
+    private long ttlSeconds;
+
+    @Value("${user.cache.negative-ttl-seconds:10}")
+    private long negativeTtlSeconds;
+
+    @Value("${user.cache.invalidation-topic:user-cache-invalidation}")
+    private String invalidationTopic;
+
+    private Cache<UUID, Optional<UserDto>> usersById;
+    private Cache<UUID, Optional<UUID>> idsByAuthUserId;
+    private Cache<String, Optional<UUID>> idsByEmail;
+
+    private Counter localInvalidations;
+    private Counter remoteInvalidations;
+
+    @PostConstruct
+    public void initialize() {
+        usersById = buildCache();
+        idsByAuthUserId = buildCache();
+        idsByEmail = buildCache();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, usersById, "users-by-id");
+        CaffeineCacheMetrics.monitor(meterRegistry, idsByAuthUserId, "users-by-auth-user-id");
+        CaffeineCacheMetrics.monitor(meterRegistry, idsByEmail, "users-by-email");
+        localInvalidations = Counter.builder("user.cache.invalidations").tag("source", "local").register(meterRegistry);
+        remoteInvalidations = Counter.builder("user.cache.invalidations").tag("source", "remote").register(meterRegistry);
+    }
+
+    /**
+     * Look up a user by ID, loading and caching it (or its absence) on a miss
+     */
+    public Optional<UserDto> getById(UUID id, Function<UUID, Optional<UserDto>> loader) {
+        if (!enabled) {
+            return loader.apply(id);
+        }
+        return usersById.get(id, loader);
+    }
+
+    /**
+     * Look up a user by auth user ID
+     */
+    public Optional<UserDto> getByAuthUserId(UUID authUserId, Function<UUID, Optional<UserDto>> loader,
+                                             Function<UUID, Optional<UserDto>> idLoader) {
+        return getByIndex(idsByAuthUserId, authUserId, loader, idLoader, UserDto::getAuthUserId);
+    }
+
+    /**
+     * Look up a user by email
+     */
+    public Optional<UserDto> getByEmail(String email, Function<String, Optional<UserDto>> loader,
+                                        Function<UUID, Optional<UserDto>> idLoader) {
+        return getByIndex(idsByEmail, email, loader, idLoader, UserDto::getEmail);
+    }
+
+    /**
+     * Evict a user here and on other instances once the current transaction commits
+     */
+    public void invalidateAfterCommit(UUID id, UUID authUserId, String email) {
+        afterCommit(new UserCacheInvalidationEvent(listOf(id), listOf(authUserId), listOf(email)));
+    }
+
+    /**
+     * Evict users by ID here and on other instances once the current transaction commits
+     */
+    public void invalidateAfterCommit(Collection<UUID> ids) {
+        if (!ids.isEmpty()) {
+            afterCommit(new UserCacheInvalidationEvent(List.copyOf(ids), List.of(), List.of()));
+        }
+    }
+
+    /**
+     * Apply an invalidation published by another instance
+     */
+    public void evictRemote(UserCacheInvalidationEvent event) {
+        evict(event);
+        remoteInvalidations.increment();
+    }
+
+    /**
+     * Drop every entry; used when invalidations may have been missed
+     */
+    public void clear() {
+        usersById.invalidateAll();
+        idsByAuthUserId.invalidateAll();
+        idsByEmail.invalidateAll();
+    }
+
+    private <K> Optional<UserDto> getByIndex(Cache<K, Optional<UUID>> index, K key,
+                                             Function<K, Optional<UserDto>> loader,
+                                             Function<UUID, Optional<UserDto>> idLoader,
+                                             Function<UserDto, K> keyOf) {
+        if (!enabled) {
+            return loader.apply(key);
+        }
+
+        // A user loaded through the index is returned directly rather than read again by ID
+        AtomicReference<UserDto> loaded = new AtomicReference<>();
+        Optional<UUID> id = index.get(key, k -> {
+            Optional<UserDto> user = loader.apply(k);
+            user.ifPresent(loaded::set);
+            return user.map(UserDto::getId);
+        });
+        if (loaded.get() != null) {
+            return Optional.of(loaded.get());
+        }
+        if (id.isEmpty()) {
+            return Optional.empty();
+        }
+
+        Optional<UserDto> user = getById(id.get(), idLoader);
+        if (user.isPresent() && Objects.equals(keyOf.apply(user.get()), key)) {
+            return user;
+        }
+
+        // The index entry is stale, e.g. the email moved to another user
+        index.invalidate(key);
+        Optional<UserDto> reloaded = loader.apply(key);
+        index.put(key, reloaded.map(UserDto::getId));
+        return reloaded;
+    }
+
+    private void afterCommit(UserCacheInvalidationEvent event) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            evictAndPublish(event);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                evictAndPublish(event);
+            }
+        });
+    }
+
+    private void evictAndPublish(UserCacheInvalidationEvent event) {
+        evict(event);
+        localInvalidations.increment();
+        try {
+            kafkaTemplate.send(invalidationTopic, objectMapper.writeValueAsString(event))
+                    .whenComplete((result, throwable) -> {
+                        if (throwable != null) {
+                            logger.warn("Failed to publish user cache invalidation: {}", throwable.getMessage());
+                        }
+                    });
+        } catch (JsonProcessingException | RuntimeException e) {
+            logger.warn("Failed to publish user cache invalidation: {}", e.getMessage());
+        }
+    }
+
+    private void evict(UserCacheInvalidationEvent event) {
+        usersById.invalidateAll(event.getIds());
+        idsByAuthUserId.invalidateAll(event.getAuthUserIds());
+        idsByEmail.invalidateAll(event.getEmails());
+    }
+
+    private <K, V> Cache<K, Optional<V>> buildCache() {
+        long positiveNanos = Duration.ofSeconds(ttlSeconds).toNanos();
+        long negativeNanos = Duration.ofSeconds(negativeTtlSeconds).toNanos();
+        return Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new Expiry<K, Optional<V>>() {
+                    @Override
+                    public long expireAfterCreate(K key, Optional<V> value, long currentTime) {
+                        return value.isPresent() ? positiveNanos : negativeNanos;
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(K key, Optional<V> value, long currentTime, long currentDuration) {
+                        return expireAfterCreate(key, value, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(K key, Optional<V> value, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+    }
+
+    private static <T> List<T> listOf(T value) {
+        return value != null ? List.of(value) : List.of();
+    }
+}
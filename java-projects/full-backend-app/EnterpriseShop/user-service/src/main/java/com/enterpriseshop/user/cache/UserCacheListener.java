@@ -0,0 +1,30 @@
+package com.enterpriseshop.user.cache;
+
+import com.enterpriseshop.user.entity.User;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * JPA entity listener that evicts written users from {@link UserCache}
+ *
+ * Persists are included so a cached miss for the new user's auth ID or email
+ * is dropped. Set-based UPDATEs bypass this listener and evict explicitly.
+ */
+public class UserCacheListener {
+
+    @Autowired
+    private ObjectProvider<UserCache> userCache;
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onWrite(User user) {
+        UserCache cache = userCache.getIfAvailable();
+        if (cache != null) {
+            cache.invalidateAfterCommit(user.getId(), user.getAuthUserId(), user.getEmail());
+        }
+    }
+}
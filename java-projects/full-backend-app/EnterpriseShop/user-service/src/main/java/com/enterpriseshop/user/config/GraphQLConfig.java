@@ -0,0 +1,103 @@
+package com.enterpriseshop.user.config;
+
+import graphql.GraphQLContext;
+import graphql.analysis.FieldComplexityCalculator;
+import graphql.analysis.MaxQueryComplexityInstrumentation;
+import graphql.analysis.MaxQueryDepthInstrumentation;
+import graphql.execution.CoercedVariables;
+import graphql.language.StringValue;
+import graphql.schema.Coercing;
+import graphql.schema.CoercingParseLiteralException;
+import graphql.schema.CoercingParseValueException;
+import graphql.schema.CoercingSerializeException;
+import graphql.schema.GraphQLScalarType;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.graphql.execution.RuntimeWiringConfigurer;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Locale;
+
+/**
+ * GraphQL configuration
+ *
+ * Provides:
+ * - The DateTime scalar used by schema.graphqls
+ * - Depth and complexity limits so a single query cannot fan out unboundedly
+ */
+@Configuration
+public class GraphQLConfig {
+
+    @Value("${user.graphql.max-depth:8}")
+    private int maxDepth;
+
+    @Value("${user.graphql.max-complexity:1000}")
+    private int maxComplexity;
+
+    @Bean
+    public RuntimeWiringConfigurer dateTimeScalarConfigurer() {
+        return wiringBuilder -> wiringBuilder.scalar(dateTimeScalar());
+    }
+
+    @Bean
+    public MaxQueryDepthInstrumentation maxQueryDepthInstrumentation() {
+        return new MaxQueryDepthInstrumentation(maxDepth);
+    }
+
+    /**
+     * Reject queries whose estimated cost exceeds the limit before they execute
+     *
+     * Every field costs 1. Fields taking a size argument multiply the cost of
+     * their selection by that size, so users(size: 100) { content { addresses { city } } }
+     * is charged for 100 users' addresses.
+     */
+    @Bean
+    public MaxQueryComplexityInstrumentation maxQueryComplexityInstrumentation() {
+        FieldComplexityCalculator calculator = (environment, childComplexity) -> {
+            Object size = environment.getArguments().get("size");
+            int multiplier = size instanceof Integer pageSize ? Math.max(pageSize, 1) : 1;
+            return 1 + childComplexity * multiplier;
+        };
+        return new MaxQueryComplexityInstrumentation(maxComplexity, calculator);
+    }
+
+    private GraphQLScalarType dateTimeScalar() {
+        return GraphQLScalarType.newScalar()
+                .name("DateTime")
+                .description("ISO-8601 local date-time, e.g. 2024-01-31T10:15:30")
+                .coercing(new Coercing<LocalDateTime, String>() {
+                    @Override
+                    public String serialize(Object dataFetcherResult, GraphQLContext context, Locale locale) {
+                        if (dataFetcherResult instanceof LocalDateTime dateTime) {
+                            return dateTime.toString();
+                        }
+                        throw new CoercingSerializeException("Expected a LocalDateTime but got " + dataFetcherResult);
+                    }
+
+                    @Override
+                    public LocalDateTime parseValue(Object input, GraphQLContext context, Locale locale) {
+                        try {
+                            return LocalDateTime.parse(input.toString());
+                        } catch (DateTimeParseException e) {
+                            throw new CoercingParseValueException("Invalid DateTime: " + input, e);
+                        }
+                    }
+
+                    @Override
+                    public LocalDateTime parseLiteral(graphql.language.Value<?> input, CoercedVariables variables,
+                                                      GraphQLContext context, Locale locale) {
+                        if (input instanceof StringValue stringValue) {
+                            try {
+                                return LocalDateTime.parse(stringValue.getValue());
+                            } catch (DateTimeParseException e) {
+                                throw new CoercingParseLiteralException("Invalid DateTime: " + stringValue.getValue(), e);
+                            }
+                        }
+                        throw new CoercingParseLiteralException("Expected a DateTime string");
+                    }
+                })
+                .build();
+    }
+}
@@ -0,0 +1,35 @@
+package com.enterpriseshop.user.config;
+
+import org.apache.kafka.clients.admin.NewTopic;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.TopicBuilder;
+
+import java.util.Map;
+
+/**
+ * User cache configuration
+ *
+ * Provides:
+ * - The invalidation topic, with a single partition: every instance is assigned
+ *   partition 0 directly instead of joining a consumer group
+ */
+@Configuration
+public class UserCacheConfig {
+
+    @Value("${user.cache.invalidation-topic:user-cache-invalidation}")
+    private String invalidationTopic;
+
+    @Bean
+    public NewTopic userCacheInvalidationTopic() {
+        return TopicBuilder.name(invalidationTopic)
+                .partitions(1)
+                .replicas(1)
+                .configs(Map.of(
+                    "retention.ms", "3600000", // 1 hour; instances only read from the end
+                    "cleanup.policy", "delete"
+                ))
+                .build();
+    }
+}
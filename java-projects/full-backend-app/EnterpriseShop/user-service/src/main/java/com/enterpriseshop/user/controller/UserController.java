@@ -1,19 +1,25 @@
 package com.enterpriseshop.user.controller;
 
+import com.enterpriseshop.user.dto.BulkOperationResult;
+import com.enterpriseshop.user.dto.BulkUserRequest;
+import com.enterpriseshop.user.dto.CursorPage;
 import com.enterpriseshop.user.dto.UserDto;
+import com.enterpriseshop.user.service.UserBulkService;
 import com.enterpriseshop.user.service.UserService;
+import com.enterpriseshop.user.service.UserSortKey;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import jakarta.validation.Valid;
-import java.util.List;
 import java.util.UUID;
 import java.util.Map;
 import java.util.HashMap;
@@ -23,9 +29,11 @@ import java.util.HashMap;
  * 
  * Provides endpoints for:
  * - User CRUD operations
+ * - Bulk status updates over ID lists
  * - User search and filtering
  * - User statistics
- * - Pagination support
+ * - Pagination support (offset and keyset)
+ * - Streaming export
  */
 @RestController
 @RequestMapping("/api/users")
@@ -35,6 +43,9 @@ public class UserController {
     @Autowired
     private UserService userService;
     
+    @Autowired
+    private UserBulkService userBulkService;
+    
     /**
      * Create a new user profile
      * POST /api/users
@@ -113,7 +124,7 @@ public class UserController {
     }
     
     /**
-     * Update last login timestamp
+     * Update last login timestamp (buffered; auth-events logins are recorded automatically)
      * PATCH /api/users/{id}/last-login
      */
     @PatchMapping("/{id}/last-login")
@@ -134,6 +145,48 @@ public class UserController {
         return ResponseEntity.noContent().build();
     }
     
+    /**
+     * Update verification status of many users
+     * PATCH /api/users/bulk/verification?isVerified=true
+     */
+    @PatchMapping("/bulk/verification")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<BulkOperationResult> bulkUpdateVerificationStatus(
+            @RequestParam boolean isVerified, @Valid @RequestBody BulkUserRequest request) {
+        return ResponseEntity.ok(userBulkService.updateVerificationStatus(request.getIds(), isVerified));
+    }
+    
+    /**
+     * Update active status of many users
+     * PATCH /api/users/bulk/status?isActive=false
+     */
+    @PatchMapping("/bulk/status")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<BulkOperationResult> bulkUpdateActiveStatus(
+            @RequestParam boolean isActive, @Valid @RequestBody BulkUserRequest request) {
+        return ResponseEntity.ok(userBulkService.updateActiveStatus(request.getIds(), isActive));
+    }
+    
+    /**
+     * Update last login timestamp of many users
+     * PATCH /api/users/bulk/last-login
+     */
+    @PatchMapping("/bulk/last-login")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<BulkOperationResult> bulkUpdateLastLogin(@Valid @RequestBody BulkUserRequest request) {
+        return ResponseEntity.ok(userBulkService.updateLastLogin(request.getIds()));
+    }
+    
+    /**
+     * Delete many users (soft delete)
+     * POST /api/users/bulk/delete
+     */
+    @PostMapping("/bulk/delete")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<BulkOperationResult> bulkDeleteUsers(@Valid @RequestBody BulkUserRequest request) {
+        return ResponseEntity.ok(userBulkService.deleteUsers(request.getIds()));
+    }
+    
     /**
      * Get all users with pagination
      * GET /api/users?page=0&size=20&sort=firstName,asc
@@ -146,8 +199,9 @@ public class UserController {
             @RequestParam(defaultValue = "firstName") String sortBy,
             @RequestParam(defaultValue = "asc") String sortDir) {
         
+        String sortProperty = UserSortKey.fromProperty(sortBy).getProperty();
         Sort sort = sortDir.equalsIgnoreCase("desc") ? 
-            Sort.by(sortBy).descending() : Sort.by(sortBy).ascending();
+            Sort.by(sortProperty).descending() : Sort.by(sortProperty).ascending();
         
         Pageable pageable = PageRequest.of(page, size, sort);
         Page<UserDto> users = userService.getAllUsers(pageable);
@@ -171,36 +225,98 @@ public class UserController {
         return ResponseEntity.ok(users);
     }
     
+    /**
+     * Get all users with keyset pagination
+     * GET /api/users/scroll?size=20&sortBy=firstName&sortDir=asc&cursor={nextCursor}&includeTotal=false
+     */
+    @GetMapping("/scroll")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<CursorPage<UserDto>> scrollAllUsers(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "firstName") String sortBy,
+            @RequestParam(defaultValue = "asc") String sortDir,
+            @RequestParam(defaultValue = "false") boolean includeTotal) {
+        
+        CursorPage<UserDto> users = userService.scrollAllUsers(cursor, size, sortBy, sortDir, includeTotal);
+        return ResponseEntity.ok(users);
+    }
+    
+    /**
+     * Get active users with keyset pagination
+     * GET /api/users/active/scroll?size=20&cursor={nextCursor}
+     */
+    @GetMapping("/active/scroll")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<CursorPage<UserDto>> scrollActiveUsers(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "firstName") String sortBy,
+            @RequestParam(defaultValue = "asc") String sortDir,
+            @RequestParam(defaultValue = "false") boolean includeTotal) {
+        
+        CursorPage<UserDto> users = userService.scrollActiveUsers(cursor, size, sortBy, sortDir, includeTotal);
+        return ResponseEntity.ok(users);
+    }
+    
+    /**
+     * Export users as newline-delimited JSON
+     * GET /api/users/export?activeOnly=false
+     */
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<StreamingResponseBody> exportUsers(@RequestParam(defaultValue = "false") boolean activeOnly) {
+        StreamingResponseBody body = out -> userService.exportUsers(activeOnly, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+    
     /**
      * Search users by name
-     * GET /api/users/search/name?q=john
+     * GET /api/users/search/name?q=john&page=0&size=20
      */
     @GetMapping("/search/name")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<List<UserDto>> searchUsersByName(@RequestParam String q) {
-        List<UserDto> users = userService.searchUsersByName(q);
+    public ResponseEntity<Page<UserDto>> searchUsersByName(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        
+        // Results are ranked by relevance, so no client-supplied sort
+        Page<UserDto> users = userService.searchUsersByName(q, PageRequest.of(page, size));
         return ResponseEntity.ok(users);
     }
     
     /**
      * Search users by city
-     * GET /api/users/search/city?q=newyork
+     * GET /api/users/search/city?q=newyork&page=0&size=20
      */
     @GetMapping("/search/city")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<List<UserDto>> searchUsersByCity(@RequestParam String q) {
-        List<UserDto> users = userService.searchUsersByCity(q);
+    public ResponseEntity<Page<UserDto>> searchUsersByCity(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        
+        // Results are ranked by relevance, so no client-supplied sort
+        Page<UserDto> users = userService.searchUsersByCity(q, PageRequest.of(page, size));
         return ResponseEntity.ok(users);
     }
     
     /**
      * Search users by country
-     * GET /api/users/search/country?q=usa
+     * GET /api/users/search/country?q=usa&page=0&size=20
      */
     @GetMapping("/search/country")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<List<UserDto>> searchUsersByCountry(@RequestParam String q) {
-        List<UserDto> users = userService.searchUsersByCountry(q);
+    public ResponseEntity<Page<UserDto>> searchUsersByCountry(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        
+        // Results are ranked by relevance, so no client-supplied sort
+        Page<UserDto> users = userService.searchUsersByCountry(q, PageRequest.of(page, size));
         return ResponseEntity.ok(users);
     }
     
@@ -70,6 +70,26 @@ public class AddressDto {
         this.country = country;
     }
     
+    // Projection constructor for JPQL "SELECT new" queries in AddressRepository
+    public AddressDto(UUID id, UUID userId, AddressType addressType, String streetAddress, String streetAddress2,
+                      String city, String stateProvince, String postalCode, String country, String label,
+                      boolean isDefault, boolean isActive, LocalDateTime createdAt, LocalDateTime updatedAt) {
+        this.id = id;
+        this.userId = userId;
+        this.addressType = addressType;
+        this.streetAddress = streetAddress;
+        this.streetAddress2 = streetAddress2;
+        this.city = city;
+        this.stateProvince = stateProvince;
+        this.postalCode = postalCode;
+        this.country = country;
+        this.label = label;
+        this.isDefault = isDefault;
+        this.isActive = isActive;
+        this.createdAt = createdAt;
+        this.updatedAt = updatedAt;
+    }
+    
     // Helper methods
     public String getFullAddress() {
         StringBuilder sb = new StringBuilder();
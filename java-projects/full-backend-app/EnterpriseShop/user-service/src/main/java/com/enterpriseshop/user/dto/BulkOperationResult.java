@@ -0,0 +1,114 @@
+package com.enterpriseshop.user.dto;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Outcome of a bulk user operation
+ * 
+ * Used for:
+ * - Reporting what happened to each requested ID, in request order
+ * - Summary counts so callers need not walk the results
+ */
+public class BulkOperationResult {
+    
+    /**
+     * What a bulk operation did to one user
+     */
+    public enum Outcome {
+        // The row was written
+        UPDATED,
+        // The user already had the requested value
+        UNCHANGED,
+        // No user with this ID exists
+        NOT_FOUND
+    }
+    
+    private int updated;
+    
+    private int unchanged;
+    
+    private int notFound;
+    
+    private List<Item> results;
+    
+    // Constructors
+    public BulkOperationResult() {}
+    
+    public BulkOperationResult(List<Item> results) {
+        this.results = results;
+        for (Item item : results) {
+            switch (item.getOutcome()) {
+                case UPDATED -> updated++;
+                case UNCHANGED -> unchanged++;
+                case NOT_FOUND -> notFound++;
+            }
+        }
+    }
+    
+    // Getters and Setters
+    public int getUpdated() {
+        return updated;
+    }
+    
+    public void setUpdated(int updated) {
+        this.updated = updated;
+    }
+    
+    public int getUnchanged() {
+        return unchanged;
+    }
+    
+    public void setUnchanged(int unchanged) {
+        this.unchanged = unchanged;
+    }
+    
+    public int getNotFound() {
+        return notFound;
+    }
+    
+    public void setNotFound(int notFound) {
+        this.notFound = notFound;
+    }
+    
+    public List<Item> getResults() {
+        return results;
+    }
+    
+    public void setResults(List<Item> results) {
+        this.results = results;
+    }
+    
+    /**
+     * Result for a single requested ID
+     */
+    public static class Item {
+        
+        private UUID id;
+        
+        private Outcome outcome;
+        
+        public Item() {}
+        
+        public Item(UUID id, Outcome outcome) {
+            this.id = id;
+            this.outcome = outcome;
+        }
+        
+        public UUID getId() {
+            return id;
+        }
+        
+        public void setId(UUID id) {
+            this.id = id;
+        }
+        
+        public Outcome getOutcome() {
+            return outcome;
+        }
+        
+        public void setOutcome(Outcome outcome) {
+            this.outcome = outcome;
+        }
+    }
+}
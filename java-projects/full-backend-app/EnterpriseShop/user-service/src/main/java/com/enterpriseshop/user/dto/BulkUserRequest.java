@@ -0,0 +1,33 @@
+package com.enterpriseshop.user.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Request body for bulk user operations
+ * 
+ * Used for:
+ * - Applying one status change to many users in a single call
+ */
+public class BulkUserRequest {
+    
+    @NotEmpty(message = "At least one user ID is required")
+    private List<UUID> ids;
+    
+    // Constructors
+    public BulkUserRequest() {}
+    
+    public BulkUserRequest(List<UUID> ids) {
+        this.ids = ids;
+    }
+    
+    // Getters and Setters
+    public List<UUID> getIds() {
+        return ids;
+    }
+    
+    public void setIds(List<UUID> ids) {
+        this.ids = ids;
+    }
+}
@@ -71,6 +71,28 @@ public class UserDto {
         this.email = email;
     }
     
+    // Projection constructor for JPQL "SELECT new" queries in UserRepository
+    public UserDto(UUID id, UUID authUserId, String firstName, String lastName, String email,
+                   String phone, String avatarUrl, String bio, LocalDateTime dateOfBirth, Gender gender,
+                   boolean isActive, boolean isVerified, LocalDateTime lastLoginAt,
+                   LocalDateTime createdAt, LocalDateTime updatedAt) {
+        this.id = id;
+        this.authUserId = authUserId;
+        this.firstName = firstName;
+        this.lastName = lastName;
+        this.email = email;
+        this.phone = phone;
+        this.avatarUrl = avatarUrl;
+        this.bio = bio;
+        this.dateOfBirth = dateOfBirth;
+        this.gender = gender;
+        this.isActive = isActive;
+        this.isVerified = isVerified;
+        this.lastLoginAt = lastLoginAt;
+        this.createdAt = createdAt;
+        this.updatedAt = updatedAt;
+    }
+    
     // Helper methods
     public String getFullName() {
         return firstName + " " + lastName;
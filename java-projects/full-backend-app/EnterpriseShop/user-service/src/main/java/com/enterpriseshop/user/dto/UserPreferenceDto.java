@@ -54,6 +54,20 @@ public class UserPreferenceDto {
         this.description = description;
     }
     
+    // Projection constructor for JPQL "SELECT new" queries in UserPreferenceRepository
+    public UserPreferenceDto(UUID id, UUID userId, String category, String preferenceKey, String preferenceValue,
+                             String description, boolean isActive, LocalDateTime createdAt, LocalDateTime updatedAt) {
+        this.id = id;
+        this.userId = userId;
+        this.category = category;
+        this.preferenceKey = preferenceKey;
+        this.preferenceValue = preferenceValue;
+        this.description = description;
+        this.isActive = isActive;
+        this.createdAt = createdAt;
+        this.updatedAt = updatedAt;
+    }
+    
     // Helper methods
     public String getFullKey() {
         return category + "." + preferenceKey;
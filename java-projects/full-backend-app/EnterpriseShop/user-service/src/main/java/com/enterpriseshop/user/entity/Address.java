@@ -1,5 +1,6 @@
 package com.enterpriseshop.user.entity;
 
+import com.enterpriseshop.user.search.UserSearchIndexListener;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
@@ -24,6 +25,7 @@ import java.util.UUID;
     @Index(name = "idx_address_type", columnList = "address_type"),
     @Index(name = "idx_address_default", columnList = "is_default")
 })
+@EntityListeners(UserSearchIndexListener.class)
 public class Address {
     
     @Id
@@ -1,5 +1,8 @@
 package com.enterpriseshop.user.entity;
 
+import com.enterpriseshop.user.cache.UserCacheListener;
+import com.enterpriseshop.user.search.UserSearchIndexListener;
+import com.enterpriseshop.user.statistics.UserStatisticsListener;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
 import org.hibernate.annotations.CreationTimestamp;
@@ -28,6 +31,7 @@ import java.util.UUID;
     @Index(name = "idx_user_phone", columnList = "phone"),
     @Index(name = "idx_user_created_at", columnList = "created_at")
 })
+@EntityListeners({UserSearchIndexListener.class, UserStatisticsListener.class, UserCacheListener.class})
 public class User {
     
     @Id
@@ -93,6 +97,13 @@ public class User {
     @OneToMany(mappedBy = "user", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.LAZY)
     private Set<UserPreference> preferences = new HashSet<>();
     
+    // Flags as last loaded from or written to the database, used for statistics deltas
+    @Transient
+    private boolean persistedActive;
+    
+    @Transient
+    private boolean persistedVerified;
+    
     // Constructors
     public User() {}
     
@@ -128,6 +139,22 @@ public class User {
         return firstName + " " + lastName;
     }
     
+    /**
+     * Record the current flags as the database state
+     */
+    public void markPersistedState() {
+        this.persistedActive = isActive;
+        this.persistedVerified = isVerified;
+    }
+    
+    public boolean wasPersistedActive() {
+        return persistedActive;
+    }
+    
+    public boolean wasPersistedVerified() {
+        return persistedVerified;
+    }
+    
     // Getters and Setters
     public UUID getId() {
         return id;
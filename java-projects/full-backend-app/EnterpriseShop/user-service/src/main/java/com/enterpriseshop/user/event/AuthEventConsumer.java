@@ -0,0 +1,64 @@
+package com.enterpriseshop.user.event;
+
+import com.enterpriseshop.user.login.LastLoginBuffer;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+
+/**
+ * Consumer for authentication events from Kafka
+ * 
+ * This consumer:
+ * - Listens to the auth-events topic
+ * - Records successful logins in {@link LastLoginBuffer}, so user profiles
+ *   track lastLoginAt without a REST call per login
+ */
+@Service
+public class AuthEventConsumer {
+    
+    private static final Logger logger = LoggerFactory.getLogger(AuthEventConsumer.class);
+    
+    private final LastLoginBuffer lastLoginBuffer;
+    private final ObjectMapper objectMapper;
+    
+    @Autowired
+    public AuthEventConsumer(LastLoginBuffer lastLoginBuffer, ObjectMapper objectMapper) {
+        this.lastLoginBuffer = lastLoginBuffer;
+        this.objectMapper = objectMapper;
+    }
+    
+    /**
+     * Handle auth events; only successful USER_LOGIN events are used
+     * 
+     * Malformed messages are logged and skipped rather than retried, since a
+     * missed login time is corrected by the user's next login.
+     */
+    @KafkaListener(
+        topics = "auth-events",
+        groupId = "user-service-group",
+        autoStartup = "${user.last-login.consume-auth-events:true}"
+    )
+    public void handleAuthEvent(@Payload String payload) {
+        AuthEventMessage event;
+        try {
+            event = objectMapper.readValue(payload, AuthEventMessage.class);
+        } catch (JsonProcessingException e) {
+            logger.warn("Skipping unreadable auth event: {}", e.getOriginalMessage());
+            return;
+        }
+        
+        if (!AuthEventMessage.USER_LOGIN.equals(event.getEventType()) || !event.isSuccessful()) {
+            return;
+        }
+        
+        LocalDateTime loginAt = event.getTimestamp() != null ? event.getTimestamp() : LocalDateTime.now();
+        lastLoginBuffer.recordLoginByAuthUserId(event.getUserId(), loginAt);
+    }
+}
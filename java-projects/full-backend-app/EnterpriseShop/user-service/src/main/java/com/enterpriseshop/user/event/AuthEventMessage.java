@@ -0,0 +1,65 @@
+package com.enterpriseshop.user.event;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * The fields of an auth-events message that this service reads
+ * 
+ * Mirrors the JSON written by auth-service for its events without depending
+ * on auth-service classes; every other field is ignored.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class AuthEventMessage {
+    
+    public static final String USER_LOGIN = "USER_LOGIN";
+    
+    private String eventType;
+    
+    // auth-service user ID, stored here as User.authUserId
+    private UUID userId;
+    
+    @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss.SSS")
+    private LocalDateTime timestamp;
+    
+    private boolean successful;
+    
+    // Constructors
+    public AuthEventMessage() {}
+    
+    // Getters and Setters
+    public String getEventType() {
+        return eventType;
+    }
+    
+    public void setEventType(String eventType) {
+        this.eventType = eventType;
+    }
+    
+    public UUID getUserId() {
+        return userId;
+    }
+    
+    public void setUserId(UUID userId) {
+        this.userId = userId;
+    }
+    
+    public LocalDateTime getTimestamp() {
+        return timestamp;
+    }
+    
+    public void setTimestamp(LocalDateTime timestamp) {
+        this.timestamp = timestamp;
+    }
+    
+    public boolean isSuccessful() {
+        return successful;
+    }
+    
+    public void setSuccessful(boolean successful) {
+        this.successful = successful;
+    }
+}
@@ -0,0 +1,64 @@
+package com.enterpriseshop.user.event;
+
+import com.enterpriseshop.user.cache.UserCache;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.annotation.TopicPartition;
+import org.springframework.kafka.listener.ConsumerSeekAware;
+import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+
+/**
+ * Consumer for user cache invalidations from other instances
+ * 
+ * This consumer:
+ * - Is assigned the single partition of the user-cache-invalidation topic
+ *   directly, so every instance sees every message without a consumer group
+ *   per instance; the shared group id is never used for rebalancing
+ * - Seeks to the end on every assignment, so committed offsets are ignored;
+ *   entries cached before startup cannot be stale
+ * - Clears the whole cache if a message cannot be read, rather than risk
+ *   serving a profile that should have been evicted
+ */
+@Service
+public class UserCacheInvalidationConsumer implements ConsumerSeekAware {
+    
+    private static final Logger logger = LoggerFactory.getLogger(UserCacheInvalidationConsumer.class);
+    
+    private final UserCache userCache;
+    private final ObjectMapper objectMapper;
+    
+    @Autowired
+    public UserCacheInvalidationConsumer(UserCache userCache, ObjectMapper objectMapper) {
+        this.userCache = userCache;
+        this.objectMapper = objectMapper;
+    }
+    
+    @KafkaListener(
+        groupId = "${spring.application.name}-cache",
+        topicPartitions = @TopicPartition(
+            topic = "${user.cache.invalidation-topic:user-cache-invalidation}",
+            partitions = "0"
+        ),
+        autoStartup = "${user.cache.enabled:true}"
+    )
+    public void handleInvalidation(@Payload String payload) {
+        try {
+            userCache.evictRemote(objectMapper.readValue(payload, UserCacheInvalidationEvent.class));
+        } catch (JsonProcessingException e) {
+            logger.warn("Clearing user cache after unreadable invalidation: {}", e.getOriginalMessage());
+            userCache.clear();
+        }
+    }
+
+    @Override
+    public void onPartitionsAssigned(Map<org.apache.kafka.common.TopicPartition, Long> assignments, ConsumerSeekCallback callback) {
+        callback.seekToEnd(assignments.keySet());
+    }
+}
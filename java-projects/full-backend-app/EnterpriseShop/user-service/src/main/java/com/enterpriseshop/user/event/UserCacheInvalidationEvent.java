@@ -0,0 +1,55 @@
+package com.enterpriseshop.user.event;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Keys to evict from every instance's {@link com.enterpriseshop.user.cache.UserCache}
+ * 
+ * Published to the user-cache-invalidation topic after a User write commits.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class UserCacheInvalidationEvent {
+    
+    private List<UUID> ids = List.of();
+    
+    private List<UUID> authUserIds = List.of();
+    
+    private List<String> emails = List.of();
+    
+    // Constructors
+    public UserCacheInvalidationEvent() {}
+    
+    public UserCacheInvalidationEvent(List<UUID> ids, List<UUID> authUserIds, List<String> emails) {
+        this.ids = ids;
+        this.authUserIds = authUserIds;
+        this.emails = emails;
+    }
+    
+    // Getters and Setters
+    public List<UUID> getIds() {
+        return ids;
+    }
+    
+    public void setIds(List<UUID> ids) {
+        this.ids = ids != null ? ids : List.of();
+    }
+    
+    public List<UUID> getAuthUserIds() {
+        return authUserIds;
+    }
+    
+    public void setAuthUserIds(List<UUID> authUserIds) {
+        this.authUserIds = authUserIds != null ? authUserIds : List.of();
+    }
+    
+    public List<String> getEmails() {
+        return emails;
+    }
+    
+    public void setEmails(List<String> emails) {
+        this.emails = emails != null ? emails : List.of();
+    }
+}
@@ -0,0 +1,224 @@
+package com.enterpriseshop.user.graphql;
+
+import com.enterpriseshop.user.dto.AddressDto;
+import com.enterpriseshop.user.dto.BulkOperationResult;
+import com.enterpriseshop.user.dto.UserDto;
+import com.enterpriseshop.user.dto.UserPreferenceDto;
+import com.enterpriseshop.user.service.UserBulkService;
+import com.enterpriseshop.user.service.UserService;
+import com.enterpriseshop.user.service.UserSortKey;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.graphql.data.method.annotation.Argument;
+import org.springframework.graphql.data.method.annotation.BatchMapping;
+import org.springframework.graphql.data.method.annotation.MutationMapping;
+import org.springframework.graphql.data.method.annotation.QueryMapping;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.stereotype.Controller;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * GraphQL controller for User queries and mutations
+ *
+ * Provides:
+ * - User lookups, listings, search and statistics (see schema.graphqls)
+ * - Single-user mutations, backed by {@link UserService}
+ * - Bulk status mutations over ID lists, backed by {@link UserBulkService}
+ * - Batched User.addresses and User.preferences resolvers: one IN query per
+ *   field per request, however many users the query returns
+ */
+@Controller
+public class UserGraphQLController {
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserBulkService userBulkService;
+
+    @QueryMapping
+    @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
+    public UserDto user(@Argument UUID id) {
+        return userService.getUserById(id);
+    }
+
+    @QueryMapping
+    @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
+    public UserDto userByAuthId(@Argument UUID authUserId) {
+        return userService.getUserByAuthUserId(authUserId);
+    }
+
+    @QueryMapping
+    @PreAuthorize("hasRole('ADMIN')")
+    public UserDto userByEmail(@Argument String email) {
+        return userService.getUserByEmail(email);
+    }
+
+    @QueryMapping
+    @PreAuthorize("hasRole('ADMIN')")
+    public Page<UserDto> users(@Argument int page, @Argument int size,
+                               @Argument String sortBy, @Argument String sortDirection) {
+        String sortProperty = UserSortKey.fromProperty(sortBy).getProperty();
+        Sort sort = Sort.by(Sort.Direction.fromString(sortDirection), sortProperty);
+        return userService.getAllUsers(PageRequest.of(page, size, sort));
+    }
+
+    @QueryMapping
+    @PreAuthorize("hasRole('ADMIN')")
+    public Page<UserDto> activeUsers(@Argument int page, @Argument int size) {
+        return userService.getActiveUsers(PageRequest.of(page, size, Sort.by("firstName").ascending()));
+    }
+
+    @QueryMapping
+    @PreAuthorize("hasRole('ADMIN')")
+    public Page<UserDto> searchUsersByName(@Argument String name, @Argument int page, @Argument int size) {
+        return userService.searchUsersByName(name, PageRequest.of(page, size));
+    }
+
+    @QueryMapping
+    @PreAuthorize("hasRole('ADMIN')")
+    public Page<UserDto> searchUsersByCity(@Argument String city, @Argument int page, @Argument int size) {
+        return userService.searchUsersByCity(city, PageRequest.of(page, size));
+    }
+
+    @QueryMapping
+    @PreAuthorize("hasRole('ADMIN')")
+    public Page<UserDto> searchUsersByCountry(@Argument String country, @Argument int page, @Argument int size) {
+        return userService.searchUsersByCountry(country, PageRequest.of(page, size));
+    }
+
+    @QueryMapping
+    @PreAuthorize("hasRole('ADMIN')")
+    public Page<UserDto> searchUsers(@Argument UserSearchInput input, @Argument int page, @Argument int size) {
+        Sort sort = Sort.by("firstName", "lastName", "id").ascending();
+        return userService.searchUsers(input.name(), input.city(), input.country(),
+                input.isActive(), input.isVerified(), PageRequest.of(page, size, sort));
+    }
+
+    @QueryMapping
+    @PreAuthorize("hasRole('ADMIN')")
+    public UserService.UserStatistics userStatistics() {
+        return userService.getUserStatistics();
+    }
+
+    @QueryMapping
+    public String health() {
+        return "UP";
+    }
+
+    @MutationMapping
+    @PreAuthorize("hasRole('ADMIN')")
+    public UserDto createUser(@Argument UserDto input) {
+        return userService.createUser(input);
+    }
+
+    /**
+     * Update a user's profile; fields left out of the input keep their current value
+     */
+    @MutationMapping
+    @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
+    public UserDto updateUser(@Argument UUID id, @Argument UserDto input) {
+        UserDto current = userService.getUserById(id);
+        UserDto updated = new UserDto(current.getAuthUserId(),
+                valueOr(input.getFirstName(), current.getFirstName()),
+                valueOr(input.getLastName(), current.getLastName()),
+                valueOr(input.getEmail(), current.getEmail()));
+        updated.setPhone(valueOr(input.getPhone(), current.getPhone()));
+        updated.setAvatarUrl(valueOr(input.getAvatarUrl(), current.getAvatarUrl()));
+        updated.setBio(valueOr(input.getBio(), current.getBio()));
+        updated.setDateOfBirth(valueOr(input.getDateOfBirth(), current.getDateOfBirth()));
+        updated.setGender(valueOr(input.getGender(), current.getGender()));
+        return userService.updateUser(id, updated);
+    }
+
+    @MutationMapping
+    @PreAuthorize("hasRole('ADMIN')")
+    public UserDto updateUserVerification(@Argument UUID id, @Argument boolean isVerified) {
+        return userService.updateVerificationStatus(id, isVerified);
+    }
+
+    @MutationMapping
+    @PreAuthorize("hasRole('ADMIN')")
+    public UserDto updateUserStatus(@Argument UUID id, @Argument boolean isActive) {
+        return userService.updateActiveStatus(id, isActive);
+    }
+
+    @MutationMapping
+    @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
+    public boolean updateLastLogin(@Argument UUID id) {
+        userService.updateLastLogin(id);
+        return true;
+    }
+
+    @MutationMapping
+    @PreAuthorize("hasRole('ADMIN')")
+    public boolean deleteUser(@Argument UUID id) {
+        userService.deleteUser(id);
+        return true;
+    }
+
+    @MutationMapping
+    @PreAuthorize("hasRole('ADMIN')")
+    public BulkOperationResult bulkUpdateUserVerification(@Argument List<UUID> ids, @Argument boolean isVerified) {
+        return userBulkService.updateVerificationStatus(ids, isVerified);
+    }
+
+    @MutationMapping
+    @PreAuthorize("hasRole('ADMIN')")
+    public BulkOperationResult bulkUpdateUserStatus(@Argument List<UUID> ids, @Argument boolean isActive) {
+        return userBulkService.updateActiveStatus(ids, isActive);
+    }
+
+    @MutationMapping
+    @PreAuthorize("hasRole('ADMIN')")
+    public BulkOperationResult bulkUpdateLastLogin(@Argument List<UUID> ids) {
+        return userBulkService.updateLastLogin(ids);
+    }
+
+    @MutationMapping
+    @PreAuthorize("hasRole('ADMIN')")
+    public BulkOperationResult bulkDeleteUsers(@Argument List<UUID> ids) {
+        return userBulkService.deleteUsers(ids);
+    }
+
+    /**
+     * Resolve User.addresses for every user in the response with one query
+     */
+    @BatchMapping(typeName = "User", field = "addresses")
+    public Map<UserDto, List<AddressDto>> addresses(List<UserDto> users) {
+        Map<UUID, List<AddressDto>> byUser = userService.getAddressesByUserIds(userIds(users));
+        return users.stream().collect(Collectors.toMap(user -> user, user -> byUser.getOrDefault(user.getId(), List.of()),
+                (first, second) -> first, LinkedHashMap::new));
+    }
+
+    /**
+     * Resolve User.preferences for every user in the response with one query
+     */
+    @BatchMapping(typeName = "User", field = "preferences")
+    public Map<UserDto, List<UserPreferenceDto>> preferences(List<UserDto> users) {
+        Map<UUID, List<UserPreferenceDto>> byUser = userService.getPreferencesByUserIds(userIds(users));
+        return users.stream().collect(Collectors.toMap(user -> user, user -> byUser.getOrDefault(user.getId(), List.of()),
+                (first, second) -> first, LinkedHashMap::new));
+    }
+
+    private Set<UUID> userIds(List<UserDto> users) {
+        return users.stream().map(UserDto::getId).collect(Collectors.toSet());
+    }
+
+    private static <T> T valueOr(T value, T current) {
+        return value != null ? value : current;
+    }
+
+    /**
+     * Filters of the searchUsers query; null fields are not applied
+     */
+    public record UserSearchInput(String name, String city, String country, Boolean isActive, Boolean isVerified) {}
+}
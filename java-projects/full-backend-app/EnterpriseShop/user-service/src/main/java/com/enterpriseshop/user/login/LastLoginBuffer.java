@@ -0,0 +1,190 @@
+package com.enterpriseshop.user.login;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Write-coalescing buffer for users' last login time
+ *
+ * Logins are recorded in memory, keeping only the latest time per user, and
+ * written every user.last-login.flush-interval-ms as one UPDATE joined against
+ * unnest() arrays per key column. A user logging in many times between flushes
+ * costs a single row write, and updatedAt is left alone.
+ *
+ * Timestamps never move backwards: the UPDATE only writes times newer than the
+ * stored one. A failed flush puts its entries back for the next attempt, and
+ * anything still pending is flushed on shutdown.
+ */
+@Component
+public class LastLoginBuffer {
+
+    private static final Logger logger = LoggerFactory.getLogger(LastLoginBuffer.class);
+
+    private static final String UPDATE_BY_ID =
+            "UPDATE users u SET last_login_at = v.last_login_at " +
+            "FROM unnest(?::uuid[], ?::timestamp[]) AS v(key, last_login_at) " +
+            "WHERE u.id = v.key AND (u.last_login_at IS NULL OR u.last_login_at < v.last_login_at)";
+
+    private static final String UPDATE_BY_AUTH_USER_ID =
+            "UPDATE users u SET last_login_at = v.last_login_at " +
+            "FROM unnest(?::uuid[], ?::timestamp[]) AS v(key, last_login_at) " +
+            "WHERE u.auth_user_id = v.key AND (u.last_login_at IS NULL OR u.last_login_at < v.last_login_at)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${user.last-login.max-batch-size:5000}")
+    private int maxBatchSize;
+
+    // Keyed by profile ID (REST) and by auth-service user ID (auth-events)
+    private final ConcurrentHashMap<UUID, LocalDateTime> pendingByUserId = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<UUID, LocalDateTime> pendingByAuthUserId = new ConcurrentHashMap<>();
+
+    private Counter recordedCounter;
+    private Counter writtenCounter;
+
+    @PostConstruct
+    public void registerMeters() {
+        Gauge.builder("user.last-login.pending", this, LastLoginBuffer::pendingCount).register(meterRegistry);
+        recordedCounter = Counter.builder("user.last-login.recorded").register(meterRegistry);
+        writtenCounter = Counter.builder("user.last-login.written").register(meterRegistry);
+    }
+
+    /**
+     * Record a login for a user profile ID
+     */
+    public void recordLogin(UUID userId, LocalDateTime loginAt) {
+        record(pendingByUserId, userId, loginAt);
+    }
+
+    /**
+     * Record a login for an auth-service user ID
+     */
+    public void recordLoginByAuthUserId(UUID authUserId, LocalDateTime loginAt) {
+        record(pendingByAuthUserId, authUserId, loginAt);
+    }
+
+    public int pendingCount() {
+        return pendingByUserId.size() + pendingByAuthUserId.size();
+    }
+
+    /**
+     * Write every pending login; returns the number of rows updated
+     */
+    @Scheduled(fixedDelayString = "${user.last-login.flush-interval-ms:5000}")
+    public synchronized int flush() {
+        return flush(pendingByUserId, UPDATE_BY_ID) + flush(pendingByAuthUserId, UPDATE_BY_AUTH_USER_ID);
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        int rows = flush();
+        if (pendingCount() > 0) {
+            logger.warn("Dropped {} pending last-login updates on shutdown", pendingCount());
+        } else {
+            logger.debug("Flushed {} last-login updates on shutdown", rows);
+        }
+    }
+
+    private void record(ConcurrentHashMap<UUID, LocalDateTime> pending, UUID key, LocalDateTime loginAt) {
+        if (key == null || loginAt == null) {
+            return;
+        }
+        pending.merge(key, loginAt, (current, next) -> next.isAfter(current) ? next : current);
+        recordedCounter.increment();
+    }
+
+    private int flush(ConcurrentHashMap<UUID, LocalDateTime> pending, String sql) {
+        int rows = 0;
+        while (!pending.isEmpty()) {
+            Map<UUID, LocalDateTime> batch = drain(pending);
+            if (batch.isEmpty()) {
+                break;
+            }
+            try {
+                rows += write(sql, batch);
+            } catch (Exception e) {
+                logger.warn("Failed to flush {} last-login updates, will retry: {}", batch.size(), e.getMessage());
+                batch.forEach((key, loginAt) -> pending.merge(key, loginAt,
+                        (current, next) -> next.isAfter(current) ? next : current));
+                break;
+            }
+        }
+        writtenCounter.increment(rows);
+        return rows;
+    }
+
+    /**
+     * Remove up to maxBatchSize entries; logins recorded meanwhile stay for the next batch
+     */
+    private Map<UUID, LocalDateTime> drain(ConcurrentHashMap<UUID, LocalDateTime> pending) {
+        Map<UUID, LocalDateTime> batch = new HashMap<>();
+        for (UUID key : pending.keySet()) {
+            if (batch.size() >= maxBatchSize) {
+                break;
+            }
+            LocalDateTime loginAt = pending.remove(key);
+            if (loginAt != null) {
+                batch.put(key, loginAt);
+            }
+        }
+        return batch;
+    }
+
+    private int write(String sql, Map<UUID, LocalDateTime> batch) {
+        List<UUID> keys = new ArrayList<>(batch.size());
+        List<Timestamp> times = new ArrayList<>(batch.size());
+        batch.forEach((key, loginAt) -> {
+            keys.add(key);
+            times.add(Timestamp.valueOf(loginAt));
+        });
+
+        Integer rows = jdbcTemplate.execute((Connection connection) -> {
+            Array keyArray = connection.createArrayOf("uuid", keys.toArray());
+            Array timeArray = connection.createArrayOf("timestamp", times.toArray());
+            try (PreparedStatement statement = connection.prepareStatement(sql)) {
+                statement.setArray(1, keyArray);
+                statement.setArray(2, timeArray);
+                return statement.executeUpdate();
+            } finally {
+                free(keyArray);
+                free(timeArray);
+            }
+        });
+        return rows != null ? rows : 0;
+    }
+
+    private static void free(Array array) {
+        try {
+            array.free();
+        } catch (SQLException ignored) {
+            // Driver-managed arrays hold no server resources
+        }
+    }
+}
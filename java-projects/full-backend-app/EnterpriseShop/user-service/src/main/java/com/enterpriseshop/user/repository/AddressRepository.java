@@ -1,15 +1,22 @@
 package com.enterpriseshop.user.repository;
 
+import com.enterpriseshop.user.dto.AddressDto;
 import com.enterpriseshop.user.entity.Address;
 import com.enterpriseshop.user.entity.AddressType;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
 
 /**
  * Repository interface for Address entity
@@ -28,6 +35,14 @@ public interface AddressRepository extends JpaRepository<Address, UUID> {
      */
     List<Address> findByUserId(UUID userId);
     
+    /**
+     * Load the addresses of a batch of users in one query, straight into DTOs
+     */
+    @Query("SELECT new com.enterpriseshop.user.dto.AddressDto(a.id, a.user.id, a.addressType, a.streetAddress, " +
+           "a.streetAddress2, a.city, a.stateProvince, a.postalCode, a.country, a.label, a.isDefault, a.isActive, " +
+           "a.createdAt, a.updatedAt) FROM Address a WHERE a.user.id IN :userIds")
+    List<AddressDto> findDtosByUserIdIn(@Param("userIds") Collection<UUID> userIds);
+    
     /**
      * Find addresses by user ID and address type
      */
@@ -111,4 +126,21 @@ public interface AddressRepository extends JpaRepository<Address, UUID> {
     @Query("SELECT a FROM Address a WHERE a.postalCode BETWEEN :startPostalCode AND :endPostalCode")
     List<Address> findByPostalCodeRange(@Param("startPostalCode") String startPostalCode, 
                                        @Param("endPostalCode") String endPostalCode);
+    
+    /**
+     * Stream the searchable location fields of every address, for building the in-process index
+     */
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT a.id AS id, a.user.id AS userId, a.city AS city, a.country AS country FROM Address a")
+    Stream<LocationView> streamLocations();
+    
+    /**
+     * Searchable location fields of an address
+     */
+    interface LocationView {
+        UUID getId();
+        UUID getUserId();
+        String getCity();
+        String getCountry();
+    }
 }
@@ -1,11 +1,13 @@
 package com.enterpriseshop.user.repository;
 
+import com.enterpriseshop.user.dto.UserPreferenceDto;
 import com.enterpriseshop.user.entity.UserPreference;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -27,6 +29,14 @@ public interface UserPreferenceRepository extends JpaRepository<UserPreference,
      */
     List<UserPreference> findByUserId(UUID userId);
     
+    /**
+     * Load the preferences of a batch of users in one query, straight into DTOs
+     */
+    @Query("SELECT new com.enterpriseshop.user.dto.UserPreferenceDto(p.id, p.user.id, p.category, p.preferenceKey, " +
+           "p.preferenceValue, p.description, p.isActive, p.createdAt, p.updatedAt) " +
+           "FROM UserPreference p WHERE p.user.id IN :userIds")
+    List<UserPreferenceDto> findDtosByUserIdIn(@Param("userIds") Collection<UUID> userIds);
+    
     /**
      * Find preferences by user ID and category
      */
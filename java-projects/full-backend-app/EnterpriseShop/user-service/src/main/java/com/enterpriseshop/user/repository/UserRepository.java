@@ -1,16 +1,30 @@
 package com.enterpriseshop.user.repository;
 
+import com.enterpriseshop.user.dto.UserDto;
 import com.enterpriseshop.user.entity.User;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 /**
  * Repository interface for User entity
@@ -24,6 +38,25 @@ import java.util.UUID;
 @Repository
 public interface UserRepository extends JpaRepository<User, UUID> {
     
+    /**
+     * Constructor expression that reads a user row straight into a {@link UserDto},
+     * skipping entity instantiation, the persistence context and dirty checking
+     */
+    String USER_DTO = "new com.enterpriseshop.user.dto.UserDto(u.id, u.authUserId, u.firstName, u.lastName, " +
+                      "u.email, u.phone, u.avatarUrl, u.bio, u.dateOfBirth, u.gender, u.isActive, u.isVerified, " +
+                      "u.lastLoginAt, u.createdAt, u.updatedAt)";
+    
+    /**
+     * Filters of {@link #searchDtos}; each is skipped when its parameter is null
+     */
+    String SEARCH_FILTER = "(:namePattern IS NULL OR lower(concat(u.firstName, ' ', u.lastName)) LIKE :namePattern ESCAPE '\\') " +
+                           "AND (:cityPattern IS NULL OR EXISTS (SELECT 1 FROM Address a WHERE a.user = u " +
+                           "AND lower(a.city) LIKE :cityPattern ESCAPE '\\')) " +
+                           "AND (:countryPattern IS NULL OR EXISTS (SELECT 1 FROM Address a WHERE a.user = u " +
+                           "AND lower(a.country) LIKE :countryPattern ESCAPE '\\')) " +
+                           "AND (:active IS NULL OR u.isActive = :active) " +
+                           "AND (:verified IS NULL OR u.isVerified = :verified)";
+    
     /**
      * Find user by authentication user ID (from auth-service)
      */
@@ -54,6 +87,30 @@ public interface UserRepository extends JpaRepository<User, UUID> {
      */
     boolean existsByAuthUserId(UUID authUserId);
     
+    /**
+     * Load a user DTO by ID
+     */
+    @Query("SELECT " + USER_DTO + " FROM User u WHERE u.id = :id")
+    Optional<UserDto> findDtoById(@Param("id") UUID id);
+    
+    /**
+     * Load a user DTO by authentication user ID
+     */
+    @Query("SELECT " + USER_DTO + " FROM User u WHERE u.authUserId = :authUserId")
+    Optional<UserDto> findDtoByAuthUserId(@Param("authUserId") UUID authUserId);
+    
+    /**
+     * Load a user DTO by email address
+     */
+    @Query("SELECT " + USER_DTO + " FROM User u WHERE u.email = :email")
+    Optional<UserDto> findDtoByEmail(@Param("email") String email);
+    
+    /**
+     * Load user DTOs for a batch of IDs, in no particular order
+     */
+    @Query("SELECT " + USER_DTO + " FROM User u WHERE u.id IN :ids")
+    List<UserDto> findDtosByIdIn(@Param("ids") Collection<UUID> ids);
+    
     /**
      * Find active users
      */
@@ -75,22 +132,66 @@ public interface UserRepository extends JpaRepository<User, UUID> {
     List<User> findByLastNameIgnoreCaseContaining(String lastName);
     
     /**
-     * Find users by full name (case-insensitive)
+     * Search users by full name, ranked by full-text rank then trigram similarity
+     * 
+     * The lower(first_name || ' ' || last_name) expression must stay identical to
+     * the one indexed in V1__user_search_indexes.sql or the trigram index is not used.
+     * The pattern is the lower-cased, LIKE-escaped query wrapped in '%'.
+     */
+    @Query(value = "SELECT u.* FROM users u " +
+                   "WHERE lower(u.first_name || ' ' || u.last_name) LIKE :pattern " +
+                   "OR to_tsvector('simple', u.first_name || ' ' || u.last_name) @@ plainto_tsquery('simple', :query) " +
+                   "ORDER BY ts_rank(to_tsvector('simple', u.first_name || ' ' || u.last_name), plainto_tsquery('simple', :query)) DESC, " +
+                   "similarity(lower(u.first_name || ' ' || u.last_name), lower(:query)) DESC, u.id",
+           countQuery = "SELECT count(*) FROM users u " +
+                        "WHERE lower(u.first_name || ' ' || u.last_name) LIKE :pattern " +
+                        "OR to_tsvector('simple', u.first_name || ' ' || u.last_name) @@ plainto_tsquery('simple', :query)",
+           nativeQuery = true)
+    Page<User> searchByName(@Param("query") String query, @Param("pattern") String pattern, Pageable pageable);
+    
+    /**
+     * Search users having an address in a matching city, ranked by best trigram similarity
      */
-    @Query("SELECT u FROM User u WHERE LOWER(u.firstName) LIKE LOWER(CONCAT('%', :name, '%')) OR LOWER(u.lastName) LIKE LOWER(CONCAT('%', :name, '%'))")
-    List<User> findByFullNameContainingIgnoreCase(@Param("name") String name);
+    @Query(value = "SELECT u.* FROM users u " +
+                   "WHERE EXISTS (SELECT 1 FROM addresses a WHERE a.user_id = u.id AND lower(a.city) LIKE :pattern) " +
+                   "ORDER BY (SELECT max(similarity(lower(a.city), lower(:query))) FROM addresses a WHERE a.user_id = u.id) DESC, u.id",
+           countQuery = "SELECT count(*) FROM users u " +
+                        "WHERE EXISTS (SELECT 1 FROM addresses a WHERE a.user_id = u.id AND lower(a.city) LIKE :pattern)",
+           nativeQuery = true)
+    Page<User> searchByCity(@Param("query") String query, @Param("pattern") String pattern, Pageable pageable);
     
     /**
-     * Find users by city
+     * Search users having an address in a matching country, ranked by best trigram similarity
      */
-    @Query("SELECT DISTINCT u FROM User u JOIN u.addresses a WHERE LOWER(a.city) LIKE LOWER(CONCAT('%', :city, '%'))")
-    List<User> findByCityContainingIgnoreCase(@Param("city") String city);
+    @Query(value = "SELECT u.* FROM users u " +
+                   "WHERE EXISTS (SELECT 1 FROM addresses a WHERE a.user_id = u.id AND lower(a.country) LIKE :pattern) " +
+                   "ORDER BY (SELECT max(similarity(lower(a.country), lower(:query))) FROM addresses a WHERE a.user_id = u.id) DESC, u.id",
+           countQuery = "SELECT count(*) FROM users u " +
+                        "WHERE EXISTS (SELECT 1 FROM addresses a WHERE a.user_id = u.id AND lower(a.country) LIKE :pattern)",
+           nativeQuery = true)
+    Page<User> searchByCountry(@Param("query") String query, @Param("pattern") String pattern, Pageable pageable);
     
     /**
-     * Find users by country
+     * Page of user DTOs matching every given filter
+     * 
+     * Patterns are lower-cased, LIKE-escaped and wrapped in '%', as for the
+     * single-field searches; a null pattern or flag matches every user.
      */
-    @Query("SELECT DISTINCT u FROM User u JOIN u.addresses a WHERE LOWER(a.country) LIKE LOWER(CONCAT('%', :country, '%'))")
-    List<User> findByCountryContainingIgnoreCase(@Param("country") String country);
+    @Query(value = "SELECT " + USER_DTO + " FROM User u WHERE " + SEARCH_FILTER,
+           countQuery = "SELECT count(u) FROM User u WHERE " + SEARCH_FILTER)
+    Page<UserDto> searchDtos(@Param("namePattern") String namePattern,
+                             @Param("cityPattern") String cityPattern,
+                             @Param("countryPattern") String countryPattern,
+                             @Param("active") Boolean active,
+                             @Param("verified") Boolean verified,
+                             Pageable pageable);
+    
+    /**
+     * Stream the searchable name fields of every user, for building the in-process index
+     */
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT u.id AS id, u.firstName AS firstName, u.lastName AS lastName FROM User u")
+    Stream<NameView> streamNames();
     
     /**
      * Find users with pagination
@@ -102,6 +203,57 @@ public interface UserRepository extends JpaRepository<User, UUID> {
      */
     Page<User> findByIsActiveTrue(Pageable pageable);
     
+    /**
+     * Page of user DTOs; the fetch size matches the largest page so a page is one round trip
+     */
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "100"))
+    @Query(value = "SELECT " + USER_DTO + " FROM User u",
+           countQuery = "SELECT count(u) FROM User u")
+    Page<UserDto> findAllDtos(Pageable pageable);
+    
+    /**
+     * Page of active user DTOs
+     */
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "100"))
+    @Query(value = "SELECT " + USER_DTO + " FROM User u WHERE u.isActive = true",
+           countQuery = "SELECT count(u) FROM User u WHERE u.isActive = true")
+    Page<UserDto> findActiveDtos(Pageable pageable);
+    
+    /**
+     * Keyset-paginate all users: seeks past the position instead of counting an offset
+     * 
+     * Keyset queries read the sort keys back from entities, so these load Users,
+     * as read-only so they are not snapshotted for dirty checking.
+     */
+    @QueryHints({
+        @QueryHint(name = HINT_FETCH_SIZE, value = "100"),
+        @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    Window<User> findAllBy(ScrollPosition position, Sort sort, Limit limit);
+    
+    /**
+     * Keyset-paginate active users
+     */
+    @QueryHints({
+        @QueryHint(name = HINT_FETCH_SIZE, value = "100"),
+        @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    Window<User> findByIsActiveTrue(ScrollPosition position, Sort sort, Limit limit);
+    
+    /**
+     * Stream all user DTOs for export; must be consumed inside a transaction
+     */
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT " + USER_DTO + " FROM User u ORDER BY u.id")
+    Stream<UserDto> streamAllDtos();
+    
+    /**
+     * Stream active user DTOs for export; must be consumed inside a transaction
+     */
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT " + USER_DTO + " FROM User u WHERE u.isActive = true ORDER BY u.id")
+    Stream<UserDto> streamActiveDtos();
+    
     /**
      * Find users by creation date range
      */
@@ -115,6 +267,40 @@ public interface UserRepository extends JpaRepository<User, UUID> {
     @Query("SELECT u FROM User u WHERE u.lastLoginAt IS NULL OR u.lastLoginAt < :cutoffDate")
     List<User> findInactiveUsers(@Param("cutoffDate") java.time.LocalDateTime cutoffDate);
     
+    /**
+     * Current active/verified flags of the given users; missing IDs are simply absent
+     */
+    @Query("SELECT u.id AS id, u.isActive AS active, u.isVerified AS verified FROM User u WHERE u.id IN :ids")
+    List<StatusView> findStatusByIdIn(@Param("ids") Collection<UUID> ids);
+    
+    /**
+     * Set the verification flag on every listed user that does not already have it
+     * 
+     * Bulk updates bypass entity listeners and @UpdateTimestamp, so updatedAt is
+     * set explicitly and callers adjust derived state from the returned row count.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE User u SET u.isVerified = :verified, u.updatedAt = :now " +
+           "WHERE u.id IN :ids AND u.isVerified <> :verified")
+    int updateVerifiedByIdIn(@Param("ids") Collection<UUID> ids, @Param("verified") boolean verified,
+                             @Param("now") LocalDateTime now);
+    
+    /**
+     * Set the active flag on every listed user that does not already have it
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE User u SET u.isActive = :active, u.updatedAt = :now " +
+           "WHERE u.id IN :ids AND u.isActive <> :active")
+    int updateActiveByIdIn(@Param("ids") Collection<UUID> ids, @Param("active") boolean active,
+                           @Param("now") LocalDateTime now);
+    
+    /**
+     * Stamp the last login time of every listed user
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE User u SET u.lastLoginAt = :now WHERE u.id IN :ids")
+    int updateLastLoginByIdIn(@Param("ids") Collection<UUID> ids, @Param("now") LocalDateTime now);
+    
     /**
      * Count users by verification status
      */
@@ -124,4 +310,40 @@ public interface UserRepository extends JpaRepository<User, UUID> {
      * Count users by active status
      */
     long countByIsActive(boolean isActive);
+    
+    /**
+     * Count total, active and verified users in a single pass
+     */
+    @Query("SELECT count(u) AS totalUsers, " +
+           "coalesce(sum(CASE WHEN u.isActive = true THEN 1 ELSE 0 END), 0) AS activeUsers, " +
+           "coalesce(sum(CASE WHEN u.isVerified = true THEN 1 ELSE 0 END), 0) AS verifiedUsers " +
+           "FROM User u")
+    StatisticsView countStatistics();
+    
+    /**
+     * User counts from {@link #countStatistics()}
+     */
+    interface StatisticsView {
+        long getTotalUsers();
+        long getActiveUsers();
+        long getVerifiedUsers();
+    }
+    
+    /**
+     * Status flags of a user, from {@link #findStatusByIdIn(Collection)}
+     */
+    interface StatusView {
+        UUID getId();
+        Boolean getActive();
+        Boolean getVerified();
+    }
+    
+    /**
+     * Searchable name fields of a user
+     */
+    interface NameView {
+        UUID getId();
+        String getFirstName();
+        String getLastName();
+    }
 }
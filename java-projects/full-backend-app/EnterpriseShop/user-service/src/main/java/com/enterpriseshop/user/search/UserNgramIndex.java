@@ -0,0 +1,304 @@
+package com.enterpriseshop.user.search;
+
+import com.enterpriseshop.user.repository.AddressRepository;
+import com.enterpriseshop.user.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * In-process trigram index over user names and address locations
+ *
+ * Optional alternative to the Postgres pg_trgm indexes for deployments that
+ * want search served from memory:
+ * - Built from the database once the application is ready, off to the side of
+ *   the live index, then swapped in
+ * - Kept in sync by {@link UserSearchIndexListener} after each commit
+ * - Matches substrings like LIKE '%q%' and ranks by trigram similarity
+ *
+ * Enabled with user.search.ngram-index.enabled=true.
+ */
+@Component
+@ConditionalOnProperty(name = "user.search.ngram-index.enabled", havingValue = "true")
+public class UserNgramIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserNgramIndex.class);
+
+    public enum Field { NAME, CITY, COUNTRY }
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private AddressRepository addressRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    // Names are indexed per user; cities and countries per address, then mapped to the owning user.
+    // Replaced as a whole by rebuild(); changes are applied under writeLock
+    private volatile Map<Field, FieldIndex> fields = newFields();
+
+    private final Object writeLock = new Object();
+
+    // Changes that arrive while a rebuild is reading the database; non-null only during a rebuild
+    private List<Consumer<Map<Field, FieldIndex>>> pendingDuringRebuild;
+
+    private volatile boolean ready;
+
+    /**
+     * Load every user and address into a new index, replacing the current one
+     *
+     * Searches fall back to the database until the first build completes and keep
+     * using the old index during later ones. Changes committed while the database
+     * is being read are replayed onto the new index before it is swapped in, so a
+     * user deleted meanwhile does not come back from the read.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        long start = System.currentTimeMillis();
+        synchronized (writeLock) {
+            pendingDuringRebuild = new ArrayList<>();
+        }
+
+        Map<Field, FieldIndex> fresh = newFields();
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        try {
+            readOnly.executeWithoutResult(status -> {
+                try (Stream<UserRepository.NameView> names = userRepository.streamNames()) {
+                    names.forEach(view -> putUser(fresh, view.getId(), view.getFirstName() + " " + view.getLastName()));
+                }
+                try (Stream<AddressRepository.LocationView> locations = addressRepository.streamLocations()) {
+                    locations.forEach(view -> putAddress(fresh, view.getId(), view.getUserId(), view.getCity(), view.getCountry()));
+                }
+            });
+        } catch (RuntimeException e) {
+            synchronized (writeLock) {
+                pendingDuringRebuild = null;
+            }
+            throw e;
+        }
+
+        synchronized (writeLock) {
+            pendingDuringRebuild.forEach(change -> change.accept(fresh));
+            pendingDuringRebuild = null;
+            fields = fresh;
+        }
+        ready = true;
+        logger.info("Built user search index: {} names, {} addresses in {} ms",
+                fresh.get(Field.NAME).size(), fresh.get(Field.CITY).size(), System.currentTimeMillis() - start);
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public void indexUser(UUID userId, String fullName) {
+        apply(target -> putUser(target, userId, fullName));
+    }
+
+    public void removeUser(UUID userId) {
+        apply(target -> target.get(Field.NAME).remove(userId));
+    }
+
+    public void indexAddress(UUID addressId, UUID userId, String city, String country) {
+        apply(target -> putAddress(target, addressId, userId, city, country));
+    }
+
+    public void removeAddress(UUID addressId) {
+        apply(target -> {
+            target.get(Field.CITY).remove(addressId);
+            target.get(Field.COUNTRY).remove(addressId);
+        });
+    }
+
+    /**
+     * Find users whose field contains the query, best match first
+     */
+    public List<UUID> search(Field field, String query) {
+        String normalized = normalize(query);
+        if (normalized.isEmpty()) {
+            return List.of();
+        }
+        return fields.get(field).search(normalized);
+    }
+
+    private void apply(Consumer<Map<Field, FieldIndex>> change) {
+        synchronized (writeLock) {
+            change.accept(fields);
+            if (pendingDuringRebuild != null) {
+                pendingDuringRebuild.add(change);
+            }
+        }
+    }
+
+    private static Map<Field, FieldIndex> newFields() {
+        return new EnumMap<>(Map.of(
+                Field.NAME, new FieldIndex(),
+                Field.CITY, new FieldIndex(),
+                Field.COUNTRY, new FieldIndex()));
+    }
+
+    private static void putUser(Map<Field, FieldIndex> target, UUID userId, String fullName) {
+        target.get(Field.NAME).put(userId, userId, fullName);
+    }
+
+    private static void putAddress(Map<Field, FieldIndex> target, UUID addressId, UUID userId, String city, String country) {
+        target.get(Field.CITY).put(addressId, userId, city);
+        target.get(Field.COUNTRY).put(addressId, userId, country);
+    }
+
+    static String normalize(String text) {
+        return text == null ? "" : text.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Distinct three-character substrings, used to find candidate documents
+     */
+    static Set<String> trigrams(String text) {
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + 3 <= text.length(); i++) {
+            grams.add(text.substring(i, i + 3));
+        }
+        return grams;
+    }
+
+    /**
+     * Trigram similarity in the style of pg_trgm: shared padded trigrams over all distinct ones
+     */
+    static double similarity(String a, String b) {
+        Set<String> left = trigrams("  " + a + " ");
+        Set<String> right = trigrams("  " + b + " ");
+        int shared = 0;
+        for (String gram : left) {
+            if (right.contains(gram)) {
+                shared++;
+            }
+        }
+        int union = left.size() + right.size() - shared;
+        return union == 0 ? 0 : (double) shared / union;
+    }
+
+    private record Document(UUID userId, String text) {}
+
+    private record Match(UUID userId, double score) {}
+
+    /**
+     * Documents and trigram postings for one field
+     */
+    private static class FieldIndex {
+
+        private final Map<UUID, Document> documents = new HashMap<>();
+        private final Map<String, Set<UUID>> postings = new HashMap<>();
+        private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+        void put(UUID documentId, UUID userId, String text) {
+            String normalized = normalize(text);
+            lock.writeLock().lock();
+            try {
+                unindex(documentId);
+                documents.put(documentId, new Document(userId, normalized));
+                for (String gram : trigrams(normalized)) {
+                    postings.computeIfAbsent(gram, key -> new HashSet<>()).add(documentId);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        void remove(UUID documentId) {
+            lock.writeLock().lock();
+            try {
+                unindex(documentId);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        int size() {
+            lock.readLock().lock();
+            try {
+                return documents.size();
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        List<UUID> search(String query) {
+            Map<UUID, Double> bestPerUser = new HashMap<>();
+            lock.readLock().lock();
+            try {
+                for (UUID documentId : candidates(query)) {
+                    Document document = documents.get(documentId);
+                    if (document != null && document.text().contains(query)) {
+                        bestPerUser.merge(document.userId(), similarity(query, document.text()), Math::max);
+                    }
+                }
+            } finally {
+                lock.readLock().unlock();
+            }
+
+            return bestPerUser.entrySet().stream()
+                    .map(entry -> new Match(entry.getKey(), entry.getValue()))
+                    .sorted(Comparator.comparingDouble(Match::score).reversed().thenComparing(Match::userId))
+                    .map(Match::userId)
+                    .toList();
+        }
+
+        // Called with the read lock held
+        private Collection<UUID> candidates(String query) {
+            Set<String> grams = trigrams(query);
+            if (grams.isEmpty()) {
+                // One or two characters: too short for trigrams, check every document
+                return documents.keySet();
+            }
+
+            // Intersect postings starting from the rarest trigram
+            List<Set<UUID>> lists = new ArrayList<>();
+            for (String gram : grams) {
+                Set<UUID> posting = postings.get(gram);
+                if (posting == null) {
+                    return List.of();
+                }
+                lists.add(posting);
+            }
+            lists.sort(Comparator.comparingInt(Set::size));
+
+            Set<UUID> result = new HashSet<>(lists.get(0));
+            for (int i = 1; i < lists.size() && !result.isEmpty(); i++) {
+                result.retainAll(lists.get(i));
+            }
+            return result;
+        }
+
+        // Called with the write lock held
+        private void unindex(UUID documentId) {
+            Document previous = documents.remove(documentId);
+            if (previous == null) {
+                return;
+            }
+            for (String gram : trigrams(previous.text())) {
+                Set<UUID> posting = postings.get(gram);
+                if (posting != null) {
+                    posting.remove(documentId);
+                    if (posting.isEmpty()) {
+                        postings.remove(gram);
+                    }
+                }
+            }
+        }
+    }
+}
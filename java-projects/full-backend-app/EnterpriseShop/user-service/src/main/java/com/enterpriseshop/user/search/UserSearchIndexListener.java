@@ -0,0 +1,77 @@
+package com.enterpriseshop.user.search;
+
+import com.enterpriseshop.user.entity.Address;
+import com.enterpriseshop.user.entity.User;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.UUID;
+
+/**
+ * JPA entity listener that keeps {@link UserNgramIndex} in step with User and Address writes
+ *
+ * Hibernate creates this listener through Spring, so the index is injected when
+ * it is enabled and the listener does nothing otherwise. Changes are applied
+ * after the surrounding transaction commits so rolled-back writes never reach
+ * the index.
+ */
+public class UserSearchIndexListener {
+
+    @Autowired
+    private ObjectProvider<UserNgramIndex> ngramIndex;
+
+    @PostPersist
+    @PostUpdate
+    public void onSaved(Object entity) {
+        UserNgramIndex index = ngramIndex.getIfAvailable();
+        if (index == null) {
+            return;
+        }
+
+        if (entity instanceof User user) {
+            UUID userId = user.getId();
+            String fullName = user.getFullName();
+            afterCommit(() -> index.indexUser(userId, fullName));
+        } else if (entity instanceof Address address && address.getUser() != null) {
+            UUID addressId = address.getId();
+            UUID userId = address.getUser().getId();
+            String city = address.getCity();
+            String country = address.getCountry();
+            afterCommit(() -> index.indexAddress(addressId, userId, city, country));
+        }
+    }
+
+    @PostRemove
+    public void onRemoved(Object entity) {
+        UserNgramIndex index = ngramIndex.getIfAvailable();
+        if (index == null) {
+            return;
+        }
+
+        if (entity instanceof User user) {
+            UUID userId = user.getId();
+            afterCommit(() -> index.removeUser(userId));
+        } else if (entity instanceof Address address) {
+            UUID addressId = address.getId();
+            afterCommit(() -> index.removeAddress(addressId));
+        }
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
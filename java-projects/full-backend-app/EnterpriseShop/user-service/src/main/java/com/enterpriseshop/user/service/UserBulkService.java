@@ -0,0 +1,156 @@
+package com.enterpriseshop.user.service;
+
+import com.enterpriseshop.user.cache.UserCache;
+import com.enterpriseshop.user.dto.BulkOperationResult;
+import com.enterpriseshop.user.dto.BulkOperationResult.Outcome;
+import com.enterpriseshop.user.exception.BadRequestException;
+import com.enterpriseshop.user.repository.UserRepository;
+import com.enterpriseshop.user.statistics.UserStatisticsTracker;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.function.LongConsumer;
+import java.util.function.Predicate;
+import java.util.function.ToIntFunction;
+
+/**
+ * Service for status changes applied to many users at once
+ * 
+ * Provides:
+ * - Bulk verification, activation, last-login and soft-delete operations
+ * - One set-based UPDATE ... WHERE id IN (...) per chunk of IDs instead of a
+ *   load and save per user
+ * - A per-ID outcome (updated, unchanged, not found) for every request
+ * 
+ * Each call runs in a single transaction, so either every chunk commits or none does.
+ */
+@Service
+@Transactional
+public class UserBulkService {
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    @Autowired
+    private UserStatisticsTracker statisticsTracker;
+    
+    @Autowired
+    private UserCache userCache;
+    
+    @Value("${user.bulk.chunk-size:500}")
+    private int chunkSize;
+    
+    @Value("${user.bulk.max-ids:10000}")
+    private int maxIds;
+    
+    /**
+     * Set the verification status of many users
+     */
+    public BulkOperationResult updateVerificationStatus(List<UUID> userIds, boolean isVerified) {
+        LocalDateTime now = LocalDateTime.now();
+        return execute(userIds,
+                status -> status.getVerified() != isVerified,
+                chunk -> userRepository.updateVerifiedByIdIn(chunk, isVerified, now),
+                rows -> statisticsTracker.applyAfterCommit(0, 0, isVerified ? rows : -rows));
+    }
+    
+    /**
+     * Set the active status of many users
+     */
+    public BulkOperationResult updateActiveStatus(List<UUID> userIds, boolean isActive) {
+        LocalDateTime now = LocalDateTime.now();
+        return execute(userIds,
+                status -> status.getActive() != isActive,
+                chunk -> userRepository.updateActiveByIdIn(chunk, isActive, now),
+                rows -> statisticsTracker.applyAfterCommit(0, isActive ? rows : -rows, 0));
+    }
+    
+    /**
+     * Stamp the last login time of many users
+     */
+    public BulkOperationResult updateLastLogin(List<UUID> userIds) {
+        LocalDateTime now = LocalDateTime.now();
+        return execute(userIds,
+                status -> true,
+                chunk -> userRepository.updateLastLoginByIdIn(chunk, now),
+                rows -> {});
+    }
+    
+    /**
+     * Soft delete many users by setting them inactive
+     */
+    public BulkOperationResult deleteUsers(List<UUID> userIds) {
+        return updateActiveStatus(userIds, false);
+    }
+    
+    /**
+     * Run a bulk update chunk by chunk and collect per-ID outcomes
+     * 
+     * For each chunk, one query reads the current flags. It decides which IDs
+     * are missing or already in the target state. One UPDATE then writes only
+     * the rest. The UPDATE repeats the state check, so a concurrent change
+     * between the two statements is not counted twice.
+     */
+    private BulkOperationResult execute(List<UUID> userIds,
+                                        Predicate<UserRepository.StatusView> needsUpdate,
+                                        ToIntFunction<List<UUID>> update,
+                                        LongConsumer onUpdated) {
+        List<UUID> ids = distinctIds(userIds);
+        Map<UUID, Outcome> outcomes = new HashMap<>();
+        long updatedRows = 0;
+        
+        for (int from = 0; from < ids.size(); from += chunkSize) {
+            List<UUID> chunk = ids.subList(from, Math.min(from + chunkSize, ids.size()));
+            List<UUID> toUpdate = new ArrayList<>(chunk.size());
+            
+            for (UserRepository.StatusView status : userRepository.findStatusByIdIn(chunk)) {
+                if (needsUpdate.test(status)) {
+                    toUpdate.add(status.getId());
+                    outcomes.put(status.getId(), Outcome.UPDATED);
+                } else {
+                    outcomes.put(status.getId(), Outcome.UNCHANGED);
+                }
+            }
+            
+            if (!toUpdate.isEmpty()) {
+                updatedRows += update.applyAsInt(toUpdate);
+                // Set-based UPDATEs bypass the entity listeners that normally evict
+                userCache.invalidateAfterCommit(toUpdate);
+            }
+        }
+        
+        if (updatedRows > 0) {
+            onUpdated.accept(updatedRows);
+        }
+        
+        List<BulkOperationResult.Item> results = new ArrayList<>(ids.size());
+        for (UUID id : ids) {
+            results.add(new BulkOperationResult.Item(id, outcomes.getOrDefault(id, Outcome.NOT_FOUND)));
+        }
+        return new BulkOperationResult(results);
+    }
+    
+    private List<UUID> distinctIds(List<UUID> userIds) {
+        if (userIds == null || userIds.isEmpty()) {
+            throw new BadRequestException("At least one user ID is required");
+        }
+        if (userIds.stream().anyMatch(Objects::isNull)) {
+            throw new BadRequestException("User IDs must not be null");
+        }
+        List<UUID> ids = new ArrayList<>(new LinkedHashSet<>(userIds));
+        if (ids.size() > maxIds) {
+            throw new BadRequestException("At most " + maxIds + " user IDs can be processed per request");
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,87 @@
+package com.enterpriseshop.user.service;
+
+import com.enterpriseshop.user.entity.User;
+import com.enterpriseshop.user.exception.BadRequestException;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Opaque position in a keyset-paginated user listing
+ *
+ * Holds the sort key value and id of the last user on a page. Clients pass
+ * the encoded form back unchanged to fetch the next page; the next query
+ * seeks past (value, id) instead of skipping an offset.
+ */
+public final class UserCursor {
+
+    private static final String VERSION = "v1";
+    private static final String SEPARATOR = "|";
+
+    private final UserSortKey sortKey;
+    private final Sort.Direction direction;
+    private final UUID id;
+    private final String value;
+
+    private UserCursor(UserSortKey sortKey, Sort.Direction direction, UUID id, String value) {
+        this.sortKey = sortKey;
+        this.direction = direction;
+        this.id = id;
+        this.value = value;
+    }
+
+    /**
+     * Cursor pointing just after the given user
+     */
+    public static UserCursor after(User user, UserSortKey sortKey, Sort.Direction direction) {
+        return new UserCursor(sortKey, direction, user.getId(), sortKey.valueOf(user));
+    }
+
+    /**
+     * Decode a cursor received from a client
+     */
+    public static UserCursor decode(String encoded) {
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(encoded), StandardCharsets.UTF_8);
+            // The value goes last because it may itself contain the separator
+            String[] parts = decoded.split("\\" + SEPARATOR, 5);
+            if (parts.length != 5 || !VERSION.equals(parts[0])) {
+                throw new BadRequestException("Invalid cursor");
+            }
+            return new UserCursor(UserSortKey.fromProperty(parts[1]), Sort.Direction.fromString(parts[2]),
+                    UUID.fromString(parts[3]), parts[4]);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Invalid cursor", e);
+        }
+    }
+
+    public String encode() {
+        String raw = String.join(SEPARATOR, VERSION, sortKey.getProperty(), direction.name(), id.toString(), value);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Reject a cursor issued for a different ordering than the current request
+     */
+    public void requireOrdering(UserSortKey expectedKey, Sort.Direction expectedDirection) {
+        if (sortKey != expectedKey || direction != expectedDirection) {
+            throw new BadRequestException("Cursor was issued for a different sort order");
+        }
+    }
+
+    public ScrollPosition toScrollPosition() {
+        Map<String, Object> keys = new LinkedHashMap<>();
+        try {
+            keys.put(sortKey.getProperty(), sortKey.parse(value));
+        } catch (RuntimeException e) {
+            throw new BadRequestException("Invalid cursor", e);
+        }
+        keys.put("id", id);
+        return ScrollPosition.forward(keys);
+    }
+}
@@ -1,20 +1,44 @@
 package com.enterpriseshop.user.service;
 
+import com.enterpriseshop.user.cache.UserCache;
+import com.enterpriseshop.user.dto.AddressDto;
+import com.enterpriseshop.user.dto.CursorPage;
 import com.enterpriseshop.user.dto.UserDto;
+import com.enterpriseshop.user.dto.UserPreferenceDto;
 import com.enterpriseshop.user.entity.User;
+import com.enterpriseshop.user.repository.AddressRepository;
+import com.enterpriseshop.user.repository.UserPreferenceRepository;
 import com.enterpriseshop.user.repository.UserRepository;
 import com.enterpriseshop.user.exception.ResourceNotFoundException;
 import com.enterpriseshop.user.exception.BadRequestException;
+import com.enterpriseshop.user.login.LastLoginBuffer;
+import com.enterpriseshop.user.search.UserNgramIndex;
+import com.enterpriseshop.user.statistics.UserStatisticsTracker;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Service class for User entity business logic
@@ -24,6 +48,11 @@ import java.util.UUID;
  * - User search and filtering
  * - Business validation
  * - Transaction management
+ * 
+ * Read paths query straight into DTOs (see UserRepository.USER_DTO) rather than
+ * loading entities and copying them. Methods marked readOnly also run with the
+ * Hibernate session read-only and flushing off, which Spring's HibernateJpaDialect
+ * applies, so entities they do load are neither snapshotted nor flushed.
  */
 @Service
 @Transactional
@@ -38,6 +67,30 @@ public class UserService {
     @Autowired
     private UserPreferenceService preferenceService;
     
+    @Autowired
+    private AddressRepository addressRepository;
+    
+    @Autowired
+    private UserPreferenceRepository userPreferenceRepository;
+    
+    @Autowired
+    private UserStatisticsTracker statisticsTracker;
+    
+    @Autowired
+    private LastLoginBuffer lastLoginBuffer;
+    
+    @Autowired
+    private UserCache userCache;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    // Present only when user.search.ngram-index.enabled=true
+    @Autowired(required = false)
+    private UserNgramIndex ngramIndex;
+    
+    private static final int MAX_PAGE_SIZE = 100;
+    
     /**
      * Create a new user profile
      */
@@ -80,35 +133,34 @@ public class UserService {
     
     /**
      * Get user by ID
+     * 
+     * Served from {@link UserCache}. No transaction is opened here, so a cache hit
+     * does not borrow a connection; the repository runs its own on a miss.
      */
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.SUPPORTS)
     public UserDto getUserById(UUID userId) {
-        User user = userRepository.findById(userId)
+        return userCache.getById(userId, userRepository::findDtoById)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found with ID: " + userId));
-        
-        return convertToDto(user);
     }
     
     /**
      * Get user by authentication user ID
      */
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.SUPPORTS)
     public UserDto getUserByAuthUserId(UUID authUserId) {
-        User user = userRepository.findByAuthUserId(authUserId)
+        return userCache.getByAuthUserId(authUserId,
+                        userRepository::findDtoByAuthUserId, userRepository::findDtoById)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found with auth user ID: " + authUserId));
-        
-        return convertToDto(user);
     }
     
     /**
      * Get user by email
      */
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.SUPPORTS)
     public UserDto getUserByEmail(String email) {
-        User user = userRepository.findByEmail(email)
+        return userCache.getByEmail(email,
+                        userRepository::findDtoByEmail, userRepository::findDtoById)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found with email: " + email));
-        
-        return convertToDto(user);
     }
     
     /**
@@ -173,13 +225,17 @@ public class UserService {
     
     /**
      * Update last login timestamp
+     * 
+     * The time is buffered and written with other logins on the next flush of
+     * {@link LastLoginBuffer}; successful logins also arrive via auth-events.
      */
+    @Transactional(readOnly = true)
     public void updateLastLogin(UUID userId) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found with ID: " + userId));
+        if (!userRepository.existsById(userId)) {
+            throw new ResourceNotFoundException("User not found with ID: " + userId);
+        }
         
-        user.setLastLoginAt(LocalDateTime.now());
-        userRepository.save(user);
+        lastLoginBuffer.recordLogin(userId, LocalDateTime.now());
     }
     
     /**
@@ -198,8 +254,7 @@ public class UserService {
      */
     @Transactional(readOnly = true)
     public Page<UserDto> getAllUsers(Pageable pageable) {
-        Page<User> users = userRepository.findAll(pageable);
-        return users.map(this::convertToDto);
+        return userRepository.findAllDtos(pageable);
     }
     
     /**
@@ -207,48 +262,197 @@ public class UserService {
      */
     @Transactional(readOnly = true)
     public Page<UserDto> getActiveUsers(Pageable pageable) {
-        Page<User> users = userRepository.findByIsActiveTrue(pageable);
-        return users.map(this::convertToDto);
+        return userRepository.findActiveDtos(pageable);
+    }
+    
+    /**
+     * Get all users with keyset pagination
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<UserDto> scrollAllUsers(String cursor, int size, String sortBy, String sortDir, boolean includeTotal) {
+        return scrollUsers(cursor, size, sortBy, sortDir, includeTotal, false);
+    }
+    
+    /**
+     * Get active users with keyset pagination
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<UserDto> scrollActiveUsers(String cursor, int size, String sortBy, String sortDir, boolean includeTotal) {
+        return scrollUsers(cursor, size, sortBy, sortDir, includeTotal, true);
     }
     
     /**
-     * Search users by name
+     * Write users as newline-delimited JSON, one row at a time
+     * 
+     * Rows are fetched from a JDBC cursor straight into DTOs, which never enter
+     * the persistence context, so memory stays flat regardless of table size.
      */
     @Transactional(readOnly = true)
-    public List<UserDto> searchUsersByName(String name) {
-        List<User> users = userRepository.findByFullNameContainingIgnoreCase(name);
-        return users.stream().map(this::convertToDto).toList();
+    public long exportUsers(boolean activeOnly, OutputStream out) throws IOException {
+        long exported = 0;
+        try (Stream<UserDto> users = activeOnly ? userRepository.streamActiveDtos() : userRepository.streamAllDtos()) {
+            for (UserDto user : (Iterable<UserDto>) users::iterator) {
+                out.write(objectMapper.writeValueAsBytes(user));
+                out.write('\n');
+                exported++;
+            }
+        }
+        out.flush();
+        return exported;
     }
     
     /**
-     * Search users by city
+     * Search users by name, best match first
      */
     @Transactional(readOnly = true)
-    public List<UserDto> searchUsersByCity(String city) {
-        List<User> users = userRepository.findByCityContainingIgnoreCase(city);
-        return users.stream().map(this::convertToDto).toList();
+    public Page<UserDto> searchUsersByName(String name, Pageable pageable) {
+        if (useNgramIndex()) {
+            return loadRanked(ngramIndex.search(UserNgramIndex.Field.NAME, name), pageable);
+        }
+        return userRepository.searchByName(name, containsPattern(name), pageable).map(this::convertToDto);
     }
     
     /**
-     * Search users by country
+     * Search users by city, best match first
      */
     @Transactional(readOnly = true)
-    public List<UserDto> searchUsersByCountry(String country) {
-        List<User> users = userRepository.findByCountryContainingIgnoreCase(country);
-        return users.stream().map(this::convertToDto).toList();
+    public Page<UserDto> searchUsersByCity(String city, Pageable pageable) {
+        if (useNgramIndex()) {
+            return loadRanked(ngramIndex.search(UserNgramIndex.Field.CITY, city), pageable);
+        }
+        return userRepository.searchByCity(city, containsPattern(city), pageable).map(this::convertToDto);
     }
     
     /**
-     * Get user statistics
+     * Search users by country, best match first
+     */
+    @Transactional(readOnly = true)
+    public Page<UserDto> searchUsersByCountry(String country, Pageable pageable) {
+        if (useNgramIndex()) {
+            return loadRanked(ngramIndex.search(UserNgramIndex.Field.COUNTRY, country), pageable);
+        }
+        return userRepository.searchByCountry(country, containsPattern(country), pageable).map(this::convertToDto);
+    }
+    
+    /**
+     * Search users by any combination of name, city, country and status flags
+     * 
+     * Null or blank filters are ignored. The filters are combined in one query,
+     * so results come in the pageable's sort order rather than ranked, and the
+     * in-process n-gram index is not used.
+     */
+    @Transactional(readOnly = true)
+    public Page<UserDto> searchUsers(String name, String city, String country,
+                                     Boolean isActive, Boolean isVerified, Pageable pageable) {
+        return userRepository.searchDtos(optionalPattern(name), optionalPattern(city), optionalPattern(country),
+                isActive, isVerified, pageable);
+    }
+    
+    /**
+     * Get addresses for a batch of users with a single IN query, grouped by user ID
+     */
+    @Transactional(readOnly = true)
+    public Map<UUID, List<AddressDto>> getAddressesByUserIds(Collection<UUID> userIds) {
+        if (userIds.isEmpty()) {
+            return Map.of();
+        }
+        return addressRepository.findDtosByUserIdIn(userIds).stream()
+                .collect(Collectors.groupingBy(AddressDto::getUserId));
+    }
+    
+    /**
+     * Get preferences for a batch of users with a single IN query, grouped by user ID
+     */
+    @Transactional(readOnly = true)
+    public Map<UUID, List<UserPreferenceDto>> getPreferencesByUserIds(Collection<UUID> userIds) {
+        if (userIds.isEmpty()) {
+            return Map.of();
+        }
+        return userPreferenceRepository.findDtosByUserIdIn(userIds).stream()
+                .collect(Collectors.groupingBy(UserPreferenceDto::getUserId));
+    }
+    
+    /**
+     * Get user statistics, served from in-memory counters
      */
     @Transactional(readOnly = true)
     public UserStatistics getUserStatistics() {
-        long totalUsers = userRepository.count();
-        long activeUsers = userRepository.countByIsActive(true);
-        long verifiedUsers = userRepository.countByIsVerified(true);
-        long unverifiedUsers = userRepository.countByIsVerified(false);
+        return statisticsTracker.getStatistics();
+    }
+    
+    /**
+     * Fetch one keyset page ordered by (sortKey, id)
+     */
+    private CursorPage<UserDto> scrollUsers(String cursor, int size, String sortBy, String sortDir,
+                                            boolean includeTotal, boolean activeOnly) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new BadRequestException("Page size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        
+        UserSortKey sortKey = UserSortKey.fromProperty(sortBy);
+        Sort.Direction direction = sortDir.equalsIgnoreCase("desc") ? Sort.Direction.DESC : Sort.Direction.ASC;
+        // id breaks ties so every row has a unique position
+        Sort sort = Sort.by(direction, sortKey.getProperty(), "id");
+        
+        ScrollPosition position = ScrollPosition.keyset();
+        if (cursor != null && !cursor.isBlank()) {
+            UserCursor decoded = UserCursor.decode(cursor);
+            decoded.requireOrdering(sortKey, direction);
+            position = decoded.toScrollPosition();
+        }
+        
+        Window<User> window = activeOnly
+                ? userRepository.findByIsActiveTrue(position, sort, Limit.of(size))
+                : userRepository.findAllBy(position, sort, Limit.of(size));
+        
+        List<User> users = window.getContent();
+        String nextCursor = window.hasNext() && !users.isEmpty()
+                ? UserCursor.after(users.get(users.size() - 1), sortKey, direction).encode()
+                : null;
+        
+        Long total = null;
+        if (includeTotal) {
+            total = activeOnly ? userRepository.countByIsActive(true) : userRepository.count();
+        }
+        
+        return new CursorPage<>(users.stream().map(this::convertToDto).toList(), nextCursor, window.hasNext(), users.size(), total);
+    }
+    
+    private boolean useNgramIndex() {
+        return ngramIndex != null && ngramIndex.isReady();
+    }
+    
+    /**
+     * Load one page of users from ids already ranked by the in-process index
+     */
+    private Page<UserDto> loadRanked(List<UUID> rankedIds, Pageable pageable) {
+        int from = (int) Math.min(pageable.getOffset(), rankedIds.size());
+        int to = Math.min(from + pageable.getPageSize(), rankedIds.size());
+        List<UUID> pageIds = rankedIds.subList(from, to);
+        
+        Map<UUID, UserDto> users = userRepository.findDtosByIdIn(pageIds).stream()
+                .collect(Collectors.toMap(UserDto::getId, Function.identity()));
+        List<UserDto> content = pageIds.stream()
+                .map(users::get)
+                .filter(user -> user != null)
+                .toList();
         
-        return new UserStatistics(totalUsers, activeUsers, verifiedUsers, unverifiedUsers);
+        return new PageImpl<>(content, pageable, rankedIds.size());
+    }
+    
+    /**
+     * Lower-cased LIKE pattern matching the query anywhere, with wildcards in the query escaped
+     */
+    private static String optionalPattern(String query) {
+        return query == null || query.isBlank() ? null : containsPattern(query);
+    }
+    
+    private static String containsPattern(String query) {
+        String escaped = query.trim().toLowerCase(Locale.ROOT)
+                .replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+        return "%" + escaped + "%";
     }
     
     /**
@@ -272,9 +476,8 @@ public class UserService {
         dto.setCreatedAt(user.getCreatedAt());
         dto.setUpdatedAt(user.getUpdatedAt());
         
-        // Convert addresses and preferences if needed
-        // Note: This could be made configurable to avoid N+1 queries
-        // For now, we'll leave them null and let the controller decide when to load them
+        // Addresses and preferences are left null here to avoid N+1 queries.
+        // GraphQL loads them per page via getAddressesByUserIds / getPreferencesByUserIds.
         
         return dto;
     }
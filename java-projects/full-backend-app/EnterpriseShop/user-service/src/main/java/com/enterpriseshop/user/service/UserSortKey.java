@@ -0,0 +1,64 @@
+package com.enterpriseshop.user.service;
+
+import com.enterpriseshop.user.entity.User;
+import com.enterpriseshop.user.exception.BadRequestException;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Columns a user listing may be sorted by
+ *
+ * Only non-null, indexed columns are allowed so that keyset pagination
+ * on (sortKey, id) stays stable and cannot be turned into a full scan
+ * by an arbitrary sort property.
+ */
+public enum UserSortKey {
+
+    FIRST_NAME("firstName", User::getFirstName, value -> value),
+    LAST_NAME("lastName", User::getLastName, value -> value),
+    EMAIL("email", User::getEmail, value -> value),
+    CREATED_AT("createdAt", User::getCreatedAt, LocalDateTime::parse);
+
+    private final String property;
+    private final Function<User, Object> extractor;
+    private final Function<String, Object> parser;
+
+    UserSortKey(String property, Function<User, Object> extractor, Function<String, Object> parser) {
+        this.property = property;
+        this.extractor = extractor;
+        this.parser = parser;
+    }
+
+    public String getProperty() {
+        return property;
+    }
+
+    /**
+     * Read this key's value from a user, as a string suitable for a cursor
+     */
+    public String valueOf(User user) {
+        Object value = extractor.apply(user);
+        return value != null ? value.toString() : null;
+    }
+
+    /**
+     * Convert a cursor value back to the property's Java type
+     */
+    public Object parse(String value) {
+        return parser.apply(value);
+    }
+
+    /**
+     * Resolve a request's sortBy parameter
+     */
+    public static UserSortKey fromProperty(String property) {
+        return Arrays.stream(values())
+                .filter(key -> key.property.equals(property))
+                .findFirst()
+                .orElseThrow(() -> new BadRequestException("Unsupported sort property: " + property
+                        + ". Allowed: " + Arrays.stream(values()).map(UserSortKey::getProperty).collect(Collectors.joining(", "))));
+    }
+}
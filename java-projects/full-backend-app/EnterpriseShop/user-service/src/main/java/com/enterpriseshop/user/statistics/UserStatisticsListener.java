@@ -0,0 +1,59 @@
+package com.enterpriseshop.user.statistics;
+
+import com.enterpriseshop.user.entity.User;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * JPA entity listener that turns User writes into {@link UserStatisticsTracker} deltas
+ *
+ * The entity remembers its active/verified flags as loaded, so an update only
+ * moves the counters whose flag actually changed. Deltas are applied after
+ * commit so rolled-back writes are never counted.
+ */
+public class UserStatisticsListener {
+
+    @Autowired
+    private ObjectProvider<UserStatisticsTracker> tracker;
+
+    @PostLoad
+    public void onLoad(User user) {
+        user.markPersistedState();
+    }
+
+    @PostPersist
+    public void onPersist(User user) {
+        apply(1, flag(user.isActive()), flag(user.isVerified()));
+        user.markPersistedState();
+    }
+
+    @PostUpdate
+    public void onUpdate(User user) {
+        int activeDelta = flag(user.isActive()) - flag(user.wasPersistedActive());
+        int verifiedDelta = flag(user.isVerified()) - flag(user.wasPersistedVerified());
+        if (activeDelta != 0 || verifiedDelta != 0) {
+            apply(0, activeDelta, verifiedDelta);
+        }
+        user.markPersistedState();
+    }
+
+    @PostRemove
+    public void onRemove(User user) {
+        apply(-1, -flag(user.wasPersistedActive()), -flag(user.wasPersistedVerified()));
+    }
+
+    private void apply(int totalDelta, int activeDelta, int verifiedDelta) {
+        UserStatisticsTracker statistics = tracker.getIfAvailable();
+        if (statistics != null) {
+            statistics.applyAfterCommit(totalDelta, activeDelta, verifiedDelta);
+        }
+    }
+
+    private static int flag(boolean value) {
+        return value ? 1 : 0;
+    }
+}
@@ -0,0 +1,124 @@
+package com.enterpriseshop.user.statistics;
+
+import com.enterpriseshop.user.repository.UserRepository;
+import com.enterpriseshop.user.service.UserService;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import jakarta.annotation.PostConstruct;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory user statistics
+ *
+ * Counters are:
+ * - Seeded from one aggregate query when the application is ready
+ * - Adjusted after each committed create, update or delete, by {@link UserStatisticsListener}
+ *   for entity writes and by bulk operations for set-based UPDATEs
+ * - Reconciled against the database on a fixed interval, which also picks up
+ *   writes made by other instances
+ *
+ * Until the first reconciliation completes, reads go to the database.
+ */
+@Component
+public class UserStatisticsTracker {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserStatisticsTracker.class);
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final AtomicLong totalUsers = new AtomicLong();
+    private final AtomicLong activeUsers = new AtomicLong();
+    private final AtomicLong verifiedUsers = new AtomicLong();
+
+    private volatile boolean ready;
+
+    @PostConstruct
+    public void registerGauges() {
+        Gauge.builder("user.statistics.users", totalUsers, AtomicLong::get).tag("status", "total").register(meterRegistry);
+        Gauge.builder("user.statistics.users", activeUsers, AtomicLong::get).tag("status", "active").register(meterRegistry);
+        Gauge.builder("user.statistics.users", verifiedUsers, AtomicLong::get).tag("status", "verified").register(meterRegistry);
+    }
+
+    /**
+     * Current statistics, served from memory once seeded
+     */
+    public UserService.UserStatistics getStatistics() {
+        if (!ready) {
+            UserRepository.StatisticsView counts = userRepository.countStatistics();
+            return new UserService.UserStatistics(counts.getTotalUsers(), counts.getActiveUsers(),
+                    counts.getVerifiedUsers(), counts.getTotalUsers() - counts.getVerifiedUsers());
+        }
+        long total = totalUsers.get();
+        long verified = verifiedUsers.get();
+        return new UserService.UserStatistics(total, activeUsers.get(), verified, total - verified);
+    }
+
+    /**
+     * Apply a change once the current transaction commits, or immediately outside one
+     */
+    public void applyAfterCommit(long totalDelta, long activeDelta, long verifiedDelta) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            apply(totalDelta, activeDelta, verifiedDelta);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                apply(totalDelta, activeDelta, verifiedDelta);
+            }
+        });
+    }
+
+    private void apply(long totalDelta, long activeDelta, long verifiedDelta) {
+        totalUsers.addAndGet(totalDelta);
+        activeUsers.addAndGet(activeDelta);
+        verifiedUsers.addAndGet(verifiedDelta);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        reconcile();
+    }
+
+    /**
+     * Replace the counters with the database totals
+     *
+     * Changes committed while the aggregate query runs may be counted twice or
+     * not at all; the next pass corrects them.
+     */
+    @Scheduled(fixedDelayString = "${user.statistics.reconcile-interval-ms:300000}",
+               initialDelayString = "${user.statistics.reconcile-interval-ms:300000}")
+    public void reconcile() {
+        try {
+            UserRepository.StatisticsView counts = userRepository.countStatistics();
+            long drift = Math.abs(counts.getTotalUsers() - totalUsers.get())
+                    + Math.abs(counts.getActiveUsers() - activeUsers.get())
+                    + Math.abs(counts.getVerifiedUsers() - verifiedUsers.get());
+
+            totalUsers.set(counts.getTotalUsers());
+            activeUsers.set(counts.getActiveUsers());
+            verifiedUsers.set(counts.getVerifiedUsers());
+
+            if (ready && drift > 0) {
+                logger.debug("Reconciled user statistics, corrected drift of {}", drift);
+            }
+            ready = true;
+        } catch (Exception e) {
+            logger.warn("Failed to reconcile user statistics: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,26 @@
+-- Search indexes for user-service
+--
+-- Name, city and country search use substring matching, which a btree index
+-- cannot serve. Trigram (pg_trgm) GIN indexes on the lower-cased expressions
+-- let Postgres answer LIKE '%q%' and rank by similarity() from the index.
+--
+-- The indexes are built CONCURRENTLY so users and addresses stay writable while
+-- they build. CONCURRENTLY cannot run inside a transaction, so this script runs
+-- without one (see V1__user_search_indexes.sql.conf). If a build fails it leaves
+-- an INVALID index behind; drop it before re-running the migration.
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+-- Full name: must match the expression used in UserRepository.searchByName
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_user_full_name_trgm
+    ON users USING gin (lower(first_name || ' ' || last_name) gin_trgm_ops);
+
+-- Whole-word name search (e.g. "john smith" in either order)
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_user_full_name_fts
+    ON users USING gin (to_tsvector('simple', first_name || ' ' || last_name));
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_address_city_trgm
+    ON addresses USING gin (lower(city) gin_trgm_ops);
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_address_country_trgm
+    ON addresses USING gin (lower(country) gin_trgm_ops);